@@ -0,0 +1,136 @@
+package org.folio.inventory.benchmarks;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.lang.reflect.Proxy;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+
+import org.apache.commons.io.IOUtils;
+import org.folio.inventory.common.WebContext;
+
+import io.vertx.core.MultiMap;
+import io.vertx.core.http.HttpServerRequest;
+import io.vertx.core.json.JsonObject;
+import io.vertx.ext.web.RoutingContext;
+
+/**
+ * Realistic records and requests for the benchmarks, loaded from the
+ * benchmarks resources (which include the sample data MODS files)
+ */
+public class Fixtures {
+  private static final String RESOURCE_DIRECTORY = "benchmarks";
+  private static final String MODS_RECORDS_ELEMENT = "mods_records";
+
+  private Fixtures() { }
+
+  public static JsonObject json(String name) {
+    return new JsonObject(resource(name));
+  }
+
+  /**
+   * Copies of the record, each with a new id
+   */
+  public static List<JsonObject> copies(JsonObject record, int count) {
+    List<JsonObject> copies = new ArrayList<>(count);
+
+    for (int copy = 0; copy < count; copy++) {
+      copies.add(record.copy().put("id", UUID.randomUUID().toString()));
+    }
+
+    return copies;
+  }
+
+  /**
+   * The sample data MODS records, repeated so that a file of any size
+   * can be parsed
+   */
+  public static String scaledModsRecords(int copies) {
+    String sample = resource("mods/multiple-mods-records.xml");
+
+    String openingElement = "<" + MODS_RECORDS_ELEMENT + ">";
+    String closingElement = "</" + MODS_RECORDS_ELEMENT + ">";
+
+    int recordsStart = sample.indexOf(openingElement) + openingElement.length();
+    int recordsEnd = sample.lastIndexOf(closingElement);
+
+    String records = sample.substring(recordsStart, recordsEnd);
+
+    StringBuilder scaled = new StringBuilder(sample.length() * copies)
+      .append(sample, 0, recordsStart);
+
+    for (int copy = 0; copy < copies; copy++) {
+      scaled.append(records);
+    }
+
+    return scaled.append(sample.substring(recordsEnd)).toString();
+  }
+
+  /**
+   * A context for a request, as received from Okapi, to the path
+   */
+  public static WebContext webContext(String path) {
+    MultiMap headers = MultiMap.caseInsensitiveMultiMap()
+      .add("X-Okapi-Tenant", "diku")
+      .add("X-Okapi-Token", "benchmark-token")
+      .add("X-Okapi-Url", "http://localhost:9130");
+
+    HttpServerRequest request = stub(HttpServerRequest.class,
+      (method, arguments) -> {
+        switch (method) {
+          case "absoluteURI":
+            return "http://localhost:9403" + path;
+          case "headers":
+            return headers;
+          case "getHeader":
+            return headers.get((String) arguments[0]);
+          case "getParam":
+            return null;
+          default:
+            throw new UnsupportedOperationException(method);
+        }
+      });
+
+    RoutingContext routingContext = stub(RoutingContext.class,
+      (method, arguments) -> {
+        if (method.equals("request")) {
+          return request;
+        }
+
+        throw new UnsupportedOperationException(method);
+      });
+
+    return new WebContext(routingContext);
+  }
+
+  private static String resource(String name) {
+    String path = RESOURCE_DIRECTORY + "/" + name;
+
+    try (InputStream stream = Fixtures.class.getClassLoader()
+      .getResourceAsStream(path)) {
+
+      if (stream == null) {
+        throw new IllegalStateException(
+          String.format("Benchmark fixture %s not found", path));
+      }
+
+      return IOUtils.toString(stream, StandardCharsets.UTF_8.name());
+    }
+    catch (IOException e) {
+      throw new IllegalStateException(
+        String.format("Unable to read benchmark fixture %s", path), e);
+    }
+  }
+
+  private interface StubMethod {
+    Object invoke(String method, Object[] arguments);
+  }
+
+  private static <T> T stub(Class<T> type, StubMethod method) {
+    return type.cast(Proxy.newProxyInstance(Fixtures.class.getClassLoader(),
+      new Class<?>[] { type },
+      (proxy, invoked, arguments) -> method.invoke(invoked.getName(), arguments)));
+  }
+}
@@ -0,0 +1,61 @@
+package org.folio.inventory.parsing;
+
+import java.io.IOException;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.folio.inventory.benchmarks.Fixtures;
+import org.folio.inventory.exceptions.InvalidMarcConfigException;
+import org.folio.inventory.exceptions.InvalidMarcJsonException;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import io.vertx.core.json.JsonObject;
+
+/**
+ * Parsing of uploaded MODS files (the sample data, repeated to the
+ * requested number of copies) and of a MARC JSON record
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ParsingBenchmark {
+  @Param({ "1", "100" })
+  public int sampleDataCopies;
+
+  private final ModsParser modsParser
+    = new ModsParser(new UTF8LiteralCharacterEncoding());
+
+  private MarcParser marcParser;
+  private String modsRecords;
+  private JsonObject marcRecord;
+
+  @Setup
+  public void setUp() throws IOException, InvalidMarcConfigException {
+    modsRecords = Fixtures.scaledModsRecords(sampleDataCopies);
+    marcParser = new MarcParser();
+    marcRecord = Fixtures.json("marc/test-input_01a.json");
+  }
+
+  @Benchmark
+  public List<JsonObject> modsRecords() throws IOException {
+    return modsParser.parseRecords(modsRecords);
+  }
+
+  @Benchmark
+  public JsonObject marcRecord() throws InvalidMarcJsonException {
+    return marcParser.marcJson2FolioJson(marcRecord);
+  }
+}
@@ -0,0 +1,100 @@
+package org.folio.inventory.resources;
+
+import static org.folio.inventory.support.JsonArrayHelper.toList;
+import static org.folio.inventory.support.JsonArrayHelper.toListOfStrings;
+
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+
+import org.folio.inventory.benchmarks.Fixtures;
+import org.folio.inventory.common.WebContext;
+import org.folio.inventory.common.domain.MultipleRecords;
+import org.folio.inventory.domain.instances.Contributor;
+import org.folio.inventory.domain.instances.Identifier;
+import org.folio.inventory.domain.instances.Instance;
+import org.folio.inventory.domain.instances.InstanceRelationshipToChild;
+import org.folio.inventory.domain.instances.InstanceRelationshipToParent;
+import org.folio.inventory.domain.instances.Publication;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import io.vertx.core.json.JsonObject;
+
+/**
+ * Representation of a page of instances, as returned by
+ * GET /inventory/instances
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class InstancesBenchmark {
+  @Param({ "10", "200" })
+  public int pageSize;
+
+  private final Instances instances = new Instances(null, null, null);
+
+  private MultipleRecords<Instance> pageOfInstances;
+  private final Map<String, List<InstanceRelationshipToParent>> parents
+    = Collections.emptyMap();
+  private final Map<String, List<InstanceRelationshipToChild>> children
+    = Collections.emptyMap();
+  private WebContext context;
+
+  @Setup
+  public void setUp() {
+    List<Instance> records = Fixtures.copies(Fixtures.json("instance.json"), pageSize)
+      .stream()
+      .map(InstancesBenchmark::toInstance)
+      .collect(Collectors.toList());
+
+    pageOfInstances = new MultipleRecords<>(records, pageSize * 10);
+
+    context = Fixtures.webContext("/inventory/instances");
+  }
+
+  @Benchmark
+  public JsonObject pageOfInstances() {
+    return instances.toRepresentation(pageOfInstances, parents, children,
+      context);
+  }
+
+  private static Instance toInstance(JsonObject json) {
+    return new Instance(
+      json.getString("id"),
+      json.getString("hrid"),
+      json.getString(Instance.SOURCE_KEY),
+      json.getString(Instance.TITLE_KEY),
+      json.getString(Instance.INSTANCE_TYPE_ID_KEY))
+      .setIndexTitle(json.getString(Instance.INDEX_TITLE_KEY))
+      .setIdentifiers(toList(json.getJsonArray(Instance.IDENTIFIERS_KEY)).stream()
+        .map(Identifier::new)
+        .collect(Collectors.toList()))
+      .setContributors(toList(json.getJsonArray(Instance.CONTRIBUTORS_KEY)).stream()
+        .map(Contributor::new)
+        .collect(Collectors.toList()))
+      .setSubjects(toListOfStrings(json.getJsonArray(Instance.SUBJECTS_KEY)))
+      .setPublication(toList(json.getJsonArray(Instance.PUBLICATION_KEY)).stream()
+        .map(Publication::new)
+        .collect(Collectors.toList()))
+      .setEditions(toListOfStrings(json.getJsonArray(Instance.EDITIONS_KEY)))
+      .setPhysicalDescriptions(toListOfStrings(json.getJsonArray(Instance.PHYSICAL_DESCRIPTIONS_KEY)))
+      .setLanguages(toListOfStrings(json.getJsonArray(Instance.LANGUAGES_KEY)))
+      .setNotes(toListOfStrings(json.getJsonArray(Instance.NOTES_KEY)))
+      .setStatisticalCodeIds(toListOfStrings(json.getJsonArray(Instance.STATISTICAL_CODE_IDS_KEY)));
+  }
+}
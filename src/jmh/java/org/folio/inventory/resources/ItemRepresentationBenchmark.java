@@ -0,0 +1,150 @@
+package org.folio.inventory.resources;
+
+import static org.folio.inventory.support.JsonArrayHelper.toList;
+import static org.folio.inventory.support.JsonArrayHelper.toListOfStrings;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+
+import org.folio.inventory.benchmarks.Fixtures;
+import org.folio.inventory.common.WebContext;
+import org.folio.inventory.common.domain.MultipleRecords;
+import org.folio.inventory.domain.items.CirculationNote;
+import org.folio.inventory.domain.items.Item;
+import org.folio.inventory.domain.items.Note;
+import org.folio.inventory.domain.items.Status;
+import org.folio.inventory.domain.sharedproperties.ElectronicAccess;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import io.vertx.core.json.JsonObject;
+
+/**
+ * Representation of a page of items, as returned by GET /inventory/items,
+ * with each item in its own holding and instance
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ItemRepresentationBenchmark {
+  @Param({ "10", "200" })
+  public int pageSize;
+
+  private final ItemRepresentation representation
+    = new ItemRepresentation("/inventory/items");
+
+  private MultipleRecords<Item> items;
+  private List<JsonObject> holdings;
+  private List<JsonObject> instances;
+  private Map<String, JsonObject> materialTypes;
+  private Map<String, JsonObject> loanTypes;
+  private Map<String, JsonObject> locations;
+  private WebContext context;
+
+  @Setup
+  public void setUp() {
+    JsonObject item = Fixtures.json("item.json");
+    JsonObject holding = Fixtures.json("holding.json");
+    JsonObject instance = Fixtures.json("instance.json");
+    JsonObject referenceData = Fixtures.json("reference-data.json");
+
+    List<Item> pageOfItems = new ArrayList<>(pageSize);
+    holdings = new ArrayList<>(pageSize);
+    instances = new ArrayList<>(pageSize);
+
+    for (int index = 0; index < pageSize; index++) {
+      String instanceId = UUID.randomUUID().toString();
+      String holdingId = UUID.randomUUID().toString();
+
+      instances.add(instance.copy().put("id", instanceId));
+
+      holdings.add(holding.copy()
+        .put("id", holdingId)
+        .put("instanceId", instanceId));
+
+      pageOfItems.add(toItem(item.copy()
+        .put("id", UUID.randomUUID().toString())
+        .put("holdingsRecordId", holdingId)));
+    }
+
+    items = new MultipleRecords<>(pageOfItems, pageSize * 10);
+
+    materialTypes = byId(referenceData.getJsonObject("materialType"));
+
+    loanTypes = byId(referenceData.getJsonObject("permanentLoanType"));
+    loanTypes.putAll(byId(referenceData.getJsonObject("temporaryLoanType")));
+
+    locations = byId(referenceData.getJsonObject("location"));
+
+    context = Fixtures.webContext("/inventory/items");
+  }
+
+  @Benchmark
+  public JsonObject pageOfItems() {
+    return representation.toJson(items, holdings, instances, materialTypes,
+      loanTypes, locations, locations, context);
+  }
+
+  private static Map<String, JsonObject> byId(JsonObject record) {
+    Map<String, JsonObject> records = new HashMap<>();
+
+    records.put(record.getString("id"), record);
+
+    return records;
+  }
+
+  private static Item toItem(JsonObject json) {
+    return new Item(
+      json.getString("id"),
+      json.getString("holdingsRecordId"),
+      new Status(json.getJsonObject("status")),
+      json.getString("materialTypeId"),
+      json.getString("permanentLoanTypeId"),
+      json.getJsonObject("metadata"))
+      .setHrid(json.getString(Item.HRID_KEY))
+      .setFormerIds(toListOfStrings(json.getJsonArray(Item.FORMER_IDS_KEY)))
+      .setDiscoverySuppress(json.getBoolean(Item.DISCOVERY_SUPPRESS_KEY))
+      .setBarcode(json.getString("barcode"))
+      .setItemLevelCallNumber(json.getString(Item.ITEM_LEVEL_CALL_NUMBER_KEY))
+      .setItemLevelCallNumberPrefix(json.getString(Item.ITEM_LEVEL_CALL_NUMBER_PREFIX_KEY))
+      .setItemLevelCallNumberSuffix(json.getString(Item.ITEM_LEVEL_CALL_NUMBER_SUFFIX_KEY))
+      .setVolume(json.getString(Item.VOLUME_KEY))
+      .setEnumeration(json.getString("enumeration"))
+      .setChronology(json.getString("chronology"))
+      .setCopyNumbers(toListOfStrings(json.getJsonArray("copyNumbers")))
+      .setNumberOfPieces(json.getString("numberOfPieces"))
+      .setDescriptionOfPieces(json.getString(Item.DESCRIPTION_OF_PIECES_KEY))
+      .setNotes(toList(json.getJsonArray(Item.NOTES_KEY)).stream()
+        .map(Note::new)
+        .collect(Collectors.toList()))
+      .setCirculationNotes(toList(json.getJsonArray(Item.CIRCULATION_NOTES_KEY)).stream()
+        .map(CirculationNote::new)
+        .collect(Collectors.toList()))
+      .setPermanentLocationId(json.getString("permanentLocationId"))
+      .setTemporaryLoanTypeId(json.getString("temporaryLoanTypeId"))
+      .setAccessionNumber(json.getString(Item.ACCESSION_NUMBER_KEY))
+      .setItemIdentifier(json.getString(Item.ITEM_IDENTIFIER_KEY))
+      .setYearCaption(toListOfStrings(json.getJsonArray(Item.YEAR_CAPTION_KEY)))
+      .setElectronicAccess(toList(json.getJsonArray(Item.ELECTRONIC_ACCESS_KEY)).stream()
+        .map(ElectronicAccess::new)
+        .collect(Collectors.toList()))
+      .setStatisticalCodeIds(toListOfStrings(json.getJsonArray(Item.STATISTICAL_CODE_IDS_KEY)));
+  }
+}
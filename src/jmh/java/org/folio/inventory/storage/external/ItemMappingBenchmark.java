@@ -0,0 +1,54 @@
+package org.folio.inventory.storage.external;
+
+import java.util.concurrent.TimeUnit;
+
+import org.folio.inventory.benchmarks.Fixtures;
+import org.folio.inventory.domain.items.Item;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import io.vertx.core.json.JsonObject;
+
+/**
+ * Mapping of a single item to and from the representation used by
+ * item storage
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ItemMappingBenchmark {
+  //Mapping does not make requests, so no client is needed
+  private final ExternalStorageModuleItemCollection collection
+    = new ExternalStorageModuleItemCollection(null, "http://localhost:9130",
+      "diku", "benchmark-token", null);
+
+  private JsonObject storageItem;
+  private Item item;
+
+  @Setup
+  public void setUp() {
+    storageItem = Fixtures.json("item.json");
+    item = collection.mapFromJson(storageItem);
+  }
+
+  @Benchmark
+  public Item mapFromJson() {
+    return collection.mapFromJson(storageItem);
+  }
+
+  @Benchmark
+  public JsonObject mapToRequest() {
+    return collection.mapToRequest(item);
+  }
+}
@@ -0,0 +1,48 @@
+package org.folio.inventory.support;
+
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Building the query used to fetch related records by id, for a single
+ * record and for the largest number of ids sent in one request
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class CqlHelperBenchmark {
+  @Param({ "1", "50" })
+  public int numberOfIds;
+
+  private List<String> ids;
+
+  @Setup
+  public void setUp() {
+    ids = Stream.generate(() -> UUID.randomUUID().toString())
+      .limit(numberOfIds)
+      .collect(Collectors.toList());
+  }
+
+  @Benchmark
+  public String multipleRecordsCqlQuery() {
+    return CqlHelper.multipleRecordsCqlQuery(ids);
+  }
+}
@@ -10,14 +10,28 @@ import io.vertx.core.json.JsonObject;
 import io.vertx.core.logging.Logger;
 import io.vertx.core.logging.LoggerFactory;
 import io.vertx.ext.web.Router;
+import org.folio.inventory.common.AccessLog;
+import org.folio.inventory.common.SharedResources;
 import org.folio.inventory.common.WebRequestDiagnostics;
+import org.folio.inventory.common.WorkerPool;
+import org.folio.inventory.common.metrics.InventoryMetrics;
 import org.folio.inventory.domain.ingest.IngestMessageProcessor;
+import org.folio.inventory.resources.AdminMetrics;
 import org.folio.inventory.resources.Instances;
 import org.folio.inventory.resources.Items;
 import org.folio.inventory.resources.ingest.ModsIngestion;
 import org.folio.inventory.storage.Storage;
+import org.folio.inventory.storage.external.ReferenceDataCache;
+import org.folio.inventory.support.http.client.HttpClientConfiguration;
+import org.folio.inventory.support.http.client.StorageReadPolicy;
+import org.folio.inventory.support.http.client.StorageRequestLimits;
+import org.folio.inventory.support.http.server.EntityTagCache;
+import org.folio.inventory.support.http.server.HttpServerConfiguration;
 
 import java.lang.invoke.MethodHandles;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
 
 public class InventoryVerticle extends AbstractVerticle {
   private HttpServer server;
@@ -30,8 +44,6 @@ public class InventoryVerticle extends AbstractVerticle {
 
     Router router = Router.router(vertx);
 
-    server = vertx.createHttpServer();
-
     JsonObject config = vertx.getOrCreateContext().config();
 
     log.info("Received Config");
@@ -39,17 +51,53 @@ public class InventoryVerticle extends AbstractVerticle {
     config.fieldNames().stream().forEach(key ->
       log.info(String.format("%s:%s", key, config.getValue(key).toString())));
 
-    HttpClient client = vertx.createHttpClient();
+    server = vertx.createHttpServer(HttpServerConfiguration.fromConfig(config));
+
+    //Each instance has its own client, on its own event loop, sharing limits with the others
+    HttpClient client = vertx.createHttpClient(
+      HttpClientConfiguration.fromConfig(config));
+
+    StorageRequestLimits storageRequestLimits = SharedResources.getOrCreate(
+      vertx, "storage-request-limits", () -> StorageRequestLimits.fromConfig(config))
+      .attachTo(client);
+
+    StorageReadPolicy storageReadPolicy = SharedResources.getOrCreate(
+      vertx, "storage-read-policy", () -> StorageReadPolicy.fromConfig(vertx, config))
+      .attachTo(client);
+
+    AccessLog accessLog = AccessLog.shared(vertx, config).attachTo(client);
+
+    List<WorkerPool> workerPools = Arrays.asList(
+      WorkerPool.shared(vertx, config, WorkerPool.PARSE),
+      WorkerPool.shared(vertx, config, WorkerPool.INGEST_WRITE),
+      WorkerPool.shared(vertx, config, WorkerPool.ACCESS_LOG));
+
+    //Metrics cover every instance, so are only logged by one of them
+    if(SharedResources.claim(vertx, "metrics-logging")) {
+      logHttpClientPoolMetrics(log, config);
+      logStorageRequestLimits(log, config, storageRequestLimits, storageReadPolicy);
+      logWorkerPools(log, config, workerPools);
+    }
 
     Storage storage = Storage.basedUpon(vertx, config, client);
 
-    new IngestMessageProcessor(storage).register(vertx.eventBus());
+    ReferenceDataCache referenceDataCache = SharedResources.getOrCreate(
+      vertx, "reference-data-cache", () -> ReferenceDataCache.fromConfig(config));
+
+    EntityTagCache entityTagCache = SharedResources.getOrCreate(
+      vertx, "entity-tag-cache", () -> EntityTagCache.fromConfig(config));
+
+    new IngestMessageProcessor(storage, config).register(vertx.eventBus());
 
-    router.route().handler(WebRequestDiagnostics::outputDiagnostics);
+    //Before diagnostics, so that frequent scraping of metrics is not logged
+    new AdminMetrics(vertx, storageRequestLimits, storageReadPolicy, workerPools,
+      accessLog).register(router);
 
-    new ModsIngestion(storage, client).register(router);
-    new Items(storage, client).register(router);
-    new Instances(storage, client).register(router);
+    router.route().handler(new WebRequestDiagnostics(accessLog));
+
+    new ModsIngestion(storage, client, config).register(router);
+    new Items(storage, client, referenceDataCache, entityTagCache).register(router);
+    new Instances(storage, client, entityTagCache).register(router);
 
     Handler<AsyncResult<HttpServer>> onHttpServerStart = result -> {
       if (result.succeeded()) {
@@ -64,6 +112,66 @@ public class InventoryVerticle extends AbstractVerticle {
       .listen(config.getInteger("port"), onHttpServerStart);
   }
 
+  private void logHttpClientPoolMetrics(Logger log, JsonObject config) {
+    int interval = HttpClientConfiguration.metricsLogIntervalSeconds(config);
+
+    if(interval <= 0) {
+      return;
+    }
+
+    InventoryMetrics.from(vertx).ifPresent(metrics ->
+      vertx.setPeriodic(TimeUnit.SECONDS.toMillis(interval), timerId ->
+        metrics.getHttpClients().forEach(client ->
+          client.getEndpoints().forEach(endpoint -> {
+            String message = String.format("HTTP client pool: %s",
+              endpoint.toJson().encode());
+
+            if(endpoint.isSaturated()) {
+              log.warn(message);
+            }
+            else {
+              log.info(message);
+            }
+          }))));
+  }
+
+  private void logStorageRequestLimits(
+    Logger log,
+    JsonObject config,
+    StorageRequestLimits limits,
+    StorageReadPolicy readPolicy) {
+
+    int interval = HttpClientConfiguration.metricsLogIntervalSeconds(config);
+
+    if(interval <= 0) {
+      return;
+    }
+
+    vertx.setPeriodic(TimeUnit.SECONDS.toMillis(interval), timerId ->
+      log.info(String.format("Storage request limits: %s, reads: %s",
+        limits.toJson().encode(), readPolicy.toJson().encode())));
+  }
+
+  private void logWorkerPools(Logger log, JsonObject config, List<WorkerPool> pools) {
+    int interval = HttpClientConfiguration.metricsLogIntervalSeconds(config);
+
+    if(interval <= 0) {
+      return;
+    }
+
+    vertx.setPeriodic(TimeUnit.SECONDS.toMillis(interval), timerId ->
+      pools.forEach(pool -> {
+        String message = String.format("Worker pool: %s", pool.toJson().encode());
+
+        if(!pool.hasCapacity()) {
+          log.warn(message);
+        }
+        else {
+          log.info(message);
+        }
+      }));
+  }
+
   @Override
   public void stop(Future<Void> stopped) {
     final Logger log = LoggerFactory.getLogger(MethodHandles.lookup().lookupClass());
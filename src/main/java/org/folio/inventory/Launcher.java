@@ -2,7 +2,16 @@ package org.folio.inventory;
 
 import io.vertx.core.logging.Logger;
 import io.vertx.core.logging.LoggerFactory;
+import org.folio.inventory.common.AccessLog;
 import org.folio.inventory.common.VertxAssistant;
+import org.folio.inventory.common.WorkerPool;
+import org.folio.inventory.domain.ingest.IngestChunkSender;
+import org.folio.inventory.domain.ingest.IngestMessageProcessor;
+import org.folio.inventory.storage.Storage;
+import org.folio.inventory.storage.external.ReferenceDataCache;
+import org.folio.inventory.support.http.client.HttpClientConfiguration;
+import org.folio.inventory.support.http.server.EntityTagCache;
+import org.folio.inventory.support.http.server.HttpServerConfiguration;
 
 import java.lang.invoke.MethodHandles;
 import java.util.HashMap;
@@ -13,6 +22,8 @@ import java.util.concurrent.TimeUnit;
 import java.util.concurrent.TimeoutException;
 
 public class Launcher {
+  public static final String VERTICLE_INSTANCES_KEY = "verticle.instances";
+
   private static VertxAssistant vertxAssistant = new VertxAssistant();
   private static String inventoryModuleDeploymentId;
 
@@ -37,6 +48,40 @@ public class Launcher {
     putNonNullConfig("storage.location", storageLocation, config);
     putNonNullConfig("port", port, config);
 
+    putNonNullConfig(ReferenceDataCache.MAXIMUM_SIZE_KEY,
+      Long.getLong(ReferenceDataCache.MAXIMUM_SIZE_KEY), config);
+
+    putNonNullConfig(ReferenceDataCache.EXPIRE_AFTER_SECONDS_KEY,
+      Long.getLong(ReferenceDataCache.EXPIRE_AFTER_SECONDS_KEY), config);
+
+    putNonNullConfig(EntityTagCache.MAXIMUM_SIZE_KEY,
+      Long.getLong(EntityTagCache.MAXIMUM_SIZE_KEY), config);
+
+    putNonNullConfig(EntityTagCache.EXPIRE_AFTER_SECONDS_KEY,
+      Long.getLong(EntityTagCache.EXPIRE_AFTER_SECONDS_KEY), config);
+
+    putNonNullConfig(IngestMessageProcessor.MAXIMUM_RECORDS_IN_FLIGHT_KEY,
+      Integer.getInteger(IngestMessageProcessor.MAXIMUM_RECORDS_IN_FLIGHT_KEY), config);
+
+    putNonNullConfig(IngestChunkSender.RECORDS_PER_CHUNK_KEY,
+      Integer.getInteger(IngestChunkSender.RECORDS_PER_CHUNK_KEY), config);
+
+    putNonNullConfig(IngestChunkSender.MAXIMUM_CHUNKS_IN_FLIGHT_KEY,
+      Integer.getInteger(IngestChunkSender.MAXIMUM_CHUNKS_IN_FLIGHT_KEY), config);
+
+    putNonNullConfig(Storage.INGEST_JOBS_DIRECTORY_KEY,
+      System.getProperty(Storage.INGEST_JOBS_DIRECTORY_KEY), config);
+
+    putNonNullConfig(Storage.INGEST_JOBS_RETENTION_HOURS_KEY,
+      Long.getLong(Storage.INGEST_JOBS_RETENTION_HOURS_KEY), config);
+
+    System.getProperties().stringPropertyNames().stream()
+      .filter(name -> name.startsWith(HttpClientConfiguration.PREFIX)
+        || name.startsWith(HttpServerConfiguration.PREFIX)
+        || name.startsWith(WorkerPool.PREFIX)
+        || name.startsWith(AccessLog.PREFIX))
+      .forEach(name -> config.put(name, System.getProperty(name)));
+
     start(config);
   }
 
@@ -51,8 +96,12 @@ public class Launcher {
 
     CompletableFuture<String> deployed = new CompletableFuture<>();
 
+    //An instance for each core, each on its own event loop, sharing the port
+    int instances = Integer.getInteger(VERTICLE_INSTANCES_KEY,
+      Runtime.getRuntime().availableProcessors());
+
     vertxAssistant.deployVerticle(InventoryVerticle.class.getName(),
-      config, deployed);
+      config, instances, deployed);
 
     deployed.thenAccept(v -> log.info("Server Started"));
 
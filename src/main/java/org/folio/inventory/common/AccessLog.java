@@ -0,0 +1,345 @@
+package org.folio.inventory.common;
+
+import static org.folio.inventory.support.ConfigHelper.getBoolean;
+import static org.folio.inventory.support.ConfigHelper.getDouble;
+import static org.folio.inventory.support.ConfigHelper.getInteger;
+
+import java.lang.invoke.MethodHandles;
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.WeakHashMap;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Supplier;
+import java.util.regex.Pattern;
+import java.util.stream.Collectors;
+
+import org.apache.commons.lang3.StringUtils;
+import org.folio.inventory.common.metrics.InventoryMetrics;
+
+import io.vertx.core.Vertx;
+import io.vertx.core.buffer.Buffer;
+import io.vertx.core.http.HttpClient;
+import io.vertx.core.http.HttpServerRequest;
+import io.vertx.core.http.HttpServerResponse;
+import io.vertx.core.json.JsonObject;
+import io.vertx.core.logging.Logger;
+import io.vertx.core.logging.LoggerFactory;
+import io.vertx.core.shareddata.Shareable;
+import io.vertx.ext.web.RoutingContext;
+
+/**
+ * Logs a sample of the requests handled by the module, and optionally a
+ * sample of the bodies sent to other modules, without slowing down
+ * the handling of requests.
+ * <p>
+ * Entries are put in a fixed size buffer and formatted and written by
+ * a worker thread. When the buffer is full, entries are dropped (and
+ * counted) rather than waiting for it to be written.
+ * <p>
+ * The proportion of requests logged can be set for each route
+ * (e.g. /inventory/items/:id=0.01), requests which fail with a server error
+ * are always logged. Tokens are never logged, and the values of
+ * configured query parameters and body properties are redacted.
+ */
+public class AccessLog implements Shareable {
+  private static final Logger log = LoggerFactory.getLogger(MethodHandles.lookup().lookupClass());
+
+  public static final String PREFIX = "access-log.";
+
+  public static final String ENABLED = PREFIX + "enabled";
+  public static final String SAMPLE_RATE = PREFIX + "sample-rate";
+  //Comma separated route=rate pairs, e.g. /inventory/items=0.1,/inventory/items/:id=0.01
+  public static final String ROUTE_SAMPLE_RATES = PREFIX + "route-sample-rates";
+  public static final String BUFFER_SIZE = PREFIX + "buffer-size";
+  //Bodies of requests sent to other modules are not logged unless asked for
+  public static final String BODY_SAMPLE_RATE = PREFIX + "body-sample-rate";
+  public static final String BODY_MAXIMUM_LENGTH = PREFIX + "body-maximum-length";
+  //Comma separated names, e.g. query
+  public static final String REDACTED_PARAMETERS = PREFIX + "redacted-parameters";
+  //Comma separated names, e.g. barcode
+  public static final String REDACTED_PROPERTIES = PREFIX + "redacted-properties";
+
+  private static final String REDACTED = "***";
+
+  private static final double DEFAULT_SAMPLE_RATE = 1.0;
+  private static final int DEFAULT_BUFFER_SIZE = 8192;
+  private static final int DEFAULT_BODY_MAXIMUM_LENGTH = 2000;
+
+  //Written a batch at a time, so the buffer is not locked whilst logging
+  private static final int WRITE_BATCH_SIZE = 256;
+
+  private static final String TENANT_HEADER = "X-Okapi-Tenant";
+  private static final String REQUEST_ID_HEADER = "X-Okapi-Request-Id";
+
+  //Never logged, whatever the configuration
+  private static final Set<String> SECRET_HEADERS = Collections.unmodifiableSet(
+    new HashSet<>(Arrays.asList("x-okapi-token", "authorization", "cookie")));
+
+  private static final Map<HttpClient, AccessLog> attached
+    = Collections.synchronizedMap(new WeakHashMap<>());
+
+  private static final AccessLog DISABLED = new AccessLog(
+    new JsonObject().put(ENABLED, false), null);
+
+  private final boolean enabled;
+  private final double sampleRate;
+  private final Map<String, Double> routeSampleRates;
+  private final double bodySampleRate;
+  private final int bodyMaximumLength;
+  private final Set<String> redactedParameters;
+  private final Pattern redactedProperties;
+  private final int bufferSize;
+  private final BlockingQueue<Supplier<String>> buffer;
+  private final Executor writer;
+
+  private final AtomicBoolean writing = new AtomicBoolean();
+  private final AtomicLong written = new AtomicLong();
+  private final AtomicLong dropped = new AtomicLong();
+
+  AccessLog(JsonObject config, Executor writer) {
+    this.enabled = getBoolean(config, ENABLED, true) && writer != null;
+    this.sampleRate = getDouble(config, SAMPLE_RATE, DEFAULT_SAMPLE_RATE);
+    this.routeSampleRates = parseRates(config.getValue(ROUTE_SAMPLE_RATES));
+    this.bodySampleRate = getDouble(config, BODY_SAMPLE_RATE, 0);
+    this.bodyMaximumLength = getInteger(config, BODY_MAXIMUM_LENGTH,
+      DEFAULT_BODY_MAXIMUM_LENGTH);
+    this.redactedParameters = new HashSet<>(names(config.getValue(REDACTED_PARAMETERS)));
+    this.redactedProperties = propertiesPattern(names(config.getValue(REDACTED_PROPERTIES)));
+    this.bufferSize = Math.max(1, getInteger(config, BUFFER_SIZE, DEFAULT_BUFFER_SIZE));
+    this.buffer = new ArrayBlockingQueue<>(bufferSize);
+    this.writer = writer;
+  }
+
+  /**
+   * @return the access log shared by every verticle instance, written
+   * using the {@link WorkerPool#ACCESS_LOG} worker pool
+   */
+  public static AccessLog shared(Vertx vertx, JsonObject config) {
+    return SharedResources.getOrCreate(vertx, "access-log", () ->
+      new AccessLog(config, WorkerPool.shared(vertx, config, WorkerPool.ACCESS_LOG)));
+  }
+
+  public AccessLog attachTo(HttpClient client) {
+    attached.put(client, this);
+
+    return this;
+  }
+
+  /**
+   * @return the access log attached to the client, or one which logs
+   * nothing when none is attached
+   */
+  public static AccessLog forClient(HttpClient client) {
+    return attached.getOrDefault(client, DISABLED);
+  }
+
+  /**
+   * Logs the request once the response has been sent, if it is sampled or
+   * fails with a server error
+   */
+  public void record(RoutingContext routingContext) {
+    if(!enabled) {
+      return;
+    }
+
+    HttpServerRequest request = routingContext.request();
+    HttpServerResponse response = routingContext.response();
+
+    boolean sampled = sampled(routeSampleRates.getOrDefault(
+      InventoryMetrics.routeOf(request.path()), sampleRate));
+
+    long startedAt = System.nanoTime();
+
+    routingContext.addBodyEndHandler(v -> {
+      int status = response.getStatusCode();
+
+      if(!sampled && status < 500) {
+        return;
+      }
+
+      long elapsed = System.nanoTime() - startedAt;
+      long endedAt = System.currentTimeMillis();
+      String method = request.rawMethod();
+      String uri = request.uri();
+      String tenant = request.getHeader(TENANT_HEADER);
+      String requestId = request.getHeader(REQUEST_ID_HEADER);
+      long bytes = response.bytesWritten();
+
+      enqueue(() -> String.format("%s %s %s %s %sms %s bytes tenant=%s request-id=%s",
+        Instant.ofEpochMilli(endedAt), method, redactParameters(uri), status,
+        TimeUnit.NANOSECONDS.toMillis(elapsed), bytes, tenant, requestId));
+    });
+  }
+
+  /**
+   * Logs the body of a request sent to another module, if it is sampled
+   */
+  public void recordBody(String method, String url, Buffer body) {
+    if(!enabled || bodySampleRate <= 0 || body == null || !sampled(bodySampleRate)) {
+      return;
+    }
+
+    //Copied, as the buffer may be reused once it has been sent
+    byte[] bytes = body.getBytes();
+
+    //Abbreviated first, so that only what is logged is searched for properties
+    enqueue(() -> String.format("%s %s body: %s", method, redactParameters(url),
+      redactProperties(StringUtils.abbreviate(
+        new String(bytes, StandardCharsets.UTF_8), Math.max(4, bodyMaximumLength)))));
+  }
+
+  /**
+   * @return whether the header may contain credentials, so must not be logged
+   */
+  public static boolean isSecret(String headerName) {
+    return headerName != null && SECRET_HEADERS.contains(headerName.toLowerCase());
+  }
+
+  public JsonObject toJson() {
+    return new JsonObject()
+      .put("enabled", enabled)
+      .put("sampleRate", sampleRate)
+      .put("bodySampleRate", bodySampleRate)
+      .put("bufferSize", bufferSize)
+      .put("buffered", buffer.size())
+      .put("written", written.get())
+      .put("dropped", dropped.get());
+  }
+
+  String redactParameters(String uri) {
+    int queryStart = uri == null ? -1 : uri.indexOf('?');
+
+    if(queryStart < 0 || redactedParameters.isEmpty()) {
+      return uri;
+    }
+
+    StringBuilder redacted = new StringBuilder(uri.substring(0, queryStart + 1));
+
+    String[] parameters = uri.substring(queryStart + 1).split("&", -1);
+
+    for (int index = 0; index < parameters.length; index++) {
+      if(index > 0) {
+        redacted.append('&');
+      }
+
+      String parameter = parameters[index];
+      int nameEnd = parameter.indexOf('=');
+
+      if(nameEnd >= 0 && redactedParameters.contains(parameter.substring(0, nameEnd))) {
+        redacted.append(parameter, 0, nameEnd + 1).append(REDACTED);
+      }
+      else {
+        redacted.append(parameter);
+      }
+    }
+
+    return redacted.toString();
+  }
+
+  String redactProperties(String body) {
+    return redactedProperties == null
+      ? body
+      : redactedProperties.matcher(body).replaceAll("$1\"" + REDACTED + "\"");
+  }
+
+  private void enqueue(Supplier<String> entry) {
+    if(!buffer.offer(entry)) {
+      dropped.incrementAndGet();
+    }
+
+    scheduleWrite();
+  }
+
+  private void scheduleWrite() {
+    if(!writing.compareAndSet(false, true)) {
+      return;
+    }
+
+    try {
+      writer.execute(this::write);
+    }
+    catch(RejectedExecutionException e) {
+      writing.set(false);
+    }
+  }
+
+  private void write() {
+    List<Supplier<String>> batch = new ArrayList<>(WRITE_BATCH_SIZE);
+
+    do {
+      try {
+        while(buffer.drainTo(batch, WRITE_BATCH_SIZE) > 0) {
+          batch.forEach(entry -> log.info(entry.get()));
+          written.addAndGet(batch.size());
+          batch.clear();
+        }
+      }
+      finally {
+        //Otherwise a failure to write would stop any more entries being written
+        writing.set(false);
+      }
+
+      //Entries added after the buffer was last drained, but before writing ended
+    } while(!buffer.isEmpty() && writing.compareAndSet(false, true));
+  }
+
+  private static boolean sampled(double rate) {
+    return rate >= 1 || (rate > 0 && ThreadLocalRandom.current().nextDouble() < rate);
+  }
+
+  private static Map<String, Double> parseRates(Object value) {
+    Map<String, Double> rates = new HashMap<>();
+
+    for (String pair : names(value)) {
+      int separator = pair.lastIndexOf('=');
+
+      if(separator > 0) {
+        rates.put(pair.substring(0, separator).trim(),
+          Double.parseDouble(pair.substring(separator + 1).trim()));
+      }
+    }
+
+    return rates;
+  }
+
+  private static List<String> names(Object value) {
+    if(value == null) {
+      return Collections.emptyList();
+    }
+
+    return Arrays.stream(value.toString().split(","))
+      .map(String::trim)
+      .filter(StringUtils::isNotEmpty)
+      .collect(Collectors.toList());
+  }
+
+  /**
+   * Matches the name and separator of a property, followed by its value,
+   * when the value is a string, number or literal. A string which has been
+   * cut short by abbreviating the body is matched up to the end.
+   */
+  private static Pattern propertiesPattern(List<String> names) {
+    if(names.isEmpty()) {
+      return null;
+    }
+
+    return Pattern.compile(String.format(
+      "(\"(?:%s)\"\\s*:\\s*)(?:\"[^\"\\\\]*(?:\\\\.[^\"\\\\]*)*(?:\"|$)|[^,}\\]\\s]+)",
+      names.stream().map(Pattern::quote).collect(Collectors.joining("|"))));
+  }
+}
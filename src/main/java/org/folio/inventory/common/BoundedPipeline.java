@@ -0,0 +1,99 @@
+package org.folio.inventory.common;
+
+import java.util.Iterator;
+import java.util.concurrent.CompletableFuture;
+import java.util.function.Function;
+
+/**
+ * Processes records with at most a fixed number in flight at a time.
+ * <p>
+ * The next record is only taken from the source once an earlier record
+ * has finished (whether successfully or not), so downstream storage only
+ * sees as many concurrent requests as it is able to keep up with.
+ */
+public class BoundedPipeline<T> {
+  private final int maximumInFlight;
+
+  public BoundedPipeline(int maximumInFlight) {
+    if(maximumInFlight < 1) {
+      throw new IllegalArgumentException(
+        "Maximum number of records in flight must be at least 1");
+    }
+
+    this.maximumInFlight = maximumInFlight;
+  }
+
+  /**
+   * @return a future which completes when every record has been processed,
+   * failures of individual records do not fail the pipeline
+   */
+  public CompletableFuture<Void> process(
+    Iterator<T> records,
+    Function<T, CompletableFuture<?>> processor) {
+
+    Run run = new Run(records, processor);
+
+    run.startMore();
+
+    return run.finished;
+  }
+
+  private class Run {
+    private final Iterator<T> records;
+    private final Function<T, CompletableFuture<?>> processor;
+    private final CompletableFuture<Void> finished = new CompletableFuture<>();
+
+    private int inFlight = 0;
+    private boolean starting = false;
+    private boolean finishedWhileStarting = false;
+
+    private Run(Iterator<T> records, Function<T, CompletableFuture<?>> processor) {
+      this.records = records;
+      this.processor = processor;
+    }
+
+    private synchronized void startMore() {
+      //Records which complete immediately would otherwise start the next
+      //record recursively, so instead the loop below is repeated
+      if(starting) {
+        finishedWhileStarting = true;
+        return;
+      }
+
+      starting = true;
+
+      do {
+        finishedWhileStarting = false;
+
+        while(inFlight < maximumInFlight && records.hasNext()) {
+          inFlight++;
+
+          start(records.next()).whenComplete((result, failure) -> recordFinished());
+        }
+      } while(finishedWhileStarting);
+
+      starting = false;
+
+      if(inFlight == 0 && !records.hasNext()) {
+        finished.complete(null);
+      }
+    }
+
+    private synchronized void recordFinished() {
+      inFlight--;
+
+      startMore();
+    }
+
+    private CompletableFuture<?> start(T record) {
+      try {
+        return processor.apply(record);
+      }
+      catch(Exception e) {
+        CompletableFuture<?> failed = new CompletableFuture<>();
+        failed.completeExceptionally(e);
+        return failed;
+      }
+    }
+  }
+}
@@ -0,0 +1,59 @@
+package org.folio.inventory.common;
+
+import java.util.function.Supplier;
+
+import io.vertx.core.Vertx;
+import io.vertx.core.shareddata.LocalMap;
+import io.vertx.core.shareddata.Shareable;
+
+/**
+ * Resources which are shared by all of the verticle instances deployed to
+ * the same Vert.x instance (e.g. caches, which would otherwise be filled and
+ * invalidated separately by each instance).
+ * <p>
+ * Each resource is created by whichever instance asks for it first, and must
+ * be safe to use from multiple event loops.
+ */
+public class SharedResources {
+  private static final String RESOURCES_MAP = "org.folio.inventory.shared-resources";
+  private static final String CLAIMS_MAP = "org.folio.inventory.claims";
+
+  private SharedResources() { }
+
+  @SuppressWarnings("unchecked")
+  public static <T extends Shareable> T getOrCreate(
+    Vertx vertx,
+    String name,
+    Supplier<T> create) {
+
+    LocalMap<String, Shareable> resources = vertx.sharedData()
+      .getLocalMap(RESOURCES_MAP);
+
+    //Created whilst locked, so that resources which own threads or files are never created twice
+    synchronized (SharedResources.class) {
+      Shareable existing = resources.get(name);
+
+      if(existing != null) {
+        return (T) existing;
+      }
+
+      T created = create.get();
+
+      resources.put(name, created);
+
+      return created;
+    }
+  }
+
+  /**
+   * Claims a duty which only one instance should perform (e.g. periodically
+   * logging metrics which cover every instance)
+   *
+   * @return true only for the first instance to make the claim
+   */
+  public static boolean claim(Vertx vertx, String duty) {
+    LocalMap<String, Boolean> claims = vertx.sharedData().getLocalMap(CLAIMS_MAP);
+
+    return claims.putIfAbsent(duty, true) == null;
+  }
+}
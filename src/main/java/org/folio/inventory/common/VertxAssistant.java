@@ -2,9 +2,11 @@ package org.folio.inventory.common;
 
 import io.vertx.core.DeploymentOptions;
 import io.vertx.core.Vertx;
+import io.vertx.core.VertxOptions;
 import io.vertx.core.json.JsonObject;
 import io.vertx.core.logging.Logger;
 import io.vertx.core.logging.LoggerFactory;
+import org.folio.inventory.common.metrics.InventoryMetrics;
 
 import java.lang.invoke.MethodHandles;
 import java.util.Map;
@@ -22,7 +24,8 @@ public class VertxAssistant {
 
   public void start() {
     if (this.vertx == null) {
-      this.vertx = Vertx.vertx();
+      this.vertx = Vertx.vertx(new VertxOptions()
+        .setMetricsOptions(InventoryMetrics.options()));
     }
   }
 
@@ -52,19 +55,34 @@ public class VertxAssistant {
                              Map<String, Object> config,
                              CompletableFuture<String> deployed) {
 
+    deployVerticle(verticleClass, config, 1, deployed);
+  }
+
+  /**
+   * Deploys instances of the verticle, each on its own event loop. Instances
+   * which listen on the same port share it, with connections distributed
+   * between them, so any blocking work must be done using executeBlocking
+   * or a worker executor.
+   */
+  public void deployVerticle(String verticleClass,
+                             Map<String, Object> config,
+                             int instances,
+                             CompletableFuture<String> deployed) {
+
     long startTime = System.currentTimeMillis();
 
     DeploymentOptions options = new DeploymentOptions();
 
     options.setConfig(new JsonObject(config));
-    options.setWorker(true);
+    options.setInstances(instances);
 
     vertx.deployVerticle(verticleClass, options, result -> {
       if (result.succeeded()) {
         long elapsedTime = System.currentTimeMillis() - startTime;
 
         log.info(String.format(
-          "%s deployed in %s milliseconds", verticleClass, elapsedTime));
+          "%s instances of %s deployed in %s milliseconds", instances,
+          verticleClass, elapsedTime));
 
         deployed.complete(result.result());
       } else {
@@ -1,24 +1,40 @@
 package org.folio.inventory.common;
 
+import io.vertx.core.Handler;
 import io.vertx.core.logging.Logger;
 import io.vertx.core.logging.LoggerFactory;
 import io.vertx.ext.web.RoutingContext;
 
 import java.lang.invoke.MethodHandles;
 
-public class WebRequestDiagnostics {
-  private WebRequestDiagnostics() {
+/**
+ * Records each request in the access log, and when debugging,
+ * logs the request as it is received
+ */
+public class WebRequestDiagnostics implements Handler<RoutingContext> {
+  private static final Logger log = LoggerFactory.getLogger(MethodHandles.lookup().lookupClass());
+
+  private final AccessLog accessLog;
 
+  public WebRequestDiagnostics(AccessLog accessLog) {
+    this.accessLog = accessLog;
   }
 
-  private static final Logger log = LoggerFactory.getLogger(MethodHandles.lookup().lookupClass());
+  @Override
+  public void handle(RoutingContext routingContext) {
+    accessLog.record(routingContext);
 
-  public static void outputDiagnostics(RoutingContext routingContext) {
+    outputDiagnostics(routingContext);
+  }
 
-    log.info(String.format("Handling %s %s", routingContext.request().rawMethod(),
-      routingContext.normalisedPath()));
+  public static void outputDiagnostics(RoutingContext routingContext) {
+    //Checked first, so that nothing is formatted unless it will be logged
+    if(log.isDebugEnabled()) {
+      log.debug(String.format("Handling %s %s", routingContext.request().rawMethod(),
+        routingContext.normalisedPath()));
 
-    outputHeaders(routingContext);
+      outputHeaders(routingContext);
+    }
 
     routingContext.next();
   }
@@ -27,6 +43,11 @@ public class WebRequestDiagnostics {
     log.debug("Headers");
 
     for (String name : routingContext.request().headers().names()) {
+      if(AccessLog.isSecret(name)) {
+        log.debug(String.format("%s : (redacted)", name));
+        continue;
+      }
+
       for (String entry : routingContext.request().headers().getAll(name))
         log.debug(String.format("%s : %s", name, entry));
     }
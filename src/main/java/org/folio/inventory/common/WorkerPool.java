@@ -0,0 +1,227 @@
+package org.folio.inventory.common;
+
+import static org.folio.inventory.support.ConfigHelper.getInteger;
+
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import io.vertx.core.AsyncResult;
+import io.vertx.core.Future;
+import io.vertx.core.Handler;
+import io.vertx.core.Vertx;
+import io.vertx.core.WorkerExecutor;
+import io.vertx.core.json.JsonObject;
+import io.vertx.core.shareddata.Shareable;
+
+/**
+ * A named pool of worker threads for one kind of blocking or CPU heavy work
+ * (e.g. parsing uploaded files), kept apart from the event loops and from
+ * other pools, so that a backlog of that work cannot delay anything else.
+ * <p>
+ * At most the queue limit of tasks can be waiting for a thread, further
+ * tasks are rejected rather than queued without bound. How many tasks are
+ * waiting, and how long they waited, is recorded.
+ * <p>
+ * Each pool is shared by all verticle instances.
+ */
+public class WorkerPool implements Executor, Shareable {
+  public static final String PREFIX = "worker-pool.";
+
+  //Parsing uploaded files for ingest
+  public static final String PARSE = "parse";
+  //Saving the progress of ingest jobs
+  public static final String INGEST_WRITE = "ingest-write";
+  //Writing the access log
+  public static final String ACCESS_LOG = "access-log";
+
+  private static final int DEFAULT_PARSE_SIZE = 2;
+  private static final int DEFAULT_PARSE_QUEUE_LIMIT = 4;
+  private static final int DEFAULT_INGEST_WRITE_SIZE = 1;
+  private static final int DEFAULT_INGEST_WRITE_QUEUE_LIMIT = 10000;
+  private static final int DEFAULT_ACCESS_LOG_SIZE = 1;
+  //Each task writes everything buffered, so only one need wait
+  private static final int DEFAULT_ACCESS_LOG_QUEUE_LIMIT = 1;
+
+  private final String name;
+  private final int size;
+  private final int queueLimit;
+  private final WorkerExecutor executor;
+
+  private final AtomicLong queued = new AtomicLong();
+  private final AtomicLong peakQueued = new AtomicLong();
+  private final AtomicLong running = new AtomicLong();
+  private final AtomicLong completed = new AtomicLong();
+  private final AtomicLong rejected = new AtomicLong();
+  private final AtomicLong totalQueueWaitNanos = new AtomicLong();
+  private final AtomicLong maximumQueueWaitNanos = new AtomicLong();
+
+  WorkerPool(Vertx vertx, String name, int size, int queueLimit) {
+    this.name = name;
+    this.size = size;
+    this.queueLimit = queueLimit;
+    this.executor = vertx.createSharedWorkerExecutor(
+      String.format("inventory-%s-worker", name), size);
+  }
+
+  /**
+   * @param name one of the pools, e.g. {@link #PARSE}, sized using
+   * worker-pool.[name].size and worker-pool.[name].queue-limit
+   */
+  public static WorkerPool shared(Vertx vertx, JsonObject config, String name) {
+    return SharedResources.getOrCreate(vertx, PREFIX + name, () ->
+      new WorkerPool(vertx, name,
+        getInteger(config, PREFIX + name + ".size", defaultSize(name)),
+        getInteger(config, PREFIX + name + ".queue-limit", defaultQueueLimit(name))));
+  }
+
+  /**
+   * Runs the blocking code on a thread from this pool, the result handler
+   * is called on the caller's context
+   * <p>
+   * Should the queue be full, the result handler is called with a
+   * {@link RejectedExecutionException} and the code is not run.
+   */
+  public <T> void executeBlocking(
+    Handler<Future<T>> blockingCode,
+    Handler<AsyncResult<T>> resultHandler) {
+
+    if(!enqueue()) {
+      resultHandler.handle(Future.failedFuture(rejection()));
+      return;
+    }
+
+    long enqueuedAt = System.nanoTime();
+
+    executor.<T>executeBlocking(future -> {
+        started(enqueuedAt);
+        blockingCode.handle(future);
+      },
+      false,
+      result -> {
+        finished();
+        resultHandler.handle(result);
+      });
+  }
+
+  /**
+   * Runs the task on a thread from this pool
+   *
+   * @throws RejectedExecutionException if the queue is full
+   */
+  @Override
+  public void execute(Runnable task) {
+    if(!enqueue()) {
+      throw rejection();
+    }
+
+    long enqueuedAt = System.nanoTime();
+
+    executor.<Void>executeBlocking(future -> {
+        started(enqueuedAt);
+
+        try {
+          task.run();
+        }
+        finally {
+          future.complete();
+        }
+      },
+      false,
+      result -> finished());
+  }
+
+  /**
+   * @return whether a task given now would be queued rather than rejected
+   */
+  public boolean hasCapacity() {
+    return queued.get() < queueLimit;
+  }
+
+  public String getName() {
+    return name;
+  }
+
+  public long getQueued() {
+    return queued.get();
+  }
+
+  public JsonObject toJson() {
+    long started = completed.get() + running.get();
+
+    return new JsonObject()
+      .put("name", name)
+      .put("size", size)
+      .put("queueLimit", queueLimit)
+      .put("queued", queued.get())
+      .put("peakQueued", peakQueued.get())
+      .put("running", running.get())
+      .put("completed", completed.get())
+      .put("rejected", rejected.get())
+      .put("averageQueueWaitMilliseconds", started == 0
+        ? 0
+        : TimeUnit.NANOSECONDS.toMillis(totalQueueWaitNanos.get() / started))
+      .put("maximumQueueWaitMilliseconds",
+        TimeUnit.NANOSECONDS.toMillis(maximumQueueWaitNanos.get()));
+  }
+
+  private boolean enqueue() {
+    long waiting = queued.incrementAndGet();
+
+    if(waiting > queueLimit) {
+      queued.decrementAndGet();
+      rejected.incrementAndGet();
+      return false;
+    }
+
+    updatePeak(peakQueued, waiting);
+
+    return true;
+  }
+
+  private void started(long enqueuedAt) {
+    long waited = System.nanoTime() - enqueuedAt;
+
+    queued.decrementAndGet();
+    running.incrementAndGet();
+    totalQueueWaitNanos.addAndGet(waited);
+    updatePeak(maximumQueueWaitNanos, waited);
+  }
+
+  private void finished() {
+    running.decrementAndGet();
+    completed.incrementAndGet();
+  }
+
+  private RejectedExecutionException rejection() {
+    return new RejectedExecutionException(String.format(
+      "Too much work waiting for the %s worker pool (limit %s)", name, queueLimit));
+  }
+
+  private static int defaultSize(String name) {
+    switch (name) {
+      case PARSE:
+        return DEFAULT_PARSE_SIZE;
+      case ACCESS_LOG:
+        return DEFAULT_ACCESS_LOG_SIZE;
+      default:
+        return DEFAULT_INGEST_WRITE_SIZE;
+    }
+  }
+
+  private static int defaultQueueLimit(String name) {
+    switch (name) {
+      case PARSE:
+        return DEFAULT_PARSE_QUEUE_LIMIT;
+      case ACCESS_LOG:
+        return DEFAULT_ACCESS_LOG_QUEUE_LIMIT;
+      default:
+        return DEFAULT_INGEST_WRITE_QUEUE_LIMIT;
+    }
+  }
+
+  private static void updatePeak(AtomicLong peak, long value) {
+    peak.accumulateAndGet(value, Math::max);
+  }
+}
@@ -0,0 +1,72 @@
+package org.folio.inventory.common.api.request;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+import java.util.regex.Pattern;
+
+/**
+ * Position in a collection of records sorted by id, so that the next page
+ * can be fetched using the id of the last record seen rather than an offset
+ * (which storage has to count through, making deep pages slow).
+ * <p>
+ * Clients treat the encoded form as opaque, and pass {@link #FIRST} to
+ * start from the beginning.
+ */
+public class Cursor {
+  public static final String FIRST = "*";
+
+  private static final Pattern ID = Pattern.compile("[A-Za-z0-9-]+");
+
+  private final String lastSeenId;
+
+  private Cursor(String lastSeenId) {
+    this.lastSeenId = lastSeenId;
+  }
+
+  public static Cursor first() {
+    return new Cursor(null);
+  }
+
+  public static Cursor after(String lastSeenId) {
+    return new Cursor(lastSeenId);
+  }
+
+  /**
+   * @return the cursor, or null when the encoded form is not valid
+   */
+  public static Cursor decode(String encoded) {
+    if (FIRST.equals(encoded)) {
+      return first();
+    }
+
+    try {
+      String lastSeenId = new String(Base64.getUrlDecoder().decode(encoded),
+        StandardCharsets.UTF_8);
+
+      return ID.matcher(lastSeenId).matches()
+        ? after(lastSeenId)
+        : null;
+    }
+    catch (IllegalArgumentException e) {
+      return null;
+    }
+  }
+
+  public String encode() {
+    return isFirst()
+      ? FIRST
+      : Base64.getUrlEncoder().withoutPadding()
+          .encodeToString(lastSeenId.getBytes(StandardCharsets.UTF_8));
+  }
+
+  public boolean isFirst() {
+    return lastSeenId == null;
+  }
+
+  /**
+   * @return id of the last record seen, null for the first page
+   */
+  public String getLastSeenId() {
+    return lastSeenId;
+  }
+}
@@ -1,15 +1,25 @@
 package org.folio.inventory.common.api.request;
 
+import java.util.List;
+import java.util.function.Function;
+
 import org.apache.commons.lang3.StringUtils;
 import org.folio.inventory.common.WebContext;
 
 public class PagingParameters {
   public final Integer limit;
   public final Integer offset;
+  //Only present when paging by cursor, rather than by offset
+  public final Cursor cursor;
 
   public PagingParameters(Integer limit, Integer offset) {
+    this(limit, offset, null);
+  }
+
+  public PagingParameters(Integer limit, Integer offset, Cursor cursor) {
     this.offset = offset;
     this.limit = limit;
+    this.cursor = cursor;
   }
 
   public static PagingParameters defaults() {
@@ -17,15 +27,43 @@ public class PagingParameters {
   }
 
   public static PagingParameters from(WebContext context) {
+    if (invalidReason(context) != null) {
+      return null;
+    }
+
     String limit = context.getStringParameter("limit", "10");
     String offset = context.getStringParameter("offset", "0");
+    String cursor = context.getStringParameter("cursor", null);
 
-    if (valid(limit, offset)) {
-      return new PagingParameters(Integer.parseInt(limit), Integer.parseInt(offset));
-    } else {
-      return null;
+    return new PagingParameters(Integer.parseInt(limit), Integer.parseInt(offset),
+      cursor != null ? Cursor.decode(cursor) : null);
+  }
+
+  /**
+   * @return why the paging parameters of the request cannot be used,
+   * or null when they can
+   */
+  public static String invalidReason(WebContext context) {
+    String limit = context.getStringParameter("limit", "10");
+    String offset = context.getStringParameter("offset", "0");
+    String cursor = context.getStringParameter("cursor", null);
+
+    if (!valid(limit, offset)) {
+      return "limit and offset must be numeric when supplied";
+    }
+
+    if (cursor != null) {
+      if (context.getStringParameter("offset", null) != null) {
+        return "offset cannot be used with a cursor";
+      }
+
+      if (Cursor.decode(cursor) == null) {
+        return String.format(
+          "cursor must be %s or the nextCursor of a previous page", Cursor.FIRST);
+      }
     }
 
+    return null;
   }
 
   public static boolean valid(String limit, String offset) {
@@ -35,4 +73,26 @@ public class PagingParameters {
       return StringUtils.isNumeric(limit) && StringUtils.isNumeric(offset);
     }
   }
+
+  /**
+   * @return the encoded cursor for the page after these records, or null
+   * when not paging by cursor or there are no more records
+   */
+  public <T> String nextCursor(List<T> records, Function<T, String> getId) {
+    Cursor next = next(records, getId);
+
+    return next != null ? next.encode() : null;
+  }
+
+  /**
+   * @return the cursor for the page after these records, or null
+   * when not paging by cursor or there are no more records
+   */
+  public <T> Cursor next(List<T> records, Function<T, String> getId) {
+    if (cursor == null || records.isEmpty() || records.size() < limit) {
+      return null;
+    }
+
+    return Cursor.after(getId.apply(records.get(records.size() - 1)));
+  }
 }
@@ -0,0 +1,119 @@
+package org.folio.inventory.common.api.request;
+
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.LinkedHashSet;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+import org.apache.commons.lang3.StringUtils;
+import org.folio.inventory.common.WebContext;
+
+import io.vertx.core.json.JsonObject;
+
+/**
+ * Which properties of each record in a representation are wanted (fields)
+ * and which properties embedded from other records are resolved (expand),
+ * e.g. fields=id,barcode,materialType&expand=materialType
+ * <p>
+ * Without either parameter, every property is included and every embedded
+ * property is resolved. When only fields are chosen, only embedded properties
+ * amongst them are resolved. An empty expand resolves nothing, leaving
+ * references to other records as ids only.
+ * <p>
+ * The id is always included.
+ */
+public class Projection {
+  private static final String ID = "id";
+
+  //Null when not chosen, meaning all
+  private final Set<String> fields;
+  private final Set<String> expand;
+
+  private Projection(Set<String> fields, Set<String> expand) {
+    this.fields = fields;
+    this.expand = expand;
+  }
+
+  public static Projection all() {
+    return new Projection(null, null);
+  }
+
+  public static Projection from(WebContext context) {
+    return of(context.getStringParameter("fields", null),
+      context.getStringParameter("expand", null));
+  }
+
+  static Projection of(String fields, String expand) {
+    return new Projection(parse(fields), parse(expand));
+  }
+
+  /**
+   * @param expandable the embedded properties which can be resolved
+   * @return why the projection of the request cannot be used,
+   * or null when it can
+   */
+  public static String invalidReason(
+    WebContext context,
+    Collection<String> expandable) {
+
+    return invalidReason(context.getStringParameter("expand", null), expandable);
+  }
+
+  static String invalidReason(String expandParameter, Collection<String> expandable) {
+    Set<String> expand = parse(expandParameter);
+
+    if (expand != null && !expandable.containsAll(expand)) {
+      return String.format("expand must be one or more of: %s",
+        StringUtils.join(expandable, ", "));
+    }
+
+    return null;
+  }
+
+  public boolean includes(String property) {
+    return fields == null || fields.contains(property) || ID.equals(property);
+  }
+
+  /**
+   * @return whether the embedded property should be resolved from
+   * other records
+   */
+  public boolean expands(String property) {
+    return includes(property) && (expand == null || expand.contains(property));
+  }
+
+  public boolean expandsAny(String... properties) {
+    return Arrays.stream(properties).anyMatch(this::expands);
+  }
+
+  /**
+   * @return the record with only the chosen fields
+   */
+  public JsonObject project(JsonObject record) {
+    if (fields == null) {
+      return record;
+    }
+
+    JsonObject projected = new JsonObject();
+
+    record.forEach(property -> {
+      if (includes(property.getKey())) {
+        projected.put(property.getKey(), property.getValue());
+      }
+    });
+
+    return projected;
+  }
+
+  private static Set<String> parse(String parameter) {
+    if (parameter == null) {
+      return null;
+    }
+
+    return Arrays.stream(parameter.split(","))
+      .map(String::trim)
+      .filter(StringUtils::isNotEmpty)
+      .collect(Collectors.toCollection(LinkedHashSet::new));
+  }
+}
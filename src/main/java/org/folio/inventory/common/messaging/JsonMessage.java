@@ -1,8 +1,11 @@
 package org.folio.inventory.common.messaging;
 
+import io.vertx.core.AsyncResult;
+import io.vertx.core.Handler;
 import io.vertx.core.Vertx;
 import io.vertx.core.eventbus.DeliveryOptions;
 import io.vertx.core.eventbus.EventBus;
+import io.vertx.core.eventbus.Message;
 import io.vertx.core.json.JsonObject;
 
 import java.util.Map;
@@ -19,13 +22,26 @@ public class JsonMessage {
   }
 
   public void send(EventBus eventBus) {
+    eventBus.send(address, body, deliveryOptions());
+  }
+
+  public <T> void send(
+    EventBus eventBus,
+    long replyTimeoutMilliseconds,
+    Handler<AsyncResult<Message<T>>> replyHandler) {
+
+    eventBus.send(address, body,
+      deliveryOptions().setSendTimeout(replyTimeoutMilliseconds), replyHandler);
+  }
+
+  private DeliveryOptions deliveryOptions() {
     final DeliveryOptions options = new DeliveryOptions();
 
     headers.forEach((key, value) -> {
       options.addHeader(key.toString(), value.toString());
     });
 
-    eventBus.send(address, body, options);
+    return options;
   }
 
   private final String address;
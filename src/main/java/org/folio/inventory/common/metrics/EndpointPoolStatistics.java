@@ -0,0 +1,120 @@
+package org.folio.inventory.common.metrics;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import io.vertx.core.json.JsonObject;
+
+/**
+ * Connection pool usage for a single host and port that an HTTP client
+ * sends requests to
+ */
+public class EndpointPoolStatistics {
+  private final String host;
+  private final int port;
+  private final int maxPoolSize;
+
+  private final AtomicLong openConnections = new AtomicLong();
+  private final AtomicLong inFlightRequests = new AtomicLong();
+  private final AtomicLong peakInFlightRequests = new AtomicLong();
+  private final AtomicLong totalRequests = new AtomicLong();
+  private final AtomicLong queuedRequests = new AtomicLong();
+  private final AtomicLong peakQueuedRequests = new AtomicLong();
+  private final AtomicLong totalQueuedRequests = new AtomicLong();
+  private final AtomicLong totalQueueWaitNanos = new AtomicLong();
+  private final AtomicLong maximumQueueWaitNanos = new AtomicLong();
+
+  EndpointPoolStatistics(String host, int port, int maxPoolSize) {
+    this.host = host;
+    this.port = port;
+    this.maxPoolSize = maxPoolSize;
+  }
+
+  long enqueued() {
+    updatePeak(peakQueuedRequests, queuedRequests.incrementAndGet());
+    totalQueuedRequests.incrementAndGet();
+
+    return System.nanoTime();
+  }
+
+  void dequeued(long enqueuedAt) {
+    long waited = System.nanoTime() - enqueuedAt;
+
+    queuedRequests.decrementAndGet();
+    totalQueueWaitNanos.addAndGet(waited);
+    updatePeak(maximumQueueWaitNanos, waited);
+  }
+
+  void connected() {
+    openConnections.incrementAndGet();
+  }
+
+  void disconnected() {
+    openConnections.decrementAndGet();
+  }
+
+  void requestBegun() {
+    totalRequests.incrementAndGet();
+    updatePeak(peakInFlightRequests, inFlightRequests.incrementAndGet());
+  }
+
+  void requestFinished() {
+    inFlightRequests.decrementAndGet();
+  }
+
+  public String getHost() {
+    return host;
+  }
+
+  public int getPort() {
+    return port;
+  }
+
+  public int getMaxPoolSize() {
+    return maxPoolSize;
+  }
+
+  public long getOpenConnections() {
+    return openConnections.get();
+  }
+
+  public long getInFlightRequests() {
+    return inFlightRequests.get();
+  }
+
+  public long getQueuedRequests() {
+    return queuedRequests.get();
+  }
+
+  /**
+   * @return whether every pooled connection is in use and requests are waiting
+   */
+  public boolean isSaturated() {
+    return queuedRequests.get() > 0;
+  }
+
+  public JsonObject toJson() {
+    long queuedTotal = totalQueuedRequests.get();
+
+    return new JsonObject()
+      .put("host", host)
+      .put("port", port)
+      .put("maxPoolSize", maxPoolSize)
+      .put("openConnections", openConnections.get())
+      .put("inFlightRequests", inFlightRequests.get())
+      .put("peakInFlightRequests", peakInFlightRequests.get())
+      .put("totalRequests", totalRequests.get())
+      .put("queuedRequests", queuedRequests.get())
+      .put("peakQueuedRequests", peakQueuedRequests.get())
+      .put("totalQueuedRequests", queuedTotal)
+      .put("meanQueueWaitMilliseconds", queuedTotal == 0 ? 0
+        : TimeUnit.NANOSECONDS.toMillis(totalQueueWaitNanos.get() / queuedTotal))
+      .put("maximumQueueWaitMilliseconds",
+        TimeUnit.NANOSECONDS.toMillis(maximumQueueWaitNanos.get()))
+      .put("saturated", isSaturated());
+  }
+
+  private static void updatePeak(AtomicLong peak, long current) {
+    peak.accumulateAndGet(current, Math::max);
+  }
+}
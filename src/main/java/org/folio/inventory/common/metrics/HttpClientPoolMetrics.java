@@ -0,0 +1,198 @@
+package org.folio.inventory.common.metrics;
+
+import java.util.Collection;
+import java.util.Collections;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+import io.vertx.core.http.HttpClientOptions;
+import io.vertx.core.http.HttpClientRequest;
+import io.vertx.core.http.HttpClientResponse;
+import io.vertx.core.http.WebSocket;
+import io.vertx.core.json.JsonArray;
+import io.vertx.core.json.JsonObject;
+import io.vertx.core.net.SocketAddress;
+import io.vertx.core.spi.metrics.HttpClientMetrics;
+
+/**
+ * Records connection pool usage for an HTTP client, per endpoint, as
+ * reported by Vert.x when requests are queued for, or assigned to,
+ * a pooled connection, and how long requests take, per path
+ */
+public class HttpClientPoolMetrics implements
+  HttpClientMetrics<HttpClientPoolMetrics.Timing, Void, Void, EndpointPoolStatistics, Long> {
+
+  private final HttpClientOptions options;
+  private final LatencyHistograms paths;
+  private final ConcurrentMap<String, EndpointPoolStatistics> endpoints
+    = new ConcurrentHashMap<>();
+
+  HttpClientPoolMetrics(HttpClientOptions options, LatencyHistograms paths) {
+    this.options = options;
+    this.paths = paths;
+  }
+
+  public Collection<EndpointPoolStatistics> getEndpoints() {
+    return Collections.unmodifiableCollection(endpoints.values());
+  }
+
+  public JsonObject toJson() {
+    JsonArray endpointsJson = new JsonArray();
+
+    endpoints.values().forEach(endpoint -> endpointsJson.add(endpoint.toJson()));
+
+    return new JsonObject()
+      .put("protocolVersion", options.getProtocolVersion().toString())
+      .put("maxPoolSize", options.getMaxPoolSize())
+      .put("maxWaitQueueSize", options.getMaxWaitQueueSize())
+      .put("endpoints", endpointsJson);
+  }
+
+  @Override
+  public EndpointPoolStatistics createEndpoint(String host, int port, int maxPoolSize) {
+    return endpoints.computeIfAbsent(host + ":" + port,
+      key -> new EndpointPoolStatistics(host, port, maxPoolSize));
+  }
+
+  @Override
+  public void closeEndpoint(String host, int port, EndpointPoolStatistics endpoint) {
+    endpoints.remove(host + ":" + port, endpoint);
+  }
+
+  @Override
+  public Long enqueueRequest(EndpointPoolStatistics endpoint) {
+    return endpoint.enqueued();
+  }
+
+  @Override
+  public void dequeueRequest(EndpointPoolStatistics endpoint, Long enqueuedAt) {
+    endpoint.dequeued(enqueuedAt);
+  }
+
+  @Override
+  public void endpointConnected(EndpointPoolStatistics endpoint, Void socket) {
+    endpoint.connected();
+  }
+
+  @Override
+  public void endpointDisconnected(EndpointPoolStatistics endpoint, Void socket) {
+    endpoint.disconnected();
+  }
+
+  @Override
+  public Timing requestBegin(
+    EndpointPoolStatistics endpoint,
+    Void socket,
+    SocketAddress localAddress,
+    SocketAddress remoteAddress,
+    HttpClientRequest request) {
+
+    endpoint.requestBegun();
+
+    return new Timing(endpoint, request.method().name(),
+      InventoryMetrics.routeOf(request.path()));
+  }
+
+  @Override
+  public void requestEnd(Timing timing) {
+    //Request has been sent, it remains in flight until the response ends
+  }
+
+  @Override
+  public void responseBegin(Timing timing, HttpClientResponse response) {
+    //Only completion of the response is of interest
+  }
+
+  @Override
+  public Timing responsePushed(
+    EndpointPoolStatistics endpoint,
+    Void socket,
+    SocketAddress localAddress,
+    SocketAddress remoteAddress,
+    HttpClientRequest request) {
+
+    //Server push is not used
+    return null;
+  }
+
+  @Override
+  public void requestReset(Timing timing) {
+    finished(timing, "reset");
+  }
+
+  @Override
+  public void responseEnd(Timing timing, HttpClientResponse response) {
+    finished(timing, String.valueOf(response.statusCode()));
+  }
+
+  @Override
+  public Void connected(EndpointPoolStatistics endpoint, Void socket, WebSocket webSocket) {
+    return null;
+  }
+
+  @Override
+  public void disconnected(Void webSocket) {
+    //Web sockets are not used
+  }
+
+  @Override
+  public Void connected(SocketAddress remoteAddress, String remoteName) {
+    return null;
+  }
+
+  @Override
+  public void disconnected(Void socket, SocketAddress remoteAddress) {
+    //Connections are counted per endpoint instead
+  }
+
+  @Override
+  public void bytesRead(Void socket, SocketAddress remoteAddress, long numberOfBytes) {
+    //Not recorded
+  }
+
+  @Override
+  public void bytesWritten(Void socket, SocketAddress remoteAddress, long numberOfBytes) {
+    //Not recorded
+  }
+
+  @Override
+  public void exceptionOccurred(Void socket, SocketAddress remoteAddress, Throwable t) {
+    //Not recorded
+  }
+
+  //Still abstract in Metrics, although deprecated
+  @SuppressWarnings("deprecation")
+  @Override
+  public boolean isEnabled() {
+    return true;
+  }
+
+  @Override
+  public void close() {
+    endpoints.clear();
+  }
+
+  private void finished(Timing timing, String status) {
+    if(timing == null) {
+      return;
+    }
+
+    timing.endpoint.requestFinished();
+
+    paths.record(System.nanoTime() - timing.startedAt,
+      timing.method, timing.path, status);
+  }
+
+  static class Timing {
+    private final EndpointPoolStatistics endpoint;
+    private final String method;
+    private final String path;
+    private final long startedAt = System.nanoTime();
+
+    private Timing(EndpointPoolStatistics endpoint, String method, String path) {
+      this.endpoint = endpoint;
+      this.method = method;
+      this.path = path;
+    }
+  }
+}
@@ -0,0 +1,148 @@
+package org.folio.inventory.common.metrics;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+import io.vertx.core.http.HttpMethod;
+import io.vertx.core.http.HttpServerRequest;
+import io.vertx.core.http.HttpServerResponse;
+import io.vertx.core.http.ServerWebSocket;
+import io.vertx.core.net.SocketAddress;
+import io.vertx.core.spi.metrics.HttpServerMetrics;
+
+/**
+ * Records how long requests to an HTTP server take to be responded to,
+ * by route and by tenant, and how many are in flight
+ * <p>
+ * Every server shares the same histograms, so that each route is
+ * recorded once no matter how many verticle instances serve it.
+ */
+public class HttpServerRequestMetrics implements
+  HttpServerMetrics<HttpServerRequestMetrics.Timing, Void, Void> {
+
+  private static final String TENANT_HEADER = "X-Okapi-Tenant";
+
+  private final LatencyHistograms routes;
+  private final LatencyHistograms tenants;
+  private final AtomicLong inFlight;
+
+  HttpServerRequestMetrics(
+    LatencyHistograms routes,
+    LatencyHistograms tenants,
+    AtomicLong inFlight) {
+
+    this.routes = routes;
+    this.tenants = tenants;
+    this.inFlight = inFlight;
+  }
+
+  @Override
+  public Timing requestBegin(Void socket, HttpServerRequest request) {
+    inFlight.incrementAndGet();
+
+    return new Timing(request.rawMethod(),
+      InventoryMetrics.routeOf(request.path()),
+      request.getHeader(TENANT_HEADER));
+  }
+
+  @Override
+  public void requestReset(Timing timing) {
+    finished(timing, "reset");
+  }
+
+  @Override
+  public Timing responsePushed(
+    Void socket,
+    HttpMethod method,
+    String uri,
+    HttpServerResponse response) {
+
+    //Server push is not used
+    return null;
+  }
+
+  @Override
+  public void responseEnd(Timing timing, HttpServerResponse response) {
+    finished(timing, String.valueOf(response.getStatusCode()));
+  }
+
+  @Override
+  public Void upgrade(Timing timing, ServerWebSocket serverWebSocket) {
+    return null;
+  }
+
+  @Override
+  public Void connected(Void socket, ServerWebSocket serverWebSocket) {
+    return null;
+  }
+
+  @Override
+  public void disconnected(Void serverWebSocket) {
+    //Web sockets are not used
+  }
+
+  @Override
+  public Void connected(SocketAddress remoteAddress, String remoteName) {
+    return null;
+  }
+
+  @Override
+  public void disconnected(Void socket, SocketAddress remoteAddress) {
+    //Connections are not recorded
+  }
+
+  @Override
+  public void bytesRead(Void socket, SocketAddress remoteAddress, long numberOfBytes) {
+    //Not recorded
+  }
+
+  @Override
+  public void bytesWritten(Void socket, SocketAddress remoteAddress, long numberOfBytes) {
+    //Not recorded
+  }
+
+  @Override
+  public void exceptionOccurred(Void socket, SocketAddress remoteAddress, Throwable t) {
+    //Not recorded
+  }
+
+  //Has to be implemented, as Metrics in Vert.x 3.5 has no default
+  @SuppressWarnings("deprecation")
+  @Override
+  public boolean isEnabled() {
+    return true;
+  }
+
+  @Override
+  public void close() {
+    //Histograms are shared with other servers, so are kept
+  }
+
+  private void finished(Timing timing, String status) {
+    if(timing == null) {
+      return;
+    }
+
+    inFlight.decrementAndGet();
+
+    long elapsed = System.nanoTime() - timing.startedAt;
+
+    routes.record(elapsed, timing.method, timing.route, status);
+
+    if(timing.tenant != null) {
+      tenants.record(elapsed, timing.tenant);
+    }
+  }
+
+  static class Timing {
+    private final String method;
+    private final String route;
+    private final String tenant;
+    private final long startedAt = System.nanoTime();
+
+    private Timing(String method, String route, String tenant) {
+      this.method = method;
+      this.route = route;
+      this.tenant = tenant;
+    }
+  }
+}
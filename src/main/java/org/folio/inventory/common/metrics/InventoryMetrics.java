@@ -0,0 +1,199 @@
+package org.folio.inventory.common.metrics;
+
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.TreeMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.regex.Pattern;
+
+import io.vertx.core.Vertx;
+import io.vertx.core.http.HttpClient;
+import io.vertx.core.http.HttpClientOptions;
+import io.vertx.core.http.HttpServer;
+import io.vertx.core.http.HttpServerOptions;
+import io.vertx.core.impl.VertxInternal;
+import io.vertx.core.json.JsonArray;
+import io.vertx.core.json.JsonObject;
+import io.vertx.core.metrics.MetricsOptions;
+import io.vertx.core.metrics.impl.DummyVertxMetrics;
+import io.vertx.core.net.SocketAddress;
+import io.vertx.core.spi.metrics.HttpClientMetrics;
+import io.vertx.core.spi.metrics.HttpServerMetrics;
+
+/**
+ * Vert.x metrics implementation which only records what the inventory module
+ * reports on, anything else is ignored
+ */
+public class InventoryMetrics extends DummyVertxMetrics {
+  private static final Pattern ID_SEGMENT = Pattern.compile(
+    "/[0-9a-fA-F]{8}-[0-9a-fA-F]{4}-[0-9a-fA-F]{4}-[0-9a-fA-F]{4}-[0-9a-fA-F]{12}(?=/|$)");
+
+  private final List<HttpClientPoolMetrics> httpClients = new CopyOnWriteArrayList<>();
+
+  private final LatencyHistograms serverRequests = new LatencyHistograms(
+    "inventory_http_request_duration_seconds",
+    "Time taken to respond to requests, by route",
+    "method", "route", "status");
+
+  private final LatencyHistograms tenantRequests = new LatencyHistograms(
+    "inventory_http_tenant_request_duration_seconds",
+    "Time taken to respond to requests, by tenant",
+    "tenant");
+
+  private final LatencyHistograms storageRequests = new LatencyHistograms(
+    "inventory_storage_request_duration_seconds",
+    "Time taken for requests made to storage to be responded to, by path",
+    "method", "path", "status");
+
+  private final LatencyHistograms requestPhases = new LatencyHistograms(
+    "inventory_http_request_phase_duration_seconds",
+    "Time taken by each phase of responding to requests (e.g. fetching holdings), by route",
+    "route", "phase");
+
+  private final AtomicLong serverRequestsInFlight = new AtomicLong();
+
+  public static MetricsOptions options() {
+    return new MetricsOptions()
+      .setEnabled(true)
+      .setFactory((vertx, vertxOptions) -> new InventoryMetrics());
+  }
+
+  /**
+   * @return the metrics for the given Vert.x instance, if it was created
+   * with {@link #options()}
+   */
+  public static Optional<InventoryMetrics> from(Vertx vertx) {
+    if(vertx instanceof VertxInternal
+      && ((VertxInternal) vertx).metricsSPI() instanceof InventoryMetrics) {
+
+      return Optional.of((InventoryMetrics) ((VertxInternal) vertx).metricsSPI());
+    }
+
+    return Optional.empty();
+  }
+
+  @Override
+  public HttpClientMetrics<?, ?, ?, ?, ?> createMetrics(
+    HttpClient client,
+    HttpClientOptions options) {
+
+    HttpClientPoolMetrics metrics = new HttpClientPoolMetrics(options, storageRequests) {
+      @Override
+      public void close() {
+        super.close();
+        httpClients.remove(this);
+      }
+    };
+
+    httpClients.add(metrics);
+
+    return metrics;
+  }
+
+  @Override
+  public HttpServerMetrics<?, ?, ?> createMetrics(
+    HttpServer server,
+    SocketAddress localAddress,
+    HttpServerOptions options) {
+
+    return new HttpServerRequestMetrics(serverRequests, tenantRequests,
+      serverRequestsInFlight);
+  }
+
+  public List<HttpClientPoolMetrics> getHttpClients() {
+    return httpClients;
+  }
+
+  public JsonObject httpClientsToJson() {
+    JsonArray clients = new JsonArray();
+
+    httpClients.forEach(client -> clients.add(client.toJson()));
+
+    return new JsonObject().put("httpClients", clients);
+  }
+
+  /**
+   * Writes the request latencies and HTTP client pool usage, with the
+   * pool usage of every client to the same endpoint added together
+   */
+  public void writeTo(PrometheusText text) {
+    text.gauge("inventory_http_requests_in_flight",
+      "Requests being handled", serverRequestsInFlight.get());
+
+    text.histogram(serverRequests);
+    text.histogram(tenantRequests);
+    text.histogram(requestPhases);
+    text.histogram(storageRequests);
+
+    Map<String, long[]> endpoints = new TreeMap<>();
+
+    httpClients.forEach(client -> client.getEndpoints().forEach(endpoint -> {
+      long[] totals = endpoints.computeIfAbsent(
+        endpoint.getHost() + ":" + endpoint.getPort(), key -> new long[3]);
+
+      totals[0] += endpoint.getOpenConnections();
+      totals[1] += endpoint.getInFlightRequests();
+      totals[2] += endpoint.getQueuedRequests();
+    }));
+
+    writePoolGauge(text, endpoints, 0, "inventory_http_client_open_connections",
+      "Pooled connections open to the endpoint");
+
+    writePoolGauge(text, endpoints, 1, "inventory_http_client_requests_in_flight",
+      "Requests sent to the endpoint awaiting a response");
+
+    writePoolGauge(text, endpoints, 2, "inventory_http_client_queued_requests",
+      "Requests waiting for a pooled connection to the endpoint");
+  }
+
+  /**
+   * Records how long a phase of responding to a request took,
+   * see {@link PhaseTimings}
+   */
+  public void recordPhase(String route, String phase, long nanos) {
+    requestPhases.record(nanos, route, phase);
+  }
+
+  /**
+   * The path of a request, with any record ids replaced, so that requests
+   * for the same kind of record are recorded together
+   * (e.g. /inventory/items/:id)
+   */
+  public static String routeOf(String path) {
+    if(path == null || path.isEmpty()) {
+      return "/";
+    }
+
+    //Avoid matching paths which cannot contain an id
+    if(path.indexOf('-') < 0) {
+      return path;
+    }
+
+    return ID_SEGMENT.matcher(path).replaceAll("/:id");
+  }
+
+  private static void writePoolGauge(
+    PrometheusText text,
+    Map<String, long[]> endpoints,
+    int index,
+    String name,
+    String help) {
+
+    text.header(name, help, "gauge");
+
+    endpoints.forEach((endpoint, totals) ->
+      text.sample(name, totals[index], "endpoint", endpoint));
+  }
+
+  @Override
+  public boolean isEnabled() {
+    return true;
+  }
+
+  @Override
+  public boolean isMetricsEnabled() {
+    return true;
+  }
+}
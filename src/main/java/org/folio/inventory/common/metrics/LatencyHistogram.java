@@ -0,0 +1,122 @@
+package org.folio.inventory.common.metrics;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Distribution of latencies, recorded in the manner of HdrHistogram:
+ * each power of two of microseconds is split into equally sized buckets,
+ * so any percentile is reported to within about 6% of the latency recorded,
+ * from a microsecond up to about 19 hours.
+ * <p>
+ * Recording is a couple of atomic increments on a fixed array,
+ * with no locking or allocation, and is safe from any thread.
+ */
+public class LatencyHistogram {
+  //16 buckets for each power of two
+  private static final int SUB_BUCKET_BITS = 4;
+  private static final int SUB_BUCKETS = 1 << SUB_BUCKET_BITS;
+  //Largest latency told apart is 2^36 microseconds (about 19 hours)
+  private static final int HIGHEST_POWER = 36;
+  private static final long HIGHEST_MICROSECONDS = (1L << HIGHEST_POWER) - 1;
+
+  private final AtomicLongArray counts = new AtomicLongArray(
+    SUB_BUCKETS + (HIGHEST_POWER - SUB_BUCKET_BITS) * SUB_BUCKETS);
+
+  private final LongAdder count = new LongAdder();
+  private final LongAdder totalNanos = new LongAdder();
+
+  public void record(long nanos) {
+    long latency = Math.max(0, nanos);
+
+    counts.incrementAndGet(indexOf(
+      Math.min(TimeUnit.NANOSECONDS.toMicros(latency), HIGHEST_MICROSECONDS)));
+
+    count.increment();
+    totalNanos.add(latency);
+  }
+
+  public long getCount() {
+    return count.sum();
+  }
+
+  public long getTotalNanos() {
+    return totalNanos.sum();
+  }
+
+  /**
+   * @param percentile between 0 and 100
+   * @return the latency in microseconds which the given percentage of
+   * recorded latencies are no greater than, or 0 when nothing is recorded
+   */
+  public long percentileMicroseconds(double percentile) {
+    long[] snapshot = new long[counts.length()];
+    long total = 0;
+
+    for (int index = 0; index < snapshot.length; index++) {
+      snapshot[index] = counts.get(index);
+      total += snapshot[index];
+    }
+
+    if(total == 0) {
+      return 0;
+    }
+
+    long rank = Math.max(1, (long) Math.ceil(percentile / 100 * total));
+    long seen = 0;
+
+    for (int index = 0; index < snapshot.length; index++) {
+      seen += snapshot[index];
+
+      if(seen >= rank) {
+        return highestValueOf(index);
+      }
+    }
+
+    return HIGHEST_MICROSECONDS;
+  }
+
+  /**
+   * @return the number of recorded latencies in buckets which are entirely
+   * no greater than the given latency, latencies in the bucket it falls
+   * within are only counted towards larger latencies
+   */
+  public long countAtMost(long microseconds) {
+    long atMost = 0;
+
+    for (int index = 0; index < counts.length()
+      && highestValueOf(index) <= microseconds; index++) {
+
+      atMost += counts.get(index);
+    }
+
+    return atMost;
+  }
+
+  static int indexOf(long microseconds) {
+    if(microseconds < SUB_BUCKETS) {
+      return (int) microseconds;
+    }
+
+    int power = 63 - Long.numberOfLeadingZeros(microseconds);
+    int shift = power - SUB_BUCKET_BITS;
+    int subBucket = (int) (microseconds >>> shift) - SUB_BUCKETS;
+
+    return SUB_BUCKETS + shift * SUB_BUCKETS + subBucket;
+  }
+
+  /**
+   * @return the largest latency, in microseconds, counted in the bucket
+   */
+  static long highestValueOf(int index) {
+    if(index < SUB_BUCKETS) {
+      return index;
+    }
+
+    int shift = (index - SUB_BUCKETS) / SUB_BUCKETS;
+    long subBucket = (index - SUB_BUCKETS) % SUB_BUCKETS;
+
+    return ((SUB_BUCKETS + subBucket + 1) << shift) - 1;
+  }
+}
@@ -0,0 +1,77 @@
+package org.folio.inventory.common.metrics;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+/**
+ * A {@link LatencyHistogram} for each combination of label values
+ * (e.g. each route and response status)
+ * <p>
+ * The number of combinations is limited, so that values which vary without
+ * bound (e.g. unknown paths) cannot use up memory, any beyond the limit are
+ * recorded under {@link #OTHER}.
+ */
+public class LatencyHistograms {
+  public static final String OTHER = "other";
+
+  private static final int DEFAULT_MAXIMUM_SERIES = 500;
+
+  private final String name;
+  private final String help;
+  private final List<String> labelNames;
+  private final int maximumSeries;
+  private final ConcurrentMap<List<String>, LatencyHistogram> series
+    = new ConcurrentHashMap<>();
+
+  public LatencyHistograms(String name, String help, String... labelNames) {
+    this(name, help, DEFAULT_MAXIMUM_SERIES, labelNames);
+  }
+
+  LatencyHistograms(String name, String help, int maximumSeries, String... labelNames) {
+    this.name = name;
+    this.help = help;
+    this.maximumSeries = maximumSeries;
+    this.labelNames = Collections.unmodifiableList(Arrays.asList(labelNames));
+  }
+
+  /**
+   * @param labelValues in the same order as the label names
+   */
+  public void record(long nanos, String... labelValues) {
+    List<String> key = Arrays.asList(labelValues);
+
+    LatencyHistogram histogram = series.get(key);
+
+    if(histogram == null) {
+      histogram = series.size() < maximumSeries
+        ? series.computeIfAbsent(key, values -> new LatencyHistogram())
+        : series.computeIfAbsent(other(), values -> new LatencyHistogram());
+    }
+
+    histogram.record(nanos);
+  }
+
+  public String getName() {
+    return name;
+  }
+
+  public String getHelp() {
+    return help;
+  }
+
+  public List<String> getLabelNames() {
+    return labelNames;
+  }
+
+  public Map<List<String>, LatencyHistogram> getSeries() {
+    return Collections.unmodifiableMap(series);
+  }
+
+  private List<String> other() {
+    return Collections.nCopies(labelNames.size(), OTHER);
+  }
+}
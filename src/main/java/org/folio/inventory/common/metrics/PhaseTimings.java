@@ -0,0 +1,114 @@
+package org.folio.inventory.common.metrics;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.CompletableFuture;
+import java.util.function.Supplier;
+
+import io.vertx.ext.web.RoutingContext;
+
+/**
+ * How long each phase of handling a request took (e.g. fetching the records
+ * embedded in the representation), so that a slow response can be
+ * attributed to a phase
+ * <p>
+ * Timings are reported in the Server-Timing response header and recorded
+ * by route for the metrics endpoint.
+ */
+public class PhaseTimings {
+  public static final String QUERY = "query";
+  public static final String REPRESENTATION = "representation";
+  public static final String SERIALIZATION = "serialization";
+
+  private static final String SERVER_TIMING_HEADER = "Server-Timing";
+
+  private final List<Phase> phases = new ArrayList<>();
+
+  public Phase begin(String name) {
+    Phase phase = new Phase(name);
+
+    synchronized (phases) {
+      phases.add(phase);
+    }
+
+    return phase;
+  }
+
+  /**
+   * Times a phase which ends when the future returned by it completes
+   */
+  public <T> CompletableFuture<T> time(
+    String name,
+    Supplier<CompletableFuture<T>> phase) {
+
+    Phase timed = begin(name);
+
+    return phase.get().whenComplete((result, failure) -> timed.end());
+  }
+
+  /**
+   * Includes the timings of ended phases in the response's Server-Timing
+   * header and records them under the route, must be called before the
+   * response is written
+   */
+  public void report(RoutingContext routingContext, String route) {
+    List<Phase> ended = ended();
+
+    if(ended.isEmpty()) {
+      return;
+    }
+
+    routingContext.response().putHeader(SERVER_TIMING_HEADER, toServerTiming(ended));
+
+    InventoryMetrics.from(routingContext.vertx()).ifPresent(metrics ->
+      ended.forEach(phase -> metrics.recordPhase(route, phase.name, phase.nanos)));
+  }
+
+  String toServerTiming() {
+    return toServerTiming(ended());
+  }
+
+  private List<Phase> ended() {
+    List<Phase> ended = new ArrayList<>();
+
+    synchronized (phases) {
+      phases.stream()
+        .filter(phase -> phase.nanos >= 0)
+        .forEach(ended::add);
+    }
+
+    return ended;
+  }
+
+  private static String toServerTiming(List<Phase> phases) {
+    StringBuilder header = new StringBuilder();
+
+    for (Phase phase : phases) {
+      if(header.length() > 0) {
+        header.append(", ");
+      }
+
+      header.append(phase.name).append(";dur=").append(
+        String.format(Locale.ROOT, "%.2f", phase.nanos / 1_000_000.0));
+    }
+
+    return header.toString();
+  }
+
+  public static class Phase {
+    private final String name;
+    private final long startedAt = System.nanoTime();
+    private volatile long nanos = -1;
+
+    private Phase(String name) {
+      this.name = name;
+    }
+
+    public void end() {
+      if(nanos < 0) {
+        nanos = System.nanoTime() - startedAt;
+      }
+    }
+  }
+}
@@ -0,0 +1,130 @@
+package org.folio.inventory.common.metrics;
+
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Writes metrics in the Prometheus text exposition format (version 0.0.4)
+ * <p>
+ * Latencies are written as histograms, in seconds, with a fixed set of
+ * buckets taken from each latency histogram, so that they can be aggregated
+ * across instances and the quantiles worked out over any period.
+ */
+public class PrometheusText {
+  //Upper bounds of the buckets, in seconds, the last (+Inf) is always added
+  private static final double[] BUCKETS = { 0.001, 0.0025, 0.005, 0.01,
+    0.025, 0.05, 0.1, 0.25, 0.5, 1, 2.5, 5, 10, 30 };
+
+  private final StringBuilder text = new StringBuilder();
+
+  public PrometheusText gauge(String name, String help, Number value, String... labels) {
+    return header(name, help, "gauge").sample(name, value, labels);
+  }
+
+  public PrometheusText counter(String name, String help, Number value, String... labels) {
+    return header(name, help, "counter").sample(name, value, labels);
+  }
+
+  public PrometheusText header(String name, String help, String type) {
+    text.append("# HELP ").append(name).append(' ')
+      .append(help.replace("\\", "\\\\").replace("\n", "\\n")).append('\n');
+
+    text.append("# TYPE ").append(name).append(' ').append(type).append('\n');
+
+    return this;
+  }
+
+  /**
+   * @param labels alternating label names and values
+   */
+  public PrometheusText sample(String name, Number value, String... labels) {
+    text.append(name);
+
+    if(labels.length > 0) {
+      text.append('{');
+
+      for (int index = 0; index + 1 < labels.length; index += 2) {
+        if(index > 0) {
+          text.append(',');
+        }
+
+        text.append(labels[index]).append("=\"")
+          .append(escape(labels[index + 1])).append('"');
+      }
+
+      text.append('}');
+    }
+
+    text.append(' ').append(value).append('\n');
+
+    return this;
+  }
+
+  public PrometheusText histogram(LatencyHistograms histograms) {
+    String name = histograms.getName();
+    List<String> labelNames = histograms.getLabelNames();
+
+    header(name, histograms.getHelp(), "histogram");
+
+    for (Map.Entry<List<String>, LatencyHistogram> series
+      : histograms.getSeries().entrySet()) {
+
+      String[] labels = labels(labelNames, series.getKey());
+      LatencyHistogram histogram = series.getValue();
+
+      //Taken first, so that no bucket has a greater count than the total
+      long count = histogram.getCount();
+      long totalNanos = histogram.getTotalNanos();
+
+      for (double bucket : BUCKETS) {
+        sample(name + "_bucket", Math.min(count, histogram.countAtMost(
+          (long) (bucket * 1_000_000))), withBucket(labels, String.valueOf(bucket)));
+      }
+
+      sample(name + "_bucket", count, withBucket(labels, "+Inf"));
+
+      sample(name + "_sum", seconds(totalNanos, TimeUnit.NANOSECONDS), labels);
+
+      sample(name + "_count", count, labels);
+    }
+
+    return this;
+  }
+
+  @Override
+  public String toString() {
+    return text.toString();
+  }
+
+  private static String[] labels(List<String> names, List<String> values) {
+    String[] labels = new String[names.size() * 2];
+
+    for (int index = 0; index < names.size(); index++) {
+      labels[index * 2] = names.get(index);
+      labels[index * 2 + 1] = values.get(index);
+    }
+
+    return labels;
+  }
+
+  private static String[] withBucket(String[] labels, String upperBound) {
+    String[] withBucket = new String[labels.length + 2];
+
+    System.arraycopy(labels, 0, withBucket, 0, labels.length);
+    withBucket[labels.length] = "le";
+    withBucket[labels.length + 1] = upperBound;
+
+    return withBucket;
+  }
+
+  private static double seconds(long duration, TimeUnit unit) {
+    return unit.toNanos(duration) / 1_000_000_000.0;
+  }
+
+  private static String escape(String value) {
+    return value == null
+      ? ""
+      : value.replace("\\", "\\\\").replace("\"", "\\\"").replace("\n", "\\n");
+  }
+}
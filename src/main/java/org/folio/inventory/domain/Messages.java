@@ -2,7 +2,7 @@ package org.folio.inventory.domain;
 
 public enum Messages {
   START_INGEST("org.folio.inventory.ingest.start"),
-  INGEST_COMPLETED("org.folio.inventory.ingest.completed");
+  INGEST_FAILED("org.folio.inventory.ingest.failed");
 
   Messages(String address) {
     this.Address = address;
@@ -0,0 +1,119 @@
+package org.folio.inventory.domain.ingest;
+
+import java.lang.invoke.MethodHandles;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+
+import org.folio.inventory.common.Context;
+
+import io.vertx.core.eventbus.EventBus;
+import io.vertx.core.json.JsonObject;
+import io.vertx.core.logging.Logger;
+import io.vertx.core.logging.LoggerFactory;
+
+/**
+ * Sends records for ingest in fixed size chunks as they are provided.
+ * <p>
+ * Once the maximum number of chunks are waiting to be processed, providing
+ * a record blocks until one of them has been processed, so this must only
+ * be used from a worker thread.
+ */
+public class IngestChunkSender implements Consumer<JsonObject> {
+  private static final Logger log = LoggerFactory.getLogger(MethodHandles.lookup().lookupClass());
+
+  public static final String RECORDS_PER_CHUNK_KEY = "ingest.records-per-chunk";
+  public static final String MAXIMUM_CHUNKS_IN_FLIGHT_KEY = "ingest.maximum-chunks-in-flight";
+
+  private static final int DEFAULT_RECORDS_PER_CHUNK = 100;
+  private static final int DEFAULT_MAXIMUM_CHUNKS_IN_FLIGHT = 2;
+  private static final long CHUNK_PROCESSING_TIMEOUT_MILLISECONDS
+    = TimeUnit.MINUTES.toMillis(10);
+
+  private final EventBus eventBus;
+  private final String jobId;
+  private final Context context;
+  private final JsonObject referenceRecords;
+  private final int recordsPerChunk;
+  private final Semaphore chunksInFlight;
+
+  private List<JsonObject> currentChunk;
+  private int chunksSent = 0;
+  private long recordsSent = 0;
+
+  /**
+   * @param referenceRecords reference records needed for ingest, by type
+   *                         e.g. materialTypes
+   */
+  public IngestChunkSender(
+    EventBus eventBus,
+    JsonObject config,
+    JsonObject referenceRecords,
+    String jobId,
+    Context context) {
+
+    this.eventBus = eventBus;
+    this.referenceRecords = referenceRecords;
+    this.jobId = jobId;
+    this.context = context;
+
+    this.recordsPerChunk = config.getInteger(RECORDS_PER_CHUNK_KEY,
+      DEFAULT_RECORDS_PER_CHUNK);
+
+    this.chunksInFlight = new Semaphore(config.getInteger(
+      MAXIMUM_CHUNKS_IN_FLIGHT_KEY, DEFAULT_MAXIMUM_CHUNKS_IN_FLIGHT));
+
+    this.currentChunk = new ArrayList<>(recordsPerChunk);
+  }
+
+  @Override
+  public void accept(JsonObject record) {
+    currentChunk.add(record);
+
+    if(currentChunk.size() >= recordsPerChunk) {
+      send(null);
+    }
+  }
+
+  /**
+   * Sends any remaining records as the last chunk of the job, which may be
+   * empty, so that the job can be completed
+   */
+  public void finish() {
+    send(chunksSent + 1);
+  }
+
+  public void fail(String reason) {
+    IngestMessages.failed(jobId, reason, context).send(eventBus);
+  }
+
+  private void send(Integer totalChunks) {
+    try {
+      chunksInFlight.acquire();
+    }
+    catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      throw new IllegalStateException(
+        String.format("Interrupted whilst sending ingest job %s", jobId), e);
+    }
+
+    int sequenceNumber = chunksSent;
+
+    IngestMessages.chunk(currentChunk, recordsSent, sequenceNumber, totalChunks,
+      referenceRecords, jobId, context)
+      .send(eventBus, CHUNK_PROCESSING_TIMEOUT_MILLISECONDS, reply -> {
+        chunksInFlight.release();
+
+        if(reply.failed()) {
+          log.warn(String.format("Chunk %s of ingest job %s was not acknowledged: %s",
+            sequenceNumber, jobId, reply.cause().getMessage()));
+        }
+      });
+
+    chunksSent++;
+    recordsSent += currentChunk.size();
+    currentChunk = new ArrayList<>(recordsPerChunk);
+  }
+}
@@ -1,9 +1,31 @@
 package org.folio.inventory.domain.ingest;
 
+import java.util.function.Consumer;
+import java.util.function.UnaryOperator;
+
+import org.folio.inventory.common.domain.Failure;
+import org.folio.inventory.common.domain.Success;
 import org.folio.inventory.domain.AsynchronousCollection;
 import org.folio.inventory.resources.ingest.IngestJob;
 
 public interface IngestJobCollection
   extends AsynchronousCollection<IngestJob> {
 
+  /**
+   * Applies a change to a job, without any other changes to the same job
+   * happening in between reading and replacing it
+   *
+   * @param resultCallback provided with the changed job, or null if there
+   *                       is no job with the id
+   */
+  void modify(String id,
+              UnaryOperator<IngestJob> change,
+              Consumer<Success<IngestJob>> resultCallback,
+              Consumer<Failure> failureCallback);
+
+  /**
+   * @return milliseconds since the epoch, by the clock used for when jobs
+   * were created and changed
+   */
+  long currentTimeMillis();
 }
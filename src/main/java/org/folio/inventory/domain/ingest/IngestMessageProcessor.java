@@ -1,13 +1,20 @@
 package org.folio.inventory.domain.ingest;
 
 import java.lang.invoke.MethodHandles;
-import java.util.*;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.function.UnaryOperator;
 import java.util.stream.Collectors;
 
 import org.apache.commons.lang3.StringUtils;
-import org.folio.inventory.common.CollectAll;
+import org.folio.inventory.common.BoundedPipeline;
 import org.folio.inventory.common.MessagingContext;
-import org.folio.inventory.domain.*;
+import org.folio.inventory.domain.AsynchronousCollection;
+import org.folio.inventory.domain.Holding;
+import org.folio.inventory.domain.HoldingCollection;
+import org.folio.inventory.domain.Messages;
+import org.folio.inventory.domain.ingest.IngestStatistics.Stage;
 import org.folio.inventory.domain.instances.Contributor;
 import org.folio.inventory.domain.instances.Identifier;
 import org.folio.inventory.domain.instances.Instance;
@@ -20,7 +27,6 @@ import org.folio.inventory.resources.ingest.IngestJobState;
 import org.folio.inventory.storage.Storage;
 import org.folio.inventory.support.JsonArrayHelper;
 
-import io.vertx.core.Handler;
 import io.vertx.core.eventbus.EventBus;
 import io.vertx.core.eventbus.Message;
 import io.vertx.core.json.JsonObject;
@@ -30,31 +36,36 @@ import io.vertx.core.logging.LoggerFactory;
 public class IngestMessageProcessor {
   private static final Logger log = LoggerFactory.getLogger(MethodHandles.lookup().lookupClass());
 
+  public static final String MAXIMUM_RECORDS_IN_FLIGHT_KEY
+    = "ingest.maximum-records-in-flight";
+
+  private static final int DEFAULT_MAXIMUM_RECORDS_IN_FLIGHT = 10;
+
   private static final String TITLE_PROPERTY = "title";
   private final Storage storage;
+  private final int maximumRecordsInFlight;
 
-  public IngestMessageProcessor(final Storage storage) {
+  public IngestMessageProcessor(final Storage storage, final JsonObject config) {
     this.storage = storage;
+    this.maximumRecordsInFlight = config.getInteger(
+      MAXIMUM_RECORDS_IN_FLIGHT_KEY, DEFAULT_MAXIMUM_RECORDS_IN_FLIGHT);
   }
 
   public void register(EventBus eventBus) {
-    eventBus.consumer(Messages.START_INGEST.Address, recordsMessageHandler(eventBus));
-    eventBus.consumer(Messages.INGEST_COMPLETED.Address, this::markIngestCompleted);
+    eventBus.consumer(Messages.START_INGEST.Address, this::processChunkMessage);
+    eventBus.consumer(Messages.INGEST_FAILED.Address, this::markIngestFailed);
   }
 
-  private Handler<Message<JsonObject>> recordsMessageHandler(EventBus eventBus) {
-    return message -> processRecordsMessage(message, eventBus);
-  }
-
-  private void processRecordsMessage(Message<JsonObject> message, final EventBus eventBus) {
-    final CollectAll<Item> allItems = new CollectAll<>();
-    final CollectAll<Instance> allInstances = new CollectAll<>();
-    final CollectAll<Holding> allHoldings = new CollectAll<>();
-
+  /**
+   * Each chunk of a job is processed independently, the message is replied
+   * to once all of the records in the chunk have been processed
+   */
+  private void processChunkMessage(Message<JsonObject> message) {
     final MessagingContext context = new MessagingContext(message.headers());
     final JsonObject body = message.body();
 
-    IngestMessages.completed(context.getJobId(), context).send(eventBus);
+    final int sequenceNumber = body.getInteger("sequenceNumber", 0);
+    final Integer totalChunks = body.getInteger("totalChunks");
 
     final List<JsonObject> records = JsonArrayHelper.toList(body.getJsonArray("records"));
 
@@ -69,100 +80,150 @@ public class IngestMessageProcessor {
     final ItemCollection itemCollection = storage.getItemCollection(context);
     final HoldingCollection holdingCollection = storage.getHoldingCollection(context);
 
-    records.stream()
-      .map(record -> {
-
-        List<JsonObject> identifiersJson = JsonArrayHelper.toList(
-          record.getJsonArray("identifiers"));
+    final IngestStatistics statistics = new IngestStatistics();
+
+    updateIngestJob(context, job -> job.chunkReceived(records.size()));
+
+    final Map<String, IngestRecord> recordsByCorrelationKey = IngestRecord.index(records);
+
+    if(recordsByCorrelationKey.size() < records.size()) {
+      log.warn(String.format("Ingest job %s ignored %s records with duplicate correlation keys",
+        context.getJobId(), records.size() - recordsByCorrelationKey.size()));
+    }
+
+    new BoundedPipeline<IngestRecord>(maximumRecordsInFlight)
+      .process(recordsByCorrelationKey.values().iterator(), record ->
+        add(instanceCollection,
+          toInstance(record, instanceTypes, identifierTypes, contributorNameTypes),
+          record, Stage.INSTANCE, statistics)
+        .thenCompose(instance -> add(holdingCollection,
+          new Holding(record.holdingId, record.instanceId,
+            locations.getString("Main Library")),
+          record, Stage.HOLDING, statistics))
+        .thenCompose(holding -> add(itemCollection,
+          toItem(record, materialTypes, loanTypes),
+          record, Stage.ITEM, statistics)))
+      .thenAccept(v -> {
+        log.info(String.format("Ingest job %s chunk %s processed %s records: %s",
+          context.getJobId(), sequenceNumber, recordsByCorrelationKey.size(),
+          statistics.toJson().encode()));
+
+        updateIngestJob(context, job -> job.chunkProcessed(records.size(),
+          totalChunks, statistics.getSucceeded(Stage.INSTANCE),
+          statistics.getSucceeded(Stage.HOLDING),
+          statistics.getSucceeded(Stage.ITEM), statistics.getTotalFailed()));
+
+        message.reply(new JsonObject()
+          .put("sequenceNumber", sequenceNumber)
+          .put("statistics", statistics.toJson()));
+      });
+  }
 
-        List<Identifier> identifiers = identifiersJson.stream()
-          .map(identifier -> new Identifier(
-            identifierTypes.getString("ISBN"),
-            identifier.getString("value")))
-          .collect(Collectors.toList());
+  private static Instance toInstance(
+    IngestRecord record,
+    JsonObject instanceTypes,
+    JsonObject identifierTypes,
+    JsonObject contributorNameTypes) {
+
+    List<JsonObject> identifiersJson = JsonArrayHelper.toList(
+      record.source.getJsonArray("identifiers"));
+
+    List<Identifier> identifiers = identifiersJson.stream()
+      .map(identifier -> new Identifier(
+        identifierTypes.getString("ISBN"),
+        identifier.getString("value")))
+      .collect(Collectors.toList());
+
+    List<JsonObject> contributorsJson = JsonArrayHelper.toList(
+      record.source.getJsonArray("contributors"));
+
+    List<Contributor> contributors = contributorsJson.stream()
+      .map(contributor -> new Contributor(
+        contributorNameTypes.getString("Personal name"),
+        contributor.getString("name"), "", "", null))
+      .collect(Collectors.toList());
+
+    if(contributors.isEmpty()) {
+      contributors.add(new Contributor(
+        contributorNameTypes.getString("Personal name"),
+        "Unknown contributor", "", "", null));
+    }
+
+    return new Instance(
+            record.instanceId,
+            null,
+            "Local: MODS",
+            record.source.getString(TITLE_PROPERTY),
+            instanceTypes.getString("text"))
+            .setIdentifiers(identifiers)
+            .setContributors(contributors);
+  }
 
-        List<JsonObject> contributorsJson = JsonArrayHelper.toList(
-          record.getJsonArray("contributors"));
+  private static Item toItem(
+    IngestRecord record,
+    JsonObject materialTypes,
+    JsonObject loanTypes) {
+
+    return new Item(null,
+      record.holdingId,
+      new Status("Available"),
+      materialTypes.getString("Book") != null
+        ? materialTypes.getString("Book")
+        : materialTypes.getString("book"),
+      loanTypes.getString("Can Circulate") != null
+        ? loanTypes.getString("Can Circulate")
+        : loanTypes.getString("Can circulate"),
+       null)
+            .setBarcode(record.source.getString("barcode"));
+  }
 
-        List<Contributor> contributors = contributorsJson.stream()
-          .map(contributor -> new Contributor(
-            contributorNameTypes.getString("Personal name"),
-            contributor.getString("name"), "", "", null))
-          .collect(Collectors.toList());
+  private static <T> CompletableFuture<T> add(
+    AsynchronousCollection<T> collection,
+    T toAdd,
+    IngestRecord record,
+    Stage stage,
+    IngestStatistics statistics) {
+
+    CompletableFuture<T> added = new CompletableFuture<>();
+
+    collection.add(toAdd,
+      success -> {
+        statistics.succeeded(stage);
+        added.complete(success.getResult());
+      },
+      failure -> {
+        statistics.failed(stage);
+        log.error(String.format("%s processing failed for record %s: %s",
+          StringUtils.capitalize(stage.name().toLowerCase()),
+          record.correlationKey, failure.getReason()));
+        added.completeExceptionally(new Exception(failure.getReason()));
+      });
 
-        if(contributors.isEmpty()) {
-          contributors.add(new Contributor(
-            contributorNameTypes.getString("Personal name"),
-            "Unknown contributor", "", "", null));
-        }
+    return added;
+  }
 
-        return new Instance(
-                UUID.randomUUID().toString(),
-                null,
-                "Local: MODS",
-                record.getString(TITLE_PROPERTY),
-                instanceTypes.getString("text"))
-                .setIdentifiers(identifiers)
-                .setContributors(contributors);
-      })
-      .forEach(instance -> instanceCollection.add(instance, allInstances.receive(),
-        failure -> log.error("Instance processing failed: " + failure.getReason())));
-
-      allInstances.collect(instances -> {
-        instances.stream().map(instance ->
-          new Holding(UUID.randomUUID().toString(), instance.getId(),
-            locations.getString("Main Library")))
-          .forEach(holding -> holdingCollection.add(holding, allHoldings.receive(),
-            failure -> log.error("Holding processing failed: " + failure.getReason())));
-
-        allHoldings.collect(holdings ->
-          records.stream().map(record -> {
-            //Will fail if have multiple instances with exactly the same title
-            Optional<Instance> possibleInstance = instances.stream()
-              .filter(instance ->
-                StringUtils.equals(instance.getTitle(), record.getString(TITLE_PROPERTY)))
-              .findFirst();
-
-            String instanceId = possibleInstance.isPresent()
-              ? possibleInstance.get().getId()
-              : null;
-
-            Optional<Holding> possibleHolding = holdings.stream()
-              .filter(holding ->
-                StringUtils.equals(instanceId, holding.instanceId))
-              .findFirst();
-
-            String holdingId = possibleHolding.isPresent()
-              ? possibleHolding.get().id
-              : null;
-
-            return new Item(null,
-              holdingId,
-              new Status("Available"),
-              materialTypes.getString("Book") != null
-                ? materialTypes.getString("Book")
-                : materialTypes.getString("book"),
-              loanTypes.getString("Can Circulate") != null
-                ? loanTypes.getString("Can Circulate")
-                : loanTypes.getString("Can circulate"),
-               null)
-                    .setBarcode(record.getString("barcode"));
-        })
-        .forEach(item -> itemCollection.add(item, allItems.receive(),
-          failure -> log.error("Item processing failed: " + failure.getReason()))));
-      });
+  private void markIngestFailed(Message<JsonObject> message) {
+    final MessagingContext context = new MessagingContext(message.headers());
 
+    log.error(String.format("Ingest job %s failed: %s", context.getJobId(),
+      message.body().getString("reason")));
 
-    allItems.collect(items ->
-      IngestMessages.completed(context.getJobId(), context).send(eventBus));
+    updateIngestJob(context, IngestJob::fail);
   }
 
-  private void markIngestCompleted(Message<JsonObject> message) {
-    final MessagingContext context = new MessagingContext(message.headers());
+  private void updateIngestJob(
+    MessagingContext context,
+    UnaryOperator<IngestJob> change) {
 
-    storage.getIngestJobCollection(context).update(
-      new IngestJob(context.getJobId(), IngestJobState.COMPLETED),
-      v -> log.info(String.format("Ingest job %s completed", context.getJobId())),
+    storage.getIngestJobCollection(context).modify(context.getJobId(), change,
+      updated -> {
+        if(updated.getResult() == null) {
+          log.error(String.format("Ingest job %s not found", context.getJobId()));
+        }
+        else if(updated.getResult().state == IngestJobState.COMPLETED) {
+          log.info(String.format("Ingest job %s completed", context.getJobId()));
+        }
+      },
       failure -> log.error(
         String.format("Updating ingest job failed: %s", failure.getReason())));
   }
@@ -10,31 +10,42 @@ import java.util.List;
 import java.util.Map;
 
 public class IngestMessages {
-  public static JsonMessage start(
+  /**
+   * @param firstRecordPosition position of the first record of this chunk
+   *                            within the whole job
+   * @param totalChunks only included in the last chunk of a job
+   * @param referenceRecords reference records needed for ingest, by type
+   *                         e.g. materialTypes
+   */
+  public static JsonMessage chunk(
     List<JsonObject> records,
-    Map materialTypes,
-    Map loanTypes,
-    Map locations,
-    Map identifierTypes,
-    Map instanceTypes,
-    Map contributorNameTypes,
+    long firstRecordPosition,
+    int sequenceNumber,
+    Integer totalChunks,
+    JsonObject referenceRecords,
     String jobId,
     Context context) {
 
+    for (int position = 0; position < records.size(); position++) {
+      records.get(position).put(IngestRecord.CORRELATION_KEY_PROPERTY,
+        String.valueOf(firstRecordPosition + position));
+    }
+
+    JsonObject body = referenceRecords.copy()
+      .put("sequenceNumber", sequenceNumber)
+      .put("records", records);
+
+    if(totalChunks != null) {
+      body.put("totalChunks", totalChunks);
+    }
+
     return new JsonMessage(Messages.START_INGEST.Address, headers(jobId, context),
-      new JsonObject()
-        .put("records", records)
-        .put("materialTypes", materialTypes)
-        .put("loanTypes", loanTypes)
-        .put("locations", locations)
-        .put("identifierTypes", identifierTypes)
-        .put("instanceTypes", instanceTypes)
-        .put("contributorNameTypes", contributorNameTypes));
+      body);
   }
 
-  public static JsonMessage completed(String jobId, Context context) {
-    return new JsonMessage(Messages.INGEST_COMPLETED.Address,
-      headers(jobId, context), new JsonObject());
+  public static JsonMessage failed(String jobId, String reason, Context context) {
+    return new JsonMessage(Messages.INGEST_FAILED.Address,
+      headers(jobId, context), new JsonObject().put("reason", reason));
   }
 
   private static Map<String, String> headers(String jobId, Context context) {
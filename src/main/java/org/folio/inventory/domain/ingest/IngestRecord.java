@@ -0,0 +1,51 @@
+package org.folio.inventory.domain.ingest;
+
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+import io.vertx.core.json.JsonObject;
+
+/**
+ * A record being ingested, along with the identifiers of the instance and
+ * holding that will be created for it.
+ * <p>
+ * Identifiers are allocated before any records are created, so that each
+ * stage can refer to the records created by earlier stages by correlation
+ * key, rather than by searching for them.
+ */
+class IngestRecord {
+  static final String CORRELATION_KEY_PROPERTY = "correlationKey";
+
+  final String correlationKey;
+  final JsonObject source;
+  final String instanceId;
+  final String holdingId;
+
+  private IngestRecord(String correlationKey, JsonObject source) {
+    this.correlationKey = correlationKey;
+    this.source = source;
+    this.instanceId = UUID.randomUUID().toString();
+    this.holdingId = UUID.randomUUID().toString();
+  }
+
+  /**
+   * @return records indexed by correlation key, in the order they were
+   * provided, records without a key are keyed by their position
+   */
+  static Map<String, IngestRecord> index(List<JsonObject> records) {
+    Map<String, IngestRecord> indexed = new LinkedHashMap<>(records.size() * 2);
+
+    for (int position = 0; position < records.size(); position++) {
+      JsonObject source = records.get(position);
+
+      String correlationKey = source.getString(CORRELATION_KEY_PROPERTY,
+        String.valueOf(position));
+
+      indexed.putIfAbsent(correlationKey, new IngestRecord(correlationKey, source));
+    }
+
+    return indexed;
+  }
+}
@@ -0,0 +1,77 @@
+package org.folio.inventory.domain.ingest;
+
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import io.vertx.core.json.JsonObject;
+
+/**
+ * Counts how many records have passed through, or failed at, each stage
+ * of an ingest, and the rate at which they have done so
+ */
+public class IngestStatistics {
+  public enum Stage {
+    INSTANCE("instances"),
+    HOLDING("holdings"),
+    ITEM("items");
+
+    private final String propertyName;
+
+    Stage(String propertyName) {
+      this.propertyName = propertyName;
+    }
+  }
+
+  private final long startedAt = System.nanoTime();
+  private final Map<Stage, AtomicLong> succeeded = new EnumMap<>(Stage.class);
+  private final Map<Stage, AtomicLong> failed = new EnumMap<>(Stage.class);
+
+  public IngestStatistics() {
+    for (Stage stage : Stage.values()) {
+      succeeded.put(stage, new AtomicLong());
+      failed.put(stage, new AtomicLong());
+    }
+  }
+
+  void succeeded(Stage stage) {
+    succeeded.get(stage).incrementAndGet();
+  }
+
+  void failed(Stage stage) {
+    failed.get(stage).incrementAndGet();
+  }
+
+  public long getSucceeded(Stage stage) {
+    return succeeded.get(stage).get();
+  }
+
+  public long getFailed(Stage stage) {
+    return failed.get(stage).get();
+  }
+
+  public long getTotalFailed() {
+    return failed.values().stream().mapToLong(AtomicLong::get).sum();
+  }
+
+  public JsonObject toJson() {
+    long elapsedMilliseconds = TimeUnit.NANOSECONDS.toMillis(
+      System.nanoTime() - startedAt);
+
+    JsonObject json = new JsonObject()
+      .put("elapsedMilliseconds", elapsedMilliseconds);
+
+    for (Stage stage : Stage.values()) {
+      long stageSucceeded = getSucceeded(stage);
+
+      json.put(stage.propertyName, new JsonObject()
+        .put("succeeded", stageSucceeded)
+        .put("failed", getFailed(stage))
+        .put("perSecond", elapsedMilliseconds == 0 ? 0
+          : (stageSucceeded * 1000) / elapsedMilliseconds));
+    }
+
+    return json;
+  }
+}
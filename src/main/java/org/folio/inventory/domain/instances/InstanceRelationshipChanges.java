@@ -0,0 +1,129 @@
+package org.folio.inventory.domain.instances;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+
+/**
+ * The changes needed to make the stored relationships of a set of instances
+ * match the relationships requested for them, worked out for all of the
+ * instances at once.
+ * <p>
+ * A requested relationship without an id matches a stored relationship
+ * between the same instances of the same type, so that it is not replaced
+ * needlessly. A relationship requested by both the parent and the child
+ * instance is only created once.
+ * <p>
+ * Stored relationships of the instances which are not requested (by either
+ * instance) are removed.
+ */
+public class InstanceRelationshipChanges {
+  public final List<InstanceRelationship> toCreate;
+  public final List<InstanceRelationship> toUpdate;
+  public final List<InstanceRelationship> toDelete;
+
+  private InstanceRelationshipChanges(
+    List<InstanceRelationship> toCreate,
+    List<InstanceRelationship> toUpdate,
+    List<InstanceRelationship> toDelete) {
+
+    this.toCreate = toCreate;
+    this.toUpdate = toUpdate;
+    this.toDelete = toDelete;
+  }
+
+  /**
+   * @param instanceIds instances whose relationships are being replaced
+   * @param existing stored relationships, those which do not involve
+   *                 any of the instances are ignored
+   * @param requested relationships wanted for the instances, those
+   *                  without an id are given one if they need creating
+   */
+  public static InstanceRelationshipChanges between(
+    Collection<String> instanceIds,
+    Collection<InstanceRelationship> existing,
+    Collection<InstanceRelationship> requested) {
+
+    Set<String> instances = new HashSet<>(instanceIds);
+
+    Map<String, InstanceRelationship> existingById = new LinkedHashMap<>();
+    Map<String, InstanceRelationship> existingByRelation = new HashMap<>();
+
+    existing.stream()
+      .filter(relationship -> instances.contains(relationship.superInstanceId)
+        || instances.contains(relationship.subInstanceId))
+      .forEach(relationship -> {
+        existingById.put(relationship.id, relationship);
+        existingByRelation.putIfAbsent(relationKey(relationship), relationship);
+      });
+
+    List<InstanceRelationship> toCreate = new ArrayList<>();
+    List<InstanceRelationship> toUpdate = new ArrayList<>();
+
+    Set<String> kept = new HashSet<>();
+    Set<String> requestedRelations = new HashSet<>();
+
+    //Relationships with an id come first, so that one also requested without
+    //an id (e.g. by the other instance) matches it rather than a stored one
+    List<InstanceRelationship> ordered = new ArrayList<>(requested);
+    ordered.sort((first, second) ->
+      Boolean.compare(first.id == null, second.id == null));
+
+    for (InstanceRelationship relationship : ordered) {
+      String relation = relationKey(relationship);
+
+      if (relationship.id != null) {
+        if (!kept.add(relationship.id)) {
+          continue;
+        }
+
+        requestedRelations.add(relation);
+
+        InstanceRelationship stored = existingById.get(relationship.id);
+
+        if (stored == null) {
+          toCreate.add(relationship);
+        }
+        else if (!stored.equals(relationship)) {
+          toUpdate.add(relationship);
+        }
+      }
+      else if (requestedRelations.add(relation)) {
+        InstanceRelationship stored = existingByRelation.get(relation);
+
+        if (stored != null && kept.add(stored.id)) {
+          continue;
+        }
+
+        toCreate.add(new InstanceRelationship(UUID.randomUUID().toString(),
+          relationship.superInstanceId, relationship.subInstanceId,
+          relationship.instanceRelationshipTypeId));
+      }
+    }
+
+    List<InstanceRelationship> toDelete = new ArrayList<>();
+
+    existingById.forEach((id, relationship) -> {
+      if (!kept.contains(id)) {
+        toDelete.add(relationship);
+      }
+    });
+
+    return new InstanceRelationshipChanges(toCreate, toUpdate, toDelete);
+  }
+
+  public boolean isEmpty() {
+    return toCreate.isEmpty() && toUpdate.isEmpty() && toDelete.isEmpty();
+  }
+
+  private static String relationKey(InstanceRelationship relationship) {
+    return String.format("%s %s %s", relationship.superInstanceId,
+      relationship.subInstanceId, relationship.instanceRelationshipTypeId);
+  }
+}
@@ -2,117 +2,248 @@ package org.folio.inventory.parsing;
 
 import io.vertx.core.json.JsonArray;
 import io.vertx.core.json.JsonObject;
-import org.apache.commons.io.IOUtils;
-import org.w3c.dom.Document;
-import org.w3c.dom.Node;
-import org.w3c.dom.NodeList;
-import org.xml.sax.SAXException;
-
-import javax.xml.parsers.DocumentBuilder;
-import javax.xml.parsers.DocumentBuilderFactory;
-import javax.xml.parsers.ParserConfigurationException;
-import javax.xml.xpath.XPath;
-import javax.xml.xpath.XPathConstants;
-import javax.xml.xpath.XPathExpressionException;
-import javax.xml.xpath.XPathFactory;
+
+import javax.xml.stream.XMLInputFactory;
+import javax.xml.stream.XMLStreamConstants;
+import javax.xml.stream.XMLStreamException;
+import javax.xml.stream.XMLStreamReader;
+import java.io.ByteArrayInputStream;
 import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.List;
+import java.util.function.Consumer;
 
+/**
+ * Parses MODS records one at a time from a stream, so that only the
+ * record currently being read is held in memory
+ */
 public class ModsParser {
+  private static final List<String> RECORD = Arrays.asList("mods_records", "mods");
+
+  private static final List<String> TITLE = Arrays.asList("titleInfo", "title");
+  private static final List<String> BARCODE = Arrays.asList(
+    "location", "holdingExternal", "localHolds", "objId");
+  private static final List<String> RECORD_IDENTIFIER = Arrays.asList(
+    "recordInfo", "recordIdentifier");
+  private static final List<String> IDENTIFIER = Arrays.asList("identifier");
+  private static final List<String> CONTRIBUTOR = Arrays.asList("name", "namePart");
 
   private final CharacterEncoding characterEncoding;
+  private final XMLInputFactory inputFactory;
 
   public ModsParser(CharacterEncoding characterEncoding) {
     this.characterEncoding = characterEncoding;
+
+    inputFactory = XMLInputFactory.newInstance();
+    inputFactory.setProperty(XMLInputFactory.IS_NAMESPACE_AWARE, false);
+    inputFactory.setProperty(XMLInputFactory.IS_COALESCING, true);
+    inputFactory.setProperty(XMLInputFactory.SUPPORT_DTD, false);
+    inputFactory.setProperty(XMLInputFactory.IS_SUPPORTING_EXTERNAL_ENTITIES, false);
   }
 
-  public List<JsonObject> parseRecords(String xml)
-    throws ParserConfigurationException,
-    IOException,
-    SAXException,
-    XPathExpressionException {
+  public List<JsonObject> parseRecords(String xml) throws IOException {
+    ArrayList<JsonObject> parsedRecords = new ArrayList<>();
 
-    DocumentBuilderFactory factory = DocumentBuilderFactory.newInstance();
-    factory.setNamespaceAware(false);
-    DocumentBuilder builder = factory.newDocumentBuilder();
-    Document doc = builder.parse(IOUtils.toInputStream(xml, "UTF-8"));
+    parseRecords(new ByteArrayInputStream(xml.getBytes(StandardCharsets.UTF_8)),
+      parsedRecords::add);
 
-    XPathFactory xpathFactory = XPathFactory.newInstance();
-    XPath xpath = xpathFactory.newXPath();
+    return parsedRecords;
+  }
 
-    ArrayList<JsonObject> parsedRecords = new ArrayList<>();
+  /**
+   * Provides each record to the consumer as soon as it has been read
+   *
+   * @return the number of records parsed
+   */
+  public int parseRecords(InputStream xml, Consumer<JsonObject> recordConsumer)
+    throws IOException {
+
+    XMLStreamReader reader = null;
+
+    try {
+      reader = inputFactory.createXMLStreamReader(xml);
+
+      List<String> path = new ArrayList<>();
+      RecordBuilder currentRecord = null;
+      int recordCount = 0;
+
+      while(reader.hasNext()) {
+        switch(reader.next()) {
+          case XMLStreamConstants.START_ELEMENT:
+            path.add(localName(reader.getLocalName()));
+
+            if(path.equals(RECORD)) {
+              currentRecord = new RecordBuilder();
+            }
+            else if(currentRecord != null) {
+              currentRecord.startElement(
+                path.subList(RECORD.size(), path.size()), path.size(), reader);
+            }
+            break;
+
+          case XMLStreamConstants.CHARACTERS:
+          case XMLStreamConstants.CDATA:
+          case XMLStreamConstants.SPACE:
+            if(currentRecord != null) {
+              currentRecord.text(path.size(), reader.getText());
+            }
+            break;
+
+          case XMLStreamConstants.END_ELEMENT:
+            if(path.equals(RECORD)) {
+              recordConsumer.accept(currentRecord.build());
+              recordCount++;
+              currentRecord = null;
+            }
+            else if(currentRecord != null) {
+              currentRecord.endElement(path.size());
+            }
+
+            path.remove(path.size() - 1);
+            break;
+
+          default:
+            break;
+        }
+      }
 
-    NodeList records = (NodeList) xpath.compile("/mods_records/mods")
-      .evaluate(doc, XPathConstants.NODESET);
+      return recordCount;
+    }
+    catch (XMLStreamException e) {
+      throw new IOException(String.format("Unable to parse MODS: %s",
+        e.getMessage()), e);
+    }
+    finally {
+      close(reader);
+    }
+  }
 
-    for(int recordIndex = 0; recordIndex < records.getLength(); recordIndex++) {
-      JsonObject parsedRecord = new JsonObject();
+  private static void close(XMLStreamReader reader) {
+    if(reader != null) {
+      try {
+        reader.close();
+      }
+      catch (XMLStreamException e) {
+        //Nothing more can be done if closing the reader fails
+      }
+    }
+  }
 
-      Node record = records.item(recordIndex);
+  /**
+   * Without namespace awareness, names include any prefix
+   */
+  private static String localName(String name) {
+    return name.substring(name.indexOf(':') + 1);
+  }
 
-      String title = (String)xpath.compile("titleInfo/title/text()")
-        .evaluate(record, XPathConstants.STRING);
+  private static String attribute(XMLStreamReader reader, String name) {
+    for(int index = 0; index < reader.getAttributeCount(); index++) {
+      if(localName(reader.getAttributeLocalName(index)).equals(name)) {
+        return reader.getAttributeValue(index);
+      }
+    }
 
-      String barcode = (String)xpath.compile("location/holdingExternal/localHolds/objId/text()")
-        .evaluate(record, XPathConstants.STRING);
+    return null;
+  }
 
-      JsonArray parsedIdentifiers = new JsonArray();
+  private class RecordBuilder {
+    private final JsonArray recordIdentifiers = new JsonArray();
+    private final JsonArray identifiers = new JsonArray();
+    private final JsonArray contributors = new JsonArray();
 
-      NodeList recordIdentifiers = (NodeList)xpath.compile("recordInfo/recordIdentifier")
-        .evaluate(record, XPathConstants.NODESET);
+    private String title = null;
+    private String barcode = null;
 
-      for(int recordIdentifierIndex = 0; recordIdentifierIndex < recordIdentifiers.getLength(); recordIdentifierIndex++) {
-        Node recordIdentifier = recordIdentifiers.item(recordIdentifierIndex);
+    private Consumer<String> onCaptured = null;
+    private StringBuilder captured = null;
+    private boolean capturedAnyText = false;
+    private boolean descendantText = false;
+    private int captureDepth = 0;
 
-        Node sourceAttribute = recordIdentifier.getAttributes().getNamedItem("source");
+    void startElement(List<String> relativePath, int depth, XMLStreamReader reader) {
+      if(captured != null) {
+        return;
+      }
 
-        String type = sourceAttribute != null ? sourceAttribute.getTextContent() : "";
-        String value = recordIdentifier.getTextContent();
+      captureDepth = depth;
 
-        parsedIdentifiers.add(new JsonObject()
-          .put("type", type)
-          .put("value", value));
+      if(title == null && relativePath.equals(TITLE)) {
+        captureDirectText(value -> title = value);
       }
+      else if(barcode == null && relativePath.equals(BARCODE)) {
+        captureDirectText(value -> barcode = value);
+      }
+      else if(relativePath.equals(RECORD_IDENTIFIER)) {
+        String type = attribute(reader, "source");
 
-      NodeList identifiers = (NodeList)xpath.compile("identifier")
-        .evaluate(record, XPathConstants.NODESET);
+        captureAllText(value -> recordIdentifiers.add(new JsonObject()
+          .put("type", type != null ? type : "")
+          .put("value", value)));
+      }
+      else if(relativePath.equals(IDENTIFIER)) {
+        String type = attribute(reader, "type");
 
-      for(int identifierIndex = 0; identifierIndex < identifiers.getLength(); identifierIndex++) {
-        Node identifier = identifiers.item(identifierIndex);
+        captureAllText(value -> identifiers.add(new JsonObject()
+          .put("type", type != null ? type : "")
+          .put("value", value)));
+      }
+      else if(relativePath.equals(CONTRIBUTOR) && attribute(reader, "type") == null) {
+        captureAllText(value -> contributors.add(new JsonObject()
+          .put("name", characterEncoding.decode(value))));
+      }
+    }
 
-        Node typeAttribute = identifier.getAttributes().getNamedItem("type");
+    void text(int depth, String text) {
+      if(captured != null && (descendantText || depth == captureDepth)) {
+        captured.append(text);
+        capturedAnyText = true;
+      }
+    }
 
-        String type = typeAttribute != null ? typeAttribute.getTextContent() : "";
-        String value = identifier.getTextContent();
+    void endElement(int depth) {
+      if(captured != null && depth == captureDepth) {
+        //Equivalent to text() in XPath, elements without text are ignored
+        if(descendantText || capturedAnyText) {
+          onCaptured.accept(captured.toString());
+        }
 
-        parsedIdentifiers.add(new JsonObject()
-          .put("type", type)
-          .put("value", value));
+        captured = null;
+        onCaptured = null;
       }
+    }
 
-      JsonArray parsedContributors = new JsonArray();
+    JsonObject build() {
+      //Record identifiers come before other identifiers, as they did when parsed with XPath
+      JsonArray allIdentifiers = recordIdentifiers.copy();
 
-      NodeList contributors = (NodeList)xpath.compile("name/namePart[not(@type)]")
-        .evaluate(record, XPathConstants.NODESET);
+      identifiers.forEach(allIdentifiers::add);
 
-      for(int contributorIndex = 0; contributorIndex < contributors.getLength(); contributorIndex++) {
-        Node contributor = contributors.item(contributorIndex);
+      return new JsonObject()
+        .put("title", characterEncoding.decode(title != null ? title : ""))
+        .put("barcode", characterEncoding.decode(barcode != null ? barcode : ""))
+        .put("identifiers", allIdentifiers)
+        .put("contributors", contributors);
+    }
 
-        String name = contributor.getTextContent();
+    private void captureDirectText(Consumer<String> onCaptured) {
+      capture(onCaptured, false);
+    }
 
-        parsedContributors.add(new JsonObject()
-          .put("name", characterEncoding.decode(name)));
-      }
+    private void captureAllText(Consumer<String> onCaptured) {
+      capture(onCaptured, true);
+    }
 
-      parsedRecord.put("title", characterEncoding.decode(title));
-      parsedRecord.put("barcode", characterEncoding.decode(barcode));
-      parsedRecord.put("identifiers", parsedIdentifiers);
-      parsedRecord.put("contributors", parsedContributors);
+    private void capture(
+      Consumer<String> onCaptured,
+      boolean descendantText) {
 
-      parsedRecords.add(parsedRecord);
+      this.onCaptured = onCaptured;
+      this.captured = new StringBuilder();
+      this.capturedAnyText = false;
+      this.descendantText = descendantText;
     }
-
-    return parsedRecords;
   }
 }
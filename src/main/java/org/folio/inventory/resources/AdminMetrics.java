@@ -0,0 +1,186 @@
+package org.folio.inventory.resources;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Function;
+
+import org.folio.inventory.common.AccessLog;
+import org.folio.inventory.common.WorkerPool;
+import org.folio.inventory.common.metrics.InventoryMetrics;
+import org.folio.inventory.common.metrics.PrometheusText;
+import org.folio.inventory.support.http.ContentType;
+import org.folio.inventory.support.http.client.StorageReadPolicy;
+import org.folio.inventory.support.http.client.StorageRequestLimits;
+
+import io.vertx.core.Vertx;
+import io.vertx.core.http.HttpHeaders;
+import io.vertx.core.json.JsonArray;
+import io.vertx.core.json.JsonObject;
+import io.vertx.ext.web.Router;
+import io.vertx.ext.web.RoutingContext;
+
+/**
+ * Serves the module's metrics in the Prometheus text format, covering every
+ * verticle instance: request latencies by route, by tenant and by storage
+ * path, requests in flight, HTTP client pool usage, storage request limits,
+ * worker pool usage and access log entries dropped
+ * <p>
+ * As the metrics include every tenant's requests, the endpoint is declared
+ * in the module descriptor with its own permission, rather than being
+ * included in the permissions for using the inventory.
+ */
+public class AdminMetrics {
+  private static final String METRICS_PATH = "/admin/metrics";
+
+  private final Vertx vertx;
+  private final StorageRequestLimits storageRequestLimits;
+  private final StorageReadPolicy storageReadPolicy;
+  private final List<WorkerPool> workerPools;
+  private final AccessLog accessLog;
+
+  public AdminMetrics(
+    Vertx vertx,
+    StorageRequestLimits storageRequestLimits,
+    StorageReadPolicy storageReadPolicy,
+    List<WorkerPool> workerPools,
+    AccessLog accessLog) {
+
+    this.vertx = vertx;
+    this.storageRequestLimits = storageRequestLimits;
+    this.storageReadPolicy = storageReadPolicy;
+    this.workerPools = workerPools;
+    this.accessLog = accessLog;
+  }
+
+  public void register(Router router) {
+    router.get(METRICS_PATH).handler(this::metrics);
+  }
+
+  private void metrics(RoutingContext routingContext) {
+    PrometheusText text = new PrometheusText();
+
+    InventoryMetrics.from(vertx).ifPresent(metrics -> metrics.writeTo(text));
+
+    writeStorageRequestLimits(text);
+    writeStorageReadPolicy(text);
+    writeWorkerPools(text);
+    writeAccessLog(text);
+
+    routingContext.response()
+      .putHeader(HttpHeaders.CONTENT_TYPE, ContentType.TEXT_PROMETHEUS)
+      .end(text.toString());
+  }
+
+  private void writeStorageRequestLimits(PrometheusText text) {
+    JsonArray endpointsJson = storageRequestLimits.toJson()
+      .getJsonArray("storageEndpoints");
+
+    List<JsonObject> endpoints = new ArrayList<>();
+
+    for (int index = 0; index < endpointsJson.size(); index++) {
+      endpoints.add(endpointsJson.getJsonObject(index));
+    }
+
+    writeEach(text, endpoints, "inventory_storage_concurrency_limit",
+      "Requests allowed in flight to the storage path", "gauge",
+      endpoint -> limit(endpoint).getValue("limit"));
+
+    writeEach(text, endpoints, "inventory_storage_concurrency_in_flight",
+      "Requests in flight to the storage path", "gauge",
+      endpoint -> limit(endpoint).getValue("inFlight"));
+
+    writeEach(text, endpoints, "inventory_storage_concurrency_rejected_total",
+      "Requests not sent because too many were in flight to the storage path",
+      "counter", endpoint -> limit(endpoint).getValue("rejected"));
+
+    writeEach(text, endpoints, "inventory_storage_circuit_open",
+      "Whether requests to the storage path are being refused (1) or not (0)",
+      "gauge", endpoint -> "CLOSED".equals(breaker(endpoint).getString("state")) ? 0 : 1);
+
+    writeEach(text, endpoints, "inventory_storage_circuit_opened_total",
+      "Times requests to the storage path started being refused", "counter",
+      endpoint -> breaker(endpoint).getValue("timesOpened"));
+
+    writeEach(text, endpoints, "inventory_storage_circuit_rejected_total",
+      "Requests not sent because requests to the storage path were being refused",
+      "counter", endpoint -> breaker(endpoint).getValue("rejected"));
+  }
+
+  private void writeStorageReadPolicy(PrometheusText text) {
+    JsonObject reads = storageReadPolicy.toJson();
+
+    text.counter("inventory_storage_read_retries_total",
+      "Reads from storage attempted again", reads.getLong("retries"));
+
+    text.counter("inventory_storage_read_hedges_total",
+      "Slow reads from storage raced with a second request", reads.getLong("hedges"));
+
+    text.counter("inventory_storage_read_deadlines_exceeded_total",
+      "Reads from storage abandoned once their deadline passed",
+      reads.getLong("deadlinesExceeded"));
+  }
+
+  private void writeWorkerPools(PrometheusText text) {
+    writeWorkerPool(text, "inventory_worker_pool_queued",
+      "Tasks waiting for a worker thread", "gauge", "queued");
+
+    writeWorkerPool(text, "inventory_worker_pool_running",
+      "Tasks running on a worker thread", "gauge", "running");
+
+    writeWorkerPool(text, "inventory_worker_pool_completed_total",
+      "Tasks completed", "counter", "completed");
+
+    writeWorkerPool(text, "inventory_worker_pool_rejected_total",
+      "Tasks rejected because too many were waiting", "counter", "rejected");
+
+    writeWorkerPool(text, "inventory_worker_pool_maximum_queue_wait_milliseconds",
+      "Longest time a task waited for a worker thread", "gauge",
+      "maximumQueueWaitMilliseconds");
+  }
+
+  private void writeAccessLog(PrometheusText text) {
+    JsonObject entries = accessLog.toJson();
+
+    text.counter("inventory_access_log_written_total",
+      "Access log entries written", entries.getLong("written"));
+
+    text.counter("inventory_access_log_dropped_total",
+      "Access log entries dropped because the buffer was full",
+      entries.getLong("dropped"));
+  }
+
+  private void writeWorkerPool(
+    PrometheusText text,
+    String name,
+    String help,
+    String type,
+    String property) {
+
+    text.header(name, help, type);
+
+    workerPools.forEach(pool -> text.sample(name,
+      pool.toJson().getLong(property), "pool", pool.getName()));
+  }
+
+  private static void writeEach(
+    PrometheusText text,
+    List<JsonObject> endpoints,
+    String name,
+    String help,
+    String type,
+    Function<JsonObject, Object> value) {
+
+    text.header(name, help, type);
+
+    endpoints.forEach(endpoint -> text.sample(name,
+      (Number) value.apply(endpoint), "path", endpoint.getString("path")));
+  }
+
+  private static JsonObject limit(JsonObject endpoint) {
+    return endpoint.getJsonObject("concurrencyLimit");
+  }
+
+  private static JsonObject breaker(JsonObject endpoint) {
+    return endpoint.getJsonObject("circuitBreaker");
+  }
+}
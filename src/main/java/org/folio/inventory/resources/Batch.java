@@ -0,0 +1,160 @@
+package org.folio.inventory.resources;
+
+import static org.folio.inventory.common.FutureAssistance.allOf;
+
+import java.io.UnsupportedEncodingException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+import org.folio.inventory.common.api.request.PagingParameters;
+import org.folio.inventory.domain.SearchableCollection;
+import org.folio.inventory.support.http.server.ClientErrorResponse;
+
+import io.vertx.core.json.JsonArray;
+import io.vertx.core.json.JsonObject;
+import io.vertx.ext.web.RoutingContext;
+
+/**
+ * Parts shared by the batch resources: the entries in the request, the
+ * outcome of each entry and queries for many entries at once
+ */
+final class Batch {
+  static final int MAXIMUM_SIZE = 1000;
+
+  static final int STATUS_CREATED = 201;
+  static final int STATUS_NO_CONTENT = 204;
+  static final int STATUS_UNPROCESSABLE_ENTITY = 422;
+
+  private Batch() { }
+
+  /**
+   * @return the entries in the batch, or null when there are none or too
+   * many (in which case the request has been responded to)
+   */
+  static JsonArray entries(RoutingContext routingContext, String recordType) {
+    JsonObject batchRequest = routingContext.getBodyAsJson();
+
+    JsonArray entries = batchRequest != null
+      ? batchRequest.getJsonArray(recordType)
+      : null;
+
+    if(entries == null) {
+      ClientErrorResponse.badRequest(routingContext.response(),
+        String.format("Batch must contain an array of %s", recordType));
+
+      return null;
+    }
+
+    if(entries.size() > MAXIMUM_SIZE) {
+      ClientErrorResponse.badRequest(routingContext.response(),
+        String.format("Batch must contain no more than %s %s, contains %s",
+          MAXIMUM_SIZE, recordType, entries.size()));
+
+      return null;
+    }
+
+    return entries;
+  }
+
+  static JsonObject success(int index, String id, int status) {
+    return new JsonObject()
+      .put("index", index)
+      .put("status", status)
+      .put("id", id);
+  }
+
+  /**
+   * @param id of the record, if it is known
+   */
+  static JsonObject failure(int index, String id, int status, String reason) {
+    JsonObject failure = new JsonObject()
+      .put("index", index)
+      .put("status", status)
+      .put("error", reason);
+
+    if(id != null) {
+      failure.put("id", id);
+    }
+
+    return failure;
+  }
+
+  static int count(JsonObject[] results, int status) {
+    int count = 0;
+
+    for(JsonObject result : results) {
+      if(result.getInteger("status") == status) {
+        count++;
+      }
+    }
+
+    return count;
+  }
+
+  /**
+   * @return the results in the order of the batch, with the number created
+   * and the number which failed (any entry that was not successful)
+   */
+  static JsonObject summary(JsonObject[] results) {
+    JsonArray resultsArray = new JsonArray();
+
+    int failed = 0;
+
+    for(JsonObject result : results) {
+      resultsArray.add(result);
+
+      if(result.getInteger("status") >= 300) {
+        failed++;
+      }
+    }
+
+    return new JsonObject()
+      .put("results", resultsArray)
+      .put("created", count(results, STATUS_CREATED))
+      .put("failed", failed)
+      .put("totalRecords", results.length);
+  }
+
+  /**
+   * Finds the records matching any of the values, with a query for each
+   * group of values (rather than one query per value)
+   *
+   * @param toCql query for a group of values
+   * @param limit maximum number of records found by each query
+   */
+  static <T> CompletableFuture<List<T>> findInGroups(
+    SearchableCollection<T> collection,
+    List<String> values,
+    int valuesPerQuery,
+    Function<List<String>, String> toCql,
+    int limit) {
+
+    List<CompletableFuture<List<T>>> queries = new ArrayList<>();
+
+    for(int start = 0; start < values.size(); start += valuesPerQuery) {
+      List<String> queried = values.subList(start,
+        Math.min(start + valuesPerQuery, values.size()));
+
+      CompletableFuture<List<T>> query = new CompletableFuture<>();
+
+      queries.add(query);
+
+      try {
+        collection.findByCql(toCql.apply(queried),
+          new PagingParameters(limit, 0),
+          success -> query.complete(success.getResult().records),
+          failure -> query.completeExceptionally(
+            new Exception(failure.getReason())));
+      } catch (UnsupportedEncodingException e) {
+        query.completeExceptionally(e);
+      }
+    }
+
+    return allOf(queries).thenApply(v -> queries.stream()
+      .flatMap(query -> query.join().stream())
+      .collect(Collectors.toList()));
+  }
+}
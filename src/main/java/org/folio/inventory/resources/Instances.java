@@ -7,20 +7,31 @@ import java.net.URL;
 import java.net.URLEncoder;
 import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.Collections;
 import java.util.HashMap;
+import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
 import java.util.Objects;
+import java.util.Set;
 import java.util.UUID;
 import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.atomic.AtomicInteger;
 import java.util.function.Consumer;
+import java.util.function.Supplier;
+import java.util.regex.Pattern;
 import java.util.stream.Collectors;
+import java.util.stream.IntStream;
 
 import org.apache.commons.lang3.StringUtils;
+import org.folio.inventory.common.BoundedPipeline;
 import org.folio.inventory.common.WebContext;
 import org.folio.inventory.common.api.request.PagingParameters;
+import org.folio.inventory.common.api.request.Projection;
+import org.folio.inventory.common.domain.Failure;
 import org.folio.inventory.common.domain.MultipleRecords;
 import org.folio.inventory.common.domain.Success;
+import org.folio.inventory.common.metrics.PhaseTimings;
 import org.folio.inventory.domain.instances.AlternativeTitle;
 import org.folio.inventory.domain.instances.Classification;
 import org.folio.inventory.domain.instances.Contributor;
@@ -29,17 +40,22 @@ import org.folio.inventory.domain.instances.Identifier;
 import org.folio.inventory.domain.instances.Instance;
 import org.folio.inventory.domain.instances.InstanceCollection;
 import org.folio.inventory.domain.instances.InstanceRelationship;
+import org.folio.inventory.domain.instances.InstanceRelationshipChanges;
 import org.folio.inventory.domain.instances.InstanceRelationshipToChild;
 import org.folio.inventory.domain.instances.InstanceRelationshipToParent;
 import org.folio.inventory.domain.instances.Publication;
 import org.folio.inventory.storage.Storage;
 import org.folio.inventory.storage.external.CollectionResourceClient;
+import org.folio.inventory.support.CqlHelper;
 import org.folio.inventory.support.JsonArrayHelper;
+import org.folio.inventory.support.http.JsonBody;
 import org.folio.inventory.support.http.client.OkapiHttpClient;
 import org.folio.inventory.support.http.client.Response;
 import org.folio.inventory.support.http.server.*;
 
+import io.vertx.core.buffer.Buffer;
 import io.vertx.core.http.HttpClient;
+import io.vertx.core.http.HttpHeaders;
 import io.vertx.core.json.Json;
 import io.vertx.core.json.JsonArray;
 import io.vertx.core.json.JsonObject;
@@ -52,6 +68,21 @@ import io.vertx.ext.web.handler.BodyHandler;
 public class Instances {
 
   private static final String INSTANCES_PATH = "/inventory/instances";
+  private static final String INSTANCES_BATCH_PATH = INSTANCES_PATH + "/batch";
+
+  private static final int IDS_PER_QUERY = 50;
+  //Each id is in the relationships query twice, keep the URL within 4k
+  private static final int RELATIONSHIP_IDS_PER_QUERY = 20;
+  private static final int RELATIONSHIPS_PAGE_SIZE = 1000;
+  private static final int BATCH_REQUESTS_IN_FLIGHT = 10;
+  private static final int STREAM_PAGE_SIZE = 200;
+
+  private static final Pattern UUID_PATTERN = Pattern.compile(
+    "^[0-9a-fA-F]{8}-[0-9a-fA-F]{4}-[0-9a-fA-F]{4}-[0-9a-fA-F]{4}-[0-9a-fA-F]{12}$");
+
+  //Properties embedded from other records, which can be chosen using expand
+  private static final List<String> EXPANDABLE = Arrays.asList(
+    Instance.PARENT_INSTANCES_KEY, Instance.CHILD_INSTANCES_KEY);
 
   private static final Logger log = LoggerFactory.getLogger(MethodHandles.lookup().lookupClass());
 
@@ -59,15 +90,26 @@ public class Instances {
 
   private final HttpClient client;
 
-  public Instances(final Storage storage, final HttpClient client) {
+  private final EntityTagCache entityTagCache;
+
+  public Instances(
+    final Storage storage,
+    final HttpClient client,
+    final EntityTagCache entityTagCache) {
+
     this.storage = storage;
     this.client = client;
+    this.entityTagCache = entityTagCache;
   }
 
   public void register(Router router) {
     router.post(INSTANCES_PATH + "*").handler(BodyHandler.create());
     router.put(INSTANCES_PATH + "*").handler(BodyHandler.create());
 
+    router.post(INSTANCES_PATH + "*").handler(entityTagCache::invalidateOnceChanged);
+    router.put(INSTANCES_PATH + "*").handler(entityTagCache::invalidateOnceChanged);
+    router.delete(INSTANCES_PATH + "*").handler(entityTagCache::invalidateOnceChanged);
+
     router.get(INSTANCES_PATH + "/context")
       .handler(this::getMetadataContext);
 
@@ -75,6 +117,10 @@ public class Instances {
     router.post(INSTANCES_PATH).handler(this::create);
     router.delete(INSTANCES_PATH).handler(this::deleteAll);
 
+    router.post(INSTANCES_BATCH_PATH).handler(this::upsertBatch);
+
+    router.get(INSTANCES_PATH + "/stream").handler(this::stream);
+
     router.get(INSTANCES_PATH + "/:id").handler(this::getById);
     router.put(INSTANCES_PATH + "/:id").handler(this::update);
     router.delete(INSTANCES_PATH + "/:id").handler(this::deleteById);
@@ -99,15 +145,29 @@ public class Instances {
 
     if (pagingParameters == null) {
       ClientErrorResponse.badRequest(routingContext.response(),
-        "limit and offset must be numeric when supplied");
+        PagingParameters.invalidReason(context));
       return;
     }
 
+    String invalidProjection = Projection.invalidReason(context, EXPANDABLE);
+
+    if (invalidProjection != null) {
+      ClientErrorResponse.badRequest(routingContext.response(), invalidProjection);
+      return;
+    }
+
+    Projection projection = Projection.from(context);
+
+    PhaseTimings timings = new PhaseTimings();
+    PhaseTimings.Phase query = timings.begin(PhaseTimings.QUERY);
+
     if (search == null) {
       storage.getInstanceCollection(context).findAll(
         pagingParameters,
         (Success<MultipleRecords<Instance>> success) -> {
-          makeInstancesResponse(success, routingContext, context);
+          query.end();
+          makeInstancesResponse(success, routingContext, context,
+            pagingParameters, projection, timings);
         },
         FailureResponseConsumer.serverError(routingContext.response())
       );
@@ -117,7 +177,9 @@ public class Instances {
           search,
           pagingParameters,
           success -> {
-            makeInstancesResponse(success, routingContext, context);
+            query.end();
+            makeInstancesResponse(success, routingContext, context,
+              pagingParameters, projection, timings);
           },
           FailureResponseConsumer.serverError(routingContext.response()));
       } catch (UnsupportedEncodingException e) {
@@ -185,6 +247,419 @@ public class Instances {
       }, FailureResponseConsumer.serverError(routingContext.response()));
   }
 
+  /**
+   * Creates or updates many instances in one request, with a limited number
+   * in flight. Whether each instance already exists is found using a few
+   * queries for the whole batch, rather than one request per instance.
+   * <p>
+   * Once the instances have been saved, the relationships of all of them are
+   * fetched together, compared with those requested and the differences
+   * are sent to storage (rather than fetching and comparing per instance).
+   * <p>
+   * Each instance succeeds or fails independently, so the response describes
+   * the outcome for each instance (in the order they were received).
+   */
+  private void upsertBatch(RoutingContext routingContext) {
+    WebContext context = new WebContext(routingContext);
+
+    JsonArray instanceRequests = Batch.entries(routingContext, "instances");
+
+    if (instanceRequests == null) {
+      return;
+    }
+
+    //Storage not being reachable fails the relationships of the batch,
+    //rather than responding part way through it
+    CompletableFuture<JsonObject> relationshipsUnavailable = new CompletableFuture<>();
+
+    CollectionResourceClient relatedInstancesClient =
+      createInstanceRelationshipsClient(context,
+        relationshipsUnavailable::completeExceptionally);
+
+    if (relatedInstancesClient == null) {
+      ServerErrorResponse.internalError(routingContext.response(),
+        String.format("Invalid Okapi URL: %s", context.getOkapiLocation()));
+      return;
+    }
+
+    JsonObject[] results = new JsonObject[instanceRequests.size()];
+    Instance[] saved = new Instance[instanceRequests.size()];
+
+    Set<String> requestedIds = new HashSet<>();
+
+    //Entries are kept in place, so that results match their position in the batch
+    List<Integer> toSave = IntStream.range(0, instanceRequests.size())
+      .filter(index -> {
+        Object entry = instanceRequests.getValue(index);
+
+        if (!(entry instanceof JsonObject)) {
+          results[index] = Batch.failure(index, null,
+            Batch.STATUS_UNPROCESSABLE_ENTITY, "Instance must be a JSON object");
+          return false;
+        }
+
+        JsonObject request = (JsonObject) entry;
+        String id = request.getString("id");
+
+        if (id != null && !UUID_PATTERN.matcher(id).matches()) {
+          results[index] = Batch.failure(index, id, 400,
+            String.format("Instance id %s is not a UUID", id));
+          return false;
+        }
+
+        if (StringUtils.isBlank(request.getString(Instance.TITLE_KEY))) {
+          results[index] = Batch.failure(index, id, 400,
+            "Title must be provided for an instance");
+          return false;
+        }
+
+        if (id != null && !requestedIds.add(id)) {
+          results[index] = Batch.failure(index, id, 400,
+            String.format("Instance %s is included more than once in the batch", id));
+          return false;
+        }
+
+        return true;
+      })
+      .boxed()
+      .collect(Collectors.toList());
+
+    InstanceCollection instanceCollection = storage.getInstanceCollection(context);
+
+    findExistingInstanceIds(new ArrayList<>(requestedIds), instanceCollection)
+      .whenComplete((existingIds, failure) -> {
+        if (failure != null) {
+          ServerErrorResponse.internalError(routingContext.response(),
+            String.format("Unable to find existing instances: %s",
+              failure.getMessage()));
+          return;
+        }
+
+        new BoundedPipeline<Integer>(BATCH_REQUESTS_IN_FLIGHT)
+          .process(toSave.iterator(), index -> {
+            Instance instance = requestToInstance(
+              instanceRequests.getJsonObject(index));
+
+            CompletableFuture<Void> written = new CompletableFuture<>();
+
+            Consumer<Failure> onFailure =
+              writeFailure -> {
+                results[index] = Batch.failure(index, instance.getId(),
+                  writeFailure.getStatusCode() != null
+                    ? writeFailure.getStatusCode()
+                    : 500,
+                  writeFailure.getReason());
+
+                written.complete(null);
+              };
+
+            if (existingIds.contains(instance.getId())) {
+              instanceCollection.update(instance, v -> {
+                saved[index] = instance;
+                results[index] = Batch.success(index, instance.getId(),
+                  Batch.STATUS_NO_CONTENT);
+
+                written.complete(null);
+              }, onFailure);
+            }
+            else {
+              instanceCollection.add(instance, success -> {
+                saved[index] = success.getResult()
+                  .setParentInstances(instance.getParentInstances())
+                  .setChildInstances(instance.getChildInstances());
+
+                results[index] = Batch.success(index, saved[index].getId(),
+                  Batch.STATUS_CREATED);
+
+                written.complete(null);
+              }, onFailure);
+            }
+
+            return written;
+          })
+          .thenCompose(v -> synchroniseRelationships(
+            Arrays.stream(saved)
+              .filter(Objects::nonNull)
+              .collect(Collectors.toList()),
+            relatedInstancesClient)
+            .applyToEither(relationshipsUnavailable, relationships -> relationships))
+          .whenComplete((relationships, relationshipsFailure) ->
+            respondWithBatchResults(routingContext, results,
+              relationshipsFailure == null
+                ? relationships
+                : new JsonObject().put("error", relationshipsFailure.getMessage())));
+      });
+  }
+
+  private CompletableFuture<Set<String>> findExistingInstanceIds(
+    List<String> ids,
+    InstanceCollection instanceCollection) {
+
+    return Batch.findInGroups(instanceCollection, ids, IDS_PER_QUERY,
+      queried -> String.format("id==(%s)", String.join(" or ", queried)),
+      IDS_PER_QUERY)
+      .thenApply(instances -> instances.stream()
+        .map(Instance::getId)
+        .collect(Collectors.toSet()));
+  }
+
+  /**
+   * Makes the stored relationships of the instances match those requested
+   * for them
+   *
+   * @return future completed with the number of relationships changed
+   */
+  private CompletableFuture<JsonObject> synchroniseRelationships(
+    List<Instance> instances,
+    CollectionResourceClient relatedInstancesClient) {
+
+    List<String> instanceIds = instances.stream()
+      .map(Instance::getId)
+      .collect(Collectors.toList());
+
+    List<InstanceRelationship> requested = new ArrayList<>();
+
+    instances.forEach(instance -> {
+      if (instance.getParentInstances() != null) {
+        instance.getParentInstances().forEach(parent ->
+          requested.add(new InstanceRelationship(parent.id,
+            parent.superInstanceId, instance.getId(),
+            parent.instanceRelationshipTypeId)));
+      }
+
+      if (instance.getChildInstances() != null) {
+        instance.getChildInstances().forEach(child ->
+          requested.add(new InstanceRelationship(child.id,
+            instance.getId(), child.subInstanceId,
+            child.instanceRelationshipTypeId)));
+      }
+    });
+
+    return findRelationships(instanceIds, relatedInstancesClient)
+      .thenCompose(existing -> {
+        InstanceRelationshipChanges changes = InstanceRelationshipChanges
+          .between(instanceIds, existing, requested);
+
+        return applyRelationshipChanges(changes, relatedInstancesClient);
+      });
+  }
+
+  /**
+   * Fetches the relationships of the instances, with a query for each
+   * group of instances (rather than one request per instance)
+   */
+  private CompletableFuture<List<InstanceRelationship>> findRelationships(
+    List<String> instanceIds,
+    CollectionResourceClient relatedInstancesClient) {
+
+    List<CompletableFuture<List<InstanceRelationship>>> queries = new ArrayList<>();
+
+    for (int start = 0; start < instanceIds.size(); start += RELATIONSHIP_IDS_PER_QUERY) {
+      queries.add(findRelationships(instanceIds.subList(start,
+        Math.min(start + RELATIONSHIP_IDS_PER_QUERY, instanceIds.size())),
+        relatedInstancesClient, 0, new ArrayList<>()));
+    }
+
+    return CompletableFuture.allOf(queries.toArray(new CompletableFuture<?>[] { }))
+      .thenApply(v -> queries.stream()
+        .flatMap(query -> query.join().stream())
+        .distinct()
+        .collect(Collectors.toList()));
+  }
+
+  private CompletableFuture<List<InstanceRelationship>> findRelationships(
+    List<String> instanceIds,
+    CollectionResourceClient relatedInstancesClient,
+    int offset,
+    List<InstanceRelationship> found) {
+
+    String idList = String.join(" or ", instanceIds);
+
+    String query;
+
+    try {
+      query = URLEncoder.encode(String.format(
+        "subInstanceId==(%s) or superInstanceId==(%s)", idList, idList), "UTF-8");
+    } catch (UnsupportedEncodingException e) {
+      CompletableFuture<List<InstanceRelationship>> failed = new CompletableFuture<>();
+      failed.completeExceptionally(e);
+      return failed;
+    }
+
+    CompletableFuture<JsonObject> page = new CompletableFuture<>();
+
+    relatedInstancesClient.getMany(query, RELATIONSHIPS_PAGE_SIZE, offset,
+      response -> {
+        if (response.getStatusCode() == 200) {
+          page.complete(response.getJson());
+        }
+        else {
+          page.completeExceptionally(new Exception(String.format(
+            "Unable to fetch instance relationships: %s: %s",
+            response.getStatusCode(), response.getBody())));
+        }
+      });
+
+    return page.thenCompose(json -> {
+      List<JsonObject> relationships = JsonArrayHelper.toList(
+        json.getJsonArray("instanceRelationships"));
+
+      relationships.forEach(relationship ->
+        found.add(new InstanceRelationship(relationship)));
+
+      Integer totalRecords = json.getInteger("totalRecords");
+
+      if (relationships.size() == RELATIONSHIPS_PAGE_SIZE
+        && (totalRecords == null || found.size() < totalRecords)) {
+
+        return findRelationships(instanceIds, relatedInstancesClient,
+          offset + RELATIONSHIPS_PAGE_SIZE, found);
+      }
+
+      return CompletableFuture.completedFuture(found);
+    });
+  }
+
+  private CompletableFuture<JsonObject> applyRelationshipChanges(
+    InstanceRelationshipChanges changes,
+    CollectionResourceClient relatedInstancesClient) {
+
+    AtomicInteger created = new AtomicInteger();
+    AtomicInteger updated = new AtomicInteger();
+    AtomicInteger deleted = new AtomicInteger();
+    AtomicInteger failed = new AtomicInteger();
+
+    List<Supplier<CompletableFuture<Response>>> requests = new ArrayList<>();
+
+    changes.toCreate.forEach(relationship -> requests.add(() ->
+      changeRelationship(201, created, failed, completed ->
+        relatedInstancesClient.post(relationship, completed))));
+
+    changes.toUpdate.forEach(relationship -> requests.add(() ->
+      changeRelationship(204, updated, failed, completed ->
+        relatedInstancesClient.put(relationship.id, relationship, completed))));
+
+    changes.toDelete.forEach(relationship -> requests.add(() ->
+      changeRelationship(204, deleted, failed, completed ->
+        relatedInstancesClient.delete(relationship.id, completed))));
+
+    return new BoundedPipeline<Supplier<CompletableFuture<Response>>>(
+      BATCH_REQUESTS_IN_FLIGHT)
+      .process(requests.iterator(), Supplier::get)
+      .thenApply(v -> new JsonObject()
+        .put("created", created.get())
+        .put("updated", updated.get())
+        .put("deleted", deleted.get())
+        .put("failed", failed.get()));
+  }
+
+  private static CompletableFuture<Response> changeRelationship(
+    int expectedStatusCode,
+    AtomicInteger succeeded,
+    AtomicInteger failed,
+    Consumer<Consumer<Response>> request) {
+
+    CompletableFuture<Response> response = new CompletableFuture<>();
+
+    request.accept(completed -> {
+      if (completed.getStatusCode() == expectedStatusCode) {
+        succeeded.incrementAndGet();
+      }
+      else {
+        log.warn(String.format("Instance relationship change failed: %s: %s",
+          completed.getStatusCode(), completed.getBody()));
+
+        failed.incrementAndGet();
+      }
+
+      response.complete(completed);
+    });
+
+    return response;
+  }
+
+  private static void respondWithBatchResults(
+    RoutingContext routingContext,
+    JsonObject[] results,
+    JsonObject relationships) {
+
+    JsonObject summary = Batch.summary(results)
+      .put("updated", Batch.count(results, Batch.STATUS_NO_CONTENT))
+      .put("relationships", relationships);
+
+    log.info(String.format("Created %s and updated %s of %s instances in batch",
+      summary.getInteger("created"), summary.getInteger("updated"),
+      results.length));
+
+    JsonResponse.success(routingContext.response(), summary);
+  }
+
+  /**
+   * Streams every instance (matching the query, if there is one) as newline
+   * delimited JSON, fetching a page of instances and their relationships
+   * at a time
+   */
+  private void stream(RoutingContext routingContext) {
+    WebContext context = new WebContext(routingContext);
+
+    String search = context.getStringParameter("query", null);
+
+    if (CqlHelper.hasSortBy(search)) {
+      ClientErrorResponse.badRequest(routingContext.response(),
+        "sortBy cannot be used when streaming, instances are sorted by id");
+      return;
+    }
+
+    String invalidProjection = Projection.invalidReason(context, EXPANDABLE);
+
+    if (invalidProjection != null) {
+      ClientErrorResponse.badRequest(routingContext.response(), invalidProjection);
+      return;
+    }
+
+    Projection projection = Projection.from(context);
+
+    CollectionResourceClient relatedInstancesClient =
+      createInstanceRelationshipsClient(routingContext, context);
+
+    if (relatedInstancesClient == null) {
+      ServerErrorResponse.internalError(routingContext.response(),
+        String.format("Invalid Okapi URL: %s", context.getOkapiLocation()));
+      return;
+    }
+
+    InstanceCollection instanceCollection = storage.getInstanceCollection(context);
+
+    NdjsonResponse.stream(routingContext.response(), cursor -> {
+      PagingParameters page = new PagingParameters(STREAM_PAGE_SIZE, 0, cursor);
+
+      CompletableFuture<MultipleRecords<Instance>> found = new CompletableFuture<>();
+
+      Consumer<Failure> failed = failure -> found.completeExceptionally(
+        new Exception(failure.getReason()));
+
+      if (search == null) {
+        instanceCollection.findAll(page,
+          success -> found.complete(success.getResult()), failed);
+      } else {
+        try {
+          instanceCollection.findByCql(search, page,
+            success -> found.complete(success.getResult()), failed);
+        } catch (UnsupportedEncodingException e) {
+          found.completeExceptionally(e);
+        }
+      }
+
+      //Headers are sent before the first page, so phases are not reported
+      return found.thenCompose(wrappedInstances -> manyInstancesRepresentation(
+          wrappedInstances, relatedInstancesClient, context, projection,
+          new PhaseTimings())
+        .thenApply(representation -> new NdjsonResponse.Page(
+          JsonArrayHelper.toList(representation.getJsonArray("instances")),
+          page.next(wrappedInstances.records, Instance::getId))));
+    });
+  }
+
   private void deleteAll(RoutingContext routingContext) {
     WebContext context = new WebContext(routingContext);
 
@@ -205,11 +680,25 @@ public class Instances {
   private void getById(RoutingContext routingContext) {
     WebContext context = new WebContext(routingContext);
 
-    storage.getInstanceCollection(context).findById(
-            routingContext.request().getParam("id"),
+    String id = routingContext.request().getParam("id");
+
+    String entityTagKey = entityTagCache.keyFor(context.getTenantId(),
+      INSTANCES_PATH, id);
+
+    //An unchanged instance served recently needs no requests to storage
+    String knownEntityTag = entityTagCache.get(entityTagKey);
+
+    if (EntityTag.matches(routingContext.request().getHeader(HttpHeaders.IF_NONE_MATCH),
+      knownEntityTag)) {
+
+      SuccessResponse.notModified(routingContext.response(), knownEntityTag);
+      return;
+    }
+
+    storage.getInstanceCollection(context).findById(id,
             it -> {
               if (it.getResult() != null) {
-                makeInstanceResponse(it, routingContext, context);
+                makeInstanceResponse(it, routingContext, context, entityTagKey);
               } else {
                 ClientErrorResponse.notFound(routingContext.response());
               }
@@ -297,40 +786,102 @@ public class Instances {
    * @param success Multi record Instances result
    * @param routingContext
    * @param context
+   * @param pagingParameters
+   * @param projection
+   * @param timings
    */
   private void makeInstancesResponse(
           Success<MultipleRecords<Instance>> success,
           RoutingContext routingContext,
-          WebContext context) {
-
-    List<String> instanceIds = getInstanceIdsFromInstanceResult(success);
-    String query = createQueryForRelatedInstances(instanceIds);
+          WebContext context,
+          PagingParameters pagingParameters,
+          Projection projection,
+          PhaseTimings timings) {
 
-    try {
-      query = URLEncoder.encode(query, "UTF-8");
-    } catch (UnsupportedEncodingException e) {
-      log.error(String.format("Cannot encode query %s", query));
-    }
     CollectionResourceClient relatedInstancesClient = createInstanceRelationshipsClient(routingContext, context);
 
     if (relatedInstancesClient != null) {
-      relatedInstancesClient.getMany(query, (Response result) -> {
-        Map<String, List<InstanceRelationshipToParent>> parentInstanceMap = new HashMap();
-        Map<String, List<InstanceRelationshipToChild>> childInstanceMap = new HashMap();
-        if (result.getStatusCode() == 200) {
-          JsonObject json = result.getJson();
-          List<JsonObject> relationsList = JsonArrayHelper.toList(json.getJsonArray("instanceRelationships"));
-          relationsList.stream().map(rel -> {
-            addToList(childInstanceMap, rel.getString("superInstanceId"), new InstanceRelationshipToChild(rel));
-            return rel;
-          }).forEachOrdered(rel -> {
-            addToList(parentInstanceMap, rel.getString("subInstanceId"), new InstanceRelationshipToParent(rel));
-          });
+      manyInstancesRepresentation(success.getResult(), relatedInstancesClient,
+        context, projection, timings)
+        .thenAccept(representation -> {
+          String nextCursor = pagingParameters.nextCursor(
+                  success.getResult().records, Instance::getId);
+
+          if (nextCursor != null) {
+            representation.put("nextCursor", nextCursor);
+          }
+
+          PhaseTimings.Phase serialization = timings.begin(PhaseTimings.SERIALIZATION);
+          Buffer body = JsonBody.encode(representation);
+          serialization.end();
+
+          timings.report(routingContext, INSTANCES_PATH);
+
+          JsonResponse.success(routingContext.response(), body);
+        })
+        .exceptionally(e -> {
+          ServerErrorResponse.internalError(routingContext.response(),
+            e.getCause() != null ? e.getCause().toString() : e.toString());
+          return null;
+        });
+    }
+  }
+
+  /**
+   * Populates the representation of multiple instances, only fetching
+   * their relationships when the projection resolves them
+   */
+  private CompletableFuture<JsonObject> manyInstancesRepresentation(
+    MultipleRecords<Instance> wrappedInstances,
+    CollectionResourceClient relatedInstancesClient,
+    WebContext context,
+    Projection projection,
+    PhaseTimings timings) {
+
+    boolean includeParents = projection.expands(Instance.PARENT_INSTANCES_KEY);
+    boolean includeChildren = projection.expands(Instance.CHILD_INSTANCES_KEY);
+
+    CompletableFuture<List<InstanceRelationship>> relationshipsFetched =
+      includeParents || includeChildren
+        ? timings.time("relationships", () -> findRelationships(
+            wrappedInstances.records.stream()
+              .map(Instance::getId)
+              .collect(Collectors.toList()), relatedInstancesClient))
+        : CompletableFuture.completedFuture(Collections.emptyList());
+
+    return relationshipsFetched.thenApply(relationships -> {
+      PhaseTimings.Phase representationPhase =
+        timings.begin(PhaseTimings.REPRESENTATION);
+
+      Map<String, List<InstanceRelationshipToParent>> parentInstanceMap = new HashMap<>();
+      Map<String, List<InstanceRelationshipToChild>> childInstanceMap = new HashMap<>();
+
+      relationships.forEach(relationship -> {
+        if (includeChildren) {
+          addToList(childInstanceMap, relationship.superInstanceId,
+            new InstanceRelationshipToChild(relationship.id,
+              relationship.subInstanceId, relationship.instanceRelationshipTypeId));
+        }
+
+        if (includeParents) {
+          addToList(parentInstanceMap, relationship.subInstanceId,
+            new InstanceRelationshipToParent(relationship.id,
+              relationship.superInstanceId, relationship.instanceRelationshipTypeId));
         }
-        JsonResponse.success(routingContext.response(),
-                toRepresentation(success.getResult(), parentInstanceMap, childInstanceMap, context));
       });
-    }
+
+      JsonObject representation = toRepresentation(wrappedInstances,
+        parentInstanceMap, childInstanceMap, context);
+
+      representation.put("instances", new JsonArray(
+        JsonArrayHelper.toList(representation.getJsonArray("instances")).stream()
+          .map(projection::project)
+          .collect(Collectors.toList())));
+
+      representationPhase.end();
+
+      return representation;
+    });
   }
 
   /**
@@ -338,11 +889,13 @@ public class Instances {
    * @param success Single record Instance result
    * @param routingContext
    * @param context
+   * @param entityTagKey Key for the entity tag, taken before the instance was fetched
    */
   private void makeInstanceResponse(
           Success<Instance> success,
           RoutingContext routingContext,
-          WebContext context) {
+          WebContext context,
+          String entityTagKey) {
 
     Instance instance = success.getResult();
     List<String> instanceIds = getInstanceIdsFromInstanceResult(success);
@@ -353,6 +906,7 @@ public class Instances {
       relatedInstancesClient.getMany(query, (Response result) -> {
         List<InstanceRelationshipToParent> parentInstanceList = new ArrayList();
         List<InstanceRelationshipToChild> childInstanceList = new ArrayList();
+        List<String> relationshipVersions = new ArrayList<>();
         if (result.getStatusCode() == 200) {
           JsonObject json = result.getJson();
           List<JsonObject> relationsList = JsonArrayHelper.toList(json.getJsonArray("instanceRelationships"));
@@ -362,19 +916,81 @@ public class Instances {
             } else if (rel.getString(InstanceRelationship.SUB_INSTANCE_ID_KEY).equals(instance.getId())) {
               parentInstanceList.add(new InstanceRelationshipToParent(rel));
             }
+            relationshipVersions.add(EntityTag.versionOrContentOf(rel));
           });
         }
-        JsonResponse.success(
-                routingContext.response(),
-                toRepresentation(
-                        success.getResult(),
-                        parentInstanceList,
-                        childInstanceList,
-                        context));
+
+        String instanceVersion = instance.hasMetadata()
+          ? instance.getMetadata().updatedDate
+          : null;
+
+        //Instances without a version are tagged by their representation instead
+        String entityTag = null;
+
+        if (instanceVersion != null) {
+          relationshipVersions.sort(null);
+          relationshipVersions.add(0, instance.getId());
+          relationshipVersions.add(1, instanceVersion);
+
+          entityTag = EntityTag.of(relationshipVersions);
+
+          if (respondedNotModified(routingContext, entityTagKey, entityTag)) {
+            return;
+          }
+        }
+
+        JsonObject representation = toRepresentation(
+          success.getResult(),
+          parentInstanceList,
+          childInstanceList,
+          context);
+
+        if (entityTag == null) {
+          entityTag = EntityTag.of(representation.encode());
+
+          if (respondedNotModified(routingContext, entityTagKey, entityTag)) {
+            return;
+          }
+        }
+
+        includeEntityTag(routingContext, entityTagKey, entityTag);
+
+        JsonResponse.success(routingContext.response(), representation);
       });
     }
   }
 
+  /**
+   * Responds with not modified when the client already has the
+   * representation of the instance with this entity tag
+   *
+   * @return whether a not modified response has been sent
+   */
+  private boolean respondedNotModified(
+    RoutingContext routingContext,
+    String entityTagKey,
+    String entityTag) {
+
+    if (EntityTag.matches(routingContext.request().getHeader(HttpHeaders.IF_NONE_MATCH),
+      entityTag)) {
+
+      entityTagCache.put(entityTagKey, entityTag);
+      SuccessResponse.notModified(routingContext.response(), entityTag);
+      return true;
+    }
+
+    return false;
+  }
+
+  private void includeEntityTag(
+    RoutingContext routingContext,
+    String entityTagKey,
+    String entityTag) {
+
+    entityTagCache.put(entityTagKey, entityTag);
+    routingContext.response().putHeader(HttpHeaders.ETAG, entityTag);
+  }
+
   /**
    * Populates multiple Instances representation (downwards)
    * @param wrappedInstances Set of Instances to transform to representations
@@ -383,7 +999,7 @@ public class Instances {
    * @param context
    * @return
    */
-  private JsonObject toRepresentation(
+  JsonObject toRepresentation(
           MultipleRecords<Instance> wrappedInstances,
           Map<String, List<InstanceRelationshipToParent>> parentMap,
           Map<String, List<InstanceRelationshipToChild>> childMap,
@@ -580,9 +1196,18 @@ public class Instances {
   }
 
   private CollectionResourceClient createInstanceRelationshipsClient (RoutingContext routingContext, WebContext context) {
+    return createInstanceRelationshipsClient(context,
+      exception -> ServerErrorResponse.failedToContactStorage(
+        routingContext.response(), exception));
+  }
+
+  private CollectionResourceClient createInstanceRelationshipsClient(
+    WebContext context,
+    Consumer<Throwable> exceptionHandler) {
+
     CollectionResourceClient relatedInstancesClient = null;
     try {
-      OkapiHttpClient okapiClient = createHttpClient(routingContext, context);
+      OkapiHttpClient okapiClient = createHttpClient(context, exceptionHandler);
       relatedInstancesClient
       = new CollectionResourceClient(
               okapiClient,
@@ -665,13 +1290,19 @@ public class Instances {
           WebContext context)
           throws MalformedURLException {
 
+    return createHttpClient(context,
+            exception -> ServerErrorResponse.failedToContactStorage(
+              routingContext.response(), exception));
+  }
+
+  private OkapiHttpClient createHttpClient(
+          WebContext context,
+          Consumer<Throwable> exceptionHandler)
+          throws MalformedURLException {
+
     return new OkapiHttpClient(client,
             new URL(context.getOkapiLocation()), context.getTenantId(),
-            context.getToken(),
-            exception -> {
-              ServerErrorResponse.internalError(routingContext.response(), String.format("Failed to contact storage module: %s",
-                      exception.toString()));
-            });
+            context.getToken(), exceptionHandler);
   }
 
 }
@@ -101,17 +101,22 @@ class ItemRepresentation {
       representation.put(Item.STATUS_KEY, item.status.getJson());
     }
 
-    List<JsonObject> contributorNames = new ArrayList<>();
-    instance.getJsonArray("contributors").forEach((contributor) -> {
-      JsonObject contributorName = new JsonObject();
-      contributorName.put("name", ((JsonObject)contributor).getString("name"));
-      contributorNames.add(contributorName);
-    });
-
     includeIfPresent(representation, "title", instance, i -> i.getString("title"));
     includeIfPresent(representation, "callNumber", holding, h -> h.getString("callNumber"));
     includeIfPresent(representation, Item.HRID_KEY, item.getHrid());
-    representation.put("contributorNames", contributorNames);
+
+    //The instance is not fetched when contributor names are not wanted
+    if(instance != null) {
+      List<JsonObject> contributorNames = new ArrayList<>();
+      instance.getJsonArray("contributors").forEach((contributor) -> {
+        JsonObject contributorName = new JsonObject();
+        contributorName.put("name", ((JsonObject)contributor).getString("name"));
+        contributorNames.add(contributorName);
+      });
+
+      representation.put("contributorNames", contributorNames);
+    }
+
     representation.put(Item.FORMER_IDS_KEY, item.getFormerIds());
     representation.put(Item.DISCOVERY_SUPPRESS_KEY, item.getDiscoverySuppress());
     includeIfPresent(representation, "holdingsRecordId", item.getHoldingId());
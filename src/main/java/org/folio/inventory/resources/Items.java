@@ -1,7 +1,6 @@
 package org.folio.inventory.resources;
 
 import static org.folio.inventory.common.FutureAssistance.allOf;
-import static org.folio.inventory.support.CqlHelper.multipleRecordsCqlQuery;
 import static org.folio.inventory.support.JsonArrayHelper.toListOfStrings;
 import static org.folio.inventory.support.JsonHelper.getNestedProperty;
 
@@ -10,17 +9,29 @@ import java.lang.invoke.MethodHandles;
 import java.net.MalformedURLException;
 import java.net.URL;
 import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
 import java.util.Objects;
+import java.util.Set;
 import java.util.concurrent.CompletableFuture;
+import java.util.function.Consumer;
+import java.util.function.Supplier;
 import java.util.stream.Collectors;
+import java.util.stream.IntStream;
 import java.util.stream.Stream;
 
+import org.apache.commons.lang3.StringUtils;
+import org.folio.inventory.common.BoundedPipeline;
 import org.folio.inventory.common.WebContext;
 import org.folio.inventory.common.api.request.PagingParameters;
+import org.folio.inventory.common.api.request.Projection;
+import org.folio.inventory.common.domain.Failure;
 import org.folio.inventory.common.domain.MultipleRecords;
 import org.folio.inventory.common.domain.Success;
+import org.folio.inventory.common.metrics.PhaseTimings;
 import org.folio.inventory.domain.items.CirculationNote;
 import org.folio.inventory.domain.items.Item;
 import org.folio.inventory.domain.items.ItemCollection;
@@ -28,15 +39,21 @@ import org.folio.inventory.domain.items.Note;
 import org.folio.inventory.domain.items.Status;
 import org.folio.inventory.domain.sharedproperties.ElectronicAccess;
 import org.folio.inventory.storage.Storage;
+import org.folio.inventory.storage.external.CachingCollectionResourceClient;
 import org.folio.inventory.storage.external.CollectionResourceClient;
+import org.folio.inventory.storage.external.ReferenceDataCache;
 import org.folio.inventory.support.CqlHelper;
 import org.folio.inventory.support.HoldingsSupport;
 import org.folio.inventory.support.JsonArrayHelper;
+import org.folio.inventory.support.http.JsonBody;
 import org.folio.inventory.support.http.client.OkapiHttpClient;
 import org.folio.inventory.support.http.client.Response;
 import org.folio.inventory.support.http.server.*;
 
+import io.vertx.core.buffer.Buffer;
 import io.vertx.core.http.HttpClient;
+import io.vertx.core.http.HttpHeaders;
+import io.vertx.core.json.JsonArray;
 import io.vertx.core.json.JsonObject;
 import io.vertx.core.logging.Logger;
 import io.vertx.core.logging.LoggerFactory;
@@ -48,26 +65,54 @@ public class Items {
   private static final Logger log = LoggerFactory.getLogger(MethodHandles.lookup().lookupClass());
 
   private static final String RELATIVE_ITEMS_PATH = "/inventory/items";
+  private static final String RELATIVE_ITEMS_BATCH_PATH = RELATIVE_ITEMS_PATH + "/batch";
+
+  private static final int BARCODES_PER_QUERY = 50;
+  private static final int BATCH_ITEMS_IN_FLIGHT = 10;
+  private static final int STREAM_PAGE_SIZE = 200;
+
+  //Properties embedded from other records, which can be chosen using expand
+  private static final List<String> EXPANDABLE = Arrays.asList("title",
+    "contributorNames", "callNumber", "materialType", "permanentLoanType",
+    "temporaryLoanType", "permanentLocation", "temporaryLocation",
+    "effectiveLocation");
 
   private final Storage storage;
   private static final int STATUS_CREATED = 201;
   private static final int STATUS_SUCCESS = 200;
 
   private final HttpClient client;
+  private final ReferenceDataCache referenceDataCache;
+  private final EntityTagCache entityTagCache;
+
+  public Items(
+    final Storage storage,
+    final HttpClient client,
+    final ReferenceDataCache referenceDataCache,
+    final EntityTagCache entityTagCache) {
 
-  public Items(final Storage storage, final HttpClient client) {
     this.storage = storage;
     this.client = client;
+    this.referenceDataCache = referenceDataCache;
+    this.entityTagCache = entityTagCache;
   }
 
   public void register(Router router) {
     router.post(RELATIVE_ITEMS_PATH + "*").handler(BodyHandler.create());
     router.put(RELATIVE_ITEMS_PATH + "*").handler(BodyHandler.create());
 
+    router.post(RELATIVE_ITEMS_PATH + "*").handler(entityTagCache::invalidateOnceChanged);
+    router.put(RELATIVE_ITEMS_PATH + "*").handler(entityTagCache::invalidateOnceChanged);
+    router.delete(RELATIVE_ITEMS_PATH + "*").handler(entityTagCache::invalidateOnceChanged);
+
     router.get(RELATIVE_ITEMS_PATH).handler(this::getAll);
     router.post(RELATIVE_ITEMS_PATH).handler(this::create);
     router.delete(RELATIVE_ITEMS_PATH).handler(this::deleteAll);
 
+    router.post(RELATIVE_ITEMS_BATCH_PATH).handler(this::createBatch);
+
+    router.get(RELATIVE_ITEMS_PATH + "/stream").handler(this::stream);
+
     router.get(RELATIVE_ITEMS_PATH + "/:id").handler(this::getById);
     router.put(RELATIVE_ITEMS_PATH + "/:id").handler(this::update);
     router.delete(RELATIVE_ITEMS_PATH + "/:id").handler(this::deleteById);
@@ -82,22 +127,42 @@ public class Items {
 
     if(pagingParameters == null) {
       ClientErrorResponse.badRequest(routingContext.response(),
-        "limit and offset must be numeric when supplied");
+        PagingParameters.invalidReason(context));
 
       return;
     }
 
+    String invalidProjection = Projection.invalidReason(context, EXPANDABLE);
+
+    if(invalidProjection != null) {
+      ClientErrorResponse.badRequest(routingContext.response(), invalidProjection);
+
+      return;
+    }
+
+    Projection projection = Projection.from(context);
+
+    PhaseTimings timings = new PhaseTimings();
+    PhaseTimings.Phase query = timings.begin(PhaseTimings.QUERY);
+
     if(search == null) {
       storage.getItemCollection(context).findAll(
         pagingParameters,
-        success -> respondWithManyItems(routingContext, context, success.getResult()),
+        success -> {
+          query.end();
+          respondWithManyItems(routingContext, context, pagingParameters,
+            projection, timings, success.getResult());
+        },
         FailureResponseConsumer.serverError(routingContext.response()));
     }
     else {
       try {
         storage.getItemCollection(context).findByCql(search,
-          pagingParameters, success ->
-            respondWithManyItems(routingContext, context, success.getResult()),
+          pagingParameters, success -> {
+            query.end();
+            respondWithManyItems(routingContext, context, pagingParameters,
+              projection, timings, success.getResult());
+          },
           FailureResponseConsumer.serverError(routingContext.response()));
       } catch (UnsupportedEncodingException e) {
         ServerErrorResponse.internalError(routingContext.response(), e.toString());
@@ -145,6 +210,127 @@ public class Items {
     }
   }
 
+  /**
+   * Creates many items in one request. Barcode uniqueness is checked for the
+   * whole batch using a few queries, rather than one query per item, and
+   * items are then created with a limited number in flight.
+   * <p>
+   * Each item succeeds or fails independently, so the response describes
+   * the outcome for each item (in the order they were received).
+   */
+  private void createBatch(RoutingContext routingContext) {
+    WebContext context = new WebContext(routingContext);
+
+    JsonArray itemRequests = Batch.entries(routingContext, "items");
+
+    if(itemRequests == null) {
+      return;
+    }
+
+    Item[] newItems = new Item[itemRequests.size()];
+    JsonObject[] results = new JsonObject[itemRequests.size()];
+
+    //Entries are kept in place, so that results match their position in the batch
+    for(int index = 0; index < itemRequests.size(); index++) {
+      Object itemRequest = itemRequests.getValue(index);
+
+      if(itemRequest instanceof JsonObject) {
+        newItems[index] = requestToItem((JsonObject) itemRequest);
+      }
+      else {
+        results[index] = Batch.failure(index, null,
+          Batch.STATUS_UNPROCESSABLE_ENTITY, "Item must be a JSON object");
+      }
+    }
+
+    ItemCollection itemCollection = storage.getItemCollection(context);
+
+    List<String> barcodes = Arrays.stream(newItems)
+      .filter(Objects::nonNull)
+      .map(Item::getBarcode)
+      .filter(Objects::nonNull)
+      .distinct()
+      .collect(Collectors.toList());
+
+    findAssignedBarcodes(barcodes, itemCollection).whenComplete(
+      (assignedBarcodes, failure) -> {
+        if(failure != null) {
+          ServerErrorResponse.internalError(routingContext.response(),
+            String.format("Unable to check barcodes are unique: %s",
+              failure.getMessage()));
+
+          return;
+        }
+
+        //Only the first item in the batch with a barcode can be given it
+        Set<String> claimedBarcodes = new HashSet<>(assignedBarcodes);
+
+        List<Integer> toCreate = IntStream.range(0, newItems.length)
+          .filter(index -> newItems[index] != null)
+          .filter(index -> {
+            String barcode = newItems[index].getBarcode();
+
+            if(barcode != null && !claimedBarcodes.add(barcode)) {
+              results[index] = Batch.failure(index, null, 400,
+                String.format("Barcode must be unique, %s is already assigned to another item",
+                  barcode));
+
+              return false;
+            }
+
+            return true;
+          })
+          .boxed()
+          .collect(Collectors.toList());
+
+        new BoundedPipeline<Integer>(BATCH_ITEMS_IN_FLIGHT)
+          .process(toCreate.iterator(), index -> {
+            CompletableFuture<Void> added = new CompletableFuture<>();
+
+            itemCollection.add(newItems[index], success -> {
+              results[index] = Batch.success(index, success.getResult().id,
+                STATUS_CREATED);
+
+              added.complete(null);
+            }, addFailure -> {
+              results[index] = Batch.failure(index, null,
+                addFailure.getStatusCode() != null ? addFailure.getStatusCode() : 500,
+                addFailure.getReason());
+
+              added.complete(null);
+            });
+
+            return added;
+          })
+          .thenAccept(v -> respondWithBatchResults(routingContext, results));
+      });
+  }
+
+  private CompletableFuture<Set<String>> findAssignedBarcodes(
+    List<String> barcodes,
+    ItemCollection itemCollection) {
+
+    //The limit allows for barcodes which are already shared by many items
+    return Batch.findInGroups(itemCollection, barcodes, BARCODES_PER_QUERY,
+      CqlHelper::barcodeIsAnyOf, Batch.MAXIMUM_SIZE)
+      .thenApply(items -> items.stream()
+        .map(Item::getBarcode)
+        .filter(Objects::nonNull)
+        .collect(Collectors.toSet()));
+  }
+
+  private static void respondWithBatchResults(
+    RoutingContext routingContext,
+    JsonObject[] results) {
+
+    JsonObject summary = Batch.summary(results);
+
+    log.info(String.format("Created %s of %s items in batch",
+      summary.getInteger("created"), results.length));
+
+    JsonResponse.success(routingContext.response(), summary);
+  }
+
   private void update(RoutingContext routingContext) {
     WebContext context = new WebContext(routingContext);
 
@@ -201,13 +387,29 @@ public class Items {
   private void getById(RoutingContext routingContext) {
     WebContext context = new WebContext(routingContext);
 
-    storage.getItemCollection(context).findById(
-      routingContext.request().getParam("id"),
+    String id = routingContext.request().getParam("id");
+
+    String entityTagKey = entityTagCache.keyFor(context.getTenantId(),
+      RELATIVE_ITEMS_PATH, id);
+
+    //An unchanged item served recently needs no requests to storage
+    String knownEntityTag = entityTagCache.get(entityTagKey);
+
+    if(EntityTag.matches(routingContext.request().getHeader(HttpHeaders.IF_NONE_MATCH),
+      knownEntityTag)) {
+
+      SuccessResponse.notModified(routingContext.response(), knownEntityTag);
+
+      return;
+    }
+
+    storage.getItemCollection(context).findById(id,
       (Success<Item> itemResponse) -> {
         Item item = itemResponse.getResult();
 
         if(item != null) {
-          respondWithItemRepresentation(item, STATUS_SUCCESS, routingContext, context);
+          respondWithItemRepresentation(item, STATUS_SUCCESS, routingContext,
+            context, entityTagKey);
         }
         else {
           ClientErrorResponse.notFound(routingContext.response());
@@ -297,209 +499,269 @@ public class Items {
   private void respondWithManyItems(
     RoutingContext routingContext,
     WebContext context,
+    PagingParameters pagingParameters,
+    Projection projection,
+    PhaseTimings timings,
     MultipleRecords<Item> wrappedItems) {
 
-    CollectionResourceClient holdingsClient;
-    CollectionResourceClient instancesClient;
-    CollectionResourceClient materialTypesClient;
-    CollectionResourceClient loanTypesClient;
-    CollectionResourceClient locationsClient;
-    CollectionResourceClient effectiveLocationsClient;
-
-    try {
-      OkapiHttpClient okapiClient = createHttpClient(routingContext, context);
-      holdingsClient = createHoldingsClient(okapiClient, context);
-      instancesClient = createInstancesClient(okapiClient, context);
-      materialTypesClient = createMaterialTypesClient(okapiClient, context);
-      loanTypesClient = createLoanTypesClient(okapiClient, context);
-      locationsClient = createLocationsClient(okapiClient, context);
-      effectiveLocationsClient = createLocationsClient(okapiClient, context);
-    }
-    catch (MalformedURLException e) {
-      invalidOkapiUrlResponse(routingContext, context);
-
-      return;
-    }
-
-    ArrayList<CompletableFuture<Response>> allMaterialTypeFutures = new ArrayList<>();
-    ArrayList<CompletableFuture<Response>> allLoanTypeFutures = new ArrayList<>();
-    ArrayList<CompletableFuture<Response>> allEffectiveLocationsFutures = new ArrayList<>();
-    ArrayList<CompletableFuture<Response>> allLocationsFutures = new ArrayList<>();
-    ArrayList<CompletableFuture<Response>> allFutures = new ArrayList<>();
+    manyItemsRepresentation(routingContext, context, wrappedItems, projection,
+      timings)
+      .thenAccept(representation -> {
+        log.debug("GET all items: all futures completed");
 
-    List<String> holdingsIds = wrappedItems.records.stream()
-      .map(item -> item.getHoldingId())
-      .filter(Objects::nonNull)
-      .distinct()
-      .collect(Collectors.toList());
+        String nextCursor = pagingParameters.nextCursor(wrappedItems.records,
+          item -> item.id);
 
-    CompletableFuture<Response> holdingsFetched =
-      new CompletableFuture<>();
+        if(nextCursor != null) {
+          representation.put("nextCursor", nextCursor);
+        }
 
-    String holdingsQuery = multipleRecordsCqlQuery(holdingsIds);
+        PhaseTimings.Phase serialization = timings.begin(PhaseTimings.SERIALIZATION);
+        Buffer body = JsonBody.encode(representation);
+        serialization.end();
 
-    holdingsClient.getMany(holdingsQuery, holdingsIds.size(), 0,
-      holdingsFetched::complete);
+        timings.report(routingContext, RELATIVE_ITEMS_PATH);
 
-    holdingsFetched.thenAccept(holdingsResponse -> {
-      if (holdingsResponse.getStatusCode() != 200) {
+        JsonResponse.success(routingContext.response(), body);
+      })
+      .exceptionally(e -> {
         ServerErrorResponse.internalError(routingContext.response(),
-          String.format("Holdings request (%s) failed %s: %s",
-            holdingsQuery, holdingsResponse.getStatusCode(),
-            holdingsResponse.getBody()));
-      }
+          e.getCause() != null ? e.getCause().toString() : e.toString());
 
-      final List<JsonObject> holdings = JsonArrayHelper.toList(
-        holdingsResponse.getJson().getJsonArray("holdingsRecords"));
-
-      List<String> instanceIds = holdings.stream()
-        .map(holding -> holding.getString("instanceId"))
-        .filter(Objects::nonNull)
-        .distinct()
-        .collect(Collectors.toList());
+        return null;
+      });
+  }
 
-      CompletableFuture<Response> instancesFetched =
-        new CompletableFuture<>();
+  /**
+   * Streams every item (matching the query, if there is one) as newline
+   * delimited JSON, fetching and enriching a page of items at a time
+   */
+  private void stream(RoutingContext routingContext) {
+    WebContext context = new WebContext(routingContext);
 
-      String instancesQuery = multipleRecordsCqlQuery(instanceIds);
+    String search = context.getStringParameter("query", null);
 
-      instancesClient.getMany(instancesQuery, instanceIds.size(), 0,
-        instancesFetched::complete);
+    if(CqlHelper.hasSortBy(search)) {
+      ClientErrorResponse.badRequest(routingContext.response(),
+        "sortBy cannot be used when streaming, items are sorted by id");
 
-      instancesFetched.thenAccept(instancesResponse -> {
-        if (instancesResponse.getStatusCode() != 200) {
-          ServerErrorResponse.internalError(routingContext.response(),
-            String.format("Instances request (%s) failed %s: %s",
-              instancesQuery, instancesResponse.getStatusCode(),
-              instancesResponse.getBody()));
-        }
+      return;
+    }
 
-        final List<JsonObject> instances = JsonArrayHelper.toList(
-          instancesResponse.getJson().getJsonArray("instances"));
+    String invalidProjection = Projection.invalidReason(context, EXPANDABLE);
 
-        List<String> materialTypeIds = wrappedItems.records.stream()
-          .map(item -> item.getMaterialTypeId())
-          .filter(Objects::nonNull)
-          .distinct()
-          .collect(Collectors.toList());
+    if(invalidProjection != null) {
+      ClientErrorResponse.badRequest(routingContext.response(), invalidProjection);
 
-        materialTypeIds.stream().forEach(id -> {
-          CompletableFuture<Response> newFuture = new CompletableFuture<>();
+      return;
+    }
 
-          allFutures.add(newFuture);
-          allMaterialTypeFutures.add(newFuture);
+    Projection projection = Projection.from(context);
 
-          materialTypesClient.get(id, newFuture::complete);
-        });
+    ItemCollection itemCollection = storage.getItemCollection(context);
 
-        List<String> permanentLoanTypeIds = wrappedItems.records.stream()
-          .map(item -> item.getPermanentLoanTypeId())
-          .filter(Objects::nonNull)
-          .distinct()
-          .collect(Collectors.toList());
+    NdjsonResponse.stream(routingContext.response(), cursor -> {
+      PagingParameters page = new PagingParameters(STREAM_PAGE_SIZE, 0, cursor);
 
-        List<String> temporaryLoanTypeIds = wrappedItems.records.stream()
-          .map(item -> item.getTemporaryLoanTypeId())
-          .filter(Objects::nonNull)
-          .distinct()
-          .collect(Collectors.toList());
+      CompletableFuture<MultipleRecords<Item>> found = new CompletableFuture<>();
 
-        Stream.concat(permanentLoanTypeIds.stream(), temporaryLoanTypeIds.stream())
-          .distinct()
-          .forEach(id -> {
+      Consumer<Failure> failed = failure -> found.completeExceptionally(
+        new Exception(failure.getReason()));
 
-            CompletableFuture<Response> newFuture = new CompletableFuture<>();
+      if(search == null) {
+        itemCollection.findAll(page,
+          success -> found.complete(success.getResult()), failed);
+      }
+      else {
+        try {
+          itemCollection.findByCql(search, page,
+            success -> found.complete(success.getResult()), failed);
+        } catch (UnsupportedEncodingException e) {
+          found.completeExceptionally(e);
+        }
+      }
 
-            allFutures.add(newFuture);
-            allLoanTypeFutures.add(newFuture);
+      //Headers are sent before the first page, so phases are not reported
+      return found.thenCompose(wrappedItems ->
+        manyItemsRepresentation(routingContext, context, wrappedItems, projection,
+          new PhaseTimings())
+          .thenApply(representation -> new NdjsonResponse.Page(
+            JsonArrayHelper.toList(representation.getJsonArray("items")),
+            page.next(wrappedItems.records, item -> item.id))));
+    });
+  }
 
-            loanTypesClient.get(id, newFuture::complete);
-          });
+  /**
+   * Builds the representation of the items, only fetching the records
+   * needed for the embedded properties the projection resolves, and timing
+   * each fetch
+   */
+  private CompletableFuture<JsonObject> manyItemsRepresentation(
+    RoutingContext routingContext,
+    WebContext context,
+    MultipleRecords<Item> wrappedItems,
+    Projection projection,
+    PhaseTimings timings) {
 
-        List<String> effectiveLocationIds = wrappedItems.records.stream()
-          .map(item -> HoldingsSupport.determineEffectiveLocationIdForItem(
-            HoldingsSupport.holdingForItem(item, holdings).orElse(null), item))
-          .filter(Objects::nonNull)
-          .distinct()
-          .collect(Collectors.toList());
+    CollectionResourceClient holdingsClient;
+    CollectionResourceClient instancesClient;
+    CollectionResourceClient materialTypesClient;
+    CollectionResourceClient loanTypesClient;
+    CollectionResourceClient locationsClient;
 
-        effectiveLocationIds.stream().forEach(id -> {
-          CompletableFuture<Response> newFuture = new CompletableFuture<>();
+    try {
+      OkapiHttpClient okapiClient = createHttpClient(routingContext, context);
+      holdingsClient = createHoldingsClient(okapiClient, context);
+      instancesClient = createInstancesClient(okapiClient, context);
+      materialTypesClient = createMaterialTypesClient(okapiClient, context);
+      loanTypesClient = createLoanTypesClient(okapiClient, context);
+      locationsClient = createLocationsClient(okapiClient, context);
+    }
+    catch (MalformedURLException e) {
+      CompletableFuture<JsonObject> failed = new CompletableFuture<>();
 
-          allFutures.add(newFuture);
-          allEffectiveLocationsFutures.add(newFuture);
+      failed.completeExceptionally(new Exception(
+        String.format("Invalid Okapi URL: %s", context.getOkapiLocation()), e));
 
-          effectiveLocationsClient.get(id, newFuture::complete);
-        });
+      return failed;
+    }
 
-        List<String> permanentLocationIds = wrappedItems.records.stream()
-          .map(item -> item.getPermanentLocationId())
-          .filter(Objects::nonNull)
-          .distinct()
-          .collect(Collectors.toList());
+    //No ids means no requests are made for those records
+    List<String> holdingsIds = projection.expandsAny("title", "contributorNames",
+      "callNumber", "effectiveLocation")
+      ? wrappedItems.records.stream()
+        .map(Item::getHoldingId)
+        .filter(Objects::nonNull)
+        .distinct()
+        .collect(Collectors.toList())
+      : Collections.emptyList();
+
+    return fetchByIds(timings, "holdings", holdingsIds,
+      () -> holdingsClient.getManyByIds(holdingsIds, "holdingsRecords"))
+      .thenCompose(holdings -> {
+        List<String> instanceIds = projection.expandsAny("title", "contributorNames")
+          ? holdings.stream()
+            .map(holding -> holding.getString("instanceId"))
+            .filter(Objects::nonNull)
+            .distinct()
+            .collect(Collectors.toList())
+          : Collections.emptyList();
+
+        return fetchByIds(timings, "instances", instanceIds,
+          () -> instancesClient.getManyByIds(instanceIds, "instances"))
+          .thenCompose(instances -> {
+            List<String> materialTypeIds = wrappedItems.records.stream()
+              .map(item -> expanded(projection, "materialType",
+                item.getMaterialTypeId()))
+              .filter(Objects::nonNull)
+              .distinct()
+              .collect(Collectors.toList());
+
+            List<String> loanTypeIds = wrappedItems.records.stream()
+              .flatMap(item -> Stream.of(
+                expanded(projection, "permanentLoanType", item.getPermanentLoanTypeId()),
+                expanded(projection, "temporaryLoanType", item.getTemporaryLoanTypeId())))
+              .filter(Objects::nonNull)
+              .distinct()
+              .collect(Collectors.toList());
+
+            //Effective locations are fetched alongside the item's own locations
+            List<String> locationIds = wrappedItems.records.stream()
+              .flatMap(item -> Stream.of(
+                expanded(projection, "permanentLocation", item.getPermanentLocationId()),
+                expanded(projection, "temporaryLocation", item.getTemporaryLocationId()),
+                expanded(projection, "effectiveLocation",
+                  HoldingsSupport.determineEffectiveLocationIdForItem(
+                    HoldingsSupport.holdingForItem(item, holdings).orElse(null), item))))
+              .filter(Objects::nonNull)
+              .distinct()
+              .collect(Collectors.toList());
+
+            CompletableFuture<Map<String, JsonObject>> materialTypesFetched =
+              fetchByIds(timings, "material-types", materialTypeIds,
+                () -> referenceRecords(materialTypesClient.getManyByIds(materialTypeIds, "mtypes"),
+                  "material-types"))
+                .thenApply(this::mapById);
+
+            CompletableFuture<Map<String, JsonObject>> loanTypesFetched =
+              fetchByIds(timings, "loan-types", loanTypeIds,
+                () -> referenceRecords(loanTypesClient.getManyByIds(loanTypeIds, "loantypes"),
+                  "loan-types"))
+                .thenApply(this::mapById);
+
+            CompletableFuture<Map<String, JsonObject>> locationsFetched =
+              fetchByIds(timings, "locations", locationIds,
+                () -> referenceRecords(locationsClient.getManyByIds(locationIds, "locations"),
+                  "locations"))
+                .thenApply(this::mapById);
+
+            return CompletableFuture.allOf(materialTypesFetched,
+              loanTypesFetched, locationsFetched)
+              .thenApply(v -> {
+                PhaseTimings.Phase representation =
+                  timings.begin(PhaseTimings.REPRESENTATION);
+
+                JsonObject projected = project(projection,
+                  new ItemRepresentation(RELATIVE_ITEMS_PATH)
+                    .toJson(wrappedItems, holdings, instances,
+                      materialTypesFetched.join(), loanTypesFetched.join(),
+                      locationsFetched.join(), locationsFetched.join(), context));
+
+                representation.end();
+
+                return projected;
+              });
+          });
+      });
+  }
 
-        List<String> temporaryLocationIds = wrappedItems.records.stream()
-          .map(item -> item.getTemporaryLocationId())
-          .filter(Objects::nonNull)
-          .distinct()
-          .collect(Collectors.toList());
+  /**
+   * Fetches the records, only timing it as a phase when there are ids to
+   * fetch, as otherwise no request is made
+   */
+  private static CompletableFuture<List<JsonObject>> fetchByIds(
+    PhaseTimings timings,
+    String phase,
+    List<String> ids,
+    Supplier<CompletableFuture<List<JsonObject>>> fetch) {
+
+    return ids.isEmpty()
+      ? fetch.get()
+      : timings.time(phase, fetch);
+  }
 
-        Stream.concat(permanentLocationIds.stream(), temporaryLocationIds.stream())
-          .distinct()
-          .forEach(id -> {
+  /**
+   * Reference records are only used to embed names, so a failed lookup leaves
+   * those names out rather than failing the whole page
+   */
+  private static CompletableFuture<List<JsonObject>> referenceRecords(
+    CompletableFuture<List<JsonObject>> fetched,
+    String recordType) {
 
-            CompletableFuture<Response> newFuture = new CompletableFuture<>();
+    return fetched.exceptionally(e -> {
+      log.warn(String.format("Unable to fetch %s, they will not be included: %s",
+        recordType, e.getCause() != null ? e.getCause().getMessage() : e.getMessage()));
 
-            allFutures.add(newFuture);
-            allLocationsFutures.add(newFuture);
+      return Collections.emptyList();
+    });
+  }
 
-            locationsClient.get(id, newFuture::complete);
-          });
+  private static String expanded(Projection projection, String property, String id) {
+    return projection.expands(property) ? id : null;
+  }
 
-        CompletableFuture<Void> allDoneFuture = allOf(allFutures);
+  private static JsonObject project(Projection projection, JsonObject representation) {
+    representation.put("items", new JsonArray(
+      JsonArrayHelper.toList(representation.getJsonArray("items")).stream()
+        .map(projection::project)
+        .collect(Collectors.toList())));
 
-        allDoneFuture.thenAccept(v -> {
-          log.info("GET all items: all futures completed");
+    return representation;
+  }
 
-          try {
-            Map<String, JsonObject> foundMaterialTypes
-              = allMaterialTypeFutures.stream()
-              .map(CompletableFuture::join)
-              .filter(response -> response.getStatusCode() == 200)
-              .map(Response::getJson)
-              .collect(Collectors.toMap(r -> r.getString("id"), r -> r));
-
-            Map<String, JsonObject> foundLoanTypes
-              = allLoanTypeFutures.stream()
-              .map(CompletableFuture::join)
-              .filter(response -> response.getStatusCode() == 200)
-              .map(Response::getJson)
-              .collect(Collectors.toMap(r -> r.getString("id"), r -> r));
-
-            Map<String, JsonObject> foundEffectiveLocations
-              = allEffectiveLocationsFutures.stream()
-              .map(CompletableFuture::join)
-              .filter(response -> response.getStatusCode() == 200)
-              .map(Response::getJson)
-              .collect(Collectors.toMap(r -> r.getString("id"), r-> r));
-
-            Map<String, JsonObject> foundLocations
-              = allLocationsFutures.stream()
-              .map(CompletableFuture::join)
-              .filter(response -> response.getStatusCode() == 200)
-              .map(Response::getJson)
-              .collect(Collectors.toMap(r -> r.getString("id"), r -> r));
-
-            JsonResponse.success(routingContext.response(),
-              new ItemRepresentation(RELATIVE_ITEMS_PATH)
-                .toJson(wrappedItems, holdings, instances, foundMaterialTypes,
-                  foundLoanTypes, foundLocations, foundEffectiveLocations, context));
-          } catch (Exception e) {
-            ServerErrorResponse.internalError(routingContext.response(), e.toString());
-          }
-        });
-      });
-    });
+  private Map<String, JsonObject> mapById(List<JsonObject> records) {
+    return records.stream()
+      .collect(Collectors.toMap(r -> r.getString("id"), r -> r, (first, second) -> first));
   }
 
   private OkapiHttpClient createHttpClient(
@@ -510,9 +772,8 @@ public class Items {
     return new OkapiHttpClient(client,
       new URL(context.getOkapiLocation()), context.getTenantId(),
       context.getToken(),
-      exception -> ServerErrorResponse.internalError(routingContext.response(),
-      String.format("Failed to contact storage module: %s",
-        exception.toString())));
+      exception -> ServerErrorResponse.failedToContactStorage(
+        routingContext.response(), exception));
   }
 
   private CollectionResourceClient createItemsStorageClient(
@@ -547,7 +808,7 @@ public class Items {
     WebContext context)
     throws MalformedURLException {
 
-    return createCollectionResourceClient(client, context, "/material-types");
+    return createCachingCollectionResourceClient(client, context, "/material-types");
   }
 
   private CollectionResourceClient createLoanTypesClient(
@@ -555,7 +816,7 @@ public class Items {
     WebContext context)
     throws MalformedURLException {
 
-    return createCollectionResourceClient(client, context, "/loan-types");
+    return createCachingCollectionResourceClient(client, context, "/loan-types");
   }
 
   private CollectionResourceClient createLocationsClient(
@@ -563,7 +824,7 @@ public class Items {
     WebContext context)
     throws MalformedURLException {
 
-    return createCollectionResourceClient(client, context, "/locations");
+    return createCachingCollectionResourceClient(client, context, "/locations");
   }
 
   private CollectionResourceClient createCollectionResourceClient(
@@ -576,6 +837,17 @@ public class Items {
       new URL(context.getOkapiLocation() + rootPath));
   }
 
+  private CollectionResourceClient createCachingCollectionResourceClient(
+    OkapiHttpClient client,
+    WebContext context,
+    String rootPath)
+    throws MalformedURLException {
+
+    return new CachingCollectionResourceClient(client,
+      new URL(context.getOkapiLocation() + rootPath), context.getTenantId(),
+      referenceDataCache);
+  }
+
   private JsonObject referenceRecordFrom(
     String id,
     CompletableFuture<Response> requestFuture) {
@@ -596,12 +868,14 @@ public class Items {
 
     itemCollection.add(newItem, success -> {
       Item item = success.getResult();
-      respondWithItemRepresentation(item, STATUS_CREATED, routingContext, webContext);
+      respondWithItemRepresentation(item, STATUS_CREATED, routingContext,
+        webContext, null);
     }, FailureResponseConsumer.serverError(routingContext.response()));
   }
 
   private void respondWithItemRepresentation (
-          Item item, int responseStatus, RoutingContext routingContext, WebContext webContext)
+          Item item, int responseStatus, RoutingContext routingContext, WebContext webContext,
+          String entityTagKey)
   {
     CollectionResourceClient holdingsClient;
     CollectionResourceClient instancesClient;
@@ -640,7 +914,7 @@ public class Items {
               holdingResponse.getJson(), item)
           : null;
 
-        log.info("Effective location ID in Items: " + effectiveLocationId);
+        log.debug("Effective location ID in Items: " + effectiveLocationId);
 
         ArrayList<CompletableFuture<Response>> allFutures = new ArrayList<>();
 
@@ -666,6 +940,27 @@ public class Items {
 
         allDoneFuture.thenAccept(v -> {
           try {
+            String itemVersion = EntityTag.updatedDateOf(item.getMetadata());
+
+            //Items without a version are tagged by their representation instead
+            String entityTag = itemVersion != null
+              ? EntityTag.of(item.id, itemVersion,
+                  EntityTag.versionOrContentOf(holding),
+                  EntityTag.versionOrContentOf(instance),
+                  referenceRecordVersion(materialTypeFuture),
+                  referenceRecordVersion(permanentLoanTypeFuture),
+                  referenceRecordVersion(temporaryLoanTypeFuture),
+                  referenceRecordVersion(permanentLocationFuture),
+                  referenceRecordVersion(temporaryLocationFuture),
+                  referenceRecordVersion(effectiveLocationFuture))
+              : null;
+
+            if(responseStatus == STATUS_SUCCESS
+              && respondedNotModified(routingContext, entityTagKey, entityTag)) {
+
+              return;
+            }
+
             JsonObject representation = includeReferenceRecordInformationInItem(
                       webContext, item, holding, instance,
                       materialTypeFuture,
@@ -676,6 +971,18 @@ public class Items {
                       permanentLocationFuture,
                       effectiveLocationFuture);
 
+            if(responseStatus == STATUS_SUCCESS) {
+              if(entityTag == null) {
+                entityTag = EntityTag.of(representation.encode());
+
+                if(respondedNotModified(routingContext, entityTagKey, entityTag)) {
+                  return;
+                }
+              }
+
+              includeEntityTag(routingContext, entityTagKey, entityTag);
+            }
+
             switch (responseStatus) {
               case STATUS_CREATED :
                 JsonResponse.created(routingContext.response(), representation);
@@ -697,6 +1004,49 @@ public class Items {
     });
   }
 
+  /**
+   * Responds with not modified when the client already has the
+   * representation of the item with this entity tag
+   *
+   * @return whether a not modified response has been sent
+   */
+  private boolean respondedNotModified(
+    RoutingContext routingContext,
+    String entityTagKey,
+    String entityTag) {
+
+    if(EntityTag.matches(routingContext.request().getHeader(HttpHeaders.IF_NONE_MATCH),
+      entityTag)) {
+
+      entityTagCache.put(entityTagKey, entityTag);
+      SuccessResponse.notModified(routingContext.response(), entityTag);
+      return true;
+    }
+
+    return false;
+  }
+
+  private void includeEntityTag(
+    RoutingContext routingContext,
+    String entityTagKey,
+    String entityTag) {
+
+    entityTagCache.put(entityTagKey, entityTag);
+    routingContext.response().putHeader(HttpHeaders.ETAG, entityTag);
+  }
+
+  private String referenceRecordVersion(CompletableFuture<Response> recordFuture) {
+    if(recordFuture == null) {
+      return null;
+    }
+
+    Response response = recordFuture.join();
+
+    return response.getStatusCode() == 200
+      ? EntityTag.versionOrContentOf(response.getJson())
+      : String.valueOf(response.getStatusCode());
+  }
+
   private void invalidOkapiUrlResponse(RoutingContext routingContext, WebContext context) {
     ServerErrorResponse.internalError(routingContext.response(),
       String.format("Invalid Okapi URL: %s", context.getOkapiLocation()));
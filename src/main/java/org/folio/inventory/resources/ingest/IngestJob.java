@@ -3,10 +3,49 @@ package org.folio.inventory.resources.ingest;
 public class IngestJob {
   public final String id;
   public final IngestJobState state;
+  public final int chunksProcessed;
+  //Only known once the whole file has been parsed
+  public final Integer totalChunks;
+  public final long recordsParsed;
+  public final long recordsProcessed;
+  public final long instancesCreated;
+  public final long holdingsCreated;
+  public final long itemsCreated;
+  public final long failures;
+  //Milliseconds since the epoch, set by the collection the job is stored in
+  public final long createdAt;
+  public final long updatedAt;
+
+  public IngestJob(
+    String id,
+    IngestJobState state,
+    int chunksProcessed,
+    Integer totalChunks,
+    long recordsParsed,
+    long recordsProcessed,
+    long instancesCreated,
+    long holdingsCreated,
+    long itemsCreated,
+    long failures,
+    long createdAt,
+    long updatedAt) {
 
-  public IngestJob(String id, IngestJobState state) {
     this.id = id;
     this.state = state;
+    this.chunksProcessed = chunksProcessed;
+    this.totalChunks = totalChunks;
+    this.recordsParsed = recordsParsed;
+    this.recordsProcessed = recordsProcessed;
+    this.instancesCreated = instancesCreated;
+    this.holdingsCreated = holdingsCreated;
+    this.itemsCreated = itemsCreated;
+    this.failures = failures;
+    this.createdAt = createdAt;
+    this.updatedAt = updatedAt;
+  }
+
+  public IngestJob(String id, IngestJobState state) {
+    this(id, state, 0, null, 0, 0, 0, 0, 0, 0, 0, 0);
   }
 
   public IngestJob(IngestJobState state) {
@@ -14,10 +53,99 @@ public class IngestJob {
   }
 
   public IngestJob complete() {
-    return new IngestJob(this.id, IngestJobState.COMPLETED);
+    return withState(IngestJobState.COMPLETED);
+  }
+
+  public IngestJob fail() {
+    return withState(IngestJobState.FAILED);
+  }
+
+  public boolean isFinished() {
+    return state == IngestJobState.COMPLETED || state == IngestJobState.FAILED;
+  }
+
+  /**
+   * Records that a chunk of records has been parsed and is waiting to be
+   * processed
+   */
+  public IngestJob chunkReceived(int records) {
+    return new IngestJob(id, state, chunksProcessed, totalChunks,
+      recordsParsed + records, recordsProcessed, instancesCreated,
+      holdingsCreated, itemsCreated, failures, createdAt, updatedAt);
+  }
+
+  /**
+   * Records that a chunk of the job has been processed, the job is completed
+   * once every chunk has been processed
+   *
+   * @param totalChunks total number of chunks in the job, if known
+   */
+  public IngestJob chunkProcessed(
+    int records,
+    Integer totalChunks,
+    long instances,
+    long holdings,
+    long items,
+    long chunkFailures) {
+
+    int processed = chunksProcessed + 1;
+    Integer total = totalChunks != null ? totalChunks : this.totalChunks;
+
+    IngestJobState newState;
+
+    if(state == IngestJobState.FAILED) {
+      newState = IngestJobState.FAILED;
+    }
+    else if(total != null && processed >= total) {
+      newState = IngestJobState.COMPLETED;
+    }
+    else {
+      newState = IngestJobState.IN_PROGRESS;
+    }
+
+    return new IngestJob(id, newState, processed, total, recordsParsed,
+      recordsProcessed + records, instancesCreated + instances,
+      holdingsCreated + holdings, itemsCreated + items,
+      failures + chunkFailures, createdAt, updatedAt);
+  }
+
+  /**
+   * @return records processed per second, up until now, or until the job
+   * finished
+   */
+  public long recordsPerSecond(long now) {
+    long elapsed = (isFinished() ? updatedAt : now) - createdAt;
+
+    return elapsed <= 0 ? 0 : (recordsProcessed * 1000) / elapsed;
+  }
+
+  /**
+   * @param time milliseconds since the epoch, when the job was first stored
+   */
+  public IngestJob asCreatedAt(long time) {
+    return new IngestJob(id, state, chunksProcessed, totalChunks,
+      recordsParsed, recordsProcessed, instancesCreated, holdingsCreated,
+      itemsCreated, failures, time, time);
+  }
+
+  /**
+   * @param time milliseconds since the epoch, when the change was stored
+   */
+  public IngestJob asChangedAt(long time) {
+    return new IngestJob(id, state, chunksProcessed, totalChunks,
+      recordsParsed, recordsProcessed, instancesCreated, holdingsCreated,
+      itemsCreated, failures, createdAt, time);
   }
 
   public IngestJob copyWithNewId(String newId) {
-    return new IngestJob(newId, this.state);
+    return new IngestJob(newId, state, chunksProcessed, totalChunks,
+      recordsParsed, recordsProcessed, instancesCreated, holdingsCreated,
+      itemsCreated, failures, createdAt, updatedAt);
+  }
+
+  private IngestJob withState(IngestJobState newState) {
+    return new IngestJob(id, newState, chunksProcessed, totalChunks,
+      recordsParsed, recordsProcessed, instancesCreated, holdingsCreated,
+      itemsCreated, failures, createdAt, updatedAt);
   }
 }
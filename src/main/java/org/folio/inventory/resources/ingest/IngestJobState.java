@@ -1,7 +1,8 @@
 package org.folio.inventory.resources.ingest;
 
 public enum IngestJobState {
-  REQUESTED("Requested"), IN_PROGRESS("In Progress"), COMPLETED("Completed");
+  REQUESTED("Requested"), IN_PROGRESS("In Progress"), COMPLETED("Completed"),
+  FAILED("Failed");
 
   private final String printableDescription;
 
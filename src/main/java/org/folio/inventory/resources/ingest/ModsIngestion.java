@@ -11,7 +11,9 @@ import io.vertx.ext.web.handler.BodyHandler;
 import org.apache.commons.lang3.StringUtils;
 import org.folio.inventory.common.Context;
 import org.folio.inventory.common.WebContext;
-import org.folio.inventory.domain.ingest.IngestMessages;
+import org.folio.inventory.common.WorkerPool;
+import org.folio.inventory.domain.ingest.IngestChunkSender;
+import org.folio.inventory.domain.ingest.IngestJobCollection;
 import org.folio.inventory.parsing.ModsParser;
 import org.folio.inventory.parsing.UTF8LiteralCharacterEncoding;
 import org.folio.inventory.storage.Storage;
@@ -21,6 +23,9 @@ import org.folio.inventory.storage.external.ReferenceRecordClient;
 import org.folio.inventory.support.http.client.OkapiHttpClient;
 import org.folio.inventory.support.http.server.*;
 
+import java.io.BufferedInputStream;
+import java.io.FileInputStream;
+import java.io.InputStream;
 import java.io.UnsupportedEncodingException;
 import java.lang.invoke.MethodHandles;
 import java.net.MalformedURLException;
@@ -36,10 +41,16 @@ public class ModsIngestion {
   private final Storage storage;
 
   private final HttpClient client;
+  private final JsonObject config;
+
+  public ModsIngestion(
+    final Storage storage,
+    final HttpClient client,
+    final JsonObject config) {
 
-  public ModsIngestion(final Storage storage, final HttpClient client) {
     this.storage = storage;
     this.client = client;
+    this.config = config;
   }
 
   public void register(Router router) {
@@ -62,6 +73,15 @@ public class ModsIngestion {
       return;
     }
 
+    WorkerPool parsePool = WorkerPool.shared(routingContext.vertx(), config,
+      WorkerPool.PARSE);
+
+    if(!parsePool.hasCapacity()) {
+      ServerErrorResponse.serviceUnavailable(routingContext.response(),
+        "Too many files are waiting to be parsed, try again later");
+      return;
+    }
+
     WebContext context = new WebContext(routingContext);
     OkapiHttpClient okapiClient;
     ReferenceRecordClient materialTypesClient;
@@ -164,47 +184,63 @@ public class ModsIngestion {
           return;
         }
 
-        wrapWithExceptionHandler(routingContext,
-          getFileContents(routingContext.vertx().fileSystem(), uploadFileName))
-          .thenAccept(fileContents -> {
-            try {
-              List<JsonObject> records = new ModsParser(
-                new UTF8LiteralCharacterEncoding())
-                .parseRecords(fileContents);
-
-              storage.getIngestJobCollection(context)
-                .add(new IngestJob(IngestJobState.REQUESTED),
-                  success -> {
-                    IngestMessages.start(records,
-                      singleEntryMap(bookMaterialType),
-                      singleEntryMap(canCirculateLoanType),
-                      singleEntryMap(mainLibraryLocation),
-                      singleEntryMap(isbnIdentifierType),
-                      singleEntryMap(booksInstanceType),
-                      singleEntryMap(personalContributorNameType),
-                      success.getResult().id, context).send(routingContext.vertx());
-
-                    RedirectResponse.accepted(routingContext.response(),
-                      statusLocation(routingContext, success.getResult().id));
-                  },
-                  failure -> log.error("Creating Ingest Job failed")
-                );
-            } catch (Exception e) {
-              ServerErrorResponse.internalError(routingContext.response(),
-                String.format("Unable to parse MODS file:%s", e.toString()));
-            }
-          });
+        JsonObject referenceRecords = new JsonObject()
+          .put("materialTypes", singleEntryMap(bookMaterialType))
+          .put("loanTypes", singleEntryMap(canCirculateLoanType))
+          .put("locations", singleEntryMap(mainLibraryLocation))
+          .put("identifierTypes", singleEntryMap(isbnIdentifierType))
+          .put("instanceTypes", singleEntryMap(booksInstanceType))
+          .put("contributorNameTypes", singleEntryMap(personalContributorNameType));
+
+        storage.getIngestJobCollection(context)
+          .add(new IngestJob(IngestJobState.REQUESTED),
+            success -> {
+              String jobId = success.getResult().id;
+
+              parseRecords(parsePool, uploadFileName,
+                new IngestChunkSender(routingContext.vertx().eventBus(), config,
+                  referenceRecords, jobId, context));
+
+              RedirectResponse.accepted(routingContext.response(),
+                statusLocation(routingContext, jobId));
+            },
+            failure -> log.error("Creating Ingest Job failed")
+          );
     });
   }
 
   private void status(RoutingContext routingContext) {
     Context context = new WebContext(routingContext);
 
-    storage.getIngestJobCollection(context)
-      .findById(routingContext.request().getParam("id"),
-        it -> JsonResponse.success(routingContext.response(),
-          new JsonObject().put("status", it.getResult().state.toString())),
-        FailureResponseConsumer.serverError(routingContext.response()));
+    IngestJobCollection jobs = storage.getIngestJobCollection(context);
+
+    jobs.findById(routingContext.request().getParam("id"),
+      it -> {
+        IngestJob job = it.getResult();
+
+        if(job == null) {
+          ClientErrorResponse.notFound(routingContext.response());
+          return;
+        }
+
+        JsonObject status = new JsonObject()
+          .put("status", job.state.toString())
+          .put("chunksProcessed", job.chunksProcessed)
+          .put("recordsParsed", job.recordsParsed)
+          .put("recordsProcessed", job.recordsProcessed)
+          .put("instancesCreated", job.instancesCreated)
+          .put("holdingsCreated", job.holdingsCreated)
+          .put("itemsCreated", job.itemsCreated)
+          .put("failures", job.failures)
+          .put("recordsPerSecond", job.recordsPerSecond(jobs.currentTimeMillis()));
+
+        if(job.totalChunks != null) {
+          status.put("totalChunks", job.totalChunks);
+        }
+
+        JsonResponse.success(routingContext.response(), status);
+      },
+      FailureResponseConsumer.serverError(routingContext.response()));
   }
 
   private Map<String, String> singleEntryMap(ReferenceRecord record) {
@@ -241,9 +277,8 @@ public class ModsIngestion {
     return new OkapiHttpClient(client,
       new URL(context.getOkapiLocation()), context.getTenantId(),
       context.getToken(),
-      exception -> ServerErrorResponse.internalError(routingContext.response(),
-        String.format("Failed to contact storage module: %s",
-          exception.toString())));
+      exception -> ServerErrorResponse.failedToContactStorage(
+        routingContext.response(), exception));
   }
 
   private <T> CompletableFuture<T> wrapWithExceptionHandler(
@@ -270,26 +305,33 @@ public class ModsIngestion {
     return Stream.of(records).anyMatch(Objects::isNull);
   }
 
-  private CompletableFuture<String> getFileContents(
-    io.vertx.core.file.FileSystem fileSystem, String filename) {
-
-    CompletableFuture<String> future = new CompletableFuture<>();
-
-    try {
-      fileSystem.readFile(filename,
-        result -> {
-          if(result.succeeded()) {
-            future.complete(result.result().toString());
-          }
-          else {
-            future.completeExceptionally(result.cause());
-          }
+  /**
+   * Parses the uploaded file as a stream on a parse worker thread, sending
+   * records for ingest in chunks as they are parsed, so that the file is
+   * never held in memory as a whole
+   */
+  private void parseRecords(
+    WorkerPool parsePool,
+    String filename,
+    IngestChunkSender sender) {
+
+    parsePool.<Void>executeBlocking(parsing -> {
+        try (InputStream file = new BufferedInputStream(new FileInputStream(filename))) {
+          new ModsParser(new UTF8LiteralCharacterEncoding())
+            .parseRecords(file, sender);
+
+          sender.finish();
+          parsing.complete();
+        }
+        catch (Exception e) {
+          parsing.fail(e);
+        }
+      },
+      result -> {
+        if(result.failed()) {
+          sender.fail(String.format("Unable to parse MODS file:%s",
+            result.cause().toString()));
+        }
       });
-    }
-    catch (Exception e) {
-      future.completeExceptionally(e);
-    }
-
-    return future;
   }
 }
@@ -5,16 +5,29 @@ import io.vertx.core.http.HttpClient;
 import io.vertx.core.json.JsonObject;
 
 import org.folio.inventory.common.Context;
+import org.folio.inventory.common.SharedResources;
+import org.folio.inventory.common.WorkerPool;
 import org.folio.inventory.domain.CollectionProvider;
 import org.folio.inventory.domain.HoldingCollection;
 import org.folio.inventory.domain.instances.InstanceCollection;
 import org.folio.inventory.domain.items.ItemCollection;
 import org.folio.inventory.domain.ingest.IngestJobCollection;
 import org.folio.inventory.storage.external.ExternalStorageCollections;
+import org.folio.inventory.storage.memory.FileBackedIngestJobCollection;
+import org.folio.inventory.storage.memory.InMemoryIngestJobCollection;
 
+import java.io.IOException;
+import java.nio.file.Paths;
+import java.time.Clock;
+import java.time.Duration;
 import java.util.function.Function;
 
 public class Storage {
+  public static final String INGEST_JOBS_DIRECTORY_KEY = "ingest.jobs.directory";
+  public static final String INGEST_JOBS_RETENTION_HOURS_KEY = "ingest.jobs.retention-hours";
+
+  private static final String INGEST_JOBS_SHARED_RESOURCE = "ingest-jobs";
+
   private final Function<Context, CollectionProvider> providerFactory;
 
   private Storage(final Function<Context, CollectionProvider> providerFactory) {
@@ -24,6 +37,8 @@ public class Storage {
   public static Storage basedUpon(Vertx vertx, JsonObject config, HttpClient client) {
     String storageType = config.getString("storage.type", "okapi");
 
+    IngestJobCollection ingestJobCollection = sharedIngestJobCollection(vertx, config);
+
     switch(storageType) {
       case "external":
         String location = config.getString("storage.location", null);
@@ -33,11 +48,13 @@ public class Storage {
             "For external storage, location must be provided.");
         }
 
-        return new Storage(context -> new ExternalStorageCollections(vertx, location, client));
+        return new Storage(context -> new ExternalStorageCollections(vertx,
+          location, client, ingestJobCollection));
 
       case "okapi":
         return new Storage(context ->
-          new ExternalStorageCollections(vertx, context.getOkapiLocation(), client));
+          new ExternalStorageCollections(vertx, context.getOkapiLocation(),
+            client, ingestJobCollection));
 
       default:
         throw new IllegalArgumentException("Storage type must be one of [external, okapi]");
@@ -63,4 +80,41 @@ public class Storage {
     return providerFactory.apply(context).getHoldingCollection(
       context.getTenantId(), context.getToken());
   }
+
+  /**
+   * Jobs are shared by all verticle instances, so that the status of a job
+   * can be found regardless of which instance receives the request
+   */
+  private static IngestJobCollection sharedIngestJobCollection(
+    Vertx vertx,
+    JsonObject config) {
+
+    return SharedResources.getOrCreate(vertx, INGEST_JOBS_SHARED_RESOURCE,
+      () -> createIngestJobCollection(vertx, config));
+  }
+
+  private static InMemoryIngestJobCollection createIngestJobCollection(
+    Vertx vertx,
+    JsonObject config) {
+
+    Duration retention = Duration.ofHours(config.getLong(
+      INGEST_JOBS_RETENTION_HOURS_KEY,
+      InMemoryIngestJobCollection.DEFAULT_RETENTION.toHours()));
+
+    String directory = config.getString(INGEST_JOBS_DIRECTORY_KEY, null);
+
+    if(directory == null) {
+      return new InMemoryIngestJobCollection(retention, Clock.systemUTC());
+    }
+
+    try {
+      return new FileBackedIngestJobCollection(Paths.get(directory),
+        retention, Clock.systemUTC(),
+        WorkerPool.shared(vertx, config, WorkerPool.INGEST_WRITE));
+    }
+    catch (IOException e) {
+      throw new IllegalArgumentException(String.format(
+        "Unable to use %s for ingest jobs: %s", directory, e.getMessage()), e);
+    }
+  }
 }
@@ -0,0 +1,93 @@
+package org.folio.inventory.storage.external;
+
+import java.net.URL;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.function.Consumer;
+
+import org.folio.inventory.support.http.ContentType;
+import org.folio.inventory.support.http.client.OkapiHttpClient;
+import org.folio.inventory.support.http.client.Response;
+
+import io.vertx.core.json.JsonObject;
+
+/**
+ * Collection client for reference records which serves individual records
+ * from a {@link ReferenceDataCache} when possible, and only contacts storage
+ * when the record is not already cached. It is only used for reading, changes
+ * made in storage are picked up once the cached records expire.
+ */
+public class CachingCollectionResourceClient extends CollectionResourceClient {
+  private final ReferenceDataCache cache;
+  private final String tenantId;
+  private final String collectionRoot;
+
+  public CachingCollectionResourceClient(
+    OkapiHttpClient client,
+    URL collectionRoot,
+    String tenantId,
+    ReferenceDataCache cache) {
+
+    super(client, collectionRoot);
+
+    this.cache = cache;
+    this.tenantId = tenantId;
+    this.collectionRoot = collectionRoot.toString();
+  }
+
+  @Override
+  public void get(String id, Consumer<Response> responseHandler) {
+    Response cached = cache.get(tenantId, collectionRoot, id);
+
+    if(cached != null) {
+      responseHandler.accept(cached);
+      return;
+    }
+
+    super.get(id, response -> {
+      //Only successful responses are cached, so missing records can appear later
+      if(response.getStatusCode() == 200) {
+        cache.put(tenantId, collectionRoot, id, response);
+      }
+
+      responseHandler.accept(response);
+    });
+  }
+
+  @Override
+  public CompletableFuture<List<JsonObject>> getManyByIds(
+    Collection<String> ids,
+    String collectionWrapperPropertyName) {
+
+    List<JsonObject> cachedRecords = new ArrayList<>();
+    List<String> uncachedIds = new ArrayList<>();
+
+    ids.stream().distinct().forEach(id -> {
+      Response cached = cache.get(tenantId, collectionRoot, id);
+
+      if(cached != null) {
+        cachedRecords.add(cached.getJson());
+      }
+      else {
+        uncachedIds.add(id);
+      }
+    });
+
+    if(uncachedIds.isEmpty()) {
+      return CompletableFuture.completedFuture(cachedRecords);
+    }
+
+    return super.getManyByIds(uncachedIds, collectionWrapperPropertyName)
+      .thenApply(fetchedRecords -> {
+        fetchedRecords.forEach(record ->
+          cache.put(tenantId, collectionRoot, record.getString("id"),
+            new Response(200, record.encode(), ContentType.APPLICATION_JSON, null)));
+
+        cachedRecords.addAll(fetchedRecords);
+
+        return cachedRecords;
+      });
+  }
+}
@@ -2,13 +2,29 @@ package org.folio.inventory.storage.external;
 
 import io.vertx.core.Handler;
 import io.vertx.core.http.HttpClientResponse;
+import io.vertx.core.json.JsonObject;
+import org.folio.inventory.support.JsonArrayHelper;
 import org.folio.inventory.support.http.client.OkapiHttpClient;
 import org.folio.inventory.support.http.client.Response;
 
 import java.net.URL;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
 import java.util.function.Consumer;
+import java.util.stream.Collectors;
+
+import static org.folio.inventory.common.FutureAssistance.allOf;
+import static org.folio.inventory.support.CqlHelper.multipleRecordsCqlQuery;
 
 public class CollectionResourceClient {
+  //Keeps the query string for a batch of UUIDs well within common URL length limits
+  static final int MAXIMUM_IDS_PER_REQUEST = 50;
+
+  //Shared by all clients, so that concurrent requests for the same record are sent once
+  private static final InFlightRequests<Response> inFlightGets
+    = new InFlightRequests<>();
 
   private final OkapiHttpClient client;
   private final URL collectionRoot;
@@ -36,9 +52,21 @@ public class CollectionResourceClient {
       responseConversationHandler(responseHandler));
   }
 
+  /**
+   * Fetches the record with the given id. If the same record is already
+   * being fetched for the same tenant and user, the response to that request
+   * is used rather than sending another.
+   * <p>
+   * Transient failures are attempted again, as the read policy of the client
+   * allows. Should the shared request still fail, that failure is given to
+   * every caller, rather than each of them sending the request again.
+   */
   public void get(String id, Consumer<Response> responseHandler) {
-    client.get(String.format(collectionRoot + "/%s", id),
-      responseConversationHandler(responseHandler));
+    String location = String.format(collectionRoot + "/%s", id);
+
+    client.whenReceived(inFlightGets.execute(
+      InFlightRequests.keyFor(client.getTenantId(), client.getToken(), location),
+      () -> client.read(location)), responseHandler);
   }
 
   public void delete(String id, Consumer<Response> responseHandler) {
@@ -57,8 +85,7 @@ public class CollectionResourceClient {
       ? String.format("%s?%s", collectionRoot, query)
       : collectionRoot.toString();
 
-    client.get(url,
-      responseConversationHandler(responseHandler));
+    client.read(url, responseHandler);
   }
 
   public void getMany(
@@ -73,7 +100,61 @@ public class CollectionResourceClient {
       pageLimit, pageOffset)
       : collectionRoot.toString();
 
-    client.get(url, responseConversationHandler(responseHandler));
+    client.read(url, responseHandler);
+  }
+
+  /**
+   * Fetches the records with the given ids, using as few requests as possible
+   * whilst keeping each request URL within a safe length
+   *
+   * @param ids ids of the records to fetch, duplicates are ignored
+   * @param collectionWrapperPropertyName name of the array property in the response
+   * @return future completed with the records found, or failed if any request fails
+   */
+  public CompletableFuture<List<JsonObject>> getManyByIds(
+    Collection<String> ids,
+    String collectionWrapperPropertyName) {
+
+    List<String> distinctIds = ids.stream()
+      .distinct()
+      .collect(Collectors.toList());
+
+    List<CompletableFuture<List<JsonObject>>> batches = new ArrayList<>();
+
+    for (int start = 0; start < distinctIds.size(); start += MAXIMUM_IDS_PER_REQUEST) {
+      List<String> batchIds = distinctIds.subList(start,
+        Math.min(start + MAXIMUM_IDS_PER_REQUEST, distinctIds.size()));
+
+      batches.add(getBatch(batchIds, collectionWrapperPropertyName));
+    }
+
+    return allOf(batches).thenApply(v -> batches.stream()
+      .map(CompletableFuture::join)
+      .flatMap(List::stream)
+      .collect(Collectors.toList()));
+  }
+
+  private CompletableFuture<List<JsonObject>> getBatch(
+    List<String> ids,
+    String collectionWrapperPropertyName) {
+
+    CompletableFuture<List<JsonObject>> fetched = new CompletableFuture<>();
+
+    String query = multipleRecordsCqlQuery(ids);
+
+    getMany(query, ids.size(), 0, response -> {
+      if(response.getStatusCode() == 200) {
+        fetched.complete(JsonArrayHelper.toList(
+          response.getJson().getJsonArray(collectionWrapperPropertyName)));
+      }
+      else {
+        fetched.completeExceptionally(new CollectionResourceClientException(
+          String.format("Request (%s) to %s failed %s: %s", query,
+            collectionRoot, response.getStatusCode(), response.getBody())));
+      }
+    });
+
+    return fetched;
   }
 
   private boolean isProvided(String query) {
@@ -87,4 +168,10 @@ public class CollectionResourceClient {
       response.bodyHandler(buffer ->
         responseHandler.accept(Response.from(response, buffer)));
   }
+
+  public static class CollectionResourceClientException extends RuntimeException {
+    private CollectionResourceClientException(String message) {
+      super(message);
+    }
+  }
 }
@@ -14,12 +14,22 @@ public class ExternalStorageCollections implements CollectionProvider {
   private final Vertx vertx;
   private final String baseAddress;
   private final HttpClient client;
-  private static final InMemoryIngestJobCollection ingestJobCollection = new InMemoryIngestJobCollection();
+  private final IngestJobCollection ingestJobCollection;
 
   public ExternalStorageCollections(Vertx vertx, String baseAddress, HttpClient client) {
+    this(vertx, baseAddress, client, new InMemoryIngestJobCollection());
+  }
+
+  public ExternalStorageCollections(
+    Vertx vertx,
+    String baseAddress,
+    HttpClient client,
+    IngestJobCollection ingestJobCollection) {
+
     this.vertx = vertx;
     this.baseAddress = baseAddress;
     this.client = client;
+    this.ingestJobCollection = ingestJobCollection;
   }
 
   @Override
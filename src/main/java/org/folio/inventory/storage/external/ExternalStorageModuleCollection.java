@@ -2,28 +2,40 @@ package org.folio.inventory.storage.external;
 
 import io.vertx.core.Handler;
 import io.vertx.core.Vertx;
+import io.vertx.core.buffer.Buffer;
 import io.vertx.core.http.HttpClient;
 import io.vertx.core.http.HttpClientRequest;
 import io.vertx.core.http.HttpClientResponse;
 import io.vertx.core.http.HttpHeaders;
 import io.vertx.core.http.HttpMethod;
-import io.vertx.core.json.Json;
 import io.vertx.core.json.JsonObject;
 import org.apache.commons.lang3.StringUtils;
+import org.folio.inventory.common.api.request.Cursor;
 import org.folio.inventory.common.api.request.PagingParameters;
 import org.folio.inventory.common.domain.Failure;
 import org.folio.inventory.common.domain.MultipleRecords;
 import org.folio.inventory.common.domain.Success;
-import org.folio.inventory.support.JsonArrayHelper;
+import org.folio.inventory.storage.external.StorageResponseParser.WrappedRecords;
+import org.folio.inventory.support.CqlHelper;
 import org.folio.inventory.support.http.ContentType;
+import org.folio.inventory.support.http.client.StorageReadPolicy;
+import org.folio.inventory.support.http.client.StorageRequestLimits;
+import org.folio.inventory.support.http.client.StorageUnavailableException;
 
+import java.io.IOException;
+import java.io.UncheckedIOException;
 import java.io.UnsupportedEncodingException;
 import java.net.URLEncoder;
-import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.TimeoutException;
 import java.util.function.Consumer;
-import java.util.stream.Collectors;
 
 abstract class ExternalStorageModuleCollection<T> {
+  //Shared by all collections, so that concurrent requests for the same record are sent once
+  private static final InFlightRequests<StorageResponse> inFlightFinds
+    = new InFlightRequests<>();
+
   private final Vertx vertx;
   private final String storageAddress;
   private final String tenant;
@@ -57,46 +69,66 @@ abstract class ExternalStorageModuleCollection<T> {
 
     Handler<HttpClientResponse> onResponse = response ->
       response.bodyHandler(buffer -> {
-        String responseBody = buffer.getString(0, buffer.length());
         int statusCode = response.statusCode();
 
         if(statusCode == 201) {
-          T created = mapFromJson(new JsonObject(responseBody));
-
-          resultCallback.accept(new Success<>(created));
+          try {
+            T created = mapFromJson(StorageResponseParser.parseObject(buffer));
+
+            resultCallback.accept(new Success<>(created));
+          }
+          catch(IOException e) {
+            invalidResponse(buffer, statusCode, e, failureCallback);
+          }
         }
         else {
-          failureCallback.accept(new Failure(responseBody, statusCode));
+          failureCallback.accept(new Failure(bodyAsString(buffer), statusCode));
         }
     });
 
     JsonObject toSend = mapToRequest(item);
 
-    HttpClientRequest request = createRequest(HttpMethod.POST, storageAddress,
-      onResponse, failureCallback);
-
-    jsonContentType(request);
-    acceptJson(request);
+    send(HttpMethod.POST, storageAddress, onResponse, failureCallback,
+      request -> {
+        jsonContentType(request);
+        acceptJson(request);
 
-    request.end(Json.encodePrettily(toSend));
+        end(request, toSend);
+      });
   }
 
+  /**
+   * Finds the record with the given id. If the same record is already being
+   * fetched for the same tenant, the response to that request is used rather
+   * than sending another (each caller maps the response separately).
+   */
   public void findById(String id,
     Consumer<Success<T>> resultCallback,
     Consumer<Failure> failureCallback) {
 
-    Handler<HttpClientResponse> onResponse =
-      response -> response.bodyHandler(buffer -> {
-        String responseBody = buffer.getString(0, buffer.length());
-        int statusCode = response.statusCode();
+    String location = individualRecordLocation(id);
 
-        switch (statusCode) {
-          case 200:
-            JsonObject instanceFromServer = new JsonObject(responseBody);
+    inFlightFinds.execute(InFlightRequests.keyFor(tenant, token, location),
+      () -> read(location))
+      .whenComplete((response, failure) -> {
+        if(failure != null) {
+          failureCallback.accept(toFailure(failure));
+          return;
+        }
 
-            T found = mapFromJson(instanceFromServer);
+        Buffer buffer = response.body;
+        int statusCode = response.statusCode;
 
-            resultCallback.accept(new Success<>(found));
+        switch (statusCode) {
+          case 200:
+            try {
+              T found = mapFromJson(StorageResponseParser.parseObject(buffer));
+
+              resultCallback.accept(new Success<>(found));
+            }
+            catch(IOException e) {
+              invalidResponse(buffer, statusCode, e, failureCallback);
+            }
             break;
 
           case 404:
@@ -104,15 +136,9 @@ abstract class ExternalStorageModuleCollection<T> {
             break;
 
           default:
-            failureCallback.accept(new Failure(responseBody, statusCode));
+            failureCallback.accept(new Failure(bodyAsString(buffer), statusCode));
         }
-    });
-
-    HttpClientRequest request = createRequest(HttpMethod.GET,
-      individualRecordLocation(id), onResponse, failureCallback);
-
-    acceptJson(request);
-    request.end();
+      });
   }
 
   public void findAll(
@@ -120,15 +146,16 @@ abstract class ExternalStorageModuleCollection<T> {
     Consumer<Success<MultipleRecords<T>>> resultCallback,
     Consumer<Failure> failureCallback) {
 
+    if(pagingParameters.cursor != null) {
+      findByCursor(null, pagingParameters, resultCallback, failureCallback);
+      return;
+    }
+
     String location = String.format(storageAddress
         + "?limit=%s&offset=%s",
       pagingParameters.limit, pagingParameters.offset);
 
-    HttpClientRequest request = createRequest(HttpMethod.GET, location,
-      handleMultipleResults(resultCallback, failureCallback), failureCallback);
-
-    acceptJson(request);
-    request.end();
+    findMany(location, resultCallback, failureCallback);
   }
 
   public void empty(
@@ -138,11 +165,11 @@ abstract class ExternalStorageModuleCollection<T> {
     Handler<HttpClientResponse> onResponse = noContentResponseHandler(
       completionCallback, failureCallback);
 
-    HttpClientRequest request =
-      createRequest(HttpMethod.DELETE, storageAddress, onResponse, failureCallback);
-
-    acceptJsonOrPlainText(request);
-    request.end();
+    send(HttpMethod.DELETE, storageAddress, onResponse, failureCallback,
+      request -> {
+        acceptJsonOrPlainText(request);
+        request.end();
+      });
   }
 
   public void findByCql(String cqlQuery,
@@ -150,6 +177,11 @@ abstract class ExternalStorageModuleCollection<T> {
     Consumer<Success<MultipleRecords<T>>> resultCallback,
     Consumer<Failure> failureCallback) throws UnsupportedEncodingException {
 
+    if(pagingParameters.cursor != null) {
+      findByCursor(cqlQuery, pagingParameters, resultCallback, failureCallback);
+      return;
+    }
+
     String encodedQuery = URLEncoder.encode(cqlQuery, "UTF-8");
 
     String location =
@@ -157,11 +189,48 @@ abstract class ExternalStorageModuleCollection<T> {
         String.format("&limit=%s&offset=%s", pagingParameters.limit,
           pagingParameters.offset);
 
-    HttpClientRequest request = createRequest(HttpMethod.GET, location,
-      handleMultipleResults(resultCallback, failureCallback), failureCallback);
+    findMany(location, resultCallback, failureCallback);
+  }
+
+  /**
+   * Fetches the page of records after the cursor, sorted by id. Records
+   * after the last one seen are found using the id index, so each page costs
+   * the same no matter how far into the collection it is.
+   */
+  private void findByCursor(
+    String cqlQuery,
+    PagingParameters pagingParameters,
+    Consumer<Success<MultipleRecords<T>>> resultCallback,
+    Consumer<Failure> failureCallback) {
+
+    if(CqlHelper.hasSortBy(cqlQuery)) {
+      failureCallback.accept(new Failure(
+        "sortBy cannot be used with a cursor, records are sorted by id", 400));
+      return;
+    }
+
+    Cursor cursor = pagingParameters.cursor;
+
+    String afterCursor = cursor.isFirst()
+      ? "cql.allRecords=1"
+      : String.format("id>\"%s\"", CqlHelper.cqlMask(cursor.getLastSeenId()));
+
+    String query = StringUtils.isBlank(cqlQuery)
+      ? afterCursor
+      : String.format("(%s) and %s", cqlQuery, afterCursor);
+
+    String location;
 
-    acceptJson(request);
-    request.end();
+    try {
+      location = String.format("%s?query=%s&limit=%s", storageAddress,
+        URLEncoder.encode(query + " sortBy id", "UTF-8"), pagingParameters.limit);
+    }
+    catch(UnsupportedEncodingException e) {
+      failureCallback.accept(new Failure(e.getMessage(), 500));
+      return;
+    }
+
+    findMany(location, resultCallback, failureCallback);
   }
 
   public void update(T item,
@@ -175,13 +244,13 @@ abstract class ExternalStorageModuleCollection<T> {
 
     JsonObject toSend = mapToRequest(item);
 
-    HttpClientRequest request = createRequest(HttpMethod.PUT, location,
-      onResponse, failureCallback);
+    send(HttpMethod.PUT, location, onResponse, failureCallback,
+      request -> {
+        jsonContentType(request);
+        acceptPlainText(request);
 
-    jsonContentType(request);
-    acceptPlainText(request);
-
-    request.end(Json.encodePrettily(toSend));
+        end(request, toSend);
+      });
   }
 
   public void delete(String id,
@@ -192,11 +261,11 @@ abstract class ExternalStorageModuleCollection<T> {
     Handler<HttpClientResponse> onResponse = noContentResponseHandler(
       completionCallback, failureCallback);
 
-    HttpClientRequest request = createRequest(HttpMethod.DELETE, location,
-      onResponse, failureCallback);
-
-    acceptJsonOrPlainText(request);
-    request.end();
+    send(HttpMethod.DELETE, location, onResponse, failureCallback,
+      request -> {
+        acceptJsonOrPlainText(request);
+        request.end();
+      });
   }
 
   private void acceptJson(HttpClientRequest request) {
@@ -218,10 +287,26 @@ abstract class ExternalStorageModuleCollection<T> {
     request.putHeader(HttpHeaders.ACCEPT, StringUtils.join(contentTypes, ","));
   }
 
-  private Handler<Throwable> exceptionHandler(
-    Consumer<Failure> failureCallback) {
+  /**
+   * Failures always have a status, so that they can be responded with
+   */
+  private static Failure toFailure(Throwable failure) {
+    Throwable cause = failure instanceof CompletionException
+      && failure.getCause() != null
+      ? failure.getCause()
+      : failure;
+
+    //Requests not sent because of the limits for storage are unavailable
+    if(cause instanceof StorageUnavailableException) {
+      return new Failure(cause.getMessage(), 503);
+    }
+
+    //No response before the deadline for the read or the request timeout
+    if(cause instanceof TimeoutException) {
+      return new Failure(cause.getMessage(), 504);
+    }
 
-    return it -> failureCallback.accept(new Failure(it.getMessage(), null));
+    return new Failure(cause.getMessage(), 500);
   }
 
   private void jsonContentType(HttpClientRequest request) {
@@ -233,78 +318,173 @@ abstract class ExternalStorageModuleCollection<T> {
       .putHeader("X-Okapi-Token", token);
   }
 
-  private void registerExceptionHandler(
-    HttpClientRequest request,
-    Consumer<Failure> failureCallback) {
-
-    request.exceptionHandler(exceptionHandler(failureCallback));
-  }
-
   private Handler<HttpClientResponse> noContentResponseHandler(
     Consumer<Success<Void>> completionCallback,
     Consumer<Failure> failureCallback) {
 
     return response ->
       response.bodyHandler(buffer -> {
-        String responseBody = buffer.getString(0, buffer.length());
         int statusCode = response.statusCode();
 
         if(statusCode == 204) {
           completionCallback.accept(new Success<>(null));
         }
         else {
-          failureCallback.accept(new Failure(responseBody, statusCode));
+          failureCallback.accept(new Failure(bodyAsString(buffer), statusCode));
         }
       });
   }
 
-  private HttpClientRequest createRequest(
+  private void send(
     HttpMethod method,
     String location,
     Handler<HttpClientResponse> onResponse,
-    Consumer<Failure> failureCallback) {
+    Consumer<Failure> failureCallback,
+    Consumer<HttpClientRequest> sender) {
+
+    Handler<Throwable> onFailure = failure ->
+      failureCallback.accept(toFailure(failure));
+
+    sendOrFail(method, location, onResponse, onFailure, sender);
+  }
+
+  /**
+   * Sends the request once the limits for the storage path allow it, and
+   * gives up its place once it completes, including when it cannot be sent.
+   * Requests only have a timeout when one is configured.
+   */
+  private void sendOrFail(
+    HttpMethod method,
+    String location,
+    Handler<HttpClientResponse> onResponse,
+    Handler<Throwable> onFailure,
+    Consumer<HttpClientRequest> sender) {
+
+    StorageRequestLimits limits = StorageRequestLimits.forClient(client);
 
-    HttpClientRequest request = client
-      .requestAbs(method, location, onResponse);
+    limits.acquire(location).whenComplete((permit, unavailable) -> {
+      if(unavailable != null) {
+        onFailure.handle(unavailable);
+        return;
+      }
 
-    registerExceptionHandler(request, failureCallback);
-    addOkapiHeaders(request);
+      try {
+        HttpClientRequest request = client
+          .requestAbs(method, location, response -> {
+            permit.completed(response.statusCode());
+            onResponse.handle(response);
+          });
+
+        int timeout = limits.requestTimeoutMilliseconds(0);
+
+        if(timeout > 0) {
+          request.setTimeout(timeout);
+        }
 
-    return request;
+        request.exceptionHandler(exception -> {
+          permit.failed();
+          onFailure.handle(exception);
+        });
+
+        addOkapiHeaders(request);
+
+        sender.accept(request);
+      }
+      catch(Exception e) {
+        permit.failed();
+        onFailure.handle(e);
+      }
+    });
   }
 
   private String individualRecordLocation(String id) {
     return String.format("%s/%s", storageAddress, id);
   }
 
-  private Handler<HttpClientResponse> handleMultipleResults(
+  /**
+   * Fetches the records at the location, attempting the request again (or
+   * hedging it) as the read policy of the client allows
+   */
+  private void findMany(
+    String location,
     Consumer<Success<MultipleRecords<T>>> resultCallback,
     Consumer<Failure> failureCallback) {
 
-    return response ->
-      response.bodyHandler(buffer -> {
-        String responseBody = buffer.getString(0, buffer.length());
-        int statusCode = response.statusCode();
-
-        if(statusCode == 200) {
-          JsonObject wrappedRecords = new JsonObject(responseBody);
+    read(location).whenComplete((response, failure) -> {
+      if(failure != null) {
+        failureCallback.accept(toFailure(failure));
+        return;
+      }
 
-          List<JsonObject> records = JsonArrayHelper.toList(
-            wrappedRecords.getJsonArray(collectionWrapperPropertyName));
+      Buffer buffer = response.body;
+      int statusCode = response.statusCode;
 
-          List<T> foundRecords = records.stream()
-            .map(this::mapFromJson)
-            .collect(Collectors.toList());
+      if(statusCode == 200) {
+        try {
+          WrappedRecords<T> wrappedRecords = StorageResponseParser
+            .parseWrappedRecords(buffer, collectionWrapperPropertyName,
+              this::mapFromJson);
 
           MultipleRecords<T> result = new MultipleRecords<>(
-            foundRecords, wrappedRecords.getInteger("totalRecords"));
+            wrappedRecords.records, wrappedRecords.totalRecords);
 
           resultCallback.accept(new Success<>(result));
         }
-        else {
-          failureCallback.accept(new Failure(responseBody, statusCode));
+        catch(IOException e) {
+          invalidResponse(buffer, statusCode, e, failureCallback);
         }
-      });
+      }
+      else {
+        failureCallback.accept(new Failure(bodyAsString(buffer), statusCode));
+      }
+    });
+  }
+
+  private CompletableFuture<StorageResponse> read(String location) {
+    return StorageReadPolicy.forClient(client).read(location, () -> {
+        CompletableFuture<StorageResponse> fetched = new CompletableFuture<>();
+
+        sendOrFail(HttpMethod.GET, location,
+          response -> response.bodyHandler(buffer -> fetched.complete(
+            new StorageResponse(response.statusCode(), buffer))),
+          fetched::completeExceptionally,
+          request -> {
+            acceptJson(request);
+            request.end();
+          });
+
+        return fetched;
+      },
+      response -> StorageReadPolicy.isTransient(response.statusCode));
+  }
+
+  /**
+   * Ends the request with the record, failing it (so that it can give up
+   * its place) when the record cannot be encoded
+   */
+  private static void end(HttpClientRequest request, JsonObject toSend) {
+    try {
+      request.end(StorageResponseParser.encode(toSend));
+    }
+    catch(IOException e) {
+      throw new UncheckedIOException(
+        String.format("Unable to encode request: %s", e.getMessage()), e);
+    }
+  }
+
+  private static void invalidResponse(
+    Buffer buffer,
+    int statusCode,
+    IOException cause,
+    Consumer<Failure> failureCallback) {
+
+    failureCallback.accept(new Failure(
+      String.format("Unable to parse response: %s (%s)", cause.getMessage(),
+        bodyAsString(buffer)), statusCode));
+  }
+
+  private static String bodyAsString(Buffer buffer) {
+    return buffer.getString(0, buffer.length());
   }
 
   void includeIfPresent(
@@ -316,4 +496,14 @@ abstract class ExternalStorageModuleCollection<T> {
       instanceToSend.put(propertyName, propertyValue);
     }
   }
+
+  private static class StorageResponse {
+    private final int statusCode;
+    private final Buffer body;
+
+    private StorageResponse(int statusCode, Buffer body) {
+      this.statusCode = statusCode;
+      this.body = body;
+    }
+  }
 }
@@ -0,0 +1,139 @@
+package org.folio.inventory.storage.external;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.function.Supplier;
+
+import io.vertx.core.Context;
+import io.vertx.core.Vertx;
+
+/**
+ * Requests which are currently in progress, so that identical requests made
+ * whilst one is in progress share its result rather than being sent again.
+ * <p>
+ * Each caller receives the result on its own context, as callers may be
+ * on different event loops to the one which made the request.
+ * <p>
+ * A request which has been in progress for longer than the maximum age is
+ * no longer shared, so that a request which never completes does not
+ * prevent later requests from being made.
+ */
+class InFlightRequests<T> {
+  static final long DEFAULT_MAXIMUM_AGE_MILLISECONDS = 10000;
+
+  private final ConcurrentMap<String, InFlightRequest<T>> inFlight
+    = new ConcurrentHashMap<>();
+
+  private final long maximumAgeMilliseconds;
+
+  InFlightRequests() {
+    this(DEFAULT_MAXIMUM_AGE_MILLISECONDS);
+  }
+
+  InFlightRequests(long maximumAgeMilliseconds) {
+    this.maximumAgeMilliseconds = maximumAgeMilliseconds;
+  }
+
+  /**
+   * Joins the request in progress for the key, or starts a new one
+   *
+   * @param key identifies identical requests, see {@link #keyFor}
+   * @param request makes the request, only used when none is in progress
+   * @return future completed with the result of the shared request
+   */
+  CompletableFuture<T> execute(String key, Supplier<CompletableFuture<T>> request) {
+    Context callerContext = Vertx.currentContext();
+
+    long now = System.currentTimeMillis();
+
+    InFlightRequest<T> started = new InFlightRequest<>(now);
+
+    InFlightRequest<T> shared = inFlight.compute(key, (k, existing) ->
+      existing != null && now - existing.startedAt <= maximumAgeMilliseconds
+        ? existing
+        : started);
+
+    if(shared == started) {
+      start(key, started, request);
+    }
+
+    return onContext(shared.result, callerContext);
+  }
+
+  /**
+   * Responses depend upon the permissions of whoever asked, so requests are
+   * only shared between callers with the same token
+   */
+  static String keyFor(String tenant, String token, String location) {
+    return String.format("%s %s %s", tenant, token, location);
+  }
+
+  int size() {
+    return inFlight.size();
+  }
+
+  private void start(
+    String key,
+    InFlightRequest<T> started,
+    Supplier<CompletableFuture<T>> request) {
+
+    CompletableFuture<T> made;
+
+    try {
+      made = request.get();
+    }
+    catch(Exception e) {
+      made = new CompletableFuture<>();
+      made.completeExceptionally(e);
+    }
+
+    made.whenComplete((result, failure) -> {
+      //Removed first, so that no one can join once the result is known
+      inFlight.remove(key, started);
+
+      if(failure != null) {
+        started.result.completeExceptionally(failure);
+      }
+      else {
+        started.result.complete(result);
+      }
+    });
+  }
+
+  private static <T> CompletableFuture<T> onContext(
+    CompletableFuture<T> result,
+    Context context) {
+
+    CompletableFuture<T> delivered = new CompletableFuture<>();
+
+    result.whenComplete((value, failure) -> {
+      Runnable deliver = () -> {
+        if(failure != null) {
+          delivered.completeExceptionally(failure);
+        }
+        else {
+          delivered.complete(value);
+        }
+      };
+
+      if(context == null || context == Vertx.currentContext()) {
+        deliver.run();
+      }
+      else {
+        context.runOnContext(v -> deliver.run());
+      }
+    });
+
+    return delivered;
+  }
+
+  private static class InFlightRequest<T> {
+    private final long startedAt;
+    private final CompletableFuture<T> result = new CompletableFuture<>();
+
+    private InFlightRequest(long startedAt) {
+      this.startedAt = startedAt;
+    }
+  }
+}
@@ -0,0 +1,64 @@
+package org.folio.inventory.storage.external;
+
+import java.util.concurrent.TimeUnit;
+
+import org.apache.commons.lang3.StringUtils;
+import org.folio.inventory.support.http.client.Response;
+
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+
+import io.vertx.core.json.JsonObject;
+import io.vertx.core.shareddata.Shareable;
+
+/**
+ * Holds reference records (material types, loan types, locations) that have
+ * been fetched from storage, so that they do not need to be fetched again
+ * for every request.
+ * <p>
+ * Entries are keyed by tenant, so one tenant can never be served another
+ * tenant's records. The cache is bounded in size and entries expire after a
+ * fixed period. Reference records are only changed directly in storage,
+ * never through this module, so entries are not invalidated and the expiry
+ * period bounds how stale a cached record can be.
+ * <p>
+ * A single cache is shared by all verticle instances.
+ */
+public class ReferenceDataCache implements Shareable {
+  public static final String MAXIMUM_SIZE_KEY = "reference-data.cache.maximum-size";
+  public static final String EXPIRE_AFTER_SECONDS_KEY = "reference-data.cache.expire-after-seconds";
+
+  private static final long DEFAULT_MAXIMUM_SIZE = 10000;
+  private static final long DEFAULT_EXPIRE_AFTER_SECONDS = 300;
+
+  private final Cache<String, Response> records;
+
+  public ReferenceDataCache(long maximumSize, long expireAfterSeconds) {
+    records = CacheBuilder.newBuilder()
+      .maximumSize(maximumSize)
+      .expireAfterWrite(expireAfterSeconds, TimeUnit.SECONDS)
+      .build();
+  }
+
+  public static ReferenceDataCache fromConfig(JsonObject config) {
+    return new ReferenceDataCache(
+      config.getLong(MAXIMUM_SIZE_KEY, DEFAULT_MAXIMUM_SIZE),
+      config.getLong(EXPIRE_AFTER_SECONDS_KEY, DEFAULT_EXPIRE_AFTER_SECONDS));
+  }
+
+  Response get(String tenantId, String collectionRoot, String id) {
+    return records.getIfPresent(key(tenantId, collectionRoot, id));
+  }
+
+  void put(String tenantId, String collectionRoot, String id, Response response) {
+    records.put(key(tenantId, collectionRoot, id), response);
+  }
+
+  public long size() {
+    return records.size();
+  }
+
+  private static String key(String tenantId, String collectionRoot, String id) {
+    return StringUtils.defaultString(tenantId) + "|" + collectionRoot + "/" + id;
+  }
+}
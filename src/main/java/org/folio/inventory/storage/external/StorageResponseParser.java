@@ -0,0 +1,112 @@
+package org.folio.inventory.storage.external;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
+
+import org.folio.inventory.support.http.JsonBody;
+
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+
+import io.netty.buffer.ByteBufInputStream;
+import io.vertx.core.buffer.Buffer;
+import io.vertx.core.json.EncodeException;
+import io.vertx.core.json.Json;
+import io.vertx.core.json.JsonObject;
+
+/**
+ * Parses storage module responses directly from the response buffer,
+ * mapping each record as it is read rather than first building the whole
+ * body as a string and then as a JSON object
+ */
+class StorageResponseParser {
+  private static final String TOTAL_RECORDS_PROPERTY_NAME = "totalRecords";
+
+  private StorageResponseParser() { }
+
+  static JsonObject parseObject(Buffer buffer) throws IOException {
+    try(JsonParser parser = createParser(buffer)) {
+      return readObject(parser);
+    }
+  }
+
+  static <T> WrappedRecords<T> parseWrappedRecords(
+    Buffer buffer,
+    String collectionWrapperPropertyName,
+    Function<JsonObject, T> mapper) throws IOException {
+
+    List<T> records = new ArrayList<>();
+    Integer totalRecords = null;
+
+    try(JsonParser parser = createParser(buffer)) {
+      if(parser.nextToken() != JsonToken.START_OBJECT) {
+        throw new IOException("Expected response to be a JSON object");
+      }
+
+      while(parser.nextToken() == JsonToken.FIELD_NAME) {
+        String propertyName = parser.getCurrentName();
+        JsonToken value = parser.nextToken();
+
+        if(collectionWrapperPropertyName.equals(propertyName)
+          && value == JsonToken.START_ARRAY) {
+
+          while(parser.nextToken() != JsonToken.END_ARRAY) {
+            if(parser.getCurrentToken() == JsonToken.START_OBJECT) {
+              records.add(mapper.apply(readObject(parser)));
+            }
+            else {
+              parser.skipChildren();
+            }
+          }
+        }
+        else if(TOTAL_RECORDS_PROPERTY_NAME.equals(propertyName)
+          && value == JsonToken.VALUE_NUMBER_INT) {
+
+          totalRecords = parser.getIntValue();
+        }
+        else {
+          parser.skipChildren();
+        }
+      }
+    }
+
+    return new WrappedRecords<>(records, totalRecords);
+  }
+
+  /**
+   * Encodes compact JSON straight into a buffer, without an intermediate string
+   */
+  static Buffer encode(JsonObject json) throws IOException {
+    try {
+      return JsonBody.encode(json);
+    }
+    catch (EncodeException e) {
+      throw new IOException(e.getMessage(), e);
+    }
+  }
+
+  @SuppressWarnings("unchecked")
+  private static JsonObject readObject(JsonParser parser) throws IOException {
+    return new JsonObject(parser.readValueAs(Map.class));
+  }
+
+  private static JsonParser createParser(Buffer buffer) throws IOException {
+    InputStream body = new ByteBufInputStream(buffer.getByteBuf());
+
+    return Json.mapper.getFactory().createParser(body);
+  }
+
+  static class WrappedRecords<T> {
+    final List<T> records;
+    final Integer totalRecords;
+
+    private WrappedRecords(List<T> records, Integer totalRecords) {
+      this.records = records;
+      this.totalRecords = totalRecords;
+    }
+  }
+}
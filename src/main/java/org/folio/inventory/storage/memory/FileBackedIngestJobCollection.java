@@ -0,0 +1,208 @@
+package org.folio.inventory.storage.memory;
+
+import io.vertx.core.json.JsonObject;
+import io.vertx.core.logging.Logger;
+import io.vertx.core.logging.LoggerFactory;
+import org.folio.inventory.resources.ingest.IngestJob;
+import org.folio.inventory.resources.ingest.IngestJobState;
+
+import com.google.common.util.concurrent.Striped;
+
+import java.io.IOException;
+import java.lang.invoke.MethodHandles;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.time.Clock;
+import java.time.Duration;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.locks.Lock;
+
+/**
+ * Ingest jobs held in memory, with each job also written to its own file
+ * in a directory, so that they are still available after a restart.
+ * <p>
+ * Jobs which had not finished when the module stopped cannot be resumed,
+ * so they are marked as failed when loaded.
+ * <p>
+ * Files are written by a worker executor, so that the event loops updating
+ * jobs are usually not blocked by them. Only the latest state of each job is
+ * written, so writes can happen in parallel without an earlier state
+ * replacing a later one.
+ * <p>
+ * Should the executor be full, a change is left to be written with the next
+ * one, unless it is the last change to the job (it has finished or been
+ * removed), which is written straight away instead.
+ */
+public class FileBackedIngestJobCollection extends InMemoryIngestJobCollection {
+  private static final Logger log = LoggerFactory.getLogger(MethodHandles.lookup().lookupClass());
+
+  private static final String FILE_EXTENSION = ".json";
+
+  private final Path directory;
+  private final Executor writer;
+
+  //Latest state of each job waiting to be written, empty when it has been removed
+  private final ConcurrentMap<String, Optional<byte[]>> pendingWrites
+    = new ConcurrentHashMap<>();
+  private final Striped<Lock> fileLocks = Striped.lock(64);
+
+  public FileBackedIngestJobCollection(
+    Path directory,
+    Duration retention,
+    Clock clock,
+    Executor writer)
+    throws IOException {
+
+    super(retention, clock);
+
+    this.directory = Files.createDirectories(directory);
+    this.writer = writer;
+
+    loadAll();
+  }
+
+  @Override
+  protected void stored(IngestJob job) {
+    scheduleWrite(job.id, Optional.of(
+      toJson(job).encode().getBytes(StandardCharsets.UTF_8)), job.isFinished());
+  }
+
+  @Override
+  protected void removed(String id) {
+    scheduleWrite(id, Optional.empty(), true);
+  }
+
+  /**
+   * @param isLastChange whether no later change will be made to the job,
+   * in which case it must not be left waiting for one
+   */
+  private void scheduleWrite(String id, Optional<byte[]> latest, boolean isLastChange) {
+    pendingWrites.put(id, latest);
+
+    try {
+      writer.execute(() -> write(id));
+    }
+    catch (RejectedExecutionException e) {
+      if(isLastChange) {
+        log.warn(String.format(
+          "Saving ingest job %s straight away: %s", id, e.getMessage()));
+
+        write(id);
+      }
+      else {
+        log.warn(String.format(
+          "Ingest job %s will be saved with its next change: %s", id, e.getMessage()));
+      }
+    }
+  }
+
+  private void write(String id) {
+    Lock lock = fileLocks.get(id);
+
+    lock.lock();
+
+    try {
+      Optional<byte[]> latest = pendingWrites.remove(id);
+
+      //Already written by an earlier write
+      if(latest == null) {
+        return;
+      }
+
+      if(latest.isPresent()) {
+        save(id, latest.get());
+      }
+      else {
+        Files.deleteIfExists(fileFor(id));
+      }
+    }
+    catch (IOException e) {
+      log.error(String.format("Unable to save ingest job %s: %s", id, e.getMessage()));
+    }
+    finally {
+      lock.unlock();
+    }
+  }
+
+  private void save(String id, byte[] encoded) throws IOException {
+    Path temporaryFile = directory.resolve(id + FILE_EXTENSION + ".tmp");
+
+    Files.write(temporaryFile, encoded);
+    Files.move(temporaryFile, fileFor(id), StandardCopyOption.REPLACE_EXISTING,
+      StandardCopyOption.ATOMIC_MOVE);
+  }
+
+  private void loadAll() throws IOException {
+    try (DirectoryStream<Path> files = Files.newDirectoryStream(directory,
+      "*" + FILE_EXTENSION)) {
+
+      for (Path file : files) {
+        try {
+          IngestJob job = fromJson(new JsonObject(
+            new String(Files.readAllBytes(file), StandardCharsets.UTF_8)));
+
+          if(!job.isFinished()) {
+            job = job.fail().asChangedAt(clock.millis());
+            stored(job);
+          }
+
+          load(job);
+        }
+        catch (Exception e) {
+          log.warn(String.format("Ignoring unreadable ingest job file %s: %s",
+            file, e.getMessage()));
+        }
+      }
+    }
+
+    removeExpired();
+  }
+
+  private Path fileFor(String id) {
+    return directory.resolve(id + FILE_EXTENSION);
+  }
+
+  private static JsonObject toJson(IngestJob job) {
+    JsonObject json = new JsonObject()
+      .put("id", job.id)
+      .put("state", job.state.name())
+      .put("chunksProcessed", job.chunksProcessed)
+      .put("recordsParsed", job.recordsParsed)
+      .put("recordsProcessed", job.recordsProcessed)
+      .put("instancesCreated", job.instancesCreated)
+      .put("holdingsCreated", job.holdingsCreated)
+      .put("itemsCreated", job.itemsCreated)
+      .put("failures", job.failures)
+      .put("createdAt", job.createdAt)
+      .put("updatedAt", job.updatedAt);
+
+    if(job.totalChunks != null) {
+      json.put("totalChunks", job.totalChunks);
+    }
+
+    return json;
+  }
+
+  private static IngestJob fromJson(JsonObject json) {
+    return new IngestJob(
+      json.getString("id"),
+      IngestJobState.valueOf(json.getString("state")),
+      json.getInteger("chunksProcessed", 0),
+      json.getInteger("totalChunks"),
+      json.getLong("recordsParsed", 0L),
+      json.getLong("recordsProcessed", 0L),
+      json.getLong("instancesCreated", 0L),
+      json.getLong("holdingsCreated", 0L),
+      json.getLong("itemsCreated", 0L),
+      json.getLong("failures", 0L),
+      json.getLong("createdAt"),
+      json.getLong("updatedAt"));
+  }
+}
@@ -1,5 +1,6 @@
 package org.folio.inventory.storage.memory;
 
+import io.vertx.core.shareddata.Shareable;
 import org.folio.inventory.common.api.request.PagingParameters;
 import org.folio.inventory.common.domain.Failure;
 import org.folio.inventory.common.domain.MultipleRecords;
@@ -7,19 +8,51 @@ import org.folio.inventory.common.domain.Success;
 import org.folio.inventory.domain.ingest.IngestJobCollection;
 import org.folio.inventory.resources.ingest.IngestJob;
 
-import java.util.*;
+import java.time.Clock;
+import java.time.Duration;
+import java.util.Comparator;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
 import java.util.function.Consumer;
+import java.util.function.UnaryOperator;
 import java.util.stream.Collectors;
 
-public class InMemoryIngestJobCollection implements IngestJobCollection {
-  private final List<IngestJob> items = new ArrayList<>();
+/**
+ * Ingest jobs indexed by id, which can be safely used from multiple threads
+ * (and shared between verticle instances).
+ * <p>
+ * Finished jobs are removed once they have not changed for the retention
+ * period, so that jobs do not accumulate forever. When jobs were created and
+ * last changed is taken from the clock as they are stored.
+ */
+public class InMemoryIngestJobCollection implements IngestJobCollection, Shareable {
+  public static final Duration DEFAULT_RETENTION = Duration.ofHours(24);
+
+  private final ConcurrentMap<String, IngestJob> jobs = new ConcurrentHashMap<>();
+  private final Duration retention;
+  protected final Clock clock;
+
+  public InMemoryIngestJobCollection() {
+    this(DEFAULT_RETENTION, Clock.systemUTC());
+  }
+
+  public InMemoryIngestJobCollection(Duration retention, Clock clock) {
+    this.retention = retention;
+    this.clock = clock;
+  }
 
   @Override
   public void empty(
     Consumer<Success<Void>> completionCallback,
     Consumer<Failure> failureCallback) {
 
-    items.clear();
+    jobs.keySet().forEach(id -> jobs.computeIfPresent(id, (key, job) -> {
+      removed(key);
+      return null;
+    }));
+
     completionCallback.accept(new Success<>(null));
   }
 
@@ -29,12 +62,18 @@ public class InMemoryIngestJobCollection implements IngestJobCollection {
     Consumer<Success<IngestJob>> resultCallback,
     Consumer<Failure> failureCallback) {
 
-    if(item.id == null) {
-      item = item.copyWithNewId(UUID.randomUUID().toString());
-    }
+    removeExpired();
+
+    final IngestJob added = (item.id == null
+      ? item.copyWithNewId(UUID.randomUUID().toString())
+      : item).asCreatedAt(clock.millis());
 
-    items.add(item);
-    resultCallback.accept(new Success<>(item));
+    jobs.compute(added.id, (id, existing) -> {
+      stored(added);
+      return added;
+    });
+
+    resultCallback.accept(new Success<>(added));
   }
 
   @Override
@@ -43,16 +82,7 @@ public class InMemoryIngestJobCollection implements IngestJobCollection {
     Consumer<Success<IngestJob>> resultCallback,
     Consumer<Failure> failureCallback) {
 
-    Optional<IngestJob> foundJob = items.stream()
-      .filter(it -> it.id.equals(id))
-      .findFirst();
-
-    if(foundJob.isPresent()) {
-      resultCallback.accept(new Success<>(foundJob.get()));
-    }
-    else {
-      resultCallback.accept(new Success<>(null));
-    }
+    resultCallback.accept(new Success<>(jobs.get(id)));
   }
 
   @Override
@@ -61,14 +91,24 @@ public class InMemoryIngestJobCollection implements IngestJobCollection {
     Consumer<Success<MultipleRecords<IngestJob>>> resultCallback,
     Consumer<Failure> failureCallback) {
 
-    int totalRecords = items.size();
+    removeExpired();
+
+    List<IngestJob> all = jobs.values().stream()
+      .sorted(Comparator.comparingLong((IngestJob job) -> job.createdAt)
+        .thenComparing(job -> job.id))
+      .collect(Collectors.toList());
 
-    List<IngestJob> paged = items.stream()
+    List<IngestJob> paged = all.stream()
       .skip(pagingParameters.offset)
       .limit(pagingParameters.limit)
       .collect(Collectors.toList());
 
-    resultCallback.accept(new Success<>(new MultipleRecords<>(paged, totalRecords)));
+    resultCallback.accept(new Success<>(new MultipleRecords<>(paged, all.size())));
+  }
+
+  @Override
+  public long currentTimeMillis() {
+    return clock.millis();
   }
 
   @Override
@@ -77,19 +117,81 @@ public class InMemoryIngestJobCollection implements IngestJobCollection {
     Consumer<Success<Void>> completionCallback,
     Consumer<Failure> failureCallback) {
 
-    items.removeIf(it -> it.id.equals(ingestJob.id));
-    items.add(ingestJob);
+    IngestJob changed = ingestJob.asChangedAt(clock.millis());
+
+    jobs.compute(changed.id, (id, existing) -> {
+      stored(changed);
+      return changed;
+    });
 
     completionCallback.accept(new Success<>(null));
   }
 
+  @Override
+  public void modify(
+    String id,
+    UnaryOperator<IngestJob> change,
+    Consumer<Success<IngestJob>> resultCallback,
+    Consumer<Failure> failureCallback) {
+
+    IngestJob changed = jobs.computeIfPresent(id, (key, existing) -> {
+      IngestJob job = change.apply(existing).asChangedAt(clock.millis());
+      stored(job);
+      return job;
+    });
+
+    resultCallback.accept(new Success<>(changed));
+  }
+
   @Override
   public void delete(
     final String id,
     Consumer<Success<Void>> completionCallback,
     Consumer<Failure> failureCallback) {
 
-    items.removeIf(it -> it.id.equals(id));
+    jobs.computeIfPresent(id, (key, existing) -> {
+      removed(key);
+      return null;
+    });
+
     completionCallback.accept(new Success<>(null));
   }
+
+  public int size() {
+    return jobs.size();
+  }
+
+  /**
+   * Removes finished jobs which have not changed within the retention period
+   */
+  public void removeExpired() {
+    long expiredBefore = clock.millis() - retention.toMillis();
+
+    jobs.keySet().forEach(id -> jobs.computeIfPresent(id, (key, job) -> {
+      if(job.isFinished() && job.updatedAt < expiredBefore) {
+        removed(key);
+        return null;
+      }
+
+      return job;
+    }));
+  }
+
+  /**
+   * Called whilst the job is locked, after it has been added or changed
+   */
+  protected void stored(IngestJob job) {
+    //Nothing to do when only held in memory
+  }
+
+  /**
+   * Called whilst the job is locked, when it is removed
+   */
+  protected void removed(String id) {
+    //Nothing to do when only held in memory
+  }
+
+  void load(IngestJob job) {
+    jobs.put(job.id, job);
+  }
 }
@@ -0,0 +1,47 @@
+package org.folio.inventory.support;
+
+import io.vertx.core.json.JsonObject;
+
+/**
+ * Reads values from the module configuration, which may be provided as
+ * numbers, booleans or strings (e.g. when passed as system properties).
+ */
+public class ConfigHelper {
+  private ConfigHelper() { }
+
+  public static int getInteger(JsonObject config, String key, int defaultValue) {
+    Object value = config.getValue(key);
+
+    if(value == null) {
+      return defaultValue;
+    }
+
+    return value instanceof Number
+      ? ((Number) value).intValue()
+      : Integer.parseInt(value.toString().trim());
+  }
+
+  public static double getDouble(JsonObject config, String key, double defaultValue) {
+    Object value = config.getValue(key);
+
+    if(value == null) {
+      return defaultValue;
+    }
+
+    return value instanceof Number
+      ? ((Number) value).doubleValue()
+      : Double.parseDouble(value.toString().trim());
+  }
+
+  public static boolean getBoolean(JsonObject config, String key, boolean defaultValue) {
+    Object value = config.getValue(key);
+
+    if(value == null) {
+      return defaultValue;
+    }
+
+    return value instanceof Boolean
+      ? (Boolean) value
+      : Boolean.parseBoolean(value.toString().trim());
+  }
+}
@@ -6,6 +6,7 @@ import io.vertx.core.logging.LoggerFactory;
 import java.io.UnsupportedEncodingException;
 import java.lang.invoke.MethodHandles;
 import java.net.URLEncoder;
+import java.util.Collection;
 import java.util.List;
 import java.util.regex.Pattern;
 import java.util.stream.Collectors;
@@ -18,6 +19,8 @@ public class CqlHelper {
 
   private static final Logger log = LoggerFactory.getLogger(MethodHandles.lookup().lookupClass());
   private static final Pattern cqlChar = Pattern.compile("[*?^\"\\\\]");
+  private static final Pattern quotedTerm = Pattern.compile("\"[^\"\\\\]*(?:\\\\.[^\"\\\\]*)*\"");
+  private static final Pattern sortClause = Pattern.compile("(?i)(?:^|[\\s)])sortby(?:\\s|$)");
 
   public static String multipleRecordsCqlQuery(List<String> recordIds) {
     if(recordIds.isEmpty()) {
@@ -51,6 +54,34 @@ public class CqlHelper {
     return "barcode==\"" + cqlMask(barcode) + "\"";
   }
 
+  /**
+   * Returns a CQL expression with an exact match for any of the barcodes.
+   * <p>
+   * barcodeIsAnyOf(["abc", "1-*"]) = "barcode==(\"abc\" or \"1-\\*\")"
+   * @param barcodes  Strings to match, at least one
+   * @return CQL expression
+   */
+  public static String barcodeIsAnyOf(Collection<String> barcodes) {
+    return barcodes.stream()
+      .map(barcode -> "\"" + cqlMask(barcode) + "\"")
+      .collect(Collectors.joining(" or ", "barcode==(", ")"));
+  }
+
+  /**
+   * Whether the query ends with a sortBy clause. Only the keyword counts,
+   * terms which contain sortby (e.g. title="sortby" or title=unsortbyable)
+   * do not.
+   *
+   * @param cql  query to check, may be null
+   * @return true if the query is sorted
+   */
+  public static boolean hasSortBy(String cql) {
+    if (cql == null) {
+      return false;
+    }
+    return sortClause.matcher(quotedTerm.matcher(cql).replaceAll("\"\"")).find();
+  }
+
   /**
    * Mask these special CQL characters by prepending a backslash: * ? ^ " \
    *
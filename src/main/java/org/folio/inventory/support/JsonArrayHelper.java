@@ -10,6 +10,10 @@ import java.util.stream.Collectors;
 
 public class JsonArrayHelper {
   public static List<JsonObject> toList(JsonArray array) {
+    if(array == null) {
+      return new ArrayList<>();
+    }
+
     return array
       .stream()
       .map(it -> {
@@ -4,5 +4,8 @@ package org.folio.inventory.support.http;
 public class ContentType {
   public static final String APPLICATION_JSON = "application/json";
   public static final String TEXT_PLAIN = "text/plain";
+  public static final String APPLICATION_NDJSON = "application/x-ndjson";
+  //Prometheus text exposition format
+  public static final String TEXT_PROMETHEUS = "text/plain; version=0.0.4";
 
 }
@@ -0,0 +1,50 @@
+package org.folio.inventory.support.http;
+
+import java.io.IOException;
+import java.io.OutputStream;
+
+import io.netty.buffer.ByteBuf;
+import io.netty.buffer.ByteBufOutputStream;
+import io.netty.buffer.Unpooled;
+import io.vertx.core.buffer.Buffer;
+import io.vertx.core.json.EncodeException;
+import io.vertx.core.json.Json;
+import io.vertx.core.json.JsonArray;
+import io.vertx.core.json.JsonObject;
+
+//Request and response bodies are compact, only logs and files are meant to be read by people
+public class JsonBody {
+  private JsonBody() { }
+
+  /**
+   * Encodes compact JSON straight into a buffer, without an intermediate
+   * string or byte array
+   */
+  public static Buffer encode(Object body) {
+    ByteBuf bytes = Unpooled.buffer();
+
+    try (OutputStream output = new ByteBufOutputStream(bytes)) {
+      Json.mapper.writeValue(output, unwrap(body));
+    }
+    catch (IOException e) {
+      bytes.release();
+
+      throw new EncodeException(String.format(
+        "Failed to encode as JSON: %s", e.getMessage()));
+    }
+
+    return Buffer.buffer(bytes);
+  }
+
+  private static Object unwrap(Object body) {
+    if (body instanceof JsonObject) {
+      return ((JsonObject) body).getMap();
+    }
+    else if (body instanceof JsonArray) {
+      return ((JsonArray) body).getList();
+    }
+    else {
+      return body;
+    }
+  }
+}
@@ -0,0 +1,86 @@
+package org.folio.inventory.support.http.client;
+
+import io.vertx.core.json.JsonObject;
+
+/**
+ * Limit on the number of requests in progress which adapts to how storage
+ * is responding (additive increase, multiplicative decrease).
+ * <p>
+ * Each timely, successful response raises the limit by a fraction, so that
+ * it grows by roughly one for each limit's worth of responses. Each slow or
+ * failed response reduces the limit by the backoff ratio, so that fewer
+ * requests are sent to storage which is struggling.
+ */
+class AdaptiveConcurrencyLimit {
+  private final int minimumLimit;
+  private final int maximumLimit;
+  private final long latencyThresholdMilliseconds;
+  private final double backoffRatio;
+
+  private double limit;
+  private int inFlight;
+  private long rejected;
+
+  AdaptiveConcurrencyLimit(
+    int initialLimit,
+    int minimumLimit,
+    int maximumLimit,
+    long latencyThresholdMilliseconds,
+    double backoffRatio) {
+
+    this.minimumLimit = minimumLimit;
+    this.maximumLimit = maximumLimit;
+    this.latencyThresholdMilliseconds = latencyThresholdMilliseconds;
+    this.backoffRatio = backoffRatio;
+    this.limit = Math.max(minimumLimit, Math.min(maximumLimit, initialLimit));
+  }
+
+  synchronized boolean tryAcquire() {
+    if(inFlight >= getLimit()) {
+      return false;
+    }
+
+    inFlight++;
+    return true;
+  }
+
+  /**
+   * Records a request which could neither be sent nor wait for a place
+   */
+  synchronized void rejected() {
+    rejected++;
+  }
+
+  /**
+   * Gives up a request which was not sent, without changing the limit
+   */
+  synchronized void cancel() {
+    inFlight--;
+  }
+
+  synchronized void release(long latencyMilliseconds, boolean succeeded) {
+    inFlight--;
+
+    if(!succeeded || latencyMilliseconds > latencyThresholdMilliseconds) {
+      limit = Math.max(minimumLimit, limit * backoffRatio);
+    }
+    else {
+      limit = Math.min(maximumLimit, limit + 1 / limit);
+    }
+  }
+
+  synchronized int getLimit() {
+    return (int) limit;
+  }
+
+  synchronized int getInFlight() {
+    return inFlight;
+  }
+
+  synchronized JsonObject toJson() {
+    return new JsonObject()
+      .put("limit", getLimit())
+      .put("inFlight", inFlight)
+      .put("rejected", rejected);
+  }
+}
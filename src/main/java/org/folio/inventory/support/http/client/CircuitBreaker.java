@@ -0,0 +1,87 @@
+package org.folio.inventory.support.http.client;
+
+import java.time.Clock;
+
+import io.vertx.core.json.JsonObject;
+
+/**
+ * Stops requests being sent to storage which is consistently failing.
+ * <p>
+ * The circuit opens after a number of consecutive failures, after which
+ * requests are rejected until the open period has passed. A single trial
+ * request is then allowed, which either closes the circuit (if it succeeds)
+ * or opens it again.
+ */
+class CircuitBreaker {
+  enum State {
+    CLOSED,
+    OPEN,
+    HALF_OPEN
+  }
+
+  private final int failureThreshold;
+  private final long openMilliseconds;
+  private final Clock clock;
+
+  private State state = State.CLOSED;
+  private int consecutiveFailures;
+  private long openedAt;
+  private long timesOpened;
+  private long rejected;
+
+  CircuitBreaker(int failureThreshold, long openMilliseconds, Clock clock) {
+    this.failureThreshold = failureThreshold;
+    this.openMilliseconds = openMilliseconds;
+    this.clock = clock;
+  }
+
+  synchronized boolean allowRequest() {
+    switch (state) {
+      case CLOSED:
+        return true;
+
+      case OPEN:
+        if(clock.millis() - openedAt >= openMilliseconds) {
+          state = State.HALF_OPEN;
+          return true;
+        }
+        break;
+
+      default:
+        //Only the trial request is allowed until it completes
+        break;
+    }
+
+    rejected++;
+    return false;
+  }
+
+  synchronized void succeeded() {
+    consecutiveFailures = 0;
+    state = State.CLOSED;
+  }
+
+  synchronized void failed() {
+    consecutiveFailures++;
+
+    if(state == State.HALF_OPEN
+      || (state == State.CLOSED && consecutiveFailures >= failureThreshold)) {
+
+      state = State.OPEN;
+      openedAt = clock.millis();
+      timesOpened++;
+    }
+  }
+
+  synchronized State getState() {
+    return state;
+  }
+
+  synchronized JsonObject toJson() {
+    return new JsonObject()
+      .put("state", state.name())
+      .put("consecutiveFailures", consecutiveFailures)
+      .put("timesOpened", timesOpened)
+      .put("rejected", rejected);
+  }
+}
@@ -0,0 +1,78 @@
+package org.folio.inventory.support.http.client;
+
+import static org.folio.inventory.support.ConfigHelper.getBoolean;
+import static org.folio.inventory.support.ConfigHelper.getInteger;
+
+import io.vertx.core.http.HttpClientOptions;
+import io.vertx.core.http.HttpVersion;
+import io.vertx.core.json.JsonObject;
+
+/**
+ * Creates the options for the HTTP client used to contact storage modules
+ * from the module configuration.
+ * <p>
+ * Values may be provided as numbers, booleans or strings (e.g. when passed
+ * as system properties).
+ */
+public class HttpClientConfiguration {
+  public static final String PREFIX = "http-client.";
+
+  public static final String MAX_POOL_SIZE = PREFIX + "max-pool-size";
+  public static final String MAX_WAIT_QUEUE_SIZE = PREFIX + "max-wait-queue-size";
+  public static final String KEEP_ALIVE = PREFIX + "keep-alive";
+  public static final String IDLE_TIMEOUT_SECONDS = PREFIX + "idle-timeout-seconds";
+  public static final String CONNECT_TIMEOUT_MILLISECONDS = PREFIX + "connect-timeout-milliseconds";
+  public static final String PIPELINING = PREFIX + "pipelining";
+  public static final String PIPELINING_LIMIT = PREFIX + "pipelining-limit";
+  public static final String HTTP2 = PREFIX + "http2";
+  public static final String HTTP2_MAX_POOL_SIZE = PREFIX + "http2-max-pool-size";
+  public static final String HTTP2_MULTIPLEXING_LIMIT = PREFIX + "http2-multiplexing-limit";
+  public static final String METRICS_LOG_INTERVAL_SECONDS = PREFIX + "metrics-log-interval-seconds";
+  public static final String COMPRESSION = PREFIX + "compression";
+
+  private static final int DEFAULT_MAX_POOL_SIZE = 20;
+  private static final int DEFAULT_IDLE_TIMEOUT_SECONDS = 60;
+  private static final int DEFAULT_CONNECT_TIMEOUT_MILLISECONDS = 10000;
+  //Metrics are only logged periodically when an interval is configured
+  private static final int DEFAULT_METRICS_LOG_INTERVAL_SECONDS = 0;
+
+  private HttpClientConfiguration() { }
+
+  public static HttpClientOptions fromConfig(JsonObject config) {
+    HttpClientOptions options = new HttpClientOptions()
+      .setMaxPoolSize(getInteger(config, MAX_POOL_SIZE, DEFAULT_MAX_POOL_SIZE))
+      .setMaxWaitQueueSize(getInteger(config, MAX_WAIT_QUEUE_SIZE,
+        HttpClientOptions.DEFAULT_MAX_WAIT_QUEUE_SIZE))
+      .setKeepAlive(getBoolean(config, KEEP_ALIVE, true))
+      .setIdleTimeout(getInteger(config, IDLE_TIMEOUT_SECONDS,
+        DEFAULT_IDLE_TIMEOUT_SECONDS))
+      .setConnectTimeout(getInteger(config, CONNECT_TIMEOUT_MILLISECONDS,
+        DEFAULT_CONNECT_TIMEOUT_MILLISECONDS))
+      .setPipelining(getBoolean(config, PIPELINING, false))
+      .setPipeliningLimit(getInteger(config, PIPELINING_LIMIT,
+        HttpClientOptions.DEFAULT_PIPELINING_LIMIT))
+      //Asks storage for gzip or deflate responses, which are decompressed as they arrive
+      .setTryUseCompression(getBoolean(config, COMPRESSION, false));
+
+    if(getBoolean(config, HTTP2, false)) {
+      //Storage is contacted without TLS, so prior knowledge of HTTP/2 is assumed
+      options.setProtocolVersion(HttpVersion.HTTP_2)
+        .setHttp2ClearTextUpgrade(false)
+        .setHttp2MaxPoolSize(getInteger(config, HTTP2_MAX_POOL_SIZE,
+          HttpClientOptions.DEFAULT_HTTP2_MAX_POOL_SIZE))
+        .setHttp2MultiplexingLimit(getInteger(config, HTTP2_MULTIPLEXING_LIMIT,
+          HttpClientOptions.DEFAULT_HTTP2_MULTIPLEXING_LIMIT));
+    }
+
+    return options;
+  }
+
+  /**
+   * @return seconds between logging client, limit and worker pool metrics,
+   * 0 (the default) for none, as they are available from the metrics endpoint
+   */
+  public static int metricsLogIntervalSeconds(JsonObject config) {
+    return getInteger(config, METRICS_LOG_INTERVAL_SECONDS,
+      DEFAULT_METRICS_LOG_INTERVAL_SECONDS);
+  }
+}
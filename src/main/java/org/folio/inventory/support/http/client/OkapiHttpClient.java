@@ -1,19 +1,23 @@
 package org.folio.inventory.support.http.client;
 
 import io.vertx.core.Handler;
+import io.vertx.core.buffer.Buffer;
 import io.vertx.core.http.HttpClient;
 import io.vertx.core.http.HttpClientRequest;
 import io.vertx.core.http.HttpClientResponse;
 import io.vertx.core.http.HttpHeaders;
-import io.vertx.core.json.Json;
+import io.vertx.core.http.HttpMethod;
 import io.vertx.core.logging.Logger;
 import io.vertx.core.logging.LoggerFactory;
 import org.apache.commons.lang3.StringUtils;
+import org.folio.inventory.common.AccessLog;
 import org.folio.inventory.support.http.ContentType;
+import org.folio.inventory.support.http.JsonBody;
 
 import java.lang.invoke.MethodHandles;
 import java.net.MalformedURLException;
 import java.net.URL;
+import java.util.concurrent.CompletableFuture;
 import java.util.function.Consumer;
 
 public class OkapiHttpClient {
@@ -23,11 +27,16 @@ public class OkapiHttpClient {
   private static final String TOKEN_HEADER = "X-Okapi-Token";
   private static final String OKAPI_URL_HEADER = "X-Okapi-Url";
 
+  //Only posts have a timeout, unless one is configured for all requests
+  private static final int POST_TIMEOUT_MILLISECONDS = 5000;
+  private static final int NO_TIMEOUT = 0;
+
   private final HttpClient client;
   private final URL okapiUrl;
   private final String tenantId;
   private final String token;
   private final Consumer<Throwable> exceptionHandler;
+  private final AccessLog accessLog;
 
   public OkapiHttpClient(HttpClient httpClient,
                          URL okapiUrl,
@@ -40,33 +49,30 @@ public class OkapiHttpClient {
     this.tenantId = tenantId;
     this.token = token;
     this.exceptionHandler = exceptionHandler;
+    this.accessLog = AccessLog.forClient(httpClient);
   }
 
   public void post(URL url,
                    Object body,
                    Handler<HttpClientResponse> responseHandler) {
 
-    HttpClientRequest request = client.postAbs(url.toString(), responseHandler);
-
-    okapiHeaders(request);
-    accept(request, ContentType.APPLICATION_JSON, ContentType.TEXT_PLAIN);
-    jsonContentType(request);
-
-    request.setTimeout(5000);
-
-    request.exceptionHandler(this.exceptionHandler::accept);
+    send(HttpMethod.POST, url.toString(), POST_TIMEOUT_MILLISECONDS,
+      responseHandler, null, request -> {
+      okapiHeaders(request);
+      accept(request, ContentType.APPLICATION_JSON, ContentType.TEXT_PLAIN);
+      jsonContentType(request);
 
-    if(body != null) {
-      String encodedBody = Json.encodePrettily(body);
+      if(body != null) {
+        Buffer encodedBody = JsonBody.encode(body);
 
-      log.info(String.format("POST %s, Request: %s",
-        url.toString(), encodedBody));
+        logRequest("POST", url.toString(), encodedBody);
 
-      request.end(encodedBody);
-    }
-    else {
-      request.end();
-    }
+        request.end(encodedBody);
+      }
+      else {
+        request.end();
+      }
+    });
   }
 
   public void put(URL url,
@@ -80,17 +86,17 @@ public class OkapiHttpClient {
                   Object body,
                   Handler<HttpClientResponse> responseHandler) {
 
-    HttpClientRequest request = client.putAbs(url, responseHandler);
-
-    okapiHeaders(request);
-    accept(request, ContentType.APPLICATION_JSON, ContentType.TEXT_PLAIN);
-    jsonContentType(request);
+    send(HttpMethod.PUT, url, NO_TIMEOUT, responseHandler, null, request -> {
+      okapiHeaders(request);
+      accept(request, ContentType.APPLICATION_JSON, ContentType.TEXT_PLAIN);
+      jsonContentType(request);
 
-    String encodedBody = Json.encodePrettily(body);
+      Buffer encodedBody = JsonBody.encode(body);
 
-    log.info(String.format("PUT %s, Request: %s", url, encodedBody));
+      logRequest("PUT", url, encodedBody);
 
-    request.end(encodedBody);
+      request.end(encodedBody);
+    });
   }
 
   public void get(URL url, Handler<HttpClientResponse> responseHandler) {
@@ -109,16 +115,76 @@ public class OkapiHttpClient {
   }
 
   public void get(String url, Handler<HttpClientResponse> responseHandler) {
+    get(url, responseHandler, null);
+  }
 
-    HttpClientRequest request = client.getAbs(url, responseHandler);
+  /**
+   * @param failureHandler called instead of this client's exception handler
+   * when the request fails or is not sent
+   */
+  public void get(
+    String url,
+    Handler<HttpClientResponse> responseHandler,
+    Handler<Throwable> failureHandler) {
 
-    accept(request, ContentType.APPLICATION_JSON);
+    send(HttpMethod.GET, url, NO_TIMEOUT, responseHandler, failureHandler, request -> {
+      accept(request, ContentType.APPLICATION_JSON);
 
-    okapiHeaders(request);
+      okapiHeaders(request);
 
-    log.info(String.format("GET %s", url));
+      logRequest("GET", url, null);
+
+      request.end();
+    });
+  }
 
-    request.end();
+  /**
+   * Fetches the url, attempting it again (or hedging it) as the read
+   * policy of the client allows
+   *
+   * @param responseHandler called with the response, unless none is
+   * received, when this client's exception handler is called instead
+   */
+  public void read(String url, Consumer<Response> responseHandler) {
+    whenReceived(read(url), responseHandler);
+  }
+
+  /**
+   * Calls the response handler once the response has been received, or this
+   * client's exception handler if it is not (e.g. for a shared request)
+   */
+  public void whenReceived(
+    CompletableFuture<Response> received,
+    Consumer<Response> responseHandler) {
+
+    received.whenComplete((response, failure) -> {
+      if(failure != null) {
+        exceptionHandler.accept(failure);
+      }
+      else {
+        responseHandler.accept(response);
+      }
+    });
+  }
+
+  /**
+   * Fetches the url, attempting it again (or hedging it) as the read
+   * policy of the client allows
+   *
+   * @return future completed with the response to the last attempt,
+   * or failed if no response was received
+   */
+  public CompletableFuture<Response> read(String url) {
+    return StorageReadPolicy.forClient(client).read(url, () -> {
+        CompletableFuture<Response> fetched = new CompletableFuture<>();
+
+        get(url, response -> response.bodyHandler(buffer ->
+            fetched.complete(Response.from(response, buffer))),
+          fetched::completeExceptionally);
+
+        return fetched;
+      },
+      response -> StorageReadPolicy.isTransient(response.getStatusCode()));
   }
 
   public void delete(URL url, Handler<HttpClientResponse> responseHandler) {
@@ -127,14 +193,88 @@ public class OkapiHttpClient {
   }
 
   public void delete(String url, Handler<HttpClientResponse> responseHandler) {
+    send(HttpMethod.DELETE, url, NO_TIMEOUT, responseHandler, null, request -> {
+      accept(request, ContentType.APPLICATION_JSON, ContentType.TEXT_PLAIN);
 
-    HttpClientRequest request = client.deleteAbs(url, responseHandler);
+      okapiHeaders(request);
 
-    accept(request, ContentType.APPLICATION_JSON, ContentType.TEXT_PLAIN);
+      request.end();
+    });
+  }
 
-    okapiHeaders(request);
+  public String getTenantId() {
+    return tenantId;
+  }
+
+  public String getToken() {
+    return token;
+  }
+
+  /**
+   * Sends the request once the limits for the storage path allow it, and
+   * gives up its place once it completes or cannot be sent
+   *
+   * @param timeoutMilliseconds timeout for this kind of request, used unless
+   * one is configured, 0 for none
+   */
+  private void send(
+    HttpMethod method,
+    String url,
+    int timeoutMilliseconds,
+    Handler<HttpClientResponse> responseHandler,
+    Handler<Throwable> failureHandler,
+    Consumer<HttpClientRequest> sender) {
+
+    Handler<Throwable> onFailure = failureHandler != null
+      ? failureHandler
+      : this.exceptionHandler::accept;
+
+    StorageRequestLimits limits = StorageRequestLimits.forClient(client);
+
+    limits.acquire(url).whenComplete((permit, unavailable) -> {
+      if(unavailable != null) {
+        log.warn(unavailable.getMessage());
+        onFailure.handle(unavailable);
+        return;
+      }
+
+      try {
+        HttpClientRequest request = client.requestAbs(method, url, response -> {
+          permit.completed(response.statusCode());
+          responseHandler.handle(response);
+        });
+
+        int timeout = limits.requestTimeoutMilliseconds(timeoutMilliseconds);
+
+        if(timeout > 0) {
+          request.setTimeout(timeout);
+        }
+
+        request.exceptionHandler(exception -> {
+          permit.failed();
+          onFailure.handle(exception);
+        });
+
+        sender.accept(request);
+      }
+      catch(Exception e) {
+        //Gives up the place of a request which could not be sent
+        permit.failed();
+        onFailure.handle(e);
+      }
+    });
+  }
+
+  /**
+   * Requests are only logged when debugging, a sample of bodies can be
+   * included in the access log instead
+   */
+  private void logRequest(String method, String url, Buffer body) {
+    if(log.isDebugEnabled()) {
+      log.debug(String.format("%s %s", method, url));
+    }
 
-    request.end();
+    accessLog.recordBody(method, url, body);
   }
 
   private void okapiHeaders(HttpClientRequest request) {
@@ -0,0 +1,372 @@
+package org.folio.inventory.support.http.client;
+
+import static org.folio.inventory.support.ConfigHelper.getBoolean;
+import static org.folio.inventory.support.ConfigHelper.getInteger;
+import static org.folio.inventory.support.http.client.HttpClientConfiguration.PREFIX;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Map;
+import java.util.Random;
+import java.util.WeakHashMap;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Predicate;
+import java.util.function.Supplier;
+
+import io.vertx.core.Vertx;
+import io.vertx.core.http.HttpClient;
+import io.vertx.core.json.JsonArray;
+import io.vertx.core.json.JsonObject;
+import io.vertx.core.shareddata.Shareable;
+
+/**
+ * How reads from storage (GET requests, which can safely be repeated)
+ * recover from transient failures and slow responses.
+ * <p>
+ * A read which receives no response, or a bad gateway, service unavailable
+ * or gateway timeout response, is attempted again after a random backoff
+ * (of up to a limit which doubles after each attempt), until either the
+ * attempts run out or the deadline for the read would pass. Reads which
+ * were not sent because of the {@link StorageRequestLimits} are not retried.
+ * <p>
+ * When hedging is enabled, should an attempt not have responded within the
+ * usual (by default, 95th percentile) latency of reads from that storage
+ * path, an identical request is sent and the first response is used.
+ * <p>
+ * Like limits, a policy is attached to the client when it is created.
+ * A client without a policy attached makes a single attempt. The same
+ * policy can be attached to the client of each verticle instance.
+ */
+public class StorageReadPolicy implements Shareable {
+  public static final String RETRY_MAXIMUM_ATTEMPTS = PREFIX + "retry.maximum-attempts";
+  public static final String RETRY_INITIAL_BACKOFF_MILLISECONDS
+    = PREFIX + "retry.initial-backoff-milliseconds";
+  public static final String RETRY_MAXIMUM_BACKOFF_MILLISECONDS
+    = PREFIX + "retry.maximum-backoff-milliseconds";
+  public static final String RETRY_DEADLINE_MILLISECONDS = PREFIX + "retry.deadline-milliseconds";
+  public static final String HEDGING_ENABLED = PREFIX + "hedging.enabled";
+  public static final String HEDGING_PERCENTILE = PREFIX + "hedging.percentile";
+  public static final String HEDGING_MINIMUM_DELAY_MILLISECONDS
+    = PREFIX + "hedging.minimum-delay-milliseconds";
+
+  private static final int DEFAULT_MAXIMUM_ATTEMPTS = 3;
+  private static final int DEFAULT_INITIAL_BACKOFF_MILLISECONDS = 50;
+  private static final int DEFAULT_MAXIMUM_BACKOFF_MILLISECONDS = 1000;
+  private static final int DEFAULT_DEADLINE_MILLISECONDS = 10000;
+  private static final int DEFAULT_HEDGING_PERCENTILE = 95;
+  private static final int DEFAULT_HEDGING_MINIMUM_DELAY_MILLISECONDS = 20;
+
+  //Latency of the most recent reads from each path, hedging waits for enough to be known
+  private static final int LATENCY_SAMPLES = 200;
+  private static final int MINIMUM_LATENCY_SAMPLES = 20;
+
+  private static final Map<HttpClient, StorageReadPolicy> attached
+    = Collections.synchronizedMap(new WeakHashMap<>());
+
+  private static final StorageReadPolicy SINGLE_ATTEMPT = new StorageReadPolicy(null,
+    new JsonObject()
+      .put(RETRY_MAXIMUM_ATTEMPTS, 1)
+      .put(HEDGING_ENABLED, false),
+    new Random());
+
+  private final Vertx vertx;
+  private final Random random;
+  private final int maximumAttempts;
+  private final int initialBackoffMilliseconds;
+  private final int maximumBackoffMilliseconds;
+  private final int deadlineMilliseconds;
+  private final boolean hedgingEnabled;
+  private final int hedgingPercentile;
+  private final int minimumHedgeDelayMilliseconds;
+
+  private final ConcurrentMap<String, Latencies> latencies = new ConcurrentHashMap<>();
+  private final AtomicLong retries = new AtomicLong();
+  private final AtomicLong hedges = new AtomicLong();
+  private final AtomicLong deadlinesExceeded = new AtomicLong();
+
+  StorageReadPolicy(Vertx vertx, JsonObject config, Random random) {
+    this.vertx = vertx;
+    this.random = random;
+    this.maximumAttempts = Math.max(1, getInteger(config, RETRY_MAXIMUM_ATTEMPTS,
+      DEFAULT_MAXIMUM_ATTEMPTS));
+    this.initialBackoffMilliseconds = getInteger(config,
+      RETRY_INITIAL_BACKOFF_MILLISECONDS, DEFAULT_INITIAL_BACKOFF_MILLISECONDS);
+    this.maximumBackoffMilliseconds = getInteger(config,
+      RETRY_MAXIMUM_BACKOFF_MILLISECONDS, DEFAULT_MAXIMUM_BACKOFF_MILLISECONDS);
+    this.deadlineMilliseconds = getInteger(config, RETRY_DEADLINE_MILLISECONDS,
+      DEFAULT_DEADLINE_MILLISECONDS);
+    this.hedgingEnabled = getBoolean(config, HEDGING_ENABLED, false);
+    this.hedgingPercentile = getInteger(config, HEDGING_PERCENTILE,
+      DEFAULT_HEDGING_PERCENTILE);
+    this.minimumHedgeDelayMilliseconds = getInteger(config,
+      HEDGING_MINIMUM_DELAY_MILLISECONDS, DEFAULT_HEDGING_MINIMUM_DELAY_MILLISECONDS);
+  }
+
+  public static StorageReadPolicy attach(
+    HttpClient client,
+    Vertx vertx,
+    JsonObject config) {
+
+    return fromConfig(vertx, config).attachTo(client);
+  }
+
+  public static StorageReadPolicy fromConfig(Vertx vertx, JsonObject config) {
+    return new StorageReadPolicy(vertx, config, new Random());
+  }
+
+  public StorageReadPolicy attachTo(HttpClient client) {
+    attached.put(client, this);
+
+    return this;
+  }
+
+  public static StorageReadPolicy forClient(HttpClient client) {
+    return attached.getOrDefault(client, SINGLE_ATTEMPT);
+  }
+
+  /**
+   * Responses which suggest storage (or something in front of it) is
+   * temporarily unable to respond, rather than the request being wrong
+   */
+  public static boolean isTransient(int statusCode) {
+    return statusCode == 502 || statusCode == 503 || statusCode == 504;
+  }
+
+  /**
+   * Makes attempts to read from the location until one succeeds, gives
+   * a response which is not transient, or no more can be made
+   *
+   * @param location absolute URL of the read, latency is tracked by path
+   * @param attempt sends the request, every attempt must be identical
+   * @param isTransient whether a response should be attempted again
+   * @return future completed with the response to the last attempt made,
+   * or failed if it received no response or the deadline passed
+   */
+  public <T> CompletableFuture<T> read(
+    String location,
+    Supplier<CompletableFuture<T>> attempt,
+    Predicate<T> isTransient) {
+
+    if(vertx == null) {
+      return start(attempt);
+    }
+
+    CompletableFuture<T> result = new CompletableFuture<>();
+
+    long deadline = System.currentTimeMillis() + deadlineMilliseconds;
+
+    long deadlineTimer = vertx.setTimer(deadlineMilliseconds, timerId -> {
+      if(result.completeExceptionally(new TimeoutException(String.format(
+        "No response from %s within %s ms", location, deadlineMilliseconds)))) {
+
+        deadlinesExceeded.incrementAndGet();
+      }
+    });
+
+    result.whenComplete((response, failure) -> vertx.cancelTimer(deadlineTimer));
+
+    attempt(latenciesFor(location), attempt, isTransient, 1, deadline, result);
+
+    return result;
+  }
+
+  public JsonObject toJson() {
+    JsonArray latenciesJson = new JsonArray();
+
+    latencies.forEach((path, pathLatencies) -> latenciesJson.add(new JsonObject()
+      .put("path", path)
+      .put("hedgeDelayMilliseconds", pathLatencies.percentile(hedgingPercentile))));
+
+    return new JsonObject()
+      .put("retries", retries.get())
+      .put("hedges", hedges.get())
+      .put("deadlinesExceeded", deadlinesExceeded.get())
+      .put("storageEndpoints", latenciesJson);
+  }
+
+  private <T> void attempt(
+    Latencies pathLatencies,
+    Supplier<CompletableFuture<T>> attempt,
+    Predicate<T> isTransient,
+    int attemptNumber,
+    long deadline,
+    CompletableFuture<T> result) {
+
+    hedged(pathLatencies, attempt, isTransient, result)
+      .whenComplete((response, failure) -> {
+        if(result.isDone()) {
+          return;
+        }
+
+        boolean retryable = failure != null
+          ? isTransient(failure)
+          : isTransient.test(response);
+
+        long backoff = backoff(attemptNumber);
+
+        if(!retryable || attemptNumber >= maximumAttempts
+          || System.currentTimeMillis() + backoff >= deadline) {
+
+          complete(result, response, failure);
+          return;
+        }
+
+        retries.incrementAndGet();
+
+        vertx.setTimer(Math.max(1, backoff), timerId -> attempt(pathLatencies,
+          attempt, isTransient, attemptNumber + 1, deadline, result));
+      });
+  }
+
+  /**
+   * Sends the attempt, and an identical one should it be slower than usual
+   *
+   * @return future completed by the first of the requests to complete
+   * with a response that is not transient, or by the last to complete
+   */
+  private <T> CompletableFuture<T> hedged(
+    Latencies pathLatencies,
+    Supplier<CompletableFuture<T>> attempt,
+    Predicate<T> isTransient,
+    CompletableFuture<T> result) {
+
+    CompletableFuture<T> first = new CompletableFuture<>();
+    AtomicInteger outstanding = new AtomicInteger(1);
+
+    send(pathLatencies, attempt, isTransient, first, outstanding);
+
+    long hedgeDelay = hedgingEnabled
+      ? pathLatencies.percentile(hedgingPercentile)
+      : -1;
+
+    if(hedgeDelay >= 0) {
+      vertx.setTimer(Math.max(minimumHedgeDelayMilliseconds, hedgeDelay), timerId -> {
+        if(!first.isDone() && !result.isDone()) {
+          hedges.incrementAndGet();
+          outstanding.incrementAndGet();
+
+          send(pathLatencies, attempt, isTransient, first, outstanding);
+        }
+      });
+    }
+
+    return first;
+  }
+
+  private <T> void send(
+    Latencies pathLatencies,
+    Supplier<CompletableFuture<T>> attempt,
+    Predicate<T> isTransient,
+    CompletableFuture<T> first,
+    AtomicInteger outstanding) {
+
+    long startedAt = System.nanoTime();
+
+    start(attempt).whenComplete((response, failure) -> {
+      boolean usable = failure == null && !isTransient.test(response);
+
+      if(usable) {
+        pathLatencies.record(TimeUnit.NANOSECONDS.toMillis(
+          System.nanoTime() - startedAt));
+      }
+
+      //A transient outcome is only used once no other request might do better
+      if(usable || outstanding.decrementAndGet() == 0) {
+        complete(first, response, failure);
+      }
+    });
+  }
+
+  private long backoff(int attemptNumber) {
+    long ceiling = Math.min(maximumBackoffMilliseconds,
+      (long) initialBackoffMilliseconds << Math.min(attemptNumber - 1, 20));
+
+    //Full jitter, so that reads which failed together are not retried together
+    return ceiling <= 0 ? 0 : (long) (random.nextDouble() * ceiling);
+  }
+
+  private Latencies latenciesFor(String location) {
+    return latencies.computeIfAbsent(StorageRequestLimits.pathOf(location),
+      path -> new Latencies());
+  }
+
+  private static boolean isTransient(Throwable failure) {
+    Throwable cause = failure instanceof CompletionException
+      && failure.getCause() != null
+      ? failure.getCause()
+      : failure;
+
+    return !(cause instanceof StorageUnavailableException);
+  }
+
+  private static <T> CompletableFuture<T> start(Supplier<CompletableFuture<T>> attempt) {
+    try {
+      return attempt.get();
+    }
+    catch(Exception e) {
+      CompletableFuture<T> failed = new CompletableFuture<>();
+      failed.completeExceptionally(e);
+      return failed;
+    }
+  }
+
+  private static <T> void complete(
+    CompletableFuture<T> future,
+    T response,
+    Throwable failure) {
+
+    if(failure != null) {
+      future.completeExceptionally(failure instanceof CompletionException
+        && failure.getCause() != null ? failure.getCause() : failure);
+    }
+    else {
+      future.complete(response);
+    }
+  }
+
+  /**
+   * The most recent latencies of successful reads from a path
+   */
+  static class Latencies {
+    private final long[] samples = new long[LATENCY_SAMPLES];
+    //Position of the next sample, which wraps around to replace the oldest
+    private int next;
+    private boolean filled;
+
+    synchronized void record(long milliseconds) {
+      samples[next] = milliseconds;
+      next++;
+
+      if(next == samples.length) {
+        next = 0;
+        filled = true;
+      }
+    }
+
+    /**
+     * @return the latency which the percentage of recent reads were within,
+     * or -1 when too few reads are known
+     */
+    synchronized long percentile(int percentage) {
+      int count = filled ? samples.length : next;
+
+      if(count < MINIMUM_LATENCY_SAMPLES) {
+        return -1;
+      }
+
+      long[] sorted = Arrays.copyOf(samples, count);
+      Arrays.sort(sorted);
+
+      int index = (int) Math.ceil(percentage / 100.0 * count) - 1;
+
+      return sorted[Math.max(0, Math.min(count - 1, index))];
+    }
+  }
+}
@@ -0,0 +1,362 @@
+package org.folio.inventory.support.http.client;
+
+import static org.folio.inventory.support.ConfigHelper.getBoolean;
+import static org.folio.inventory.support.ConfigHelper.getInteger;
+import static org.folio.inventory.support.http.client.HttpClientConfiguration.PREFIX;
+
+import java.time.Clock;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Deque;
+import java.util.List;
+import java.util.Map;
+import java.util.WeakHashMap;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.Consumer;
+import java.util.regex.Pattern;
+
+import io.vertx.core.Context;
+import io.vertx.core.Vertx;
+import io.vertx.core.http.HttpClient;
+import io.vertx.core.json.JsonArray;
+import io.vertx.core.json.JsonObject;
+import io.vertx.core.shareddata.Shareable;
+
+/**
+ * Limits on the requests sent to each storage path (e.g. /item-storage/items
+ * or /material-types) using an HTTP client: how many can be in progress at
+ * once, and whether storage has been failing for long enough that requests
+ * should not be sent at all.
+ * <p>
+ * Requests beyond the limit wait (in a queue of limited size) for a request
+ * in progress to complete, rather than being rejected straight away.
+ * <p>
+ * Limits are attached to the client when it is created, so that everything
+ * using that client shares them. A client without limits attached (e.g. one
+ * created in tests) is not limited. The same limits can be attached to the
+ * client of each verticle instance, so that they apply to the whole module.
+ */
+public class StorageRequestLimits implements Shareable {
+  public static final String REQUEST_TIMEOUT_MILLISECONDS = PREFIX + "request-timeout-milliseconds";
+  public static final String CONCURRENCY_LIMIT_ENABLED = PREFIX + "concurrency-limit.enabled";
+  public static final String CONCURRENCY_LIMIT_INITIAL = PREFIX + "concurrency-limit.initial";
+  public static final String CONCURRENCY_LIMIT_MINIMUM = PREFIX + "concurrency-limit.minimum";
+  public static final String CONCURRENCY_LIMIT_MAXIMUM = PREFIX + "concurrency-limit.maximum";
+  public static final String CONCURRENCY_LIMIT_QUEUE_SIZE = PREFIX + "concurrency-limit.queue-size";
+  public static final String CONCURRENCY_LIMIT_LATENCY_THRESHOLD_MILLISECONDS
+    = PREFIX + "concurrency-limit.latency-threshold-milliseconds";
+  public static final String CIRCUIT_BREAKER_FAILURE_THRESHOLD
+    = PREFIX + "circuit-breaker.failure-threshold";
+  public static final String CIRCUIT_BREAKER_OPEN_MILLISECONDS
+    = PREFIX + "circuit-breaker.open-milliseconds";
+
+  //Requests have no timeout unless one is configured or given for the operation
+  private static final int DEFAULT_REQUEST_TIMEOUT_MILLISECONDS = 0;
+  private static final int DEFAULT_INITIAL_LIMIT = 50;
+  private static final int DEFAULT_MINIMUM_LIMIT = 5;
+  private static final int DEFAULT_MAXIMUM_LIMIT = 500;
+  private static final int DEFAULT_QUEUE_SIZE = 100;
+  private static final int DEFAULT_LATENCY_THRESHOLD_MILLISECONDS = 1000;
+  private static final double BACKOFF_RATIO = 0.9;
+  private static final int DEFAULT_FAILURE_THRESHOLD = 5;
+  private static final int DEFAULT_OPEN_MILLISECONDS = 10000;
+
+  private static final Pattern ID_SEGMENT = Pattern.compile(
+    "/[0-9a-fA-F]{8}-[0-9a-fA-F]{4}-[0-9a-fA-F]{4}-[0-9a-fA-F]{4}-[0-9a-fA-F]{12}");
+
+  private static final Map<HttpClient, StorageRequestLimits> attached
+    = Collections.synchronizedMap(new WeakHashMap<>());
+
+  private static final StorageRequestLimits UNLIMITED = new StorageRequestLimits(
+    new JsonObject().put(CONCURRENCY_LIMIT_ENABLED, false), Clock.systemUTC());
+
+  private final JsonObject config;
+  private final Clock clock;
+  private final boolean enabled;
+  private final int requestTimeoutMilliseconds;
+  private final ConcurrentMap<String, StorageEndpoint> endpoints
+    = new ConcurrentHashMap<>();
+
+  StorageRequestLimits(JsonObject config, Clock clock) {
+    this.config = config;
+    this.clock = clock;
+    this.enabled = getBoolean(config, CONCURRENCY_LIMIT_ENABLED, true);
+    this.requestTimeoutMilliseconds = getInteger(config,
+      REQUEST_TIMEOUT_MILLISECONDS, DEFAULT_REQUEST_TIMEOUT_MILLISECONDS);
+  }
+
+  public static StorageRequestLimits attach(HttpClient client, JsonObject config) {
+    return fromConfig(config).attachTo(client);
+  }
+
+  public static StorageRequestLimits fromConfig(JsonObject config) {
+    return new StorageRequestLimits(config, Clock.systemUTC());
+  }
+
+  public StorageRequestLimits attachTo(HttpClient client) {
+    attached.put(client, this);
+
+    return this;
+  }
+
+  public static StorageRequestLimits forClient(HttpClient client) {
+    return attached.getOrDefault(client, UNLIMITED);
+  }
+
+  /**
+   * @param operationTimeoutMilliseconds timeout of the operation, used when
+   * none is configured, 0 for none
+   * @return timeout for a request, 0 when it should have none
+   */
+  public int requestTimeoutMilliseconds(int operationTimeoutMilliseconds) {
+    return requestTimeoutMilliseconds > 0
+      ? requestTimeoutMilliseconds
+      : operationTimeoutMilliseconds;
+  }
+
+  /**
+   * Reserves a place for a request to the location, which must be given up
+   * when the request completes (or fails). When the limit has been reached,
+   * the place is reserved once another request completes, on the context
+   * of the caller.
+   *
+   * @param location absolute URL of the request
+   * @return future completed with the place, or failed with a
+   * {@link StorageUnavailableException} if the request should not be sent
+   */
+  public CompletableFuture<Permit> acquire(String location) {
+    if(!enabled) {
+      return CompletableFuture.completedFuture(Permit.UNLIMITED);
+    }
+
+    String path = pathOf(location);
+
+    return endpoints.computeIfAbsent(path, this::createEndpoint).acquire();
+  }
+
+  public JsonObject toJson() {
+    JsonArray endpointsJson = new JsonArray();
+
+    endpoints.values().forEach(endpoint -> endpointsJson.add(endpoint.toJson()));
+
+    return new JsonObject().put("storageEndpoints", endpointsJson);
+  }
+
+  /**
+   * The path of the location, without any query or record ids, so that all
+   * requests to the same kind of record share limits
+   */
+  static String pathOf(String location) {
+    int schemeEnd = location.indexOf("://");
+    int pathStart = location.indexOf('/', schemeEnd < 0 ? 0 : schemeEnd + 3);
+
+    if(pathStart < 0) {
+      return "/";
+    }
+
+    int queryStart = location.indexOf('?', pathStart);
+
+    String path = queryStart < 0
+      ? location.substring(pathStart)
+      : location.substring(pathStart, queryStart);
+
+    return ID_SEGMENT.matcher(path).replaceAll("");
+  }
+
+  private StorageEndpoint createEndpoint(String path) {
+    return new StorageEndpoint(path,
+      new AdaptiveConcurrencyLimit(
+        getInteger(config, CONCURRENCY_LIMIT_INITIAL, DEFAULT_INITIAL_LIMIT),
+        getInteger(config, CONCURRENCY_LIMIT_MINIMUM, DEFAULT_MINIMUM_LIMIT),
+        getInteger(config, CONCURRENCY_LIMIT_MAXIMUM, DEFAULT_MAXIMUM_LIMIT),
+        getInteger(config, CONCURRENCY_LIMIT_LATENCY_THRESHOLD_MILLISECONDS,
+          DEFAULT_LATENCY_THRESHOLD_MILLISECONDS),
+        BACKOFF_RATIO),
+      getInteger(config, CONCURRENCY_LIMIT_QUEUE_SIZE, DEFAULT_QUEUE_SIZE),
+      new CircuitBreaker(
+        getInteger(config, CIRCUIT_BREAKER_FAILURE_THRESHOLD, DEFAULT_FAILURE_THRESHOLD),
+        getInteger(config, CIRCUIT_BREAKER_OPEN_MILLISECONDS, DEFAULT_OPEN_MILLISECONDS),
+        clock));
+  }
+
+  /**
+   * A place reserved for a request, which is given up by the first call
+   * to either method (later calls are ignored)
+   */
+  public interface Permit {
+    Permit UNLIMITED = new Permit() {
+      @Override
+      public void completed(int statusCode) {
+        //Nothing to give up
+      }
+
+      @Override
+      public void failed() {
+        //Nothing to give up
+      }
+    };
+
+    /**
+     * The request received a response, server errors count as failures
+     */
+    void completed(int statusCode);
+
+    /**
+     * The request received no response, e.g. it timed out
+     */
+    void failed();
+  }
+
+  private static class StorageEndpoint {
+    private final String path;
+    private final AdaptiveConcurrencyLimit limit;
+    private final int queueSize;
+    private final CircuitBreaker circuitBreaker;
+
+    //Requests waiting for a place, guarded by this endpoint
+    private final Deque<Waiting> queue = new ArrayDeque<>();
+
+    private StorageEndpoint(
+      String path,
+      AdaptiveConcurrencyLimit limit,
+      int queueSize,
+      CircuitBreaker circuitBreaker) {
+
+      this.path = path;
+      this.limit = limit;
+      this.queueSize = queueSize;
+      this.circuitBreaker = circuitBreaker;
+    }
+
+    private CompletableFuture<Permit> acquire() {
+      CompletableFuture<Permit> acquired = new CompletableFuture<>();
+
+      synchronized (this) {
+        if(queue.isEmpty() && limit.tryAcquire()) {
+          if(circuitBreaker.allowRequest()) {
+            acquired.complete(newPermit());
+          }
+          else {
+            limit.cancel();
+            acquired.completeExceptionally(failing());
+          }
+        }
+        else if(queue.size() < queueSize) {
+          queue.add(new Waiting(acquired, Vertx.currentContext()));
+        }
+        else {
+          limit.rejected();
+
+          acquired.completeExceptionally(new StorageUnavailableException(
+            String.format("Too many requests in progress to %s (limit %s, %s waiting)",
+              path, limit.getLimit(), queue.size())));
+        }
+      }
+
+      return acquired;
+    }
+
+    /**
+     * Gives the places which have become free to the requests waiting longest
+     */
+    private void grantWaiting() {
+      List<Runnable> granted = new ArrayList<>();
+
+      synchronized (this) {
+        while(!queue.isEmpty() && limit.tryAcquire()) {
+          Waiting waiting = queue.poll();
+
+          if(circuitBreaker.allowRequest()) {
+            Permit permit = newPermit();
+            granted.add(waiting.deliver(acquired -> acquired.complete(permit)));
+          }
+          else {
+            limit.cancel();
+
+            StorageUnavailableException failure = failing();
+            granted.add(waiting.deliver(acquired -> acquired.completeExceptionally(failure)));
+          }
+        }
+      }
+
+      //Outside of the lock, as requests are sent when their place is given
+      granted.forEach(Runnable::run);
+    }
+
+    private StorageUnavailableException failing() {
+      return new StorageUnavailableException(String.format(
+        "Requests to %s are failing, not sent until storage recovers", path));
+    }
+
+    private Permit newPermit() {
+      long startedAt = System.nanoTime();
+      AtomicBoolean released = new AtomicBoolean();
+
+      return new Permit() {
+        @Override
+        public void completed(int statusCode) {
+          release(statusCode < 500);
+        }
+
+        @Override
+        public void failed() {
+          release(false);
+        }
+
+        private void release(boolean succeeded) {
+          if(!released.compareAndSet(false, true)) {
+            return;
+          }
+
+          limit.release(TimeUnit.NANOSECONDS.toMillis(
+            System.nanoTime() - startedAt), succeeded);
+
+          if(succeeded) {
+            circuitBreaker.succeeded();
+          }
+          else {
+            circuitBreaker.failed();
+          }
+
+          grantWaiting();
+        }
+      };
+    }
+
+    private synchronized JsonObject toJson() {
+      return new JsonObject()
+        .put("path", path)
+        .put("concurrencyLimit", limit.toJson().put("waiting", queue.size()))
+        .put("circuitBreaker", circuitBreaker.toJson());
+    }
+  }
+
+  private static class Waiting {
+    private final CompletableFuture<Permit> acquired;
+    private final Context context;
+
+    private Waiting(CompletableFuture<Permit> acquired, Context context) {
+      this.acquired = acquired;
+      this.context = context;
+    }
+
+    /**
+     * Completes the request's place on the context it was requested from
+     */
+    private Runnable deliver(Consumer<CompletableFuture<Permit>> completion) {
+      return () -> {
+        if(context == null || context == Vertx.currentContext()) {
+          completion.accept(acquired);
+        }
+        else {
+          context.runOnContext(v -> completion.accept(acquired));
+        }
+      };
+    }
+  }
+}
@@ -0,0 +1,11 @@
+package org.folio.inventory.support.http.client;
+
+/**
+ * A request to storage was not sent, because too many requests are already
+ * in progress, or because recent requests have failed
+ */
+public class StorageUnavailableException extends RuntimeException {
+  StorageUnavailableException(String message) {
+    super(message);
+  }
+}
@@ -0,0 +1,104 @@
+package org.folio.inventory.support.http.server;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Objects;
+
+import org.apache.commons.lang3.StringUtils;
+
+import com.google.common.hash.Hasher;
+import com.google.common.hash.Hashing;
+
+import io.vertx.core.json.JsonObject;
+
+/**
+ * Weak entity tags for representations which are built from several
+ * stored records, derived from the version of each of those records
+ * <p>
+ * A record's version is its _version, or failing that, when it was last
+ * updated. Records with neither (e.g. reference records without metadata)
+ * are represented by their content instead.
+ */
+public class EntityTag {
+  private static final String VERSION_KEY = "_version";
+  private static final String METADATA_KEY = "metadata";
+  private static final String UPDATED_DATE_KEY = "updatedDate";
+
+  private EntityTag() { }
+
+  /**
+   * @return a weak entity tag for a representation made up of these parts,
+   * null parts (e.g. absent optional records) are included as such
+   */
+  public static String of(List<String> parts) {
+    Hasher hasher = Hashing.murmur3_128().newHasher();
+
+    parts.forEach(part -> hasher
+      .putString(Objects.toString(part), StandardCharsets.UTF_8)
+      .putChar('\u0000'));
+
+    return String.format("W/\"%s\"", hasher.hash());
+  }
+
+  public static String of(String... parts) {
+    return of(Arrays.asList(parts));
+  }
+
+  /**
+   * @return the version of the record, when it has one, otherwise null
+   */
+  public static String versionOf(JsonObject record) {
+    if (record == null) {
+      return null;
+    }
+
+    if (record.getValue(VERSION_KEY) != null) {
+      return record.getValue(VERSION_KEY).toString();
+    }
+
+    return updatedDateOf(record.getJsonObject(METADATA_KEY));
+  }
+
+  public static String updatedDateOf(JsonObject metadata) {
+    return metadata != null ? metadata.getString(UPDATED_DATE_KEY) : null;
+  }
+
+  /**
+   * @return the version of the record, or its content when it does not have
+   * a version (so that any change to it still changes the tag)
+   */
+  public static String versionOrContentOf(JsonObject record) {
+    if (record == null) {
+      return null;
+    }
+
+    String version = versionOf(record);
+
+    return version != null
+      ? String.format("%s@%s", record.getString("id"), version)
+      : record.encode();
+  }
+
+  /**
+   * Weak comparison of an If-None-Match header value to an entity tag,
+   * as is used for conditional GET requests
+   *
+   * @return true when the header is * or any of the tags in it match
+   */
+  public static boolean matches(String ifNoneMatch, String entityTag) {
+    if (StringUtils.isBlank(ifNoneMatch) || entityTag == null) {
+      return false;
+    }
+
+    String opaqueTag = opaque(entityTag);
+
+    return Arrays.stream(ifNoneMatch.split(","))
+      .map(String::trim)
+      .anyMatch(tag -> tag.equals("*") || opaque(tag).equals(opaqueTag));
+  }
+
+  private static String opaque(String entityTag) {
+    return StringUtils.removeStart(entityTag, "W/");
+  }
+}
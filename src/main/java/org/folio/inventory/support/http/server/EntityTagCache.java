@@ -0,0 +1,110 @@
+package org.folio.inventory.support.http.server;
+
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.apache.commons.lang3.StringUtils;
+import org.folio.inventory.common.WebContext;
+
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+
+import io.vertx.core.json.JsonObject;
+import io.vertx.core.shareddata.Shareable;
+import io.vertx.ext.web.RoutingContext;
+
+/**
+ * Holds the entity tag of each representation most recently served, so that
+ * a conditional GET for an unchanged record can be answered without any
+ * requests to storage.
+ * <p>
+ * Entries are keyed by tenant and the tenant's generation. Whenever a change
+ * is made through this module the tenant moves to a new generation, so
+ * its earlier entries are no longer found (and are evicted in time).
+ * The key is taken before a record is fetched, so that the tag of a record
+ * fetched before a change is never stored under the generation after it.
+ * <p>
+ * Changes made directly in storage (including to holdings and reference
+ * records which are embedded in representations) are picked up once the
+ * entries expire, so the expiry period bounds how stale a not modified
+ * response can be.
+ * <p>
+ * A single cache is shared by all verticle instances, so that a change
+ * received by any instance removes the entries used by every instance.
+ */
+public class EntityTagCache implements Shareable {
+  public static final String MAXIMUM_SIZE_KEY = "entity-tag.cache.maximum-size";
+  public static final String EXPIRE_AFTER_SECONDS_KEY = "entity-tag.cache.expire-after-seconds";
+
+  private static final long DEFAULT_MAXIMUM_SIZE = 50000;
+  private static final long DEFAULT_EXPIRE_AFTER_SECONDS = 30;
+
+  private final Cache<String, String> entityTags;
+  private final ConcurrentMap<String, AtomicLong> generations = new ConcurrentHashMap<>();
+
+  public EntityTagCache(long maximumSize, long expireAfterSeconds) {
+    entityTags = CacheBuilder.newBuilder()
+      .maximumSize(maximumSize)
+      .expireAfterWrite(expireAfterSeconds, TimeUnit.SECONDS)
+      .build();
+  }
+
+  public static EntityTagCache fromConfig(JsonObject config) {
+    return new EntityTagCache(
+      config.getLong(MAXIMUM_SIZE_KEY, DEFAULT_MAXIMUM_SIZE),
+      config.getLong(EXPIRE_AFTER_SECONDS_KEY, DEFAULT_EXPIRE_AFTER_SECONDS));
+  }
+
+  /**
+   * Key for the record in the tenant's current generation, to be taken
+   * before the record is fetched and used for both getting and putting
+   */
+  public String keyFor(String tenantId, String path, String id) {
+    return StringUtils.defaultString(tenantId) + "|" + generation(tenantId).get()
+      + "|" + path + "/" + id;
+  }
+
+  public String get(String key) {
+    return entityTags.getIfPresent(key);
+  }
+
+  public void put(String key, String entityTag) {
+    entityTags.put(key, entityTag);
+  }
+
+  /**
+   * Invalidates all of the tenant's entries, as a change to one record can
+   * change the representations of others (e.g. an instance's title
+   * is included in its items, and relationships in both instances)
+   */
+  public void invalidate(String tenantId) {
+    generation(tenantId).incrementAndGet();
+  }
+
+  /**
+   * Route handler for requests which change records, which removes the
+   * tenant's entries once the change has been made
+   */
+  public void invalidateOnceChanged(RoutingContext routingContext) {
+    String tenantId = new WebContext(routingContext).getTenantId();
+
+    routingContext.addHeadersEndHandler(v -> {
+      if (routingContext.response().getStatusCode() < 300) {
+        invalidate(tenantId);
+      }
+    });
+
+    routingContext.next();
+  }
+
+  public long size() {
+    return entityTags.size();
+  }
+
+  private AtomicLong generation(String tenantId) {
+    return generations.computeIfAbsent(StringUtils.defaultString(tenantId),
+      tenant -> new AtomicLong());
+  }
+}
@@ -12,8 +12,10 @@ public class FailureResponseConsumer {
 
   public static Consumer<Failure> serverError(final HttpServerResponse response) {
     return failure -> {
-      if (failure.getStatusCode() >= 300 && failure.getStatusCode() <= 599) {
-        response.setStatusCode(failure.getStatusCode());
+      Integer statusCode = failure.getStatusCode();
+
+      if (statusCode != null && statusCode >= 300 && statusCode <= 599) {
+        response.setStatusCode(statusCode);
         response.putHeader(HttpHeaders.CONTENT_TYPE, ContentType.TEXT_PLAIN);
         response.end(failure.getReason());
       } else {
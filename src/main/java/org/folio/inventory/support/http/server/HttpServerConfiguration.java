@@ -0,0 +1,36 @@
+package org.folio.inventory.support.http.server;
+
+import static org.folio.inventory.support.ConfigHelper.getBoolean;
+import static org.folio.inventory.support.ConfigHelper.getInteger;
+
+import io.vertx.core.http.HttpServerOptions;
+import io.vertx.core.json.JsonObject;
+
+/**
+ * Creates the options for the HTTP server which serves the module's
+ * interfaces from the module configuration.
+ * <p>
+ * Responses are only compressed (using gzip or deflate) when the client
+ * asks for that in the Accept-Encoding header.
+ * <p>
+ * Values may be provided as numbers, booleans or strings (e.g. when passed
+ * as system properties).
+ */
+public class HttpServerConfiguration {
+  public static final String PREFIX = "http-server.";
+
+  public static final String COMPRESSION = PREFIX + "compression";
+  public static final String COMPRESSION_LEVEL = PREFIX + "compression-level";
+
+  //Lower than the usual default of 6, as larger responses are mostly repeated property names
+  private static final int DEFAULT_COMPRESSION_LEVEL = 4;
+
+  private HttpServerConfiguration() { }
+
+  public static HttpServerOptions fromConfig(JsonObject config) {
+    return new HttpServerOptions()
+      .setCompressionSupported(getBoolean(config, COMPRESSION, true))
+      .setCompressionLevel(getInteger(config, COMPRESSION_LEVEL,
+        DEFAULT_COMPRESSION_LEVEL));
+  }
+}
@@ -3,10 +3,10 @@ package org.folio.inventory.support.http.server;
 import io.vertx.core.buffer.Buffer;
 import io.vertx.core.http.HttpHeaders;
 import io.vertx.core.http.HttpServerResponse;
-import io.vertx.core.json.Json;
 import io.vertx.core.json.JsonArray;
 import io.vertx.core.json.JsonObject;
 import org.folio.inventory.support.http.ContentType;
+import org.folio.inventory.support.http.JsonBody;
 
 import java.util.List;
 
@@ -25,6 +25,16 @@ public class JsonResponse {
     response(response, body, 200);
   }
 
+  /**
+   * Responds with a body which has already been encoded (e.g. so that
+   * encoding can be timed)
+   */
+  public static void success(HttpServerResponse response,
+                             Buffer encodedBody) {
+
+    response(response, encodedBody, 200);
+  }
+
   public static void unprocessableEntity(
     HttpServerResponse response,
     String message,
@@ -55,8 +65,12 @@ public class JsonResponse {
                                JsonObject body,
                                int statusCode) {
 
-    String json = Json.encodePrettily(body);
-    Buffer buffer = Buffer.buffer(json, "UTF-8");
+    response(response, JsonBody.encode(body), statusCode);
+  }
+
+  private static void response(HttpServerResponse response,
+                               Buffer buffer,
+                               int statusCode) {
 
     response.setStatusCode(statusCode);
     response.putHeader(HttpHeaders.CONTENT_TYPE, String.format("%s; charset=utf-8",
@@ -0,0 +1,143 @@
+package org.folio.inventory.support.http.server;
+
+import java.lang.invoke.MethodHandles;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.function.Function;
+
+import org.folio.inventory.common.api.request.Cursor;
+import org.folio.inventory.support.http.ContentType;
+
+import io.vertx.core.buffer.Buffer;
+import io.vertx.core.http.HttpHeaders;
+import io.vertx.core.http.HttpServerResponse;
+import io.vertx.core.json.JsonObject;
+import io.vertx.core.logging.Logger;
+import io.vertx.core.logging.LoggerFactory;
+
+/**
+ * Streams records as newline delimited JSON, one page at a time, using
+ * chunked transfer encoding.
+ * <p>
+ * The next page is only fetched once the previous one has been written
+ * and the response's write queue has drained, so only about one page of
+ * records is held in memory however many are streamed.
+ */
+public class NdjsonResponse {
+  private static final Logger log = LoggerFactory.getLogger(MethodHandles.lookup().lookupClass());
+
+  private static final byte NEWLINE = '\n';
+
+  private NdjsonResponse() { }
+
+  /**
+   * @param fetchPage fetches the page of records at the cursor, starting
+   *                  with the first cursor
+   */
+  public static void stream(
+    HttpServerResponse response,
+    Function<Cursor, CompletableFuture<Page>> fetchPage) {
+
+    new Streaming(response, fetchPage).write(Cursor.first());
+  }
+
+  public static class Page {
+    public final List<JsonObject> records;
+    //Null when this is the last page
+    public final Cursor next;
+
+    public Page(List<JsonObject> records, Cursor next) {
+      this.records = records;
+      this.next = next;
+    }
+  }
+
+  private static class Streaming {
+    private final HttpServerResponse response;
+    private final Function<Cursor, CompletableFuture<Page>> fetchPage;
+
+    private boolean closed = false;
+    private long recordsWritten = 0;
+
+    private Streaming(
+      HttpServerResponse response,
+      Function<Cursor, CompletableFuture<Page>> fetchPage) {
+
+      this.response = response;
+      this.fetchPage = fetchPage;
+
+      response.closeHandler(v -> closed = true);
+    }
+
+    private void write(Cursor cursor) {
+      CompletableFuture<Page> fetched;
+
+      try {
+        fetched = fetchPage.apply(cursor);
+      }
+      catch(Exception e) {
+        failed(e);
+        return;
+      }
+
+      fetched.whenComplete((page, failure) -> {
+        if(closed) {
+          log.info(String.format(
+            "Stream closed by client after %s records", recordsWritten));
+          return;
+        }
+
+        if(failure != null) {
+          failed(failure);
+          return;
+        }
+
+        if(!response.headWritten()) {
+          response.setStatusCode(200);
+          response.setChunked(true);
+          response.putHeader(HttpHeaders.CONTENT_TYPE, ContentType.APPLICATION_NDJSON);
+        }
+
+        page.records.forEach(record ->
+          response.write(record.toBuffer().appendByte(NEWLINE)));
+
+        recordsWritten += page.records.size();
+
+        if(page.next == null) {
+          response.end();
+          return;
+        }
+
+        if(response.writeQueueFull()) {
+          response.drainHandler(v -> {
+            response.drainHandler(null);
+            write(page.next);
+          });
+        }
+        else {
+          write(page.next);
+        }
+      });
+    }
+
+    private void failed(Throwable failure) {
+      Throwable cause = failure.getCause() != null ? failure.getCause() : failure;
+
+      if(response.ended()) {
+        return;
+      }
+
+      if(response.headWritten()) {
+        //The status has already been sent, so closing the connection before
+        //the final chunk is the only way to tell the client the stream failed
+        log.error(String.format("Stream failed after %s records: %s",
+          recordsWritten, cause));
+
+        response.close();
+      }
+      else {
+        ServerErrorResponse.internalError(response, cause.toString());
+      }
+    }
+  }
+}
@@ -3,6 +3,7 @@ package org.folio.inventory.support.http.server;
 import io.vertx.core.http.HttpHeaders;
 import io.vertx.core.http.HttpServerResponse;
 import org.folio.inventory.support.http.ContentType;
+import org.folio.inventory.support.http.client.StorageUnavailableException;
 
 public class ServerErrorResponse {
   private ServerErrorResponse() { }
@@ -13,4 +14,43 @@ public class ServerErrorResponse {
     response.putHeader(HttpHeaders.CONTENT_TYPE, ContentType.TEXT_PLAIN);
     response.end(reason);
   }
+
+  public static void serviceUnavailable(HttpServerResponse response, String reason) {
+    response.setStatusCode(503);
+
+    response.putHeader(HttpHeaders.CONTENT_TYPE, ContentType.TEXT_PLAIN);
+    response.end(reason);
+  }
+
+  /**
+   * Responds to a request which could not be completed because storage could
+   * not be contacted, unless a response has already been sent (e.g. due to
+   * the failure of another request to storage).
+   * <p>
+   * When part of the response has already been sent (e.g. when streaming),
+   * the connection is closed instead, as the status can no longer be changed
+   */
+  public static void failedToContactStorage(
+    HttpServerResponse response,
+    Throwable exception) {
+
+    if(response.ended()) {
+      return;
+    }
+
+    if(response.headWritten()) {
+      response.close();
+      return;
+    }
+
+    String reason = String.format("Failed to contact storage module: %s",
+      exception.toString());
+
+    if(exception instanceof StorageUnavailableException) {
+      serviceUnavailable(response, reason);
+    }
+    else {
+      internalError(response, reason);
+    }
+  }
 }
@@ -1,5 +1,6 @@
 package org.folio.inventory.support.http.server;
 
+import io.vertx.core.http.HttpHeaders;
 import io.vertx.core.http.HttpServerResponse;
 
 public class SuccessResponse {
@@ -8,4 +9,10 @@ public class SuccessResponse {
     response.setStatusCode(204);
     response.end();
   }
+
+  public static void notModified(HttpServerResponse response, String entityTag) {
+    response.setStatusCode(304);
+    response.putHeader(HttpHeaders.ETAG, entityTag);
+    response.end();
+  }
 }
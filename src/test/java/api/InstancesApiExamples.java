@@ -252,6 +252,100 @@ public class InstancesApiExamples extends ApiTests {
     selfLinkShouldBeReachable(updatedInstance);
   }
 
+  @Test
+  public void canCreateAndUpdateABatchOfInstances()
+    throws InterruptedException,
+    MalformedURLException,
+    TimeoutException,
+    ExecutionException {
+
+    UUID existingId = UUID.randomUUID();
+
+    createInstance(smallAngryPlanet(existingId));
+
+    UUID newId = UUID.randomUUID();
+
+    JsonObject batchRequest = new JsonObject().put("instances", new JsonArray()
+      .add(smallAngryPlanet(existingId)
+        .put("title", "The Long Way to a Small, Angry Planet"))
+      .add(nod(newId))
+      .add(new JsonObject()));
+
+    CompletableFuture<Response> batchCompleted = new CompletableFuture<>();
+
+    okapiClient.post(ApiRoot.instancesBatch(), batchRequest,
+      ResponseHandler.json(batchCompleted));
+
+    Response batchResponse = batchCompleted.get(5, TimeUnit.SECONDS);
+
+    assertThat(batchResponse.getStatusCode(), is(200));
+
+    JsonObject batchResults = batchResponse.getJson();
+
+    assertThat(batchResults.getInteger("created"), is(1));
+    assertThat(batchResults.getInteger("updated"), is(1));
+    assertThat(batchResults.getInteger("failed"), is(1));
+    assertThat(batchResults.getInteger("totalRecords"), is(3));
+
+    JsonArray results = batchResults.getJsonArray("results");
+
+    assertThat(results.getJsonObject(0).getInteger("status"), is(204));
+    assertThat(results.getJsonObject(1).getInteger("status"), is(201));
+    assertThat(results.getJsonObject(1).getString("id"), is(newId.toString()));
+    assertThat(results.getJsonObject(2).getInteger("status"), is(400));
+    assertThat(results.getJsonObject(2).getString("error"),
+      is("Title must be provided for an instance"));
+
+    CompletableFuture<Response> getCompleted = new CompletableFuture<>();
+
+    okapiClient.get(String.format("%s/%s", ApiRoot.instances(), existingId),
+      ResponseHandler.json(getCompleted));
+
+    Response getResponse = getCompleted.get(5, TimeUnit.SECONDS);
+
+    assertThat(getResponse.getJson().getString("title"),
+      is("The Long Way to a Small, Angry Planet"));
+  }
+
+  @Test
+  public void batchEntriesWhichAreNotInstancesFailInPlace()
+    throws InterruptedException,
+    MalformedURLException,
+    TimeoutException,
+    ExecutionException {
+
+    UUID newId = UUID.randomUUID();
+
+    JsonObject batchRequest = new JsonObject().put("instances", new JsonArray()
+      .add("not an instance")
+      .add(nod(UUID.randomUUID()).put("id", "not-a-uuid"))
+      .add(nod(newId)));
+
+    CompletableFuture<Response> batchCompleted = new CompletableFuture<>();
+
+    okapiClient.post(ApiRoot.instancesBatch(), batchRequest,
+      ResponseHandler.json(batchCompleted));
+
+    Response batchResponse = batchCompleted.get(5, TimeUnit.SECONDS);
+
+    assertThat(batchResponse.getStatusCode(), is(200));
+
+    JsonObject batchResults = batchResponse.getJson();
+
+    assertThat(batchResults.getInteger("created"), is(1));
+    assertThat(batchResults.getInteger("failed"), is(2));
+    assertThat(batchResults.getInteger("totalRecords"), is(3));
+
+    JsonArray results = batchResults.getJsonArray("results");
+
+    assertThat(results.getJsonObject(0).getInteger("index"), is(0));
+    assertThat(results.getJsonObject(0).getInteger("status"), is(422));
+    assertThat(results.getJsonObject(1).getInteger("status"), is(400));
+    assertThat(results.getJsonObject(1).getString("id"), is("not-a-uuid"));
+    assertThat(results.getJsonObject(2).getInteger("status"), is(201));
+    assertThat(results.getJsonObject(2).getString("id"), is(newId.toString()));
+  }
+
   @Test
   public void cannotUpdateAnInstanceThatDoesNotExist()
     throws InterruptedException,
@@ -6,6 +6,7 @@ import api.support.ApiTests;
 import api.support.InstanceApiClient;
 import api.support.builders.HoldingRequestBuilder;
 import api.support.builders.ItemRequestBuilder;
+import io.vertx.core.json.JsonArray;
 import io.vertx.core.json.JsonObject;
 import org.apache.commons.lang3.StringUtils;
 import org.folio.inventory.support.JsonArrayHelper;
@@ -18,12 +19,14 @@ import org.junit.Test;
 
 import java.net.MalformedURLException;
 import java.net.URL;
+import java.util.Arrays;
 import java.util.List;
 import java.util.UUID;
 import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.ExecutionException;
 import java.util.concurrent.TimeUnit;
 import java.util.concurrent.TimeoutException;
+import java.util.stream.Collectors;
 
 import static api.support.InstanceSamples.*;
 import static org.hamcrest.CoreMatchers.*;
@@ -668,6 +671,165 @@ public class ItemApiExamples extends ApiTests {
     items.forEach(ItemApiExamples::hasConsistentTemporaryLocation);
   }
 
+  @Test
+  public void gettingItemsReportsServerTiming()
+    throws InterruptedException,
+    MalformedURLException,
+    TimeoutException,
+    ExecutionException {
+
+    JsonObject smallAngryInstance = createInstance(smallAngryPlanet(UUID.randomUUID()));
+
+    UUID smallAngryHoldingId = holdingsStorageClient.create(
+      new HoldingRequestBuilder()
+        .forInstance(UUID.fromString(smallAngryInstance.getString("id"))))
+      .getId();
+
+    itemsClient.create(new ItemRequestBuilder()
+      .forHolding(smallAngryHoldingId)
+      .book()
+      .canCirculate()
+      .withBarcode("645398607547"));
+
+    assertThat(serverTiming(ApiRoot.items().toString()),
+      allOf(containsString("query;dur="), containsString("holdings;dur="),
+        containsString("representation;dur=")));
+
+    //Only phases which make a request are timed
+    assertThat(serverTiming(ApiRoot.items() + "?expand=materialType"),
+      allOf(containsString("material-types;dur="),
+        not(containsString("holdings;dur=")),
+        not(containsString("locations;dur="))));
+  }
+
+  @Test
+  public void canPageAllItemsByCursor()
+    throws InterruptedException,
+    MalformedURLException,
+    TimeoutException,
+    ExecutionException {
+
+    JsonObject nodInstance = createInstance(nod(UUID.randomUUID()));
+
+    UUID nodHoldingId = holdingsStorageClient.create(
+      new HoldingRequestBuilder()
+        .forInstance(UUID.fromString(nodInstance.getString("id"))))
+      .getId();
+
+    for (String barcode : new String[] { "645398607547", "175848607547",
+      "645334645247", "564566456546", "943209584495" }) {
+
+      itemsClient.create(new ItemRequestBuilder()
+        .forHolding(nodHoldingId)
+        .book()
+        .canCirculate()
+        .withBarcode(barcode));
+    }
+
+    CompletableFuture<Response> firstPageGetCompleted = new CompletableFuture<>();
+
+    okapiClient.get(ApiRoot.items("limit=3&cursor=*"),
+      ResponseHandler.json(firstPageGetCompleted));
+
+    Response firstPageResponse = firstPageGetCompleted.get(5, TimeUnit.SECONDS);
+
+    assertThat(firstPageResponse.getStatusCode(), is(200));
+
+    List<JsonObject> firstPageItems = JsonArrayHelper.toList(
+      firstPageResponse.getJson().getJsonArray("items"));
+
+    String nextCursor = firstPageResponse.getJson().getString("nextCursor");
+
+    assertThat(firstPageItems.size(), is(3));
+    assertThat(nextCursor, is(notNullValue()));
+
+    CompletableFuture<Response> secondPageGetCompleted = new CompletableFuture<>();
+
+    okapiClient.get(ApiRoot.items("limit=3&cursor=" + nextCursor),
+      ResponseHandler.json(secondPageGetCompleted));
+
+    Response secondPageResponse = secondPageGetCompleted.get(5, TimeUnit.SECONDS);
+
+    assertThat(secondPageResponse.getStatusCode(), is(200));
+
+    List<JsonObject> secondPageItems = JsonArrayHelper.toList(
+      secondPageResponse.getJson().getJsonArray("items"));
+
+    assertThat(secondPageItems.size(), is(2));
+    assertThat(secondPageResponse.getJson().containsKey("nextCursor"), is(false));
+
+    String lastIdOnFirstPage = firstPageItems.get(2).getString("id");
+
+    secondPageItems.forEach(item ->
+      assertThat(item.getString("id").compareTo(lastIdOnFirstPage) > 0, is(true)));
+  }
+
+  @Test
+  public void canStreamAllItems()
+    throws InterruptedException,
+    MalformedURLException,
+    TimeoutException,
+    ExecutionException {
+
+    JsonObject nodInstance = createInstance(nod(UUID.randomUUID()));
+
+    UUID nodHoldingId = holdingsStorageClient.create(
+      new HoldingRequestBuilder()
+        .forInstance(UUID.fromString(nodInstance.getString("id"))))
+      .getId();
+
+    for (String barcode : new String[] { "645398607547", "175848607547",
+      "645334645247" }) {
+
+      itemsClient.create(new ItemRequestBuilder()
+        .forHolding(nodHoldingId)
+        .book()
+        .canCirculate()
+        .withBarcode(barcode));
+    }
+
+    CompletableFuture<Response> streamCompleted = new CompletableFuture<>();
+
+    okapiClient.get(ApiRoot.itemsStream(),
+      ResponseHandler.any(streamCompleted));
+
+    Response streamResponse = streamCompleted.get(5, TimeUnit.SECONDS);
+
+    assertThat(streamResponse.getStatusCode(), is(200));
+    assertThat(streamResponse.getContentType(), containsString("application/x-ndjson"));
+
+    List<JsonObject> streamedItems = Arrays.stream(
+      streamResponse.getBody().split("\n"))
+      .map(JsonObject::new)
+      .collect(Collectors.toList());
+
+    assertThat(streamedItems.size(), is(3));
+
+    streamedItems.forEach(item -> {
+      assertThat(item.getString("title"), is("Nod"));
+      assertThat(item.containsKey("materialType"), is(true));
+    });
+  }
+
+  @Test
+  public void cursorCannotBeUsedWithOffset()
+    throws InterruptedException,
+    MalformedURLException,
+    TimeoutException,
+    ExecutionException {
+
+    CompletableFuture<Response> getPagedCompleted = new CompletableFuture<>();
+
+    okapiClient.get(ApiRoot.items("cursor=*&offset=10"),
+      ResponseHandler.text(getPagedCompleted));
+
+    Response getPagedResponse = getPagedCompleted.get(5, TimeUnit.SECONDS);
+
+    assertThat(getPagedResponse.getStatusCode(), is(400));
+    assertThat(getPagedResponse.getBody(),
+      is("offset cannot be used with a cursor"));
+  }
+
   @Test
   public void pageParametersMustBeNumeric()
     throws InterruptedException,
@@ -877,6 +1039,142 @@ public class ItemApiExamples extends ApiTests {
     assertThat(getItemResponse.getJson().getString("barcode"), is("645398607547"));
   }
 
+  @Test
+  public void canCreateABatchOfItems()
+    throws InterruptedException,
+    MalformedURLException,
+    TimeoutException,
+    ExecutionException {
+
+    JsonObject smallAngryInstance = createInstance(smallAngryPlanet(UUID.randomUUID()));
+
+    UUID smallAngryHoldingId = holdingsStorageClient.create(
+      new HoldingRequestBuilder()
+        .forInstance(UUID.fromString(smallAngryInstance.getString("id"))))
+      .getId();
+
+    itemsClient.create(new ItemRequestBuilder()
+      .forHolding(smallAngryHoldingId)
+      .book()
+      .canCirculate()
+      .withBarcode("645398607547"));
+
+    JsonObject batchRequest = new JsonObject().put("items", new JsonArray()
+      .add(new ItemRequestBuilder()
+        .forHolding(smallAngryHoldingId)
+        .book()
+        .canCirculate()
+        .withBarcode("175848607547").create())
+      .add(new ItemRequestBuilder()
+        .forHolding(smallAngryHoldingId)
+        .book()
+        .canCirculate()
+        .withBarcode("645398607547").create())
+      .add(new ItemRequestBuilder()
+        .forHolding(smallAngryHoldingId)
+        .book()
+        .canCirculate()
+        .withBarcode("175848607547").create())
+      .add(new ItemRequestBuilder()
+        .forHolding(smallAngryHoldingId)
+        .book()
+        .canCirculate()
+        .withNoBarcode().create()));
+
+    CompletableFuture<Response> batchCompleted = new CompletableFuture<>();
+
+    okapiClient.post(ApiRoot.itemsBatch(), batchRequest,
+      ResponseHandler.json(batchCompleted));
+
+    Response batchResponse = batchCompleted.get(5, TimeUnit.SECONDS);
+
+    assertThat(batchResponse.getStatusCode(), is(200));
+
+    JsonObject batchResults = batchResponse.getJson();
+
+    assertThat(batchResults.getInteger("created"), is(2));
+    assertThat(batchResults.getInteger("failed"), is(2));
+    assertThat(batchResults.getInteger("totalRecords"), is(4));
+
+    List<JsonObject> results = JsonArrayHelper.toList(
+      batchResults.getJsonArray("results"));
+
+    assertThat(results.get(0).getInteger("status"), is(201));
+    assertThat(results.get(1).getInteger("status"), is(400));
+    assertThat(results.get(1).getString("error"),
+      is("Barcode must be unique, 645398607547 is already assigned to another item"));
+    assertThat(results.get(2).getInteger("status"), is(400));
+    assertThat(results.get(3).getInteger("status"), is(201));
+
+    JsonObject createdItem = itemsClient.getById(
+      UUID.fromString(results.get(0).getString("id"))).getJson();
+
+    assertThat(createdItem.getString("barcode"), is("175848607547"));
+  }
+
+  @Test
+  public void entriesWhichAreNotItemsFailWithoutMovingOtherResults()
+    throws InterruptedException,
+    MalformedURLException,
+    TimeoutException,
+    ExecutionException {
+
+    JsonObject smallAngryInstance = createInstance(smallAngryPlanet(UUID.randomUUID()));
+
+    UUID smallAngryHoldingId = holdingsStorageClient.create(
+      new HoldingRequestBuilder()
+        .forInstance(UUID.fromString(smallAngryInstance.getString("id"))))
+      .getId();
+
+    JsonObject batchRequest = new JsonObject().put("items", new JsonArray()
+      .add("not an item")
+      .add(new ItemRequestBuilder()
+        .forHolding(smallAngryHoldingId)
+        .book()
+        .canCirculate()
+        .withBarcode("766043059304").create()));
+
+    CompletableFuture<Response> batchCompleted = new CompletableFuture<>();
+
+    okapiClient.post(ApiRoot.itemsBatch(), batchRequest,
+      ResponseHandler.json(batchCompleted));
+
+    Response batchResponse = batchCompleted.get(5, TimeUnit.SECONDS);
+
+    assertThat(batchResponse.getStatusCode(), is(200));
+
+    JsonObject batchResults = batchResponse.getJson();
+
+    assertThat(batchResults.getInteger("created"), is(1));
+    assertThat(batchResults.getInteger("failed"), is(1));
+
+    List<JsonObject> results = JsonArrayHelper.toList(
+      batchResults.getJsonArray("results"));
+
+    assertThat(results.get(0).getInteger("index"), is(0));
+    assertThat(results.get(0).getInteger("status"), is(422));
+    assertThat(results.get(1).getInteger("index"), is(1));
+    assertThat(results.get(1).getInteger("status"), is(201));
+  }
+
+  @Test
+  public void cannotCreateABatchWithoutItems()
+    throws InterruptedException,
+    MalformedURLException,
+    TimeoutException,
+    ExecutionException {
+
+    CompletableFuture<Response> batchCompleted = new CompletableFuture<>();
+
+    okapiClient.post(ApiRoot.itemsBatch(), new JsonObject(),
+      ResponseHandler.any(batchCompleted));
+
+    Response batchResponse = batchCompleted.get(5, TimeUnit.SECONDS);
+
+    assertThat(batchResponse.getStatusCode(), is(400));
+    assertThat(batchResponse.getBody(), is("Batch must contain an array of items"));
+  }
+
   @Test
   public void canRemoveBarcodeFromAnExistingItem()
     throws InterruptedException,
@@ -1043,6 +1341,23 @@ public class ItemApiExamples extends ApiTests {
     }
   }
 
+  private String serverTiming(String url)
+    throws InterruptedException,
+    TimeoutException,
+    ExecutionException {
+
+    CompletableFuture<String> received = new CompletableFuture<>();
+
+    okapiClient.get(url, response -> response.bodyHandler(body ->
+      received.complete(response.getHeader("Server-Timing"))));
+
+    String serverTiming = received.get(5, TimeUnit.SECONDS);
+
+    assertThat(serverTiming, is(notNullValue()));
+
+    return serverTiming;
+  }
+
   private JsonObject createInstance(JsonObject newInstanceRequest)
     throws InterruptedException,
     MalformedURLException,
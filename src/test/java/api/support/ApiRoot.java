@@ -16,6 +16,12 @@ public class ApiRoot {
     return new URL(String.format("%s/instances", inventory()));
   }
 
+  public static URL instancesBatch()
+    throws MalformedURLException {
+
+    return new URL(String.format("%s/instances/batch", inventory()));
+  }
+
   public static URL instances(String query)
     throws MalformedURLException {
 
@@ -28,6 +34,18 @@ public class ApiRoot {
     return new URL(String.format("%s/items", inventory()));
   }
 
+  public static URL itemsBatch()
+    throws MalformedURLException {
+
+    return new URL(String.format("%s/items/batch", inventory()));
+  }
+
+  public static URL itemsStream()
+    throws MalformedURLException {
+
+    return new URL(String.format("%s/items/stream", inventory()));
+  }
+
   public static URL items(String query)
     throws MalformedURLException {
 
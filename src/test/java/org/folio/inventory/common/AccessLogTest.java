@@ -0,0 +1,192 @@
+package org.folio.inventory.common;
+
+import static org.hamcrest.CoreMatchers.is;
+import static org.junit.Assert.assertThat;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import io.vertx.core.Vertx;
+import io.vertx.core.buffer.Buffer;
+import io.vertx.core.http.HttpServer;
+import io.vertx.core.json.JsonObject;
+import io.vertx.ext.web.Router;
+
+public class AccessLogTest {
+  private static final String URL = "http://storage/item-storage/items";
+
+  private final BlockingQueue<String> handled = new LinkedBlockingQueue<>();
+
+  private Vertx vertx;
+
+  @Before
+  public void createVertx() {
+    vertx = Vertx.vertx();
+  }
+
+  @After
+  public void closeVertx() {
+    vertx.close();
+  }
+
+  @Test
+  public void requestsAreSampledByRoute() throws Exception {
+    AccessLog accessLog = new AccessLog(new JsonObject()
+      .put(AccessLog.SAMPLE_RATE, 0)
+      .put(AccessLog.ROUTE_SAMPLE_RATES, "/inventory/items=1"), Runnable::run);
+
+    HttpServer server = serve(accessLog);
+
+    handle(server, "/inventory/instances", 200);
+
+    assertThat(accessLog.toJson().getLong("written"), is(0L));
+
+    handle(server, "/inventory/items", 200);
+
+    assertThat(accessLog.toJson().getLong("written"), is(1L));
+  }
+
+  @Test
+  public void serverErrorsAreAlwaysLogged() throws Exception {
+    AccessLog accessLog = new AccessLog(new JsonObject()
+      .put(AccessLog.SAMPLE_RATE, 0), Runnable::run);
+
+    HttpServer server = serve(accessLog);
+
+    handle(server, "/inventory/items", 404);
+
+    assertThat(accessLog.toJson().getLong("written"), is(0L));
+
+    handle(server, "/inventory/items", 500);
+
+    assertThat(accessLog.toJson().getLong("written"), is(1L));
+  }
+
+  @Test
+  public void configuredParametersAreRedacted() {
+    AccessLog accessLog = new AccessLog(new JsonObject()
+      .put(AccessLog.REDACTED_PARAMETERS, "query, token"), Runnable::run);
+
+    assertThat(accessLog.redactParameters(
+      "/inventory/items?query=barcode%3D%3D123&limit=10&token=abc"),
+      is("/inventory/items?query=***&limit=10&token=***"));
+
+    assertThat(accessLog.redactParameters("/inventory/items"),
+      is("/inventory/items"));
+  }
+
+  @Test
+  public void configuredPropertiesAreRedacted() {
+    AccessLog accessLog = new AccessLog(new JsonObject()
+      .put(AccessLog.REDACTED_PROPERTIES, "barcode,copyNumber"), Runnable::run);
+
+    assertThat(accessLog.redactProperties(
+      "{\"id\":\"1\",\"barcode\" : \"12\\\"3\",\"copyNumber\":4,\"title\":\"barcode\"}"),
+      is("{\"id\":\"1\",\"barcode\" : \"***\",\"copyNumber\":\"***\",\"title\":\"barcode\"}"));
+  }
+
+  @Test
+  public void propertiesCutShortByAbbreviatingAreRedacted() {
+    AccessLog accessLog = new AccessLog(new JsonObject()
+      .put(AccessLog.REDACTED_PROPERTIES, "barcode"), Runnable::run);
+
+    assertThat(accessLog.redactProperties("{\"id\":\"1\",\"barcode\":\"12 3..."),
+      is("{\"id\":\"1\",\"barcode\":\"***\""));
+  }
+
+  @Test
+  public void bodiesAreNotLoggedUnlessAskedFor() {
+    AccessLog accessLog = new AccessLog(new JsonObject(), Runnable::run);
+
+    accessLog.recordBody("POST", URL, Buffer.buffer("{}"));
+
+    assertThat(accessLog.toJson().getLong("written"), is(0L));
+  }
+
+  @Test
+  public void sampledBodiesAreWritten() {
+    AccessLog accessLog = new AccessLog(new JsonObject()
+      .put(AccessLog.BODY_SAMPLE_RATE, 1.0), Runnable::run);
+
+    accessLog.recordBody("POST", URL, Buffer.buffer("{}"));
+    accessLog.recordBody("PUT", URL, Buffer.buffer("{}"));
+
+    assertThat(accessLog.toJson().getLong("written"), is(2L));
+  }
+
+  @Test
+  public void entriesAreDroppedWhenBufferIsFull() {
+    List<Runnable> writes = new ArrayList<>();
+
+    AccessLog accessLog = new AccessLog(new JsonObject()
+      .put(AccessLog.BODY_SAMPLE_RATE, 1.0)
+      .put(AccessLog.BUFFER_SIZE, 2), writes::add);
+
+    for (int entry = 0; entry < 5; entry++) {
+      accessLog.recordBody("POST", URL, Buffer.buffer("{}"));
+    }
+
+    assertThat(accessLog.toJson().getLong("dropped"), is(3L));
+    assertThat(writes.size(), is(1));
+
+    writes.get(0).run();
+
+    assertThat(accessLog.toJson().getLong("written"), is(2L));
+    assertThat(accessLog.toJson().getInteger("buffered"), is(0));
+  }
+
+  private HttpServer serve(AccessLog accessLog) throws Exception {
+    Router router = Router.router(vertx);
+
+    router.route().handler(routingContext -> {
+      accessLog.record(routingContext);
+      routingContext.next();
+    });
+
+    router.route().handler(routingContext -> {
+      //Called after the access log's own handler
+      routingContext.addBodyEndHandler(v ->
+        handled.add(routingContext.request().path()));
+
+      routingContext.response()
+        .setStatusCode(Integer.parseInt(routingContext.request().getParam("status")))
+        .end();
+    });
+
+    CompletableFuture<HttpServer> listening = new CompletableFuture<>();
+
+    vertx.createHttpServer().requestHandler(router::accept).listen(0, result -> {
+      if(result.succeeded()) {
+        listening.complete(result.result());
+      }
+      else {
+        listening.completeExceptionally(result.cause());
+      }
+    });
+
+    return listening.get(5, TimeUnit.SECONDS);
+  }
+
+  /**
+   * Makes a request which is responded to with the status, and waits until
+   * the access log has seen the response
+   */
+  private void handle(HttpServer server, String path, int status) throws Exception {
+    CompletableFuture<Integer> received = new CompletableFuture<>();
+
+    vertx.createHttpClient().getNow(server.actualPort(), "localhost",
+      path + "?status=" + status, response -> response.bodyHandler(
+        body -> received.complete(response.statusCode())));
+
+    assertThat(received.get(5, TimeUnit.SECONDS), is(status));
+    assertThat(handled.poll(5, TimeUnit.SECONDS), is(path));
+  }
+}
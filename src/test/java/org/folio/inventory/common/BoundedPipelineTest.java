@@ -0,0 +1,84 @@
+package org.folio.inventory.common;
+
+import static org.hamcrest.CoreMatchers.is;
+import static org.junit.Assert.assertThat;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+import org.junit.Test;
+
+public class BoundedPipelineTest {
+  @Test
+  public void onlyStartsNextRecordWhenEarlierRecordFinishes() {
+    List<CompletableFuture<Void>> started = new ArrayList<>();
+
+    CompletableFuture<Void> finished = new BoundedPipeline<Integer>(3)
+      .process(range(10).iterator(), record -> {
+        CompletableFuture<Void> processing = new CompletableFuture<>();
+        started.add(processing);
+        return processing;
+      });
+
+    assertThat(started.size(), is(3));
+
+    started.get(0).complete(null);
+
+    assertThat(started.size(), is(4));
+
+    for (int index = 1; index < started.size(); index++) {
+      started.get(index).complete(null);
+    }
+
+    assertThat(started.size(), is(10));
+    assertThat(finished.isDone(), is(true));
+  }
+
+  @Test
+  public void failedRecordsDoNotStopPipeline() throws Exception {
+    AtomicInteger processed = new AtomicInteger();
+
+    new BoundedPipeline<Integer>(2)
+      .process(range(5).iterator(), record -> {
+        processed.incrementAndGet();
+
+        CompletableFuture<Void> processing = new CompletableFuture<>();
+        processing.completeExceptionally(new Exception("Failed"));
+        return processing;
+      })
+      .get(1, TimeUnit.SECONDS);
+
+    assertThat(processed.get(), is(5));
+  }
+
+  @Test
+  public void canProcessManyRecordsWhichCompleteImmediately() throws Exception {
+    AtomicInteger processed = new AtomicInteger();
+
+    new BoundedPipeline<Integer>(5)
+      .process(range(100000).iterator(), record -> {
+        processed.incrementAndGet();
+        return CompletableFuture.completedFuture(record);
+      })
+      .get(5, TimeUnit.SECONDS);
+
+    assertThat(processed.get(), is(100000));
+  }
+
+  @Test
+  public void completesWhenThereAreNoRecords() {
+    CompletableFuture<Void> finished = new BoundedPipeline<Integer>(5)
+      .process(range(0).iterator(), CompletableFuture::completedFuture);
+
+    assertThat(finished.isDone(), is(true));
+  }
+
+  private static List<Integer> range(int count) {
+    return IntStream.range(0, count).boxed().collect(Collectors.toList());
+  }
+}
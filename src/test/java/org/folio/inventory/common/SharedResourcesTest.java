@@ -0,0 +1,52 @@
+package org.folio.inventory.common;
+
+import static org.hamcrest.CoreMatchers.is;
+import static org.junit.Assert.assertThat;
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.folio.inventory.support.http.server.EntityTagCache;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import io.vertx.core.Vertx;
+
+public class SharedResourcesTest {
+  private Vertx vertx;
+
+  @Before
+  public void createVertx() {
+    vertx = Vertx.vertx();
+  }
+
+  @After
+  public void closeVertx() {
+    vertx.close();
+  }
+
+  @Test
+  public void resourceIsOnlyCreatedOnce() {
+    AtomicInteger created = new AtomicInteger();
+
+    EntityTagCache first = SharedResources.getOrCreate(vertx, "cache", () -> {
+      created.incrementAndGet();
+      return new EntityTagCache(10, 10);
+    });
+
+    EntityTagCache second = SharedResources.getOrCreate(vertx, "cache", () -> {
+      created.incrementAndGet();
+      return new EntityTagCache(10, 10);
+    });
+
+    assertThat(second == first, is(true));
+    assertThat(created.get(), is(1));
+  }
+
+  @Test
+  public void onlyFirstClaimSucceeds() {
+    assertThat(SharedResources.claim(vertx, "logging"), is(true));
+    assertThat(SharedResources.claim(vertx, "logging"), is(false));
+    assertThat(SharedResources.claim(vertx, "reporting"), is(true));
+  }
+}
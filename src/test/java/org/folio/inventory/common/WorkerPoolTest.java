@@ -0,0 +1,107 @@
+package org.folio.inventory.common;
+
+import static org.hamcrest.CoreMatchers.is;
+import static org.junit.Assert.assertThat;
+import static org.junit.Assert.fail;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import io.vertx.core.Vertx;
+import io.vertx.core.json.JsonObject;
+
+public class WorkerPoolTest {
+  private Vertx vertx;
+
+  @Before
+  public void createVertx() {
+    vertx = Vertx.vertx();
+  }
+
+  @After
+  public void closeVertx() {
+    vertx.close();
+  }
+
+  @Test
+  public void tasksBeyondQueueLimitAreRejected() throws Exception {
+    WorkerPool pool = new WorkerPool(vertx, "test", 1, 1);
+
+    CountDownLatch running = new CountDownLatch(1);
+    CountDownLatch release = new CountDownLatch(1);
+    CountDownLatch finished = new CountDownLatch(2);
+
+    pool.execute(() -> {
+      running.countDown();
+      await(release);
+      finished.countDown();
+    });
+
+    running.await(5, TimeUnit.SECONDS);
+
+    //Waits for the only thread
+    pool.execute(finished::countDown);
+
+    assertThat(pool.hasCapacity(), is(false));
+
+    try {
+      pool.execute(() -> { });
+      fail("Task should be rejected");
+    }
+    catch(RejectedExecutionException e) {
+      //Expected
+    }
+
+    release.countDown();
+
+    assertThat(finished.await(5, TimeUnit.SECONDS), is(true));
+
+    JsonObject statistics = pool.toJson();
+
+    assertThat(statistics.getLong("queued"), is(0L));
+    assertThat(statistics.getLong("peakQueued"), is(1L));
+    assertThat(statistics.getLong("rejected"), is(1L));
+  }
+
+  @Test
+  public void rejectedBlockingCodeFailsResult() throws Exception {
+    WorkerPool pool = new WorkerPool(vertx, "test", 1, 0);
+
+    CountDownLatch failed = new CountDownLatch(1);
+
+    pool.<Void>executeBlocking(future -> future.complete(), result -> {
+      if(result.failed() && result.cause() instanceof RejectedExecutionException) {
+        failed.countDown();
+      }
+    });
+
+    assertThat(failed.await(5, TimeUnit.SECONDS), is(true));
+  }
+
+  @Test
+  public void poolsAreSizedFromConfiguration() {
+    WorkerPool pool = WorkerPool.shared(vertx, new JsonObject()
+        .put("worker-pool.parse.size", 3)
+        .put("worker-pool.parse.queue-limit", "7"),
+      WorkerPool.PARSE);
+
+    assertThat(pool.toJson().getInteger("size"), is(3));
+    assertThat(pool.toJson().getInteger("queueLimit"), is(7));
+    assertThat(WorkerPool.shared(vertx, new JsonObject(), WorkerPool.PARSE) == pool,
+      is(true));
+  }
+
+  private static void await(CountDownLatch latch) {
+    try {
+      latch.await(5, TimeUnit.SECONDS);
+    }
+    catch(InterruptedException e) {
+      Thread.currentThread().interrupt();
+    }
+  }
+}
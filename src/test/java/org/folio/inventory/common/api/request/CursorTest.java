@@ -0,0 +1,68 @@
+package org.folio.inventory.common.api.request;
+
+import static org.hamcrest.CoreMatchers.is;
+import static org.hamcrest.CoreMatchers.not;
+import static org.hamcrest.CoreMatchers.nullValue;
+import static org.junit.Assert.assertThat;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+import org.junit.Test;
+
+public class CursorTest {
+  @Test
+  public void firstCursorStartsFromTheBeginning() {
+    Cursor cursor = Cursor.decode("*");
+
+    assertThat(cursor.isFirst(), is(true));
+    assertThat(cursor.getLastSeenId(), is(nullValue()));
+    assertThat(cursor.encode(), is("*"));
+  }
+
+  @Test
+  public void encodedCursorIsOpaqueAndCanBeDecoded() {
+    String id = "7fbd5d84-62d1-44c6-9c45-6cb173998bbd";
+
+    String encoded = Cursor.after(id).encode();
+
+    assertThat(encoded.contains(id), is(false));
+    assertThat(Cursor.decode(encoded).getLastSeenId(), is(id));
+  }
+
+  @Test
+  public void cursorWhichIsNotAnIdIsInvalid() {
+    assertThat(Cursor.decode("not base64!"), is(nullValue()));
+    assertThat(Cursor.decode(Cursor.after("\" or id=*").encode()), is(nullValue()));
+    assertThat(Cursor.decode(""), is(nullValue()));
+  }
+
+  @Test
+  public void nextCursorIsAfterLastRecordOfFullPage() {
+    PagingParameters paging = new PagingParameters(2, 0, Cursor.first());
+
+    String nextCursor = paging.nextCursor(Arrays.asList("a", "b"), id -> id);
+
+    assertThat(nextCursor, is(not(nullValue())));
+    assertThat(Cursor.decode(nextCursor).getLastSeenId(), is("b"));
+  }
+
+  @Test
+  public void noNextCursorAfterLastPage() {
+    PagingParameters paging = new PagingParameters(2, 0, Cursor.first());
+
+    assertThat(paging.nextCursor(Collections.singletonList("a"), id -> id),
+      is(nullValue()));
+    assertThat(paging.nextCursor(Collections.<String>emptyList(), id -> id),
+      is(nullValue()));
+  }
+
+  @Test
+  public void noNextCursorWhenPagingByOffset() {
+    List<String> fullPage = Arrays.asList("a", "b");
+
+    assertThat(new PagingParameters(2, 0).nextCursor(fullPage, id -> id),
+      is(nullValue()));
+  }
+}
@@ -0,0 +1,72 @@
+package org.folio.inventory.common.api.request;
+
+import static org.hamcrest.CoreMatchers.is;
+import static org.hamcrest.CoreMatchers.nullValue;
+import static org.junit.Assert.assertThat;
+
+import java.util.Arrays;
+import java.util.List;
+
+import org.junit.Test;
+
+import io.vertx.core.json.JsonObject;
+
+public class ProjectionTest {
+  private static final List<String> EXPANDABLE = Arrays.asList(
+    "materialType", "permanentLocation");
+
+  @Test
+  public void everythingIsIncludedAndExpandedByDefault() {
+    Projection projection = Projection.of(null, null);
+
+    assertThat(projection.includes("barcode"), is(true));
+    assertThat(projection.expands("materialType"), is(true));
+
+    JsonObject record = new JsonObject().put("id", "1").put("barcode", "6543");
+
+    assertThat(projection.project(record), is(record));
+  }
+
+  @Test
+  public void onlyChosenFieldsAndIdAreIncluded() {
+    Projection projection = Projection.of("barcode, materialType", null);
+
+    JsonObject projected = projection.project(new JsonObject()
+      .put("id", "1")
+      .put("barcode", "6543")
+      .put("title", "Nod")
+      .put("materialType", new JsonObject().put("id", "2")));
+
+    assertThat(projected.fieldNames().size(), is(3));
+    assertThat(projected.getString("id"), is("1"));
+    assertThat(projected.getString("barcode"), is("6543"));
+    assertThat(projected.containsKey("title"), is(false));
+  }
+
+  @Test
+  public void onlyChosenFieldsAreExpanded() {
+    Projection projection = Projection.of("barcode,materialType", null);
+
+    assertThat(projection.expands("materialType"), is(true));
+    assertThat(projection.expands("permanentLocation"), is(false));
+    assertThat(projection.expandsAny("permanentLocation", "materialType"), is(true));
+  }
+
+  @Test
+  public void emptyExpandResolvesNothing() {
+    Projection projection = Projection.of(null, "");
+
+    assertThat(projection.includes("materialType"), is(true));
+    assertThat(projection.expands("materialType"), is(false));
+    assertThat(Projection.invalidReason("", EXPANDABLE), is(nullValue()));
+  }
+
+  @Test
+  public void onlyExpandablePropertiesCanBeExpanded() {
+    assertThat(Projection.invalidReason("materialType", EXPANDABLE),
+      is(nullValue()));
+
+    assertThat(Projection.invalidReason("materialType,barcode", EXPANDABLE),
+      is("expand must be one or more of: materialType, permanentLocation"));
+  }
+}
@@ -0,0 +1,117 @@
+package org.folio.inventory.common.metrics;
+
+import static org.hamcrest.CoreMatchers.is;
+import static org.junit.Assert.assertThat;
+
+import java.util.Collections;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.Test;
+
+public class LatencyHistogramTest {
+  @Test
+  public void percentilesAreWithinBucketPrecision() {
+    LatencyHistogram histogram = new LatencyHistogram();
+
+    for (int millisecond = 1; millisecond <= 1000; millisecond++) {
+      histogram.record(TimeUnit.MILLISECONDS.toNanos(millisecond));
+    }
+
+    assertThat(histogram.getCount(), is(1000L));
+    assertThat(withinPrecision(histogram.percentileMicroseconds(50), 500_000), is(true));
+    assertThat(withinPrecision(histogram.percentileMicroseconds(99), 990_000), is(true));
+    assertThat(withinPrecision(histogram.percentileMicroseconds(100), 1_000_000), is(true));
+  }
+
+  @Test
+  public void latenciesAreNeverUnderReported() {
+    for (long microseconds = 0; microseconds < 5000; microseconds += 7) {
+      LatencyHistogram histogram = new LatencyHistogram();
+
+      histogram.record(TimeUnit.MICROSECONDS.toNanos(microseconds));
+
+      long reported = histogram.percentileMicroseconds(50);
+
+      assertThat(reported >= microseconds
+        && reported - microseconds <= microseconds / 16, is(true));
+    }
+  }
+
+  @Test
+  public void seriesBeyondLimitAreRecordedAsOther() {
+    LatencyHistograms histograms = new LatencyHistograms(
+      "test_duration_seconds", "Test", 2, "route");
+
+    histograms.record(1000, "/a");
+    histograms.record(1000, "/b");
+    histograms.record(1000, "/c");
+    histograms.record(1000, "/a");
+
+    assertThat(histograms.getSeries().size(), is(3));
+    assertThat(histograms.getSeries().containsKey(
+      Collections.singletonList(LatencyHistograms.OTHER)), is(true));
+  }
+
+  @Test
+  public void recordIdsAreReplacedInRoutes() {
+    assertThat(InventoryMetrics.routeOf(
+      "/inventory/items/4d6ad6e4-0f9b-4c33-9b4c-3e1b1b6c8a54"),
+      is("/inventory/items/:id"));
+
+    assertThat(InventoryMetrics.routeOf("/inventory/items"),
+      is("/inventory/items"));
+
+    assertThat(InventoryMetrics.routeOf("/inventory/ingest/mods/status/"
+        + "4d6ad6e4-0f9b-4c33-9b4c-3e1b1b6c8a54"),
+      is("/inventory/ingest/mods/status/:id"));
+  }
+
+  @Test
+  public void histogramsAreWrittenInPrometheusFormat() {
+    LatencyHistograms histograms = new LatencyHistograms(
+      "test_duration_seconds", "Time taken", "route");
+
+    histograms.record(TimeUnit.MILLISECONDS.toNanos(5), "/inventory/\"items\"");
+
+    String text = new PrometheusText().histogram(histograms).toString();
+
+    assertThat(text.startsWith("# HELP test_duration_seconds Time taken\n"
+      + "# TYPE test_duration_seconds histogram\n"), is(true));
+
+    assertThat(text.contains(
+      "test_duration_seconds_bucket{route=\"/inventory/\\\"items\\\"\",le=\"0.0025\"} 0\n"),
+      is(true));
+
+    assertThat(text.contains(
+      "test_duration_seconds_bucket{route=\"/inventory/\\\"items\\\"\",le=\"0.01\"} 1\n"),
+      is(true));
+
+    assertThat(text.contains(
+      "test_duration_seconds_bucket{route=\"/inventory/\\\"items\\\"\",le=\"+Inf\"} 1\n"),
+      is(true));
+
+    assertThat(text.contains(
+      "test_duration_seconds_sum{route=\"/inventory/\\\"items\\\"\"} 0.005\n"), is(true));
+
+    assertThat(text.contains(
+      "test_duration_seconds_count{route=\"/inventory/\\\"items\\\"\"} 1\n"), is(true));
+  }
+
+  @Test
+  public void countsLatenciesInBucketsNoGreaterThanLatency() {
+    LatencyHistogram histogram = new LatencyHistogram();
+
+    histogram.record(TimeUnit.MICROSECONDS.toNanos(10));
+    histogram.record(TimeUnit.MILLISECONDS.toNanos(5));
+    histogram.record(TimeUnit.SECONDS.toNanos(2));
+
+    assertThat(histogram.countAtMost(9), is(0L));
+    assertThat(histogram.countAtMost(10), is(1L));
+    assertThat(histogram.countAtMost(10_000), is(2L));
+    assertThat(histogram.countAtMost(10_000_000), is(3L));
+  }
+
+  private static boolean withinPrecision(long actual, long expected) {
+    return Math.abs(actual - expected) <= expected / 16;
+  }
+}
@@ -0,0 +1,56 @@
+package org.folio.inventory.common.metrics;
+
+import static org.hamcrest.CoreMatchers.is;
+import static org.junit.Assert.assertThat;
+
+import java.util.concurrent.CompletableFuture;
+
+import org.junit.Test;
+
+public class PhaseTimingsTest {
+  @Test
+  public void endedPhasesAreIncludedInOrderBegun() {
+    PhaseTimings timings = new PhaseTimings();
+
+    PhaseTimings.Phase query = timings.begin(PhaseTimings.QUERY);
+    PhaseTimings.Phase holdings = timings.begin("holdings");
+
+    holdings.end();
+    query.end();
+
+    assertThat(timings.toServerTiming().matches(
+      "query;dur=\\d+\\.\\d{2}, holdings;dur=\\d+\\.\\d{2}"), is(true));
+  }
+
+  @Test
+  public void phasesWhichHaveNotEndedAreExcluded() {
+    PhaseTimings timings = new PhaseTimings();
+
+    timings.begin(PhaseTimings.QUERY);
+
+    CompletableFuture<String> fetched = new CompletableFuture<>();
+
+    timings.time("holdings", () -> fetched);
+
+    assertThat(timings.toServerTiming(), is(""));
+
+    fetched.complete("done");
+
+    assertThat(timings.toServerTiming().startsWith("holdings;dur="), is(true));
+  }
+
+  @Test
+  public void phaseIsOnlyTimedUntilFirstEnd() throws InterruptedException {
+    PhaseTimings timings = new PhaseTimings();
+
+    PhaseTimings.Phase phase = timings.begin(PhaseTimings.SERIALIZATION);
+
+    phase.end();
+    String first = timings.toServerTiming();
+
+    Thread.sleep(5);
+    phase.end();
+
+    assertThat(timings.toServerTiming(), is(first));
+  }
+}
@@ -0,0 +1,46 @@
+package org.folio.inventory.domain.ingest;
+
+import static org.hamcrest.CoreMatchers.is;
+import static org.hamcrest.CoreMatchers.not;
+import static org.junit.Assert.assertThat;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Map;
+
+import org.junit.Test;
+
+import io.vertx.core.json.JsonObject;
+
+public class IngestRecordTest {
+  @Test
+  public void recordsWithSameTitleAreKeptSeparate() {
+    Map<String, IngestRecord> indexed = IngestRecord.index(Arrays.asList(
+      new JsonObject().put("title", "Grammaire").put("correlationKey", "0"),
+      new JsonObject().put("title", "Grammaire").put("correlationKey", "1")));
+
+    assertThat(indexed.size(), is(2));
+    assertThat(indexed.get("0").instanceId, is(not(indexed.get("1").instanceId)));
+    assertThat(indexed.get("0").holdingId, is(not(indexed.get("1").holdingId)));
+  }
+
+  @Test
+  public void recordsWithoutKeyAreKeyedByPosition() {
+    Map<String, IngestRecord> indexed = IngestRecord.index(Arrays.asList(
+      new JsonObject().put("title", "Angry Planet"),
+      new JsonObject().put("title", "Pavle Nik")));
+
+    assertThat(new ArrayList<>(indexed.keySet()), is(Arrays.asList("0", "1")));
+    assertThat(indexed.get("1").source.getString("title"), is("Pavle Nik"));
+  }
+
+  @Test
+  public void firstRecordIsKeptForDuplicateKeys() {
+    Map<String, IngestRecord> indexed = IngestRecord.index(Arrays.asList(
+      new JsonObject().put("title", "First").put("correlationKey", "5"),
+      new JsonObject().put("title", "Second").put("correlationKey", "5")));
+
+    assertThat(indexed.size(), is(1));
+    assertThat(indexed.get("5").source.getString("title"), is("First"));
+  }
+}
@@ -0,0 +1,106 @@
+package org.folio.inventory.domain.instances;
+
+import static org.hamcrest.CoreMatchers.is;
+import static org.hamcrest.CoreMatchers.notNullValue;
+import static org.junit.Assert.assertThat;
+
+import java.util.Arrays;
+import java.util.Collections;
+
+import org.junit.Test;
+
+public class InstanceRelationshipChangesTest {
+  private static final String SERIES = "series";
+  private static final String PARENT = "parent";
+  private static final String CHILD = "child";
+  private static final String OTHER_CHILD = "other-child";
+  private static final String UNRELATED = "unrelated";
+
+  @Test
+  public void unchangedRelationshipsAreLeftAlone() {
+    InstanceRelationship stored = relationship("1", PARENT, CHILD, SERIES);
+
+    InstanceRelationshipChanges changes = InstanceRelationshipChanges.between(
+      Arrays.asList(PARENT, CHILD),
+      Collections.singletonList(stored),
+      Arrays.asList(stored, relationship(null, PARENT, CHILD, SERIES)));
+
+    assertThat(changes.isEmpty(), is(true));
+  }
+
+  @Test
+  public void relationshipRequestedByBothInstancesIsCreatedOnce() {
+    InstanceRelationshipChanges changes = InstanceRelationshipChanges.between(
+      Arrays.asList(PARENT, CHILD),
+      Collections.emptyList(),
+      Arrays.asList(
+        relationship(null, PARENT, CHILD, SERIES),
+        relationship(null, PARENT, CHILD, SERIES)));
+
+    assertThat(changes.toCreate.size(), is(1));
+    assertThat(changes.toCreate.get(0).id, is(notNullValue()));
+    assertThat(changes.toCreate.get(0).superInstanceId, is(PARENT));
+    assertThat(changes.toCreate.get(0).subInstanceId, is(CHILD));
+    assertThat(changes.toUpdate.isEmpty(), is(true));
+    assertThat(changes.toDelete.isEmpty(), is(true));
+  }
+
+  @Test
+  public void relationshipWithIdIsPreferredToOneWithout() {
+    InstanceRelationship requested = relationship("2", PARENT, CHILD, SERIES);
+
+    InstanceRelationshipChanges changes = InstanceRelationshipChanges.between(
+      Arrays.asList(PARENT, CHILD),
+      Collections.emptyList(),
+      Arrays.asList(relationship(null, PARENT, CHILD, SERIES), requested));
+
+    assertThat(changes.toCreate, is(Collections.singletonList(requested)));
+  }
+
+  @Test
+  public void changedRelationshipIsUpdated() {
+    InstanceRelationship changed = relationship("1", PARENT, OTHER_CHILD, SERIES);
+
+    InstanceRelationshipChanges changes = InstanceRelationshipChanges.between(
+      Arrays.asList(PARENT),
+      Collections.singletonList(relationship("1", PARENT, CHILD, SERIES)),
+      Collections.singletonList(changed));
+
+    assertThat(changes.toUpdate, is(Collections.singletonList(changed)));
+    assertThat(changes.toCreate.isEmpty(), is(true));
+    assertThat(changes.toDelete.isEmpty(), is(true));
+  }
+
+  @Test
+  public void relationshipsNoLongerRequestedAreDeleted() {
+    InstanceRelationship kept = relationship("1", PARENT, CHILD, SERIES);
+    InstanceRelationship removed = relationship("2", PARENT, OTHER_CHILD, SERIES);
+
+    InstanceRelationshipChanges changes = InstanceRelationshipChanges.between(
+      Arrays.asList(PARENT),
+      Arrays.asList(kept, removed),
+      Collections.singletonList(relationship(null, PARENT, CHILD, SERIES)));
+
+    assertThat(changes.toDelete, is(Collections.singletonList(removed)));
+    assertThat(changes.toCreate.isEmpty(), is(true));
+  }
+
+  @Test
+  public void relationshipsOfOtherInstancesAreIgnored() {
+    InstanceRelationshipChanges changes = InstanceRelationshipChanges.between(
+      Arrays.asList(PARENT),
+      Collections.singletonList(relationship("1", UNRELATED, CHILD, SERIES)),
+      Collections.emptyList());
+
+    assertThat(changes.isEmpty(), is(true));
+  }
+
+  private static InstanceRelationship relationship(
+    String id,
+    String superInstanceId,
+    String subInstanceId,
+    String typeId) {
+
+    return new InstanceRelationship(id, superInstanceId, subInstanceId, typeId);
+  }
+}
@@ -10,8 +10,10 @@ import org.xml.sax.SAXException;
 import javax.xml.parsers.ParserConfigurationException;
 import javax.xml.xpath.XPathExpressionException;
 import java.io.IOException;
+import java.io.InputStream;
 import java.io.InputStreamReader;
 import java.io.Reader;
+import java.util.ArrayList;
 import java.util.List;
 import java.util.regex.Pattern;
 
@@ -190,6 +192,37 @@ public class ModsParsingExamples {
     assertThat(secondRecordIdentifiers.get(0).getString("value"), is("no-type"));
   }
 
+  @Test
+  public void recordsCanBeParsedFromStream() throws IOException {
+    List<JsonObject> records = new ArrayList<>();
+
+    int parsedCount;
+
+    try (final InputStream modsXml = this.getClass()
+      .getResourceAsStream("/mods/multiple-example-mods-records.xml")) {
+
+      parsedCount = new ModsParser(new UTF8LiteralCharacterEncoding())
+        .parseRecords(modsXml, records::add);
+    }
+
+    assertThat(parsedCount, is(9));
+    assertThat(records.size(), is(9));
+
+    JsonObject california = getRecord(records,
+      "California: its gold and its inhabitants", "69228882");
+
+    assertThat(california, notNullValue());
+    assertThat(hasIdentifier(california, "UkMaC", "69228882"), is(true));
+    assertThat(california.getJsonArray("contributors").getJsonObject(0)
+      .getString("name"), is("Huntley, Henry Veel"));
+  }
+
+  @Test(expected = IOException.class)
+  public void malformedRecordsCannotBeParsed() throws IOException {
+    new ModsParser(new UTF8LiteralCharacterEncoding())
+      .parseRecords("<mods_records><mods><titleInfo></mods></mods_records>");
+  }
+
   private static JsonObject getRecord(
     List<JsonObject> records,
     String title,
@@ -0,0 +1,44 @@
+package org.folio.inventory.resources.ingest;
+
+import static org.hamcrest.CoreMatchers.is;
+import static org.junit.Assert.assertThat;
+
+import org.junit.Test;
+
+public class IngestJobTest {
+  @Test
+  public void inProgressUntilTotalNumberOfChunksIsKnown() {
+    IngestJob job = new IngestJob("job", IngestJobState.REQUESTED)
+      .chunkProcessed(100, null, 100, 100, 100, 0)
+      .chunkProcessed(100, null, 100, 100, 100, 0);
+
+    assertThat(job.state, is(IngestJobState.IN_PROGRESS));
+    assertThat(job.chunksProcessed, is(2));
+    assertThat(job.recordsProcessed, is(200L));
+  }
+
+  @Test
+  public void completedWhenAllChunksHaveBeenProcessed() {
+    //Last chunk (which includes the total) may be processed before others
+    IngestJob job = new IngestJob("job", IngestJobState.REQUESTED)
+      .chunkProcessed(20, 3, 20, 20, 20, 0);
+
+    assertThat(job.state, is(IngestJobState.IN_PROGRESS));
+
+    job = job.chunkProcessed(100, null, 100, 100, 100, 0).chunkProcessed(100, null, 100, 100, 100, 0);
+
+    assertThat(job.state, is(IngestJobState.COMPLETED));
+    assertThat(job.totalChunks, is(3));
+    assertThat(job.recordsProcessed, is(220L));
+  }
+
+  @Test
+  public void remainsFailedWhenLaterChunksAreProcessed() {
+    IngestJob job = new IngestJob("job", IngestJobState.IN_PROGRESS)
+      .fail()
+      .chunkProcessed(100, 1, 100, 100, 100, 0);
+
+    assertThat(job.state, is(IngestJobState.FAILED));
+    assertThat(job.recordsProcessed, is(100L));
+  }
+}
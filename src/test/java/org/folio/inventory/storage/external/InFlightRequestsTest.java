@@ -0,0 +1,97 @@
+package org.folio.inventory.storage.external;
+
+import static org.hamcrest.CoreMatchers.is;
+import static org.junit.Assert.assertThat;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.Test;
+
+public class InFlightRequestsTest {
+  private final AtomicInteger requestsMade = new AtomicInteger();
+  private final CompletableFuture<String> response = new CompletableFuture<>();
+
+  @Test
+  public void identicalRequestsInProgressAreMadeOnce()
+    throws ExecutionException, InterruptedException {
+
+    InFlightRequests<String> requests = new InFlightRequests<>();
+
+    CompletableFuture<String> first = requests.execute("diku /items/1", this::request);
+    CompletableFuture<String> second = requests.execute("diku /items/1", this::request);
+
+    response.complete("item");
+
+    assertThat(requestsMade.get(), is(1));
+    assertThat(first.get(), is("item"));
+    assertThat(second.get(), is("item"));
+    assertThat(requests.size(), is(0));
+  }
+
+  @Test
+  public void differentRequestsAreMadeSeparately() {
+    InFlightRequests<String> requests = new InFlightRequests<>();
+
+    requests.execute("diku /items/1", this::request);
+    requests.execute("diku /items/2", this::request);
+    requests.execute("other /items/1", this::request);
+
+    assertThat(requestsMade.get(), is(3));
+  }
+
+  @Test
+  public void requestsByDifferentUsersAreMadeSeparately() {
+    InFlightRequests<String> requests = new InFlightRequests<>();
+
+    requests.execute(InFlightRequests.keyFor("diku", "token-1", "/items/1"), this::request);
+    requests.execute(InFlightRequests.keyFor("diku", "token-2", "/items/1"), this::request);
+    requests.execute(InFlightRequests.keyFor("diku", "token-1", "/items/1"), this::request);
+
+    assertThat(requestsMade.get(), is(2));
+  }
+
+  @Test
+  public void requestIsMadeAgainOnceCompleted() {
+    InFlightRequests<String> requests = new InFlightRequests<>();
+
+    requests.execute("diku /items/1", this::request);
+
+    response.complete("item");
+
+    requests.execute("diku /items/1", this::request);
+
+    assertThat(requestsMade.get(), is(2));
+  }
+
+  @Test
+  public void failureIsSharedWithAllCallers() {
+    InFlightRequests<String> requests = new InFlightRequests<>();
+
+    CompletableFuture<String> first = requests.execute("diku /items/1", this::request);
+    CompletableFuture<String> second = requests.execute("diku /items/1", this::request);
+
+    response.completeExceptionally(new IllegalStateException("Connection refused"));
+
+    assertThat(first.isCompletedExceptionally(), is(true));
+    assertThat(second.isCompletedExceptionally(), is(true));
+    assertThat(requests.size(), is(0));
+  }
+
+  @Test
+  public void requestInProgressForTooLongIsNotShared() {
+    InFlightRequests<String> requests = new InFlightRequests<>(-1);
+
+    requests.execute("diku /items/1", this::request);
+    requests.execute("diku /items/1", this::request);
+
+    assertThat(requestsMade.get(), is(2));
+  }
+
+  private CompletableFuture<String> request() {
+    requestsMade.incrementAndGet();
+
+    return response;
+  }
+}
@@ -0,0 +1,42 @@
+package org.folio.inventory.storage.external;
+
+import static org.hamcrest.CoreMatchers.is;
+import static org.hamcrest.CoreMatchers.nullValue;
+import static org.hamcrest.CoreMatchers.sameInstance;
+import static org.junit.Assert.assertThat;
+
+import org.folio.inventory.support.http.client.Response;
+import org.junit.Test;
+
+public class ReferenceDataCacheTest {
+  private static final String LOCATIONS = "http://localhost:9130/locations";
+  private static final String LOAN_TYPES = "http://localhost:9130/loan-types";
+
+  private final ReferenceDataCache cache = new ReferenceDataCache(100, 60);
+
+  @Test
+  public void cachedRecordIsOnlyVisibleToSameTenant() {
+    Response location = response("{\"id\":\"1\"}");
+
+    cache.put("tenant_a", LOCATIONS, "1", location);
+
+    assertThat(cache.get("tenant_a", LOCATIONS, "1"), is(sameInstance(location)));
+    assertThat(cache.get("tenant_b", LOCATIONS, "1"), is(nullValue()));
+    assertThat(cache.get("tenant_a", LOAN_TYPES, "1"), is(nullValue()));
+  }
+
+  @Test
+  public void sizeIsBounded() {
+    ReferenceDataCache smallCache = new ReferenceDataCache(2, 60);
+
+    smallCache.put("tenant_a", LOCATIONS, "1", response("{\"id\":\"1\"}"));
+    smallCache.put("tenant_a", LOCATIONS, "2", response("{\"id\":\"2\"}"));
+    smallCache.put("tenant_a", LOCATIONS, "3", response("{\"id\":\"3\"}"));
+
+    assertThat(smallCache.size(), is(2L));
+  }
+
+  private static Response response(String body) {
+    return new Response(200, body, "application/json", null);
+  }
+}
@@ -0,0 +1,69 @@
+package org.folio.inventory.storage.external;
+
+import static org.hamcrest.CoreMatchers.is;
+import static org.hamcrest.CoreMatchers.nullValue;
+import static org.junit.Assert.assertThat;
+
+import java.io.IOException;
+import java.util.Arrays;
+
+import org.junit.Test;
+
+import io.vertx.core.buffer.Buffer;
+import io.vertx.core.json.JsonArray;
+import io.vertx.core.json.JsonObject;
+
+public class StorageResponseParserTest {
+  @Test
+  public void recordsAreMappedFromWrappedCollection() throws IOException {
+    Buffer body = new JsonObject()
+      .put("items", new JsonArray()
+        .add(new JsonObject().put("id", "1")
+          .put("notes", new JsonArray().add("a note")))
+        .add(new JsonObject().put("id", "2")))
+      .put("totalRecords", 5)
+      .toBuffer();
+
+    StorageResponseParser.WrappedRecords<String> parsed = StorageResponseParser
+      .parseWrappedRecords(body, "items", record -> record.getString("id"));
+
+    assertThat(parsed.records, is(Arrays.asList("1", "2")));
+    assertThat(parsed.totalRecords, is(5));
+  }
+
+  @Test
+  public void otherPropertiesAndNonObjectRecordsAreSkipped() throws IOException {
+    Buffer body = Buffer.buffer(
+      "{\"resultInfo\":{\"facets\":[{\"x\":1}]},\"items\":[null,{\"id\":\"1\"},3]}");
+
+    StorageResponseParser.WrappedRecords<String> parsed = StorageResponseParser
+      .parseWrappedRecords(body, "items", record -> record.getString("id"));
+
+    assertThat(parsed.records, is(Arrays.asList("1")));
+    assertThat(parsed.totalRecords, is(nullValue()));
+  }
+
+  @Test
+  public void singleRecordIsParsed() throws IOException {
+    JsonObject parsed = StorageResponseParser.parseObject(
+      Buffer.buffer("{\"title\":\"Nöd\",\"tags\":{\"tagList\":[\"x\"]}}"));
+
+    assertThat(parsed.getString("title"), is("Nöd"));
+    assertThat(parsed.getJsonObject("tags").getJsonArray("tagList").getString(0),
+      is("x"));
+  }
+
+  @Test
+  public void requestIsEncodedCompactly() throws IOException {
+    Buffer encoded = StorageResponseParser.encode(
+      new JsonObject().put("id", "1").put("tags", new JsonArray().add("x")));
+
+    assertThat(encoded.toString(), is("{\"id\":\"1\",\"tags\":[\"x\"]}"));
+  }
+
+  @Test(expected = IOException.class)
+  public void invalidJsonIsReported() throws IOException {
+    StorageResponseParser.parseWrappedRecords(Buffer.buffer("[]"), "items",
+      record -> record);
+  }
+}
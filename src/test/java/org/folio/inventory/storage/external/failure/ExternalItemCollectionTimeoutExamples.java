@@ -0,0 +1,65 @@
+package org.folio.inventory.storage.external.failure;
+
+import static org.hamcrest.CoreMatchers.is;
+import static org.junit.Assert.assertThat;
+import static org.junit.Assert.fail;
+
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+import org.folio.inventory.common.api.request.PagingParameters;
+import org.folio.inventory.common.domain.Failure;
+import org.folio.inventory.domain.items.ItemCollection;
+import org.folio.inventory.storage.external.ExternalStorageCollections;
+import org.folio.inventory.support.http.client.StorageReadPolicy;
+import org.junit.Test;
+
+import io.vertx.core.http.HttpClient;
+import io.vertx.core.json.JsonObject;
+
+public class ExternalItemCollectionTimeoutExamples {
+  private final ItemCollection collection = ExternalStorageFailureSuite.createUsing(
+    vertx -> {
+      HttpClient client = vertx.createHttpClient();
+
+      StorageReadPolicy.attach(client, vertx, new JsonObject()
+        .put(StorageReadPolicy.RETRY_DEADLINE_MILLISECONDS, 200));
+
+      return new ExternalStorageCollections(vertx,
+        ExternalStorageFailureSuite.getNoResponseStorageAddress(), client)
+        .getItemCollection("test_tenant", "");
+    });
+
+  @Test
+  public void readPastDeadlineWhenGettingAnItemByIdFailsWithGatewayTimeout()
+    throws InterruptedException, ExecutionException, TimeoutException {
+
+    CompletableFuture<Failure> failureCalled = new CompletableFuture<>();
+
+    collection.findById(UUID.randomUUID().toString(),
+      success -> fail("Completion callback should not be called"),
+      failureCalled::complete);
+
+    Failure failure = failureCalled.get(2000, TimeUnit.MILLISECONDS);
+
+    assertThat(failure.getStatusCode(), is(504));
+  }
+
+  @Test
+  public void readPastDeadlineWhenGettingAllItemsFailsWithGatewayTimeout()
+    throws InterruptedException, ExecutionException, TimeoutException {
+
+    CompletableFuture<Failure> failureCalled = new CompletableFuture<>();
+
+    collection.findAll(PagingParameters.defaults(),
+      success -> fail("Completion callback should not be called"),
+      failureCalled::complete);
+
+    Failure failure = failureCalled.get(2000, TimeUnit.MILLISECONDS);
+
+    assertThat(failure.getStatusCode(), is(504));
+  }
+}
@@ -21,6 +21,7 @@ import java.util.function.Function;
   ExternalItemCollectionBadRequestExamples.class,
   ExternalInstanceCollectionServerErrorExamples.class,
   ExternalInstanceCollectionBadRequestExamples.class,
+  ExternalItemCollectionTimeoutExamples.class,
 })
 public class ExternalStorageFailureSuite {
   private static final VertxAssistant vertxAssistant = new VertxAssistant();
@@ -38,6 +39,10 @@ public class ExternalStorageFailureSuite {
     return FailureInventoryStorageModule.getBadRequestAddress();
   }
 
+  public static String getNoResponseStorageAddress() {
+    return FailureInventoryStorageModule.getNoResponseAddress();
+  }
+
   @BeforeClass
   public static void beforeAll()
     throws InterruptedException, ExecutionException, TimeoutException {
@@ -23,6 +23,10 @@ public class FailureInventoryStorageModule extends AbstractVerticle {
     return address + "/bad-request";
   }
 
+  public static String getNoResponseAddress() {
+    return address + "/no-response";
+  }
+
   @Override
   public void start(Future deployed) {
     server = vertx.createHttpServer();
@@ -47,6 +51,8 @@ public class FailureInventoryStorageModule extends AbstractVerticle {
     router.route("/server-error/instance-storage/instances/*").handler(this::serverError);
     router.route("/bad-request/item-storage/items/*").handler(this::badRequest);
     router.route("/bad-request/instance-storage/instances/*").handler(this::badRequest);
+    //Never responded to, so that requests time out
+    router.route("/no-response/*").handler(routingContext -> { });
   }
 
   @Override
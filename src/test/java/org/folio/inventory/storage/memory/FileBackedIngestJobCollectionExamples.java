@@ -0,0 +1,91 @@
+package org.folio.inventory.storage.memory;
+
+import org.folio.inventory.common.domain.Success;
+import org.folio.inventory.resources.ingest.IngestJob;
+import org.folio.inventory.resources.ingest.IngestJobState;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+
+import static org.folio.inventory.common.FutureAssistance.*;
+import static org.hamcrest.CoreMatchers.is;
+import static org.junit.Assert.assertThat;
+
+import support.fakes.FakeClock;
+
+public class FileBackedIngestJobCollectionExamples {
+  //Behaves as if the writer's queue is always full
+  private static final Executor FULL_WRITER = task -> {
+    throw new RejectedExecutionException("Queue is full");
+  };
+
+  @Rule
+  public final TemporaryFolder folder = new TemporaryFolder();
+
+  @Test
+  public void finishedJobIsSavedWhenWriterIsFull() throws Exception {
+    Path directory = folder.getRoot().toPath();
+
+    FileBackedIngestJobCollection collection = new FileBackedIngestJobCollection(
+      directory, Duration.ofHours(1), new FakeClock(), FULL_WRITER);
+
+    IngestJob added = add(collection, new IngestJob(IngestJobState.IN_PROGRESS));
+
+    assertThat(Files.exists(directory.resolve(added.id + ".json")), is(false));
+
+    CompletableFuture<IngestJob> completed = new CompletableFuture<>();
+
+    collection.modify(added.id, IngestJob::complete, succeed(completed),
+      fail(completed));
+
+    waitForCompletion(completed);
+
+    FileBackedIngestJobCollection reloaded = new FileBackedIngestJobCollection(
+      directory, Duration.ofHours(1), new FakeClock(), FULL_WRITER);
+
+    CompletableFuture<IngestJob> found = new CompletableFuture<>();
+
+    reloaded.findById(added.id, succeed(found), fail(found));
+
+    assertThat(getOnCompletion(found).state, is(IngestJobState.COMPLETED));
+  }
+
+  @Test
+  public void removedJobIsDeletedWhenWriterIsFull() throws Exception {
+    Path directory = folder.getRoot().toPath();
+
+    FileBackedIngestJobCollection collection = new FileBackedIngestJobCollection(
+      directory, Duration.ofHours(1), new FakeClock(), Runnable::run);
+
+    IngestJob added = add(collection, new IngestJob(IngestJobState.COMPLETED));
+
+    FileBackedIngestJobCollection full = new FileBackedIngestJobCollection(
+      directory, Duration.ofHours(1), new FakeClock(), FULL_WRITER);
+
+    CompletableFuture<Success<Void>> deleted = new CompletableFuture<>();
+
+    full.delete(added.id, complete(deleted), fail(deleted));
+
+    waitForCompletion(deleted);
+
+    assertThat(Files.exists(directory.resolve(added.id + ".json")), is(false));
+  }
+
+  private static IngestJob add(
+    FileBackedIngestJobCollection collection,
+    IngestJob job) throws Exception {
+
+    CompletableFuture<IngestJob> added = new CompletableFuture<>();
+
+    collection.add(job, succeed(added), fail(added));
+
+    return getOnCompletion(added);
+  }
+}
@@ -8,6 +8,7 @@ import org.folio.inventory.resources.ingest.IngestJobState;
 import org.junit.Before;
 import org.junit.Test;
 
+import java.time.Duration;
 import java.util.List;
 import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.ExecutionException;
@@ -16,8 +17,11 @@ import java.util.concurrent.TimeoutException;
 import static org.folio.inventory.common.FutureAssistance.*;
 import static org.hamcrest.CoreMatchers.is;
 import static org.hamcrest.CoreMatchers.notNullValue;
+import static org.hamcrest.CoreMatchers.nullValue;
 import static org.junit.Assert.assertThat;
 
+import support.fakes.FakeClock;
+
 public class InMemoryIngestJobCollectionExamples {
 
   private final InMemoryIngestJobCollection collection = new InMemoryIngestJobCollection();
@@ -140,4 +144,109 @@ public class InMemoryIngestJobCollectionExamples {
     assertThat(allJobs.size(), is(1));
     assertThat(allJobs.stream().findFirst().get().id, is(added.id));
   }
+
+  @Test
+  public void jobCanBeModifiedInPlace()
+    throws InterruptedException, ExecutionException, TimeoutException {
+
+    CompletableFuture<IngestJob> addFuture = new CompletableFuture<>();
+
+    collection.add(new IngestJob(IngestJobState.REQUESTED),
+      succeed(addFuture), fail(addFuture));
+
+    IngestJob added = getOnCompletion(addFuture);
+
+    CompletableFuture<IngestJob> modifyFuture = new CompletableFuture<>();
+
+    collection.modify(added.id, job -> job.chunkProcessed(10, 1, 10, 10, 9, 1),
+      succeed(modifyFuture), fail(modifyFuture));
+
+    IngestJob modified = getOnCompletion(modifyFuture);
+
+    assertThat(modified.state, is(IngestJobState.COMPLETED));
+    assertThat(modified.itemsCreated, is(9L));
+    assertThat(modified.failures, is(1L));
+  }
+
+  @Test
+  public void createdAndChangedTimesAreTakenFromClock()
+    throws InterruptedException, ExecutionException, TimeoutException {
+
+    FakeClock clock = new FakeClock();
+
+    InMemoryIngestJobCollection timedCollection
+      = new InMemoryIngestJobCollection(Duration.ofHours(24), clock);
+
+    CompletableFuture<IngestJob> addFuture = new CompletableFuture<>();
+
+    timedCollection.add(new IngestJob(IngestJobState.REQUESTED),
+      succeed(addFuture), fail(addFuture));
+
+    IngestJob added = getOnCompletion(addFuture);
+
+    assertThat(added.createdAt, is(clock.millis()));
+    assertThat(added.updatedAt, is(clock.millis()));
+
+    clock.advance(5000);
+
+    CompletableFuture<IngestJob> modifyFuture = new CompletableFuture<>();
+
+    timedCollection.modify(added.id, IngestJob::complete,
+      succeed(modifyFuture), fail(modifyFuture));
+
+    IngestJob modified = getOnCompletion(modifyFuture);
+
+    assertThat(modified.createdAt, is(added.createdAt));
+    assertThat(modified.updatedAt, is(added.createdAt + 5000));
+    assertThat(timedCollection.currentTimeMillis(), is(clock.millis()));
+  }
+
+  @Test
+  public void modifyingUnknownJobProvidesNoJob()
+    throws InterruptedException, ExecutionException, TimeoutException {
+
+    CompletableFuture<IngestJob> modifyFuture = new CompletableFuture<>();
+
+    collection.modify("unknown", IngestJob::complete,
+      succeed(modifyFuture), fail(modifyFuture));
+
+    assertThat(getOnCompletion(modifyFuture), is(nullValue()));
+  }
+
+  @Test
+  public void finishedJobsAreRemovedAfterRetentionPeriod()
+    throws InterruptedException, ExecutionException, TimeoutException {
+
+    FakeClock clock = new FakeClock();
+
+    InMemoryIngestJobCollection expiringCollection
+      = new InMemoryIngestJobCollection(Duration.ofHours(24), clock);
+
+    CompletableFuture<IngestJob> finishedFuture = new CompletableFuture<>();
+
+    expiringCollection.add(new IngestJob(IngestJobState.COMPLETED),
+      succeed(finishedFuture), fail(finishedFuture));
+
+    waitForCompletion(finishedFuture);
+
+    CompletableFuture<IngestJob> unfinishedFuture = new CompletableFuture<>();
+
+    expiringCollection.add(new IngestJob(IngestJobState.IN_PROGRESS),
+      succeed(unfinishedFuture), fail(unfinishedFuture));
+
+    IngestJob unfinished = getOnCompletion(unfinishedFuture);
+
+    clock.advance(Duration.ofHours(25).toMillis());
+
+    expiringCollection.removeExpired();
+
+    assertThat(expiringCollection.size(), is(1));
+
+    CompletableFuture<IngestJob> findFuture = new CompletableFuture<>();
+
+    expiringCollection.findById(unfinished.id, succeed(findFuture),
+      fail(findFuture));
+
+    assertThat(getOnCompletion(findFuture).id, is(unfinished.id));
+  }
 }
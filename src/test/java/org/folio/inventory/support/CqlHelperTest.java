@@ -33,6 +33,33 @@ public class CqlHelperTest {
     assertThat(urlDecode(multi("a", "b", "c")), is("id==(a or b or c)"));
   }
 
+  @Test
+  public void barcodeIsAnyOf() {
+    assertThat(CqlHelper.barcodeIsAnyOf(Arrays.asList("abc")),
+      is("barcode==(\"abc\")"));
+    assertThat(CqlHelper.barcodeIsAnyOf(Arrays.asList("abc", "1-*", "\"")),
+      is("barcode==(\"abc\" or \"1-\\*\" or \"\\\"\")"));
+  }
+
+  @Test
+  @Parameters({
+    "title=abc sortBy title | true",
+    "title=abc SORTBY title/sort.descending | true",
+    "(title=abc)sortby id | true",
+    "title=\"sortby\" | false",
+    "title=\"a \\\" sortby b\" | false",
+    "title=unsortbyable | false",
+    "notes=sortby_notes | false",
+  })
+  public void hasSortBy(String cql, boolean sorted) {
+    assertThat(CqlHelper.hasSortBy(cql), is(sorted));
+  }
+
+  @Test
+  public void nullQueryIsNotSorted() {
+    assertThat(CqlHelper.hasSortBy(null), is(false));
+  }
+
   @Test
   @Parameters({
     "    | barcode==\"\"",      // barcode==""
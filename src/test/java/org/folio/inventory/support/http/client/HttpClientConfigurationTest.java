@@ -0,0 +1,63 @@
+package org.folio.inventory.support.http.client;
+
+import static org.hamcrest.CoreMatchers.is;
+import static org.junit.Assert.assertThat;
+
+import org.junit.Test;
+
+import io.vertx.core.http.HttpClientOptions;
+import io.vertx.core.http.HttpVersion;
+import io.vertx.core.json.JsonObject;
+
+public class HttpClientConfigurationTest {
+  @Test
+  public void defaultsAreUsedWhenNotConfigured() {
+    HttpClientOptions options = HttpClientConfiguration.fromConfig(new JsonObject());
+
+    assertThat(options.getMaxPoolSize(), is(20));
+    assertThat(options.isKeepAlive(), is(true));
+    assertThat(options.isPipelining(), is(false));
+    assertThat(options.getProtocolVersion(), is(HttpVersion.HTTP_1_1));
+    assertThat(options.isTryUseCompression(), is(false));
+  }
+
+  @Test
+  public void metricsAreNotLoggedUnlessConfigured() {
+    assertThat(HttpClientConfiguration.metricsLogIntervalSeconds(
+      new JsonObject()), is(0));
+
+    assertThat(HttpClientConfiguration.metricsLogIntervalSeconds(new JsonObject()
+      .put(HttpClientConfiguration.METRICS_LOG_INTERVAL_SECONDS, "60")), is(60));
+  }
+
+  @Test
+  public void valuesCanBeProvidedAsStrings() {
+    HttpClientOptions options = HttpClientConfiguration.fromConfig(new JsonObject()
+      .put(HttpClientConfiguration.MAX_POOL_SIZE, "50")
+      .put(HttpClientConfiguration.IDLE_TIMEOUT_SECONDS, "30")
+      .put(HttpClientConfiguration.KEEP_ALIVE, "false"));
+
+    assertThat(options.getMaxPoolSize(), is(50));
+    assertThat(options.getIdleTimeout(), is(30));
+    assertThat(options.isKeepAlive(), is(false));
+  }
+
+  @Test
+  public void http2CanBeEnabled() {
+    HttpClientOptions options = HttpClientConfiguration.fromConfig(new JsonObject()
+      .put(HttpClientConfiguration.HTTP2, true)
+      .put(HttpClientConfiguration.HTTP2_MULTIPLEXING_LIMIT, 100));
+
+    assertThat(options.getProtocolVersion(), is(HttpVersion.HTTP_2));
+    assertThat(options.isHttp2ClearTextUpgrade(), is(false));
+    assertThat(options.getHttp2MultiplexingLimit(), is(100));
+  }
+
+  @Test
+  public void compressionCanBeRequested() {
+    HttpClientOptions options = HttpClientConfiguration.fromConfig(new JsonObject()
+      .put(HttpClientConfiguration.COMPRESSION, "true"));
+
+    assertThat(options.isTryUseCompression(), is(true));
+  }
+}
@@ -0,0 +1,219 @@
+package org.folio.inventory.support.http.client;
+
+import static org.hamcrest.CoreMatchers.is;
+import static org.junit.Assert.assertThat;
+import static org.junit.Assert.fail;
+
+import java.util.Random;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import io.vertx.core.Vertx;
+import io.vertx.core.json.JsonObject;
+
+public class StorageReadPolicyTest {
+  private static final String LOCATION = "http://storage/item-storage/items?limit=10";
+
+  private Vertx vertx;
+
+  @Before
+  public void createVertx() {
+    vertx = Vertx.vertx();
+  }
+
+  @After
+  public void closeVertx() {
+    vertx.close();
+  }
+
+  @Test
+  public void transientResponsesAreAttemptedAgain() throws Exception {
+    AtomicInteger attempts = new AtomicInteger();
+
+    Integer status = policy(new JsonObject()).read(LOCATION,
+      respondWith(attempts, 503, 502, 200), StorageReadPolicy::isTransient)
+      .get(5, TimeUnit.SECONDS);
+
+    assertThat(status, is(200));
+    assertThat(attempts.get(), is(3));
+  }
+
+  @Test
+  public void lastResponseIsUsedWhenAttemptsRunOut() throws Exception {
+    AtomicInteger attempts = new AtomicInteger();
+
+    Integer status = policy(new JsonObject()
+      .put(StorageReadPolicy.RETRY_MAXIMUM_ATTEMPTS, 2))
+      .read(LOCATION, respondWith(attempts, 503, 504, 200),
+        StorageReadPolicy::isTransient)
+      .get(5, TimeUnit.SECONDS);
+
+    assertThat(status, is(504));
+    assertThat(attempts.get(), is(2));
+  }
+
+  @Test
+  public void otherResponsesAreNotAttemptedAgain() throws Exception {
+    AtomicInteger attempts = new AtomicInteger();
+
+    Integer status = policy(new JsonObject()).read(LOCATION,
+      respondWith(attempts, 404, 200), StorageReadPolicy::isTransient)
+      .get(5, TimeUnit.SECONDS);
+
+    assertThat(status, is(404));
+    assertThat(attempts.get(), is(1));
+  }
+
+  @Test
+  public void failedRequestsAreAttemptedAgain() throws Exception {
+    AtomicInteger attempts = new AtomicInteger();
+
+    Integer status = policy(new JsonObject()).read(LOCATION, () -> {
+        CompletableFuture<Integer> response = new CompletableFuture<>();
+
+        if(attempts.incrementAndGet() == 1) {
+          response.completeExceptionally(new RuntimeException("Connection reset"));
+        }
+        else {
+          response.complete(200);
+        }
+
+        return response;
+      }, StorageReadPolicy::isTransient)
+      .get(5, TimeUnit.SECONDS);
+
+    assertThat(status, is(200));
+    assertThat(attempts.get(), is(2));
+  }
+
+  @Test
+  public void requestsNotSentBecauseOfLimitsAreNotAttemptedAgain()
+    throws Exception {
+
+    AtomicInteger attempts = new AtomicInteger();
+
+    try {
+      policy(new JsonObject()).read(LOCATION, () -> {
+          attempts.incrementAndGet();
+
+          CompletableFuture<Integer> response = new CompletableFuture<>();
+          response.completeExceptionally(new StorageUnavailableException("open"));
+          return response;
+        }, StorageReadPolicy::isTransient)
+        .get(5, TimeUnit.SECONDS);
+
+      fail("Read should fail");
+    }
+    catch(ExecutionException e) {
+      assertThat(e.getCause() instanceof StorageUnavailableException, is(true));
+    }
+
+    assertThat(attempts.get(), is(1));
+  }
+
+  @Test
+  public void readFailsOnceDeadlinePasses() throws Exception {
+    try {
+      policy(new JsonObject()
+        .put(StorageReadPolicy.RETRY_DEADLINE_MILLISECONDS, 100))
+        .read(LOCATION, CompletableFuture::new, StorageReadPolicy::isTransient)
+        .get(5, TimeUnit.SECONDS);
+
+      fail("Read should fail");
+    }
+    catch(ExecutionException e) {
+      assertThat(e.getCause() instanceof TimeoutException, is(true));
+    }
+  }
+
+  @Test
+  public void slowReadIsHedgedAndFirstResponseIsUsed() throws Exception {
+    StorageReadPolicy policy = policy(new JsonObject()
+      .put(StorageReadPolicy.HEDGING_ENABLED, true)
+      .put(StorageReadPolicy.HEDGING_MINIMUM_DELAY_MILLISECONDS, 10));
+
+    //Enough quick reads for the usual latency to be known
+    for (int read = 0; read < 20; read++) {
+      policy.read(LOCATION, () -> CompletableFuture.completedFuture(200),
+        StorageReadPolicy::isTransient).get(5, TimeUnit.SECONDS);
+    }
+
+    AtomicInteger attempts = new AtomicInteger();
+
+    //The first request never responds
+    Integer status = policy.read(LOCATION, () -> attempts.incrementAndGet() == 1
+        ? new CompletableFuture<>()
+        : CompletableFuture.completedFuture(200),
+      StorageReadPolicy::isTransient)
+      .get(5, TimeUnit.SECONDS);
+
+    assertThat(status, is(200));
+    assertThat(attempts.get(), is(2));
+    assertThat(policy.toJson().getLong("hedges"), is(1L));
+  }
+
+  @Test
+  public void readsAreNotHedgedUntilUsualLatencyIsKnown() {
+    StorageReadPolicy.Latencies latencies = new StorageReadPolicy.Latencies();
+
+    for (int read = 1; read < 20; read++) {
+      latencies.record(read);
+    }
+
+    assertThat(latencies.percentile(95), is(-1L));
+
+    latencies.record(20);
+
+    assertThat(latencies.percentile(95), is(19L));
+    assertThat(latencies.percentile(50), is(10L));
+  }
+
+  @Test
+  public void onlyTheMostRecentLatenciesAreUsed() {
+    StorageReadPolicy.Latencies latencies = new StorageReadPolicy.Latencies();
+
+    for (int read = 0; read < 1000; read++) {
+      latencies.record(1000);
+    }
+
+    for (int read = 0; read < 200; read++) {
+      latencies.record(10);
+    }
+
+    assertThat(latencies.percentile(100), is(10L));
+  }
+
+  @Test
+  public void clientWithoutPolicyMakesSingleAttempt() throws Exception {
+    AtomicInteger attempts = new AtomicInteger();
+
+    Integer status = StorageReadPolicy.forClient(vertx.createHttpClient())
+      .read(LOCATION, respondWith(attempts, 503, 200),
+        StorageReadPolicy::isTransient)
+      .get(5, TimeUnit.SECONDS);
+
+    assertThat(status, is(503));
+    assertThat(attempts.get(), is(1));
+  }
+
+  private StorageReadPolicy policy(JsonObject config) {
+    return new StorageReadPolicy(vertx, config
+      .put(StorageReadPolicy.RETRY_INITIAL_BACKOFF_MILLISECONDS, 5), new Random(1));
+  }
+
+  private static Supplier<CompletableFuture<Integer>> respondWith(
+    AtomicInteger attempts,
+    Integer... statusCodes) {
+
+    return () -> CompletableFuture.completedFuture(
+      statusCodes[Math.min(attempts.getAndIncrement(), statusCodes.length - 1)]);
+  }
+}
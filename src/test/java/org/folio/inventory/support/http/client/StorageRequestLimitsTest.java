@@ -0,0 +1,244 @@
+package org.folio.inventory.support.http.client;
+
+import static org.hamcrest.CoreMatchers.is;
+import static org.junit.Assert.assertThat;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+
+import org.junit.Test;
+
+import io.vertx.core.json.JsonObject;
+import support.fakes.FakeClock;
+
+public class StorageRequestLimitsTest {
+  private final FakeClock clock = new FakeClock();
+
+  @Test
+  public void requestsToSameKindOfRecordShareLimits() {
+    assertThat(StorageRequestLimits.pathOf(
+      "http://localhost:9130/item-storage/items/6a1bd5d1-8e1e-4bc5-9e4b-5c7a6e1c2f10"),
+      is("/item-storage/items"));
+
+    assertThat(StorageRequestLimits.pathOf(
+      "http://localhost:9130/item-storage/items?query=barcode%3D%3D123&limit=1"),
+      is("/item-storage/items"));
+
+    assertThat(StorageRequestLimits.pathOf(
+      "http://localhost:9130/material-types/1a54b431-2e4f-452d-9cae-9cee66c9a892"),
+      is("/material-types"));
+  }
+
+  @Test
+  public void requestsBeyondLimitWaitForRequestsInProgress() {
+    StorageRequestLimits limits = limits(1, 5, 2);
+
+    StorageRequestLimits.Permit inProgress = permit(limits,
+      "http://storage/item-storage/items");
+
+    CompletableFuture<StorageRequestLimits.Permit> first = limits.acquire(
+      "http://storage/item-storage/items");
+
+    CompletableFuture<StorageRequestLimits.Permit> second = limits.acquire(
+      "http://storage/item-storage/items");
+
+    assertThat(first.isDone(), is(false));
+    assertThat(second.isDone(), is(false));
+
+    inProgress.completed(200);
+
+    assertThat(first.isDone(), is(true));
+    assertThat(second.isDone(), is(false));
+
+    first.join().completed(200);
+
+    assertThat(second.isDone(), is(true));
+  }
+
+  @Test
+  public void requestsBeyondLimitAndQueueAreRejected() {
+    StorageRequestLimits limits = limits(2, 5, 1);
+
+    permit(limits, "http://storage/item-storage/items");
+    permit(limits, "http://storage/item-storage/items");
+
+    limits.acquire("http://storage/item-storage/items");
+
+    assertRejected(limits, "http://storage/item-storage/items");
+
+    //Other paths have their own limit
+    permit(limits, "http://storage/holdings-storage/holdings");
+  }
+
+  @Test
+  public void waitingRequestsAreRejectedWhenCircuitOpens() {
+    StorageRequestLimits limits = limits(1, 1, 1);
+
+    StorageRequestLimits.Permit inProgress = permit(limits,
+      "http://storage/item-storage/items");
+
+    CompletableFuture<StorageRequestLimits.Permit> waiting = limits.acquire(
+      "http://storage/item-storage/items");
+
+    inProgress.failed();
+
+    assertThat(waiting.isCompletedExceptionally(), is(true));
+  }
+
+  @Test
+  public void limitIsReducedWhenRequestsFail() {
+    AdaptiveConcurrencyLimit limit = new AdaptiveConcurrencyLimit(10, 2, 20,
+      1000, 0.5);
+
+    limit.tryAcquire();
+    limit.release(10, false);
+
+    assertThat(limit.getLimit(), is(5));
+
+    limit.tryAcquire();
+    limit.release(5000, true);
+
+    assertThat(limit.getLimit(), is(2));
+
+    limit.tryAcquire();
+    limit.release(5000, true);
+
+    assertThat(limit.getLimit(), is(2));
+  }
+
+  @Test
+  public void limitGrowsWhenRequestsAreTimely() {
+    AdaptiveConcurrencyLimit limit = new AdaptiveConcurrencyLimit(4, 2, 20,
+      1000, 0.5);
+
+    for (int request = 0; request < 8; request++) {
+      limit.tryAcquire();
+      limit.release(10, true);
+    }
+
+    assertThat(limit.getLimit(), is(5));
+  }
+
+  @Test
+  public void circuitOpensAfterConsecutiveFailures() {
+    StorageRequestLimits limits = limits(10, 3);
+
+    for (int request = 0; request < 3; request++) {
+      permit(limits, "http://storage/item-storage/items").completed(500);
+    }
+
+    assertRejected(limits, "http://storage/item-storage/items");
+  }
+
+  @Test
+  public void successfulTrialRequestClosesCircuit() {
+    StorageRequestLimits limits = limits(10, 1);
+
+    permit(limits, "http://storage/item-storage/items").failed();
+
+    assertRejected(limits, "http://storage/item-storage/items");
+
+    clock.advance(10000);
+
+    StorageRequestLimits.Permit trial = permit(limits,
+      "http://storage/item-storage/items");
+
+    //Only the trial request is allowed until it completes
+    assertRejected(limits, "http://storage/item-storage/items");
+
+    trial.completed(200);
+
+    permit(limits, "http://storage/item-storage/items");
+    permit(limits, "http://storage/item-storage/items");
+  }
+
+  @Test
+  public void failedTrialRequestOpensCircuitAgain() {
+    StorageRequestLimits limits = limits(10, 1);
+
+    permit(limits, "http://storage/item-storage/items").failed();
+
+    clock.advance(10000);
+
+    permit(limits, "http://storage/item-storage/items").completed(503);
+
+    assertRejected(limits, "http://storage/item-storage/items");
+  }
+
+  @Test
+  public void permitIsOnlyGivenUpOnce() {
+    StorageRequestLimits limits = limits(1, 5);
+
+    StorageRequestLimits.Permit permit = permit(limits,
+      "http://storage/item-storage/items");
+
+    //Failure keeps the limit at the minimum
+    permit.failed();
+    permit.completed(200);
+
+    StorageRequestLimits.Permit next = permit(limits,
+      "http://storage/item-storage/items");
+
+    assertRejected(limits, "http://storage/item-storage/items");
+
+    next.completed(200);
+  }
+
+  @Test
+  public void requestsAreNotLimitedWhenDisabled() {
+    StorageRequestLimits limits = new StorageRequestLimits(new JsonObject()
+      .put(StorageRequestLimits.CONCURRENCY_LIMIT_ENABLED, "false")
+      .put(StorageRequestLimits.CONCURRENCY_LIMIT_INITIAL, 1)
+      .put(StorageRequestLimits.CONCURRENCY_LIMIT_MINIMUM, 1), clock);
+
+    permit(limits, "http://storage/item-storage/items");
+    permit(limits, "http://storage/item-storage/items");
+  }
+
+  private StorageRequestLimits limits(int initialLimit, int failureThreshold) {
+    return limits(initialLimit, failureThreshold, 0);
+  }
+
+  private StorageRequestLimits limits(
+    int initialLimit,
+    int failureThreshold,
+    int queueSize) {
+
+    return new StorageRequestLimits(new JsonObject()
+      .put(StorageRequestLimits.CONCURRENCY_LIMIT_INITIAL, initialLimit)
+      .put(StorageRequestLimits.CONCURRENCY_LIMIT_MINIMUM, 1)
+      //Kept from growing, so that places only become free as requests complete
+      .put(StorageRequestLimits.CONCURRENCY_LIMIT_MAXIMUM, initialLimit)
+      .put(StorageRequestLimits.CONCURRENCY_LIMIT_QUEUE_SIZE, queueSize)
+      .put(StorageRequestLimits.CIRCUIT_BREAKER_FAILURE_THRESHOLD, failureThreshold)
+      .put(StorageRequestLimits.CIRCUIT_BREAKER_OPEN_MILLISECONDS, 10000), clock);
+  }
+
+  private static StorageRequestLimits.Permit permit(
+    StorageRequestLimits limits,
+    String location) {
+
+    StorageRequestLimits.Permit permit = limits.acquire(location).getNow(null);
+
+    if(permit == null) {
+      throw new AssertionError(String.format("Request to %s should be allowed", location));
+    }
+
+    return permit;
+  }
+
+  private static void assertRejected(StorageRequestLimits limits, String location) {
+    CompletableFuture<StorageRequestLimits.Permit> acquired = limits.acquire(location);
+
+    if(!acquired.isCompletedExceptionally()) {
+      throw new AssertionError(String.format("Request to %s should be rejected", location));
+    }
+
+    try {
+      acquired.join();
+    }
+    catch(CompletionException e) {
+      assertThat(e.getCause() instanceof StorageUnavailableException, is(true));
+    }
+  }
+}
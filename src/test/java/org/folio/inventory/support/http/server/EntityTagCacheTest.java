@@ -0,0 +1,67 @@
+package org.folio.inventory.support.http.server;
+
+import static org.hamcrest.CoreMatchers.is;
+import static org.hamcrest.CoreMatchers.nullValue;
+import static org.junit.Assert.assertThat;
+
+import org.junit.Test;
+
+public class EntityTagCacheTest {
+  @Test
+  public void invalidatingATenantForgetsAllOfItsEntries() {
+    EntityTagCache cache = new EntityTagCache(10, 60);
+
+    cache.put(cache.keyFor("tenant", "/inventory/items", "1"), "W/\"1\"");
+    cache.put(cache.keyFor("tenant", "/inventory/instances", "2"), "W/\"2\"");
+
+    cache.invalidate("tenant");
+
+    assertThat(cache.get(cache.keyFor("tenant", "/inventory/items", "1")),
+      is(nullValue()));
+    assertThat(cache.get(cache.keyFor("tenant", "/inventory/instances", "2")),
+      is(nullValue()));
+  }
+
+  @Test
+  public void invalidatingATenantKeepsOtherTenantsEntries() {
+    EntityTagCache cache = new EntityTagCache(10, 60);
+
+    cache.put(cache.keyFor("tenant", "/inventory/items", "1"), "W/\"1\"");
+    cache.put(cache.keyFor("other", "/inventory/items", "1"), "W/\"other\"");
+
+    cache.invalidate("tenant");
+
+    assertThat(cache.get(cache.keyFor("other", "/inventory/items", "1")),
+      is("W/\"other\""));
+  }
+
+  @Test
+  public void entriesCanBeAddedOnceInvalidated() {
+    EntityTagCache cache = new EntityTagCache(10, 60);
+
+    cache.put(cache.keyFor("tenant", "/inventory/items", "1"), "W/\"1\"");
+
+    cache.invalidate("tenant");
+
+    cache.put(cache.keyFor("tenant", "/inventory/items", "1"), "W/\"2\"");
+
+    assertThat(cache.get(cache.keyFor("tenant", "/inventory/items", "1")),
+      is("W/\"2\""));
+  }
+
+  @Test
+  public void tagFetchedBeforeAChangeIsNotFoundAfterIt() {
+    EntityTagCache cache = new EntityTagCache(10, 60);
+
+    //Taken before the record is fetched
+    String key = cache.keyFor("tenant", "/inventory/items", "1");
+
+    //Change made whilst the record is being fetched
+    cache.invalidate("tenant");
+
+    cache.put(key, "W/\"before change\"");
+
+    assertThat(cache.get(cache.keyFor("tenant", "/inventory/items", "1")),
+      is(nullValue()));
+  }
+}
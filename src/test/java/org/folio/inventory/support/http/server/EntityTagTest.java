@@ -0,0 +1,84 @@
+package org.folio.inventory.support.http.server;
+
+import static org.hamcrest.CoreMatchers.is;
+import static org.hamcrest.CoreMatchers.not;
+import static org.junit.Assert.assertThat;
+
+import org.junit.Test;
+
+import io.vertx.core.json.JsonObject;
+
+public class EntityTagTest {
+  @Test
+  public void tagsAreWeak() {
+    assertThat(EntityTag.of("id", "2018-11-01").startsWith("W/\""), is(true));
+  }
+
+  @Test
+  public void tagChangesWhenAnyPartChanges() {
+    String tag = EntityTag.of("id", "2018-11-01", "location@1");
+
+    assertThat(EntityTag.of("id", "2018-11-01", "location@1"), is(tag));
+    assertThat(EntityTag.of("id", "2018-11-02", "location@1"), not(is(tag)));
+    assertThat(EntityTag.of("id", "2018-11-01", "location@2"), not(is(tag)));
+    assertThat(EntityTag.of("id", "2018-11-01", null), not(is(tag)));
+  }
+
+  @Test
+  public void partsAreNotRunTogether() {
+    assertThat(EntityTag.of("ab", "c"), not(is(EntityTag.of("a", "bc"))));
+  }
+
+  @Test
+  public void versionIsPreferredToUpdatedDate() {
+    JsonObject record = new JsonObject()
+      .put("id", "1")
+      .put("_version", 3)
+      .put("metadata", new JsonObject().put("updatedDate", "2018-11-01"));
+
+    assertThat(EntityTag.versionOf(record), is("3"));
+  }
+
+  @Test
+  public void updatedDateIsUsedWithoutVersion() {
+    JsonObject record = new JsonObject()
+      .put("id", "1")
+      .put("metadata", new JsonObject().put("updatedDate", "2018-11-01"));
+
+    assertThat(EntityTag.versionOf(record), is("2018-11-01"));
+    assertThat(EntityTag.versionOrContentOf(record), is("1@2018-11-01"));
+  }
+
+  @Test
+  public void contentIsUsedWithoutVersionOrUpdatedDate() {
+    JsonObject record = new JsonObject().put("id", "1").put("name", "Book");
+
+    assertThat(EntityTag.versionOrContentOf(record), is(record.encode()));
+  }
+
+  @Test
+  public void matchesAnyTagInIfNoneMatch() {
+    String tag = EntityTag.of("id", "2018-11-01");
+
+    assertThat(EntityTag.matches(String.format("W/\"other\", %s", tag), tag), is(true));
+  }
+
+  @Test
+  public void matchesUsingWeakComparison() {
+    String tag = EntityTag.of("id", "2018-11-01");
+
+    assertThat(EntityTag.matches(tag.substring(2), tag), is(true));
+  }
+
+  @Test
+  public void anyTagMatchesStar() {
+    assertThat(EntityTag.matches("*", EntityTag.of("id")), is(true));
+  }
+
+  @Test
+  public void doesNotMatchOtherTags() {
+    assertThat(EntityTag.matches("W/\"other\"", EntityTag.of("id")), is(false));
+    assertThat(EntityTag.matches(null, EntityTag.of("id")), is(false));
+    assertThat(EntityTag.matches("*", null), is(false));
+  }
+}
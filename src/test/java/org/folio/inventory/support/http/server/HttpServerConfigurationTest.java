@@ -0,0 +1,29 @@
+package org.folio.inventory.support.http.server;
+
+import static org.hamcrest.CoreMatchers.is;
+import static org.junit.Assert.assertThat;
+
+import org.junit.Test;
+
+import io.vertx.core.http.HttpServerOptions;
+import io.vertx.core.json.JsonObject;
+
+public class HttpServerConfigurationTest {
+  @Test
+  public void compressionIsSupportedByDefault() {
+    HttpServerOptions options = HttpServerConfiguration.fromConfig(new JsonObject());
+
+    assertThat(options.isCompressionSupported(), is(true));
+    assertThat(options.getCompressionLevel(), is(4));
+  }
+
+  @Test
+  public void compressionCanBeConfiguredUsingStrings() {
+    HttpServerOptions options = HttpServerConfiguration.fromConfig(new JsonObject()
+      .put(HttpServerConfiguration.COMPRESSION, "false")
+      .put(HttpServerConfiguration.COMPRESSION_LEVEL, "9"));
+
+    assertThat(options.isCompressionSupported(), is(false));
+    assertThat(options.getCompressionLevel(), is(9));
+  }
+}
@@ -124,6 +124,9 @@ public class FakeCQLToJSONInterpreter {
         printDiagnostics(() -> "Either term or field are null, aborting filtering");
         return true;
       }
+      else if (field.trim().equals("cql.allRecords")) {
+        return true;
+      }
       else {
         propertyValue = getPropertyValue(record, field);
 
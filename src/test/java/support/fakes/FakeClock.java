@@ -0,0 +1,32 @@
+package support.fakes;
+
+import java.time.Clock;
+import java.time.Instant;
+import java.time.ZoneId;
+import java.time.ZoneOffset;
+
+/**
+ * Clock which only moves when told to
+ */
+public class FakeClock extends Clock {
+  private long millis = 1000000;
+
+  public void advance(long milliseconds) {
+    millis += milliseconds;
+  }
+
+  @Override
+  public ZoneId getZone() {
+    return ZoneOffset.UTC;
+  }
+
+  @Override
+  public Clock withZone(ZoneId zone) {
+    return this;
+  }
+
+  @Override
+  public Instant instant() {
+    return Instant.ofEpochMilli(millis);
+  }
+}